@@ -0,0 +1,554 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.GenericTag;
+import domain.logic.item.Item;
+import domain.logic.item.ItemImportRow;
+
+/**
+ * A {@link DB} that keeps the items of recently used containers in memory. The
+ * first read of a container loads all its items, with their custom tags and
+ * notes, with one query; later calls to {@link #getItem}, {@link #retrieveItems},
+ * {@link #retrieveAnnotatedItems}, {@link #forEachItem}, {@link #getTotalCount}
+ * and {@link #getFoodGroupCounts} for that container are answered from memory. Writes made through this
+ * object go to the database and are applied to the cached copy as well.
+ *
+ * At most {@code maxContainers} containers are held; the least recently used
+ * one is evicted when another is loaded. Callers always get copies of the
+ * cached items, so changing a returned item does not change the cache.
+ *
+ * Writes made by other clients are picked up by {@link #sync()}, which reads
+ * only the items, tags and notes changed since the last sync, either when called or every
+ * interval once {@link #startSync(long)} has been called.
+ */
+public class CachedDB extends DB {
+
+	/**
+	 * Default number of containers kept in memory.
+	 */
+	public static final int DEFAULT_MAX_CONTAINERS = 32;
+
+	private final int maxContainers;
+	private final LinkedHashMap<String, LinkedHashMap<String, Item>> containers;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	/**
+	 * The change version the cached containers are current to, or -1 before
+	 * the first load.
+	 */
+	private long syncVersion = -1;
+	private ScheduledExecutorService syncer;
+
+	/**
+	 * Creates a cache holding up to {@link #DEFAULT_MAX_CONTAINERS} containers.
+	 */
+	public CachedDB() {
+		this(DEFAULT_MAX_CONTAINERS);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param maxContainers The number of containers kept in memory.
+	 */
+	public CachedDB(int maxContainers) {
+		if (maxContainers <= 0) {
+			throw new IllegalArgumentException("Cache size must be greater than 0");
+		}
+		this.maxContainers = maxContainers;
+		this.containers = new LinkedHashMap<String, LinkedHashMap<String, Item>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, LinkedHashMap<String, Item>> eldest) {
+				if (size() > CachedDB.this.maxContainers) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @return Reads answered from memory.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return Reads that had to load a container from the database.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return Containers dropped to make room for others.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return The number of containers currently held in memory.
+	 */
+	public synchronized int getCachedContainerCount() {
+		return containers.size();
+	}
+
+	/**
+	 * Drops every cached container, so the next reads go to the database.
+	 */
+	public synchronized void invalidateAll() {
+		containers.clear();
+	}
+
+	/**
+	 * Drops one cached container, so its next read goes to the database.
+	 *
+	 * @param containerName The name of the container.
+	 */
+	public synchronized void invalidate(String containerName) {
+		containers.remove(containerName);
+	}
+
+	/**
+	 * Applies the item, tag and note changes made since the last sync, by this
+	 * or any other client, to the cached containers with two queries. Changes that alter the
+	 * cache are published on the change bus, so views showing those containers
+	 * update as well; this client's own writes are already cached and are not
+	 * published again.
+	 *
+	 * If the change log was pruned past the last sync, every cached container
+	 * is dropped instead and a reload is published, so the containers and the
+	 * views showing them are read from the database again.
+	 *
+	 * @return The number of cached items changed or dropped, or -1 if the
+	 *         changes could not be read.
+	 */
+	public int sync() {
+		long version;
+		synchronized (this) {
+			version = syncVersion;
+		}
+		if (version < 0) {
+			// Nothing loaded yet, so there is nothing to bring up to date
+			return startVersion() < 0 ? -1 : 0;
+		}
+		ChangeSet changes = getItemChangesSince(version);
+		ChangeSet annotations = changes == null ? null : getAnnotationChangesSince(version);
+		if (annotations == null) {
+			return -1;
+		}
+		// Changes read by both queries are applied again by the next sync
+		long next = Math.min(changes.getVersion(), annotations.getVersion());
+		if (changes.isReloadNeeded() || annotations.isReloadNeeded()) {
+			// The log no longer reaches back to the last sync, so the cache may
+			// have missed changes; read the containers again
+			int dropped;
+			synchronized (this) {
+				dropped = 0;
+				for (Map<String, Item> items : containers.values()) {
+					dropped += items.size();
+				}
+				containers.clear();
+				syncVersion = next;
+			}
+			super.publish(ChangeEvent.pantryReloaded());
+			return dropped;
+		}
+
+		List<ChangeEvent> applied = new ArrayList<ChangeEvent>();
+		synchronized (this) {
+			for (ChangeEvent e : changes.getChanges()) {
+				Map<String, Item> items = containers.get(e.getContainer());
+				if (items == null) {
+					continue;
+				}
+				if (e.getAction() == ChangeEvent.Action.REMOVED) {
+					if (items.remove(e.getName()) != null) {
+						applied.add(e);
+					}
+				} else {
+					Item item = e.getItem();
+					Item previous = items.put(e.getName(), item);
+					if (previous == null || !sameValues(previous, item)) {
+						applied.add(e);
+					}
+				}
+			}
+			for (ChangeEvent e : annotations.getChanges()) {
+				if (annotate(e)) {
+					applied.add(e);
+				}
+			}
+			syncVersion = next;
+		}
+		for (ChangeEvent e : applied) {
+			super.publish(e);
+		}
+		return applied.size();
+	}
+
+	/**
+	 * Calls {@link #sync()} on a background thread every interval until
+	 * {@link #stopSync()} is called.
+	 *
+	 * @param intervalMillis The time between syncs.
+	 */
+	public synchronized void startSync(long intervalMillis) {
+		if (syncer != null) {
+			return;
+		}
+		syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "cache-sync");
+			t.setDaemon(true);
+			return t;
+		});
+		syncer.scheduleWithFixedDelay(this::sync, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background syncs.
+	 */
+	public synchronized void stopSync() {
+		if (syncer != null) {
+			syncer.shutdown();
+			syncer = null;
+		}
+	}
+
+	@Override
+	public Item getItem(Container c, String itemName) {
+		Map<String, Item> items = load(c);
+		if (items == null) {
+			return super.getItem(c, itemName);
+		}
+		synchronized (this) {
+			Item item = items.get(itemName);
+			return item == null ? null : Item.getInstance(item);
+		}
+	}
+
+	@Override
+	public List<Item> retrieveItems(Container c) {
+		Map<String, Item> items = load(c);
+		if (items == null) {
+			return null;
+		}
+		return copies(items);
+	}
+
+	@Override
+	public List<Item> retrieveAnnotatedItems(Container c) {
+		Map<String, Item> items = load(c);
+		if (items == null) {
+			return null;
+		}
+		synchronized (this) {
+			List<Item> l = new ArrayList<Item>(items.size());
+			for (Item item : items.values()) {
+				Item copy = Item.getInstance(item);
+				copy.addCustomTag(item.getCustomTag());
+				copy.setCustomNote(item.getCustomNote());
+				l.add(copy);
+			}
+			return l;
+		}
+	}
+
+	@Override
+	public boolean forEachItem(Container c, Consumer<Item> action) {
+		Map<String, Item> items = load(c);
+		if (items == null) {
+			return false;
+		}
+		copies(items).forEach(action);
+		return true;
+	}
+
+	/**
+	 * Lists the food groups of a container that is already cached from memory.
+	 * Other containers, and the total over every container, are counted by the
+	 * database rather than loaded into the cache.
+	 */
+	@Override
+	public ArrayList<String> getTotalCount(String container) {
+		if (container != null) {
+			synchronized (this) {
+				Map<String, Item> items = containers.get(container);
+				if (items != null) {
+					hits++;
+					ArrayList<String> l = new ArrayList<String>();
+					for (Item item : items.values()) {
+						if (item.getFoodGroupTag() != null && item.getFoodGroupTag().getTag() != null) {
+							l.add(item.getFoodGroupTag().getTag().getDisplayName());
+						}
+					}
+					return l;
+				}
+			}
+		}
+		return super.getTotalCount(container);
+	}
+
+	/**
+	 * Counts a container that is already cached from memory. Other containers,
+	 * and the total over every container, are counted by the database rather
+	 * than loaded into the cache.
+	 */
+	@Override
+	public EnumMap<FoodGroup, Integer> getFoodGroupCounts(String container) {
+		if (container != null) {
+			synchronized (this) {
+				Map<String, Item> items = containers.get(container);
+				if (items != null) {
+					hits++;
+					EnumMap<FoodGroup, Integer> counts = emptyFoodGroupCounts();
+					for (Item item : items.values()) {
+						if (item.getFoodGroupTag() != null && item.getFoodGroupTag().getTag() != null) {
+							counts.merge(item.getFoodGroupTag().getTag(), 1, Integer::sum);
+						}
+					}
+					return counts;
+				}
+			}
+		}
+		return super.getFoodGroupCounts(container);
+	}
+
+	@Override
+	public Boolean addItem(Container c, String name, Item ite) {
+		Boolean added = super.addItem(c, name, ite);
+		if (added) {
+			Item stored = getAnnotatedItem(c, name);
+			synchronized (this) {
+				Map<String, Item> items = containers.get(c.getName());
+				if (items != null && stored != null) {
+					items.put(name, stored);
+				} else {
+					containers.remove(c.getName());
+				}
+			}
+		}
+		return added;
+	}
+
+	@Override
+	public List<AddItemOutcome> addItems(Container c, Collection<Item> items) {
+		List<AddItemOutcome> outcomes = super.addItems(c, items);
+		invalidate(c.getName());
+		return outcomes;
+	}
+
+	@Override
+	public List<ItemImportRow> importItems(Iterator<ItemImportRow> rows) {
+		List<ItemImportRow> duplicates = super.importItems(rows);
+		invalidateAll();
+		return duplicates;
+	}
+
+	/**
+	 * Brings the cache up to date with a write this client stored. The database
+	 * publishes a write only once it changed a row, so item removals, quantity
+	 * and food group updates, emptied containers and tag and note edits are
+	 * applied here rather than after the write returns, and a write that failed
+	 * leaves the cache alone.
+	 */
+	@Override
+	protected void publish(ChangeEvent event) {
+		if (event.getTarget() == ChangeEvent.Target.ITEM && event.getContainer() != null) {
+			synchronized (this) {
+				Map<String, Item> items = containers.get(event.getContainer());
+				if (items != null) {
+					apply(items, event);
+				}
+			}
+		} else if (event.getTarget() == ChangeEvent.Target.TAG || event.getTarget() == ChangeEvent.Target.NOTE) {
+			annotate(event);
+		}
+		super.publish(event);
+	}
+
+	@Override
+	public void removeContainer(String name) {
+		super.removeContainer(name);
+		invalidate(name);
+	}
+
+	@Override
+	public void editContainer(String prevName, String newName) {
+		super.editContainer(prevName, newName);
+		synchronized (this) {
+			containers.remove(prevName);
+			containers.remove(newName);
+		}
+	}
+
+	@Override
+	protected boolean commit(UnitOfWork unit) {
+		boolean committed = super.commit(unit);
+		synchronized (this) {
+			for (String name : unit.getContainers()) {
+				containers.remove(name);
+			}
+		}
+		return committed;
+	}
+
+	@Override
+	public int refreshFreshness() {
+		int changed = super.refreshFreshness();
+		if (changed != 0) {
+			invalidateAll();
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the cached items of a container, loading them with one query on a
+	 * miss, or null if they could not be loaded.
+	 */
+	private Map<String, Item> load(Container c) {
+		synchronized (this) {
+			LinkedHashMap<String, Item> items = containers.get(c.getName());
+			if (items != null) {
+				hits++;
+				return items;
+			}
+			misses++;
+		}
+
+		long version = startVersion();
+		List<Item> read = super.retrieveAnnotatedItems(c);
+		if (read == null) {
+			return null;
+		}
+		LinkedHashMap<String, Item> items = new LinkedHashMap<String, Item>();
+		for (Item item : read) {
+			items.put(item.getName(), item);
+		}
+		synchronized (this) {
+			LinkedHashMap<String, Item> raced = containers.get(c.getName());
+			if (raced != null) {
+				return raced;
+			}
+			// A sync that ran during the read may have skipped changes the read
+			// did not see, so the items are only cached if none did
+			if (syncVersion == version) {
+				containers.put(c.getName(), items);
+			}
+			return items;
+		}
+	}
+
+	/**
+	 * Returns the version syncs start from, reading it before the first load so
+	 * that changes made while a container is read are caught by the next sync.
+	 */
+	private long startVersion() {
+		synchronized (this) {
+			if (syncVersion >= 0) {
+				return syncVersion;
+			}
+		}
+		long version = getChangeVersion();
+		synchronized (this) {
+			if (syncVersion < 0) {
+				syncVersion = version;
+			}
+			return syncVersion;
+		}
+	}
+
+	private static boolean sameValues(Item a, Item b) {
+		return a.getQuantity() == b.getQuantity() && Objects.equals(a.getExpiryDate(), b.getExpiryDate())
+				&& Objects.equals(tagOf(a.getFoodGroupTag()), tagOf(b.getFoodGroupTag()))
+				&& Objects.equals(tagOf(a.getFoodFreshnessTag()), tagOf(b.getFoodFreshnessTag()))
+				&& a.getCustomTag().equals(b.getCustomTag()) && a.getCustomNote().equals(b.getCustomNote());
+	}
+
+	private static Object tagOf(GenericTag<?> tag) {
+		return tag == null ? null : tag.getTag();
+	}
+
+	private static void apply(Map<String, Item> items, ChangeEvent event) {
+		if (event.getAction() == ChangeEvent.Action.REMOVED) {
+			if (event.getName() == null) {
+				items.clear();
+			} else {
+				items.remove(event.getName());
+			}
+		} else if (event.getAction() == ChangeEvent.Action.UPDATED) {
+			Item item = items.get(event.getName());
+			if (item == null) {
+				return;
+			}
+			if (event.getQuantity() != null) {
+				item.setQuantity(event.getQuantity());
+			}
+			if (event.getFoodGroup() != null) {
+				item.setFoodGroupTag(event.getFoodGroup());
+			}
+		}
+	}
+
+	/**
+	 * Applies a tag or note event to every cached item of its name, since tags
+	 * and notes belong to an item name rather than to one container. An added
+	 * tag shows only if it sorts first and an added note is appended, as the
+	 * database reads them.
+	 *
+	 * @return true if any cached item changed.
+	 */
+	private synchronized boolean annotate(ChangeEvent event) {
+		boolean changed = false;
+		for (Map<String, Item> items : containers.values()) {
+			Item item = items.get(event.getName());
+			if (item == null) {
+				continue;
+			}
+			String value = event.getValue() == null ? "" : event.getValue();
+			if (event.getTarget() == ChangeEvent.Target.TAG) {
+				String tag = item.getCustomTag();
+				if (event.getAction() == ChangeEvent.Action.ADDED && !tag.isEmpty() && tag.compareTo(value) <= 0) {
+					continue;
+				}
+				item.addCustomTag(value);
+				changed |= !tag.equals(value);
+			} else {
+				String note = item.getCustomNote();
+				if (event.getAction() == ChangeEvent.Action.ADDED && !note.isEmpty()) {
+					value = note + "\n" + value;
+				}
+				item.setCustomNote(value);
+				changed |= !note.equals(value);
+			}
+		}
+		return changed;
+	}
+
+	private synchronized List<Item> copies(Map<String, Item> items) {
+		List<Item> l = new ArrayList<Item>(items.size());
+		for (Item item : items.values()) {
+			l.add(Item.getInstance(item));
+		}
+		return l;
+	}
+}
@@ -0,0 +1,180 @@
+package database;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the {@link ChangeEvent}s of one {@link Storage} to its subscribers.
+ * Publishing never blocks the writer: each subscriber has its own bounded
+ * queue, drained in order on a shared pool of daemon threads, so a slow view
+ * only delays itself.
+ *
+ * When a subscriber's queue is full the event is dropped for that subscriber.
+ * Once it has caught up with the events queued before the gap it receives
+ * {@link ChangeEvent#pantryReloaded()}, telling it to read what it shows again
+ * rather than apply deltas it partly missed. Nothing is queued while there are
+ * no subscribers.
+ */
+public class ChangeBus {
+
+	/**
+	 * Default number of events a subscriber may fall behind by before events
+	 * are dropped for it.
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 256;
+
+	private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "change-bus");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final SubmissionPublisher<Delivery> publisher;
+	private long sequence;
+
+	public ChangeBus() {
+		this(DEFAULT_QUEUE_SIZE);
+	}
+
+	/**
+	 * @param queueSize The number of events each subscriber may fall behind by,
+	 *                  rounded up to a power of two.
+	 */
+	public ChangeBus(int queueSize) {
+		publisher = new SubmissionPublisher<Delivery>(DELIVERY, queueSize);
+	}
+
+	/**
+	 * Queues an event for every subscriber, without waiting for any of them.
+	 * Called by the storage after a write is stored.
+	 *
+	 * @param event The change.
+	 */
+	public synchronized void publish(ChangeEvent event) {
+		if (publisher.hasSubscribers()) {
+			publisher.offer(new Delivery(++sequence, event), (subscriber, dropped) -> {
+				((Listener) subscriber).dropped(dropped.sequence);
+				return false;
+			});
+		}
+	}
+
+	/**
+	 * Calls a listener with every event published from now on, in publishing
+	 * order, on a bus thread.
+	 *
+	 * @param listener Receives the events; exceptions it throws are printed and
+	 *                 do not cancel the subscription.
+	 * @return A handle that stops the deliveries when closed.
+	 */
+	public AutoCloseable subscribe(Consumer<ChangeEvent> listener) {
+		Listener l = new Listener(listener);
+		publisher.subscribe(l);
+		return l;
+	}
+
+	/**
+	 * @return The number of subscriptions that have not been closed. A closed
+	 *         subscription is not counted even while its cancellation is still
+	 *         being processed.
+	 */
+	public int getSubscriberCount() {
+		int count = 0;
+		for (Flow.Subscriber<? super Delivery> s : publisher.getSubscribers()) {
+			if (!((Listener) s).closed) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static final class Delivery {
+		final long sequence;
+		final ChangeEvent event;
+
+		Delivery(long sequence, ChangeEvent event) {
+			this.sequence = sequence;
+			this.event = event;
+		}
+	}
+
+	private static final class Listener implements Flow.Subscriber<Delivery>, AutoCloseable {
+		private final Consumer<ChangeEvent> listener;
+		private volatile Flow.Subscription subscription;
+		/**
+		 * The last event delivered before events were dropped, after which a
+		 * reload is due, or -1.
+		 */
+		private final AtomicLong reloadAfter = new AtomicLong(-1);
+		private long lastDropped = -1;
+		private volatile boolean closed;
+
+		Listener(Consumer<ChangeEvent> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription s) {
+			subscription = s;
+			if (closed) {
+				s.cancel();
+			} else {
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		/**
+		 * Called by the publishing thread when an event did not fit the queue.
+		 * The event before it is still queued, unless it was dropped too, in
+		 * which case the gap it started is only extended.
+		 */
+		void dropped(long sequence) {
+			if (lastDropped != sequence - 1) {
+				reloadAfter.set(sequence - 1);
+			}
+			lastDropped = sequence;
+		}
+
+		@Override
+		public void onNext(Delivery d) {
+			deliver(d.event);
+			long after = reloadAfter.get();
+			if (after >= 0 && d.sequence >= after && reloadAfter.compareAndSet(after, -1)) {
+				deliver(ChangeEvent.pantryReloaded());
+			}
+		}
+
+		private void deliver(ChangeEvent event) {
+			if (closed) {
+				return;
+			}
+			try {
+				listener.accept(event);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			t.printStackTrace();
+		}
+
+		@Override
+		public void onComplete() {
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			Flow.Subscription s = subscription;
+			if (s != null) {
+				s.cancel();
+			}
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package database;
+
+import domain.logic.item.FoodFreshness;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.GenericTag;
+import domain.logic.item.Item;
+import domain.logic.recipe.Recipe;
+
+/**
+ * A change made through a {@link Storage}, published on its {@link ChangeBus}
+ * once the write has been stored. An event says what kind of row changed and
+ * how, and carries enough of the new state for a view or cache to apply it
+ * without reading the row back.
+ *
+ * An event with a null container or name covers more than one row: emptying a
+ * container removes every item in it, and a reload of a container, or of the
+ * whole pantry, means anything in it may have changed.
+ */
+public final class ChangeEvent {
+
+	/**
+	 * The kind of row a change is about.
+	 */
+	public enum Target {
+		CONTAINER, ITEM, TAG, NOTE, GROCERY, RECIPE, SETTINGS, PANTRY
+	}
+
+	/**
+	 * What happened to the row.
+	 */
+	public enum Action {
+		/** The row was inserted. */
+		ADDED,
+		/** The row was changed in place. */
+		UPDATED,
+		/** The row was deleted. */
+		REMOVED,
+		/** Any number of rows may have changed and should be read again. */
+		RELOADED
+	}
+
+	/**
+	 * The name of a {@link Target#SETTINGS} event changing the font size.
+	 */
+	public static final String FONT_SIZE = "fontsize";
+
+	/**
+	 * The name of a {@link Target#SETTINGS} event changing the notification
+	 * setting.
+	 */
+	public static final String NOTIFICATIONS = "notificationboolean";
+
+	private final Target target;
+	private final Action action;
+	private final String container;
+	private final String name;
+	private final String value;
+	private final Item item;
+	private final Integer quantity;
+	private final FoodGroup foodGroup;
+	private final Recipe recipe;
+
+	private ChangeEvent(Target target, Action action, String container, String name, String value, Item item,
+			Integer quantity, FoodGroup foodGroup, Recipe recipe) {
+		this.target = target;
+		this.action = action;
+		this.container = container;
+		this.name = name;
+		this.value = value;
+		this.item = item;
+		this.quantity = quantity;
+		this.foodGroup = foodGroup;
+		this.recipe = recipe;
+	}
+
+	private static ChangeEvent of(Target target, Action action, String container, String name, String value) {
+		return new ChangeEvent(target, action, container, name, value, null, null, null, null);
+	}
+
+	public static ChangeEvent containerAdded(String name) {
+		return of(Target.CONTAINER, Action.ADDED, name, name, null);
+	}
+
+	public static ChangeEvent containerRemoved(String name) {
+		return of(Target.CONTAINER, Action.REMOVED, name, name, null);
+	}
+
+	/**
+	 * @return An event whose container is the old name and whose value is the
+	 *         new one.
+	 */
+	public static ChangeEvent containerRenamed(String prevName, String newName) {
+		return of(Target.CONTAINER, Action.UPDATED, prevName, prevName, newName);
+	}
+
+	/**
+	 * @return An item removal with no name, covering every item of the container.
+	 */
+	public static ChangeEvent containerEmptied(String container) {
+		return of(Target.ITEM, Action.REMOVED, container, null, null);
+	}
+
+	/**
+	 * @return An item addition carrying a copy of the item. An item without a
+	 *         freshness is given the one stores compute from its expiry date, if
+	 *         it has one.
+	 */
+	public static ChangeEvent itemAdded(String container, Item item) {
+		Item copy = Item.getInstance(item);
+		if (copy.getFoodFreshnessTag() == null && copy.getExpiryDate() != null) {
+			copy.setFoodFreshnessTag(new GenericTag<FoodFreshness>(MemoryStorage.freshnessOf(copy.getExpiryDate())));
+		}
+		return new ChangeEvent(Target.ITEM, Action.ADDED, container, item.getName(), null, copy, item.getQuantity(),
+				null, null);
+	}
+
+	public static ChangeEvent itemRemoved(String container, String itemName) {
+		return of(Target.ITEM, Action.REMOVED, container, itemName, null);
+	}
+
+	public static ChangeEvent quantityUpdated(String container, String itemName, int quantity) {
+		return new ChangeEvent(Target.ITEM, Action.UPDATED, container, itemName, null, null, quantity, null, null);
+	}
+
+	public static ChangeEvent foodGroupUpdated(String container, String itemName, FoodGroup foodGroup) {
+		return new ChangeEvent(Target.ITEM, Action.UPDATED, container, itemName, null, null, null, foodGroup, null);
+	}
+
+	/**
+	 * @param container The container whose items may have changed, or null for
+	 *                  every container.
+	 */
+	public static ChangeEvent itemsReloaded(String container) {
+		return of(Target.ITEM, Action.RELOADED, container, null, null);
+	}
+
+	/**
+	 * @return A tag event; an empty or null tag removes the item's tags.
+	 */
+	public static ChangeEvent tagUpdated(String itemName, String tag) {
+		if (tag == null || tag.isEmpty()) {
+			return tagRemoved(itemName);
+		}
+		return of(Target.TAG, Action.UPDATED, null, itemName, tag);
+	}
+
+	public static ChangeEvent tagAdded(String itemName, String tag) {
+		return of(Target.TAG, Action.ADDED, null, itemName, tag);
+	}
+
+	public static ChangeEvent tagRemoved(String itemName) {
+		return of(Target.TAG, Action.REMOVED, null, itemName, null);
+	}
+
+	public static ChangeEvent noteAdded(String itemName, String note) {
+		return of(Target.NOTE, Action.ADDED, null, itemName, note);
+	}
+
+	/**
+	 * @return A note event; an empty or null note removes the item's notes.
+	 */
+	public static ChangeEvent noteUpdated(String itemName, String note) {
+		if (note == null || note.isEmpty()) {
+			return noteRemoved(itemName);
+		}
+		return of(Target.NOTE, Action.UPDATED, null, itemName, note);
+	}
+
+	public static ChangeEvent noteRemoved(String itemName) {
+		return of(Target.NOTE, Action.REMOVED, null, itemName, null);
+	}
+
+	public static ChangeEvent groceryAdded(String itemName) {
+		return of(Target.GROCERY, Action.ADDED, null, itemName, null);
+	}
+
+	public static ChangeEvent groceryRemoved(String itemName) {
+		return of(Target.GROCERY, Action.REMOVED, null, itemName, null);
+	}
+
+	public static ChangeEvent recipeAdded(Recipe recipe) {
+		return new ChangeEvent(Target.RECIPE, Action.ADDED, null, recipe.getTitle(), null, null, null, null, recipe);
+	}
+
+	public static ChangeEvent recipeRemoved(Recipe recipe) {
+		return new ChangeEvent(Target.RECIPE, Action.REMOVED, null, recipe.getTitle(), null, null, null, null,
+				recipe);
+	}
+
+	/**
+	 * @return A recipe removal with no recipe, covering every starred recipe.
+	 */
+	public static ChangeEvent recipesCleared() {
+		return of(Target.RECIPE, Action.REMOVED, null, null, null);
+	}
+
+	/**
+	 * @param setting {@link #FONT_SIZE} or {@link #NOTIFICATIONS}.
+	 * @param value   The new value, as {@link Storage#getSettings()} returns it.
+	 */
+	public static ChangeEvent settingUpdated(String setting, String value) {
+		return of(Target.SETTINGS, Action.UPDATED, null, setting, value);
+	}
+
+	/**
+	 * @return An event saying anything stored may have changed, sent when a
+	 *         store is reloaded or a subscriber missed events.
+	 */
+	public static ChangeEvent pantryReloaded() {
+		return of(Target.PANTRY, Action.RELOADED, null, null, null);
+	}
+
+	public Target getTarget() {
+		return target;
+	}
+
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * @return The container of an item or container event, or null.
+	 */
+	public String getContainer() {
+		return container;
+	}
+
+	/**
+	 * @return The name of the container, item, grocery, recipe or setting
+	 *         changed, or null if the event covers several.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The new container name, tag, note or setting value, or null.
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * @return A copy of an added item, or null.
+	 */
+	public Item getItem() {
+		return item == null ? null : Item.getInstance(item);
+	}
+
+	/**
+	 * @return The quantity of an added item or a quantity update, or null.
+	 */
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	/**
+	 * @return The new food group of a food group update, or null.
+	 */
+	public FoodGroup getFoodGroup() {
+		return foodGroup;
+	}
+
+	/**
+	 * @return The recipe added or removed, or null.
+	 */
+	public Recipe getRecipe() {
+		return recipe;
+	}
+
+	/**
+	 * Checks whether this event may change the items of a container.
+	 *
+	 * @param containerName The name of the container.
+	 * @return True for item events in that container, reloads that include it,
+	 *         and changes to the container itself.
+	 */
+	public boolean affectsItemsOf(String containerName) {
+		switch (target) {
+		case PANTRY:
+			return true;
+		case ITEM:
+		case CONTAINER:
+			return container == null || container.equals(containerName);
+		default:
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder().append(target).append(' ').append(action);
+		if (container != null && target == Target.ITEM) {
+			sb.append(' ').append(container).append('/');
+		} else {
+			sb.append(' ');
+		}
+		sb.append(name == null ? "*" : name);
+		if (value != null) {
+			sb.append(" \"").append(value).append('"');
+		}
+		if (quantity != null) {
+			sb.append(" x").append(quantity);
+		}
+		if (foodGroup != null) {
+			sb.append(' ').append(foodGroup);
+		}
+		return sb.toString();
+	}
+}
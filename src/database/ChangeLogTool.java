@@ -0,0 +1,49 @@
+package database;
+
+/**
+ * Drops old entries from the change log that clients sync from. Every write
+ * appends to the log and nothing in the application removes entries, so an
+ * operator runs this once a day or so, for example from cron, against the
+ * shared database.
+ *
+ * <pre>
+ * java database.ChangeLogTool prune        (keeps the last 7 days)
+ * java database.ChangeLogTool prune 30
+ * </pre>
+ *
+ * A client that has not synced since before the dropped entries reads its
+ * tables again on its next sync instead of applying changes it partly missed.
+ */
+public class ChangeLogTool {
+
+	/**
+	 * Number of days of changes kept when no retention is given.
+	 */
+	public static final int DEFAULT_RETENTION_DAYS = 7;
+
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 2 || !args[0].equals("prune")) {
+			System.err.println("Usage: ChangeLogTool prune [days]");
+			System.exit(2);
+		}
+		int days = DEFAULT_RETENTION_DAYS;
+		if (args.length == 2) {
+			try {
+				days = Integer.parseInt(args[1]);
+			} catch (NumberFormatException e) {
+				days = -1;
+			}
+			if (days < 0) {
+				System.err.println("The number of days must be 0 or more: " + args[1]);
+				System.exit(2);
+			}
+		}
+		long start = System.nanoTime();
+		int dropped = new DB().pruneChangeLog(days);
+		if (dropped < 0) {
+			System.exit(1);
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		System.err.println("prune: " + dropped + " entries older than " + days + " days in " + millis + " ms");
+	}
+}
@@ -0,0 +1,67 @@
+package database;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rows of one table changed since a client version, read from the
+ * database's change log. Each change is a {@link ChangeEvent}: a row that
+ * exists now is an {@link ChangeEvent.Action#ADDED ADDED} event carrying its
+ * current values, whether it was inserted or updated, and a row that is gone is
+ * a {@link ChangeEvent.Action#REMOVED REMOVED} event carrying only its key. A
+ * client applies them as upserts and deletes, the way views apply events from
+ * the {@link ChangeBus}.
+ *
+ * A change may be reported again by the next call if its transaction was still
+ * close to the version, so applying a change set must be idempotent.
+ *
+ * Old entries are dropped from the log with {@link ChangeLogTool}. A client
+ * asking from a version older than the dropped entries gets a change set that
+ * {@link #isReloadNeeded() needs a reload} instead.
+ */
+public final class ChangeSet {
+
+	private final long version;
+	private final List<ChangeEvent> changes;
+	private final boolean reloadNeeded;
+
+	ChangeSet(long version, List<ChangeEvent> changes, boolean reloadNeeded) {
+		this.version = version;
+		this.changes = Collections.unmodifiableList(changes);
+		this.reloadNeeded = reloadNeeded;
+	}
+
+	/**
+	 * @return The version to pass to the next call, once these changes have
+	 *         been applied.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return The changes, one per row.
+	 */
+	public List<ChangeEvent> getChanges() {
+		return changes;
+	}
+
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	/**
+	 * @return true if changes made since the version asked for were pruned
+	 *         from the log, so these changes are incomplete and the client
+	 *         must read its tables again, keeping {@link #getVersion()} for
+	 *         the next call.
+	 */
+	public boolean isReloadNeeded() {
+		return reloadNeeded;
+	}
+
+	@Override
+	public String toString() {
+		return "ChangeSet " + version + (reloadNeeded ? " reload " : " ") + changes;
+	}
+}
@@ -0,0 +1,216 @@
+package database;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Publisher} that reads its elements from a cursor in chunks, only
+ * as fast as the subscriber asks for them. Each subscription opens its own
+ * cursor on the first request and reads at most {@code min(demand, chunkSize)}
+ * rows at a time, so no more than one chunk is held in memory however large the
+ * result is.
+ *
+ * Elements are delivered on a background thread. The cursor, and for database
+ * cursors the pooled connection behind it, stays open while the subscriber has
+ * no outstanding demand; it is closed once the last row is sent, on error, or
+ * when the subscription is cancelled.
+ */
+class ChunkedPublisher<T> implements Flow.Publisher<T> {
+
+	/**
+	 * A source of rows read a chunk at a time.
+	 */
+	interface Cursor<T> extends AutoCloseable {
+		/**
+		 * Reads up to {@code max} more rows. Fewer rows than asked for means the
+		 * cursor is exhausted.
+		 */
+		List<T> next(int max) throws Exception;
+
+		/**
+		 * Releases the cursor and anything it holds open.
+		 */
+		@Override
+		void close() throws SQLException;
+	}
+
+	/**
+	 * Opens a new cursor for one subscription.
+	 */
+	interface CursorOpener<T> {
+		Cursor<T> open() throws Exception;
+	}
+
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "cursor-publisher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final CursorOpener<T> opener;
+	private final int chunkSize;
+
+	/**
+	 * @param opener    Opens the cursor of each new subscription.
+	 * @param chunkSize The largest number of rows read at once.
+	 */
+	ChunkedPublisher(CursorOpener<T> opener, int chunkSize) {
+		this.opener = opener;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Creates a publisher over an in-memory collection, read through a fresh
+	 * iterator for every subscription.
+	 *
+	 * @param source    The elements to publish.
+	 * @param chunkSize The largest number of elements sent per pass.
+	 * @return A publisher of the elements.
+	 */
+	static <T> ChunkedPublisher<T> of(Iterable<T> source, int chunkSize) {
+		return new ChunkedPublisher<T>(() -> {
+			Iterator<T> it = source.iterator();
+			return new Cursor<T>() {
+				@Override
+				public List<T> next(int max) {
+					List<T> chunk = new ArrayList<T>();
+					while (chunk.size() < max && it.hasNext()) {
+						chunk.add(it.next());
+					}
+					return chunk;
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}, chunkSize);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("subscriber");
+		}
+		CursorSubscription subscription = new CursorSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * The state of one subscriber. All reads and signals happen in
+	 * {@link #run()}, which is never executed by two threads at once.
+	 */
+	private final class CursorSubscription implements Flow.Subscription, Runnable {
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger pending = new AtomicInteger();
+		private volatile boolean cancelled = false;
+		private volatile Throwable badRequest;
+		private Cursor<T> cursor;
+		private boolean done = false;
+
+		CursorSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				badRequest = new IllegalArgumentException("Requested " + n + " elements, must be greater than 0");
+			} else {
+				demand.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (pending.getAndIncrement() == 0) {
+				EXECUTOR.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			if (done) {
+				return;
+			}
+			if (cancelled) {
+				finish();
+				return;
+			}
+			if (badRequest != null) {
+				finish();
+				subscriber.onError(badRequest);
+				return;
+			}
+
+			try {
+				if (cursor == null) {
+					cursor = opener.open();
+				}
+				long n;
+				while ((n = demand.get()) > 0 && !cancelled && badRequest == null) {
+					int max = (int) Math.min(n, chunkSize);
+					List<T> chunk = cursor.next(max);
+					for (T element : chunk) {
+						if (cancelled) {
+							break;
+						}
+						subscriber.onNext(element);
+					}
+					if (n != Long.MAX_VALUE) {
+						demand.addAndGet(-chunk.size());
+					}
+					if (chunk.size() < max) {
+						finish();
+						if (!cancelled) {
+							subscriber.onComplete();
+						}
+						return;
+					}
+				}
+			} catch (Exception e) {
+				finish();
+				subscriber.onError(e);
+				return;
+			}
+
+			if (cancelled || badRequest != null) {
+				drain();
+			}
+		}
+
+		private void finish() {
+			done = true;
+			if (cursor != null) {
+				try {
+					cursor.close();
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+				cursor = null;
+			}
+		}
+	}
+}
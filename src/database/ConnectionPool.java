@@ -0,0 +1,502 @@
+package database;
+
+import java.lang.ref.Cleaner;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of physical PostgreSQL connections shared by the persistence
+ * layer. Callers check a connection out with {@link #getConnection()} and hand
+ * it back by calling {@code close()} on it, so existing try-with-resources code
+ * keeps working unchanged.
+ *
+ * The driver keeps the server-side statements of each physical connection in
+ * its own per-connection cache, so statements prepared through a pooled
+ * connection stay prepared on the server for the next checkout even though the
+ * caller closes them. Statements handed out return the pooled connection from
+ * {@code getConnection()}, so closing it still hands it back.
+ *
+ * Every checkout records the {@link DB} method that asked for it. Connections
+ * that are held longer than the leak threshold, or that are garbage collected
+ * without being closed, are reported with that method name. A connection held
+ * for {@value #RECLAIM_AFTER_THRESHOLDS} times the threshold is reclaimed: its
+ * physical connection is aborted and its place in the pool freed, and the
+ * holder gets an {@link SQLException} the next time it uses it.
+ *
+ * Work that legitimately holds a connection for longer, such as a bulk COPY or
+ * a cursor read a chunk at a time, calls {@link #renewLease(Connection)} as it
+ * makes progress. The time is then counted from the last renewal, so only a
+ * holder that stops making progress is reported and reclaimed.
+ */
+public class ConnectionPool {
+
+	/**
+	 * Default number of physical connections the pool will open.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 8;
+
+	/**
+	 * Default time a caller waits for a free connection before giving up.
+	 */
+	public static final long DEFAULT_CHECKOUT_TIMEOUT_MILLIS = 10_000;
+
+	/**
+	 * Default time a connection may stay checked out before it is reported as a
+	 * leak.
+	 */
+	public static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 15_000;
+
+	/**
+	 * A connection held this many leak thresholds is taken back from its holder.
+	 */
+	public static final int RECLAIM_AFTER_THRESHOLDS = 4;
+
+	/**
+	 * Idle connections older than this are validated before being handed out.
+	 */
+	private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	/**
+	 * Number of server-side statements the driver keeps per physical connection.
+	 */
+	private static final int STATEMENT_CACHE_SIZE = 256;
+
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private final String url;
+	private final Properties properties;
+	private final int maxSize;
+	private final long checkoutTimeoutMillis;
+	private final long leakThresholdMillis;
+
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+	private final Map<Long, Lease> leased = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService leakWatcher;
+
+	private final AtomicLong leaseIds = new AtomicLong();
+	private final AtomicLong totalCheckouts = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong leaksDetected = new AtomicLong();
+	private final AtomicLong connectionsOpened = new AtomicLong();
+
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Creates a pool with the default size, checkout timeout and leak threshold.
+	 *
+	 * @param url      The JDBC url of the database.
+	 * @param user     The database user.
+	 * @param password The database password.
+	 */
+	public ConnectionPool(String url, String user, String password) {
+		this(url, user, password, DEFAULT_MAX_SIZE, DEFAULT_CHECKOUT_TIMEOUT_MILLIS, DEFAULT_LEAK_THRESHOLD_MILLIS);
+	}
+
+	/**
+	 * Creates a pool.
+	 *
+	 * @param url                   The JDBC url of the database.
+	 * @param user                  The database user.
+	 * @param password              The database password.
+	 * @param maxSize               The maximum number of physical connections.
+	 * @param checkoutTimeoutMillis How long a caller waits for a free connection.
+	 * @param leakThresholdMillis   How long a connection may be held before it is
+	 *                              reported as leaked.
+	 */
+	public ConnectionPool(String url, String user, String password, int maxSize, long checkoutTimeoutMillis,
+			long leakThresholdMillis) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Pool size must be greater than 0");
+		}
+		this.url = url;
+		this.properties = new Properties();
+		if (user != null) {
+			properties.setProperty("user", user);
+		}
+		if (password != null) {
+			properties.setProperty("password", password);
+		}
+		// Use a named server-side statement from the first execution. The driver
+		// keeps it per connection, keyed by SQL text, after the caller closes its
+		// statement, so the next checkout skips parse and plan
+		properties.setProperty("prepareThreshold", "1");
+		properties.setProperty("preparedStatementCacheQueries", String.valueOf(STATEMENT_CACHE_SIZE));
+		this.maxSize = maxSize;
+		this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+		this.leakThresholdMillis = leakThresholdMillis;
+		this.permits = new Semaphore(maxSize, true);
+
+		leakWatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "connection-pool-leak-watcher");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1, leakThresholdMillis / 2);
+		leakWatcher.scheduleAtFixedRate(this::reportLongLeases, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Checks a connection out of the pool, opening a new physical connection if
+	 * none is idle and the pool is not yet full. Closing the returned connection
+	 * hands it back to the pool.
+	 *
+	 * @return A pooled connection.
+	 * @throws SQLException if no connection becomes free before the checkout
+	 *                      timeout, or a new connection cannot be opened.
+	 */
+	public Connection getConnection() throws SQLException {
+		if (shutdown) {
+			throw new SQLException("Connection pool has been shut down");
+		}
+
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				timeouts.incrementAndGet();
+				throw new SQLException("Timed out after " + checkoutTimeoutMillis
+						+ " ms waiting for a database connection (" + getStats() + ")", "08001");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", "08001", e);
+		}
+		recordWait(System.nanoTime() - start);
+
+		PhysicalConnection physical;
+		try {
+			physical = takeIdleOrOpen();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+
+		Lease lease = new Lease(leaseIds.incrementAndGet(), physical, findCaller(), System.nanoTime());
+		leased.put(lease.id, lease);
+		totalCheckouts.incrementAndGet();
+
+		PooledConnection handler = new PooledConnection(lease);
+		Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, handler);
+		CLEANER.register(proxy, new LeakCleanup(this, lease));
+		return proxy;
+	}
+
+	/**
+	 * Restarts the lease clock of a checked out connection, so that it is not
+	 * reported or reclaimed while the work holding it keeps making progress.
+	 * Connections that did not come from a pool are ignored.
+	 *
+	 * @param conn A connection from {@link #getConnection()}.
+	 */
+	public static void renewLease(Connection conn) {
+		if (conn != null && Proxy.isProxyClass(conn.getClass())
+				&& Proxy.getInvocationHandler(conn) instanceof ConnectionPool.PooledConnection) {
+			((ConnectionPool.PooledConnection) Proxy.getInvocationHandler(conn)).lease.renewedNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the pool's current usage.
+	 *
+	 * @return The pool metrics.
+	 */
+	public PoolStats getStats() {
+		long checkouts = totalCheckouts.get();
+		double averageWaitMillis = checkouts == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / checkouts;
+		return new PoolStats(maxSize, leased.size(), idle.size(), permits.getQueueLength(), checkouts,
+				averageWaitMillis, maxWaitNanos.get() / 1_000_000.0, timeouts.get(), leaksDetected.get(),
+				connectionsOpened.get());
+	}
+
+	/**
+	 * Closes all idle connections and refuses further checkouts. Connections that
+	 * are still checked out are closed when they are returned.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		leakWatcher.shutdownNow();
+		PhysicalConnection c;
+		while ((c = idle.poll()) != null) {
+			closeQuietly(c.connection);
+		}
+	}
+
+	private PhysicalConnection takeIdleOrOpen() throws SQLException {
+		PhysicalConnection candidate;
+		while ((candidate = idle.pollFirst()) != null) {
+			boolean stale = System.nanoTime() - candidate.idleSince > VALIDATE_AFTER_IDLE_NANOS;
+			if (!stale || isUsable(candidate.connection)) {
+				return candidate;
+			}
+			closeQuietly(candidate.connection);
+		}
+		Connection c = DriverManager.getConnection(url, properties);
+		connectionsOpened.incrementAndGet();
+		return new PhysicalConnection(c);
+	}
+
+	/**
+	 * Gives a physical connection back to the pool. Connections that were broken
+	 * while checked out are closed instead of being reused.
+	 */
+	private void release(Lease lease, boolean broken) {
+		if (leased.remove(lease.id) == null) {
+			return;
+		}
+		PhysicalConnection physical = lease.physical;
+		boolean reusable = !broken && !shutdown;
+		if (reusable) {
+			try {
+				if (!physical.connection.getAutoCommit()) {
+					physical.connection.rollback();
+					physical.connection.setAutoCommit(true);
+				}
+				physical.connection.clearWarnings();
+			} catch (SQLException e) {
+				reusable = false;
+			}
+		}
+		if (reusable) {
+			physical.idleSince = System.nanoTime();
+			idle.offerFirst(physical);
+		} else {
+			closeQuietly(physical.connection);
+		}
+		permits.release();
+	}
+
+	private void reportLongLeases() {
+		long now = System.nanoTime();
+		for (Lease lease : leased.values()) {
+			long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - lease.renewedNanos);
+			if (heldMillis >= leakThresholdMillis * RECLAIM_AFTER_THRESHOLDS) {
+				reclaim(lease, heldMillis);
+			} else if (heldMillis >= leakThresholdMillis && !lease.reported) {
+				lease.reported = true;
+				leaksDetected.incrementAndGet();
+				System.err.println("Possible connection leak: connection checked out by " + lease.owner
+						+ " has been held for " + heldMillis + " ms");
+			}
+		}
+	}
+
+	/**
+	 * Takes a connection back from a holder that kept it too long. The physical
+	 * connection is aborted rather than closed, since the holder may still be
+	 * running a statement on it.
+	 */
+	private void reclaim(Lease lease, long heldMillis) {
+		if (leased.remove(lease.id) == null) {
+			return;
+		}
+		lease.returned = true;
+		if (!lease.reported) {
+			lease.reported = true;
+			leaksDetected.incrementAndGet();
+		}
+		System.err.println("Connection leak: connection checked out by " + lease.owner + " has been held for "
+				+ heldMillis + " ms; reclaiming it");
+		try {
+			lease.physical.connection.abort(Runnable::run);
+		} catch (SQLException e) {
+			closeQuietly(lease.physical.connection);
+		}
+		permits.release();
+	}
+
+	private void recordWait(long waitNanos) {
+		totalWaitNanos.addAndGet(waitNanos);
+		maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+	}
+
+	private static boolean isUsable(Connection c) {
+		try {
+			return c.isValid(2);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private static void closeQuietly(Connection c) {
+		try {
+			c.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Finds the first stack frame outside the pool, {@code DB.init()} and
+	 * {@code DB.connect()}, which is the persistence method that asked for the
+	 * connection.
+	 */
+	private static String findCaller() {
+		return StackWalker.getInstance().walk(frames -> frames
+				.filter(f -> !f.getClassName().equals(ConnectionPool.class.getName()))
+				.filter(f -> !f.getMethodName().equals("init") && !f.getMethodName().equals("connect"))
+				.findFirst()
+				.map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+				.orElse("unknown"));
+	}
+
+	/**
+	 * A physical connection and when it was last returned to the pool.
+	 */
+	private static class PhysicalConnection {
+		final Connection connection;
+		long idleSince;
+
+		PhysicalConnection(Connection connection) {
+			this.connection = connection;
+		}
+	}
+
+	/**
+	 * Book-keeping for one checkout of a physical connection.
+	 */
+	private static class Lease {
+		final long id;
+		final PhysicalConnection physical;
+		final String owner;
+		final long checkoutNanos;
+		/**
+		 * When the lease was taken or last renewed.
+		 */
+		volatile long renewedNanos;
+		volatile boolean returned = false;
+		volatile boolean reported = false;
+
+		Lease(long id, PhysicalConnection physical, String owner, long checkoutNanos) {
+			this.id = id;
+			this.physical = physical;
+			this.owner = owner;
+			this.checkoutNanos = checkoutNanos;
+			this.renewedNanos = checkoutNanos;
+		}
+	}
+
+	/**
+	 * Runs when a checked out connection becomes unreachable. If it was never
+	 * closed, the leak is reported and the physical connection is reclaimed.
+	 */
+	private static class LeakCleanup implements Runnable {
+		private final ConnectionPool pool;
+		private final Lease lease;
+
+		LeakCleanup(ConnectionPool pool, Lease lease) {
+			this.pool = pool;
+			this.lease = lease;
+		}
+
+		@Override
+		public void run() {
+			if (!lease.returned) {
+				lease.returned = true;
+				pool.leaksDetected.incrementAndGet();
+				System.err.println("Connection leak: connection checked out by " + lease.owner
+						+ " was never closed; reclaiming it");
+				pool.release(lease, true);
+			}
+		}
+	}
+
+	/**
+	 * Invocation handler behind the {@link Connection} proxies handed to callers.
+	 * {@code close()} returns the connection to the pool instead of closing the
+	 * socket, and statements are wrapped so that they do not give the physical
+	 * connection away; every other call is forwarded to the physical connection.
+	 */
+	private class PooledConnection implements InvocationHandler {
+		private final Lease lease;
+		private boolean broken = false;
+
+		PooledConnection(Lease lease) {
+			this.lease = lease;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!lease.returned) {
+					lease.returned = true;
+					release(lease, broken);
+				}
+				return null;
+			case "isClosed":
+				return lease.returned || lease.physical.connection.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + lease.owner + "]";
+			default:
+				break;
+			}
+
+			if (lease.returned) {
+				throw new SQLException("Connection has already been returned to the pool", "08003");
+			}
+			try {
+				Object result = method.invoke(lease.physical.connection, args);
+				if (result instanceof Statement) {
+					return wrap((Statement) result, method.getReturnType(), (Connection) proxy);
+				}
+				return result;
+			} catch (InvocationTargetException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SQLException) {
+					String state = ((SQLException) cause).getSQLState();
+					if (state != null && state.startsWith("08")) {
+						broken = true;
+					}
+				}
+				throw cause;
+			}
+		}
+	}
+
+	/**
+	 * Wraps a statement of a pooled connection so that {@code getConnection()}
+	 * returns the pooled connection rather than the physical one, which callers
+	 * must not close or keep.
+	 */
+	private static Object wrap(Statement statement, Class<?> type, Connection pooled) {
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "getConnection":
+				return pooled;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				break;
+			}
+			try {
+				return method.invoke(statement, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		});
+	}
+}
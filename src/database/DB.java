@@ -2,22 +2,34 @@ package database;
 
 
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.sql.Date;
+import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 import database.info;
 import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.ContainerItem;
 import domain.logic.item.FoodFreshness;
 import domain.logic.item.FoodGroup;
 import domain.logic.item.GenericTag;
 import domain.logic.item.Item;
+import domain.logic.item.ItemImportRow;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.item.ItemSort;
 import domain.logic.recipe.Ingredient;
 import domain.logic.recipe.Recipe;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -31,22 +43,186 @@ import java.util.Set;
  * The {@code DB} class represents a simple database for storing and managing
  * containers and their associated items. This class provides methods to add and
  * retrieve containers and items, remove items, and print all items within
- * containers.
+ * containers. It is the PostgreSQL {@link Storage} engine.
  */
-public class DB {
+public class DB implements Storage {
 
-	Connection conn;
+	/**
+	 * Connection pool shared by every DB instance, created on first use.
+	 */
+	private static ConnectionPool pool;
 
 	/**
-	 * Initializes a new database connection.
+	 * Tasks run at JVM shutdown before the connection pool is closed.
+	 */
+	private static final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Default number of rows fetched per round trip when streaming items.
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 100;
+
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	private final ChangeBus changes = new ChangeBus();
+
+	/**
+	 * Household used when none is given, from {@code -Dpantry.household}.
+	 */
+	public static final int DEFAULT_HOUSEHOLD = Integer.getInteger("pantry.household", 1);
+
+	private final int household;
+
+	/**
+	 * Creates a database for the household given by {@code -Dpantry.household},
+	 * or household 1.
+	 */
+	public DB() {
+		this(DEFAULT_HOUSEHOLD);
+	}
+
+	/**
+	 * Creates a database that reads and writes the rows of one household. Every
+	 * statement names the household, so households sharing a database never see
+	 * each other's containers, items, groceries, tags, notes or settings.
+	 *
+	 * @param household The household id, as returned by {@link #createHousehold}.
+	 */
+	public DB(int household) {
+		this.household = household;
+	}
+
+	/**
+	 * @return The household this database reads and writes.
+	 */
+	public int getHousehold() {
+		return household;
+	}
+
+	/**
+	 * Adds a household, with its own partition of the item table and default
+	 * settings.
+	 *
+	 * @param name The name of the household.
+	 * @return The id of the new household, or -1 if it could not be added.
+	 */
+	public static int createHousehold(String name) {
+		try (Connection conn = getConnectionPool().getConnection();
+				PreparedStatement s = conn.prepareStatement("SELECT create_household(?)")) {
+			s.setString(1, name);
+			try (ResultSet rs = s.executeQuery()) {
+				rs.next();
+				return rs.getInt(1);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the connection pool shared by every DB instance, creating it on
+	 * first use. Pending schema migrations are applied when the pool is created.
+	 *
+	 * @return the shared connection pool
+	 */
+	public static synchronized ConnectionPool getConnectionPool() {
+		if (pool == null) {
+			pool = new ConnectionPool(info.url, info.dbUser, info.dbPass);
+			try {
+				new SchemaMigrator(pool).migrate();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+			ConnectionPool created = pool;
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				for (Runnable task : shutdownTasks) {
+					task.run();
+				}
+				created.shutdown();
+			}, "connection-pool-shutdown"));
+		}
+		return pool;
+	}
+
+	/**
+	 * Registers a task to run at JVM shutdown while the connection pool is still
+	 * open, for example to write out buffered edits. Tasks run one after another
+	 * in the order they were added, before the pool is closed.
+	 *
+	 * @param task the task to run
+	 */
+	public static void addShutdownTask(Runnable task) {
+		shutdownTasks.add(task);
+	}
+
+	/**
+	 * Removes a task added with {@link #addShutdownTask(Runnable)}, for example
+	 * when the object it writes out was closed before shutdown.
+	 *
+	 * @param task the task to remove
+	 */
+	public static void removeShutdownTask(Runnable task) {
+		shutdownTasks.remove(task);
+	}
+
+	/**
+	 * Returns the current usage of the shared connection pool (active, idle and
+	 * wait times).
+	 *
+	 * @return the pool metrics
+	 */
+	public PoolStats getPoolStats() {
+		return getConnectionPool().getStats();
+	}
+
+	/**
+	 * Returns the number of rows fetched per round trip when streaming items.
+	 *
+	 * @return the fetch size
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets the number of rows fetched per round trip when streaming items. Larger
+	 * values mean fewer round trips, smaller values mean less memory held at once.
+	 *
+	 * @param fetchSize the number of rows per round trip, greater than 0
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize <= 0) {
+			throw new IllegalArgumentException("Fetch size must be greater than 0");
+		}
+		this.fetchSize = fetchSize;
+	}
+
+	@Override
+	public ChangeBus getChangeBus() {
+		return changes;
+	}
+
+	/**
+	 * Publishes a change on this database's bus. Subclasses that store a write
+	 * without passing it to this class call it themselves.
+	 *
+	 * @param event The change that was stored.
+	 */
+	protected void publish(ChangeEvent event) {
+		changes.publish(event);
+	}
+
+	/**
+	 * Checks a connection out of the shared connection pool. Closing the returned
+	 * connection hands it back to the pool.
 	 *
 	 * @return Returns the connection object to be used by other methods.
 	 *
 	 */
 	public Connection init() {
 		try {
-			conn = DriverManager.getConnection(info.url, info.dbUser, info.dbPass);
-			return conn;
+			return connect();
 		} catch (SQLException e) {
 			System.out.println("Connection Failure");
 			e.printStackTrace();
@@ -55,6 +231,90 @@ public class DB {
 		return null;
 	}
 
+	/**
+	 * Checks a connection out of the shared connection pool like {@link #init()},
+	 * but reports a database that cannot be reached by throwing, so the
+	 * {@code catch (SQLException e)} of the caller handles it.
+	 *
+	 * @return A connection, to be closed by the caller.
+	 * @throws SQLException if no connection can be made.
+	 */
+	protected Connection connect() throws SQLException {
+		return getConnectionPool().getConnection();
+	}
+
+	/**
+	 * Starts a unit of work, which stores several writes on one connection in
+	 * one transaction when it is committed.
+	 *
+	 * @return An empty unit of work for this database.
+	 */
+	public UnitOfWork beginUnitOfWork() {
+		return new UnitOfWork(this);
+	}
+
+	/**
+	 * Stores the writes of a committed unit of work. Subclasses that keep their
+	 * own copy of the data override it to bring that copy up to date.
+	 *
+	 * @param unit The unit being committed.
+	 * @return true if every write was stored, false if none was.
+	 */
+	protected boolean commit(UnitOfWork unit) {
+		return write(unit);
+	}
+
+	/**
+	 * Sends the statements of a unit of work in order on one connection and in
+	 * one transaction, batching consecutive statements with the same SQL, and
+	 * publishes their events once the transaction has committed.
+	 */
+	private boolean write(UnitOfWork unit) {
+		List<UnitOfWork.Step> steps = unit.getSteps();
+		if (steps.isEmpty()) {
+			return true;
+		}
+		List<ChangeEvent> events = new ArrayList<ChangeEvent>();
+		try (Connection conn = connect()) {
+			conn.setAutoCommit(false);
+			try {
+				int start = 0;
+				while (start < steps.size()) {
+					String sql = steps.get(start).sql;
+					int end = start;
+					try (PreparedStatement s = conn.prepareStatement(sql)) {
+						while (end < steps.size() && steps.get(end).sql.equals(sql)) {
+							Object[] params = steps.get(end).params;
+							for (int i = 0; i < params.length; i++) {
+								s.setObject(i + 1, params[i]);
+							}
+							s.addBatch();
+							end++;
+						}
+						int[] counts = s.executeBatch();
+						for (int i = 0; i < counts.length; i++) {
+							if (counts[i] != 0) {
+								Collections.addAll(events, steps.get(start + i).events);
+							}
+						}
+					}
+					start = end;
+				}
+				conn.commit();
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+		for (ChangeEvent event : events) {
+			publish(event);
+		}
+		return true;
+	}
+
 	/**
 	 * Inserts a new container into the database
 	 *
@@ -62,12 +322,11 @@ public class DB {
 	 */
 	public void putContainer(String nameOfContainer) {
 
-		Connection conn = init();
-		try {
-			Statement s = conn.createStatement();
-			s.execute("INSERT into container (container_name) VALUES('" + nameOfContainer + "')");
-
-			conn.close();
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.INSERT_CONTAINER)) {
+			s.setInt(1, household);
+			s.setString(2, nameOfContainer);
+			s.executeUpdate();
+			publish(ChangeEvent.containerAdded(nameOfContainer));
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -82,10 +341,9 @@ public class DB {
 	 */
 	public List<String> retrieveContainers() {
 
-		Connection conn = init();
-		try {
-			Statement s = conn.createStatement();
-			ResultSet result = s.executeQuery("Select * from container");
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.SELECT_CONTAINERS)) {
+			s.setInt(1, household);
+			ResultSet result = s.executeQuery();
 			List<String> l = new ArrayList<String>();
 
 			while (result.next()) {
@@ -107,16 +365,12 @@ public class DB {
 	 * @return True or false depending on if the container is in the database.
 	 */
 	public boolean findContainer(String name) {
-		Connection conn = init();
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.FIND_CONTAINER)) {
+			s.setInt(1, household);
+			s.setString(2, name);
+			ResultSet result = s.executeQuery();
 
-		try {
-			Statement s = conn.createStatement();
-			ResultSet result = s
-					.executeQuery("select container_name from container WHERE container_name = '" + name + "'");
-
-			Boolean b = result.next();
-			conn.close();
-			return b;
+			return result.next();
 
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -131,14 +385,12 @@ public class DB {
 	 * @param name The name of the database to be removed.
 	 */
 	public void removeContainer(String name) {
-		Connection conn = init();
-
-		try {
-			Statement s = conn.createStatement();
-			s.execute("DELETE from container WHERE container_name = '" + name + "'");
-
-			conn.close();
-
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.DELETE_CONTAINER)) {
+			s.setInt(1, household);
+			s.setString(2, name);
+			if (s.executeUpdate() > 0) {
+				publish(ChangeEvent.containerRemoved(name));
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -146,26 +398,14 @@ public class DB {
 	}
 
 	/**
-	 * Updates the name of a specific container
+	 * Updates the name of a specific container, moving its items to the new name
+	 * in the same transaction
 	 *
 	 * @param prevName The previous name of the container
 	 * @param newName  The new name of the container
 	 */
 	public void editContainer(String prevName, String newName) {
-
-		Connection conn = init();
-
-		try {
-			Statement s = conn.createStatement();
-			s.execute("UPDATE container SET container_name = '" + newName + "' WHERE container_name = '" + prevName
-					+ "'");
-
-			conn.close();
-
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-
+		write(new UnitOfWork(this).renameContainer(prevName, newName));
 	}
 
 	/**
@@ -175,12 +415,12 @@ public class DB {
 	 */
 	public void emptyContainer(Container c) {
 
-		Connection conn = init();
-
-		try {
-			Statement s = conn.createStatement();
-			s.execute(String.format("DELETE FROM item WHERE container='%s'", c.getName()));
-			conn.close();
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.EMPTY_CONTAINER)) {
+			s.setInt(1, household);
+			s.setString(2, c.getName());
+			if (s.executeUpdate() > 0) {
+				publish(ChangeEvent.containerEmptied(c.getName()));
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -206,25 +446,179 @@ public class DB {
 	 */
 	public Boolean addItem(Container c, String name, Item ite) {
 
-		Connection conn = init();
-
 		if (this.getItem(c, name) != null) {
 			return false;
 		}
 
-		try {
-			Statement s = conn.createStatement();
-			s.execute("INSERT INTO item(name, container, quantity, expiry) VALUES('" + name + "', " + "'" + c.getName()
-			+ "', " + "" + ite.getQuantity() + ", '" + "" + ite.getExpiryDate() + "')");
-			conn.close();
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.INSERT_ITEM)) {
+			s.setInt(1, household);
+			s.setString(2, name);
+			s.setString(3, c.getName());
+			s.setInt(4, ite.getQuantity());
+			s.setDate(5, new Date(ite.getExpiryDate().getTime()));
+			s.executeUpdate();
 		} catch (SQLException e) {
 			e.printStackTrace();
 			return false;
 		}
+		publish(ChangeEvent.itemAdded(c.getName(), ite));
 
 		return true;
 	}
 
+	/**
+	 * Adds several items to a container in one transaction. Duplicate checks and
+	 * inserts are sent as a single JDBC batch, so the whole call costs one
+	 * connection checkout and one round trip.
+	 *
+	 * @param c     The container to which the items will be added.
+	 * @param items The items to add, in the order their outcomes are returned.
+	 * @return The outcome of each item in iteration order, or null if the batch
+	 *         failed and nothing was added.
+	 */
+	public List<AddItemOutcome> addItems(Container c, Collection<Item> items) {
+		List<AddItemOutcome> outcomes = new ArrayList<AddItemOutcome>();
+		List<Integer> batched = new ArrayList<Integer>();
+		Set<String> names = new HashSet<String>();
+
+		for (Item ite : items) {
+			if (!isInsertable(ite)) {
+				outcomes.add(AddItemOutcome.INVALID);
+			} else if (!names.add(ite.getName())) {
+				outcomes.add(AddItemOutcome.DUPLICATE);
+			} else {
+				batched.add(outcomes.size());
+				outcomes.add(null);
+			}
+		}
+		if (batched.isEmpty()) {
+			return outcomes;
+		}
+
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.INSERT_ITEM_IF_ABSENT)) {
+			conn.setAutoCommit(false);
+			for (Item ite : items) {
+				// Only the first item with each name is sent
+				if (isInsertable(ite) && names.remove(ite.getName())) {
+					s.setInt(1, household);
+					s.setString(2, ite.getName());
+					s.setString(3, c.getName());
+					s.setInt(4, ite.getQuantity());
+					s.setDate(5, new Date(ite.getExpiryDate().getTime()));
+					s.addBatch();
+				}
+			}
+
+			int[] counts = s.executeBatch();
+			conn.commit();
+
+			for (int i = 0; i < counts.length; i++) {
+				outcomes.set(batched.get(i), counts[i] == 0 ? AddItemOutcome.DUPLICATE : AddItemOutcome.ADDED);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+
+		int i = 0;
+		for (Item ite : items) {
+			if (outcomes.get(i++) == AddItemOutcome.ADDED) {
+				publish(ChangeEvent.itemAdded(c.getName(), ite));
+			}
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Bulk loads validated import rows. The rows are streamed into a temporary
+	 * staging table with the PostgreSQL COPY protocol and then merged into the
+	 * container and item tables, all in one transaction. Missing containers are
+	 * created; rows naming an item already in its container, or repeating an
+	 * earlier row, are not imported. The connection's lease is renewed as each
+	 * part of the COPY is sent, so a large import is not reclaimed by the pool.
+	 *
+	 * @param rows The validated rows, read lazily while the COPY runs.
+	 * @return The rows that were skipped as duplicates, or null if the import
+	 *         failed and nothing was stored.
+	 */
+	public List<ItemImportRow> importItems(Iterator<ItemImportRow> rows) {
+		try (Connection conn = connect()) {
+			conn.setAutoCommit(false);
+			try (Statement s = conn.createStatement()) {
+				s.execute(Queries.CREATE_IMPORT_STAGING);
+			}
+
+			CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(Queries.COPY_IMPORT_STAGING);
+			try {
+				SimpleDateFormat isoDate = new SimpleDateFormat("yyyy-MM-dd");
+				StringBuilder buffer = new StringBuilder();
+				while (rows.hasNext()) {
+					ItemImportRow row = rows.next();
+					Item ite = row.getItem();
+					buffer.append(row.getLine()).append(',').append(csvField(ite.getName())).append(',')
+							.append(csvField(row.getContainer())).append(',').append(ite.getQuantity()).append(',')
+							.append(isoDate.format(ite.getExpiryDate())).append('\n');
+					if (buffer.length() >= 64 * 1024) {
+						writeCopy(copy, buffer);
+						ConnectionPool.renewLease(conn);
+					}
+				}
+				writeCopy(copy, buffer);
+				copy.endCopy();
+				ConnectionPool.renewLease(conn);
+			} finally {
+				if (copy.isActive()) {
+					copy.cancelCopy();
+				}
+			}
+
+			List<ItemImportRow> duplicates = new ArrayList<ItemImportRow>();
+			try (Statement s = conn.createStatement()) {
+				s.execute(Queries.ANALYZE_IMPORT_STAGING);
+			}
+			try (PreparedStatement s = conn.prepareStatement(Queries.SELECT_IMPORT_DUPLICATES)) {
+				s.setInt(1, household);
+				try (ResultSet rs = s.executeQuery()) {
+					while (rs.next()) {
+						Item ite = Item.getInstance(rs.getString("name"), rs.getInt("quantity"), rs.getDate("expiry"));
+						duplicates.add(new ItemImportRow(rs.getInt("line"), rs.getString("container"), ite));
+					}
+				}
+			}
+			for (String merge : Arrays.asList(Queries.MERGE_IMPORT_CONTAINERS, Queries.MERGE_IMPORT_ITEMS)) {
+				try (PreparedStatement s = conn.prepareStatement(merge)) {
+					s.setInt(1, household);
+					s.executeUpdate();
+				}
+			}
+			conn.commit();
+			publish(ChangeEvent.itemsReloaded(null));
+			return duplicates;
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+
+		return null;
+	}
+
+	private static void writeCopy(CopyIn copy, StringBuilder buffer) throws SQLException {
+		byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+		copy.writeToCopy(bytes, 0, bytes.length);
+		buffer.setLength(0);
+	}
+
+	private static String csvField(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * Checks that an item has everything the item table requires.
+	 */
+	private static boolean isInsertable(Item ite) {
+		return ite != null && ite.getName() != null && !ite.getName().trim().isEmpty()
+				&& ite.getName().length() <= 50 && ite.getQuantity() > 0 && ite.getExpiryDate() != null;
+	}
+
 	/**
 	 * Removes an item from a specified container.
 	 *
@@ -233,12 +627,13 @@ public class DB {
 	 */
 	public void removeItem(Container container, String itemName) {
 
-		Connection conn = init();
-
-		try {
-			Statement s = conn.createStatement();
-			s.execute(String.format("DELETE FROM item WHERE name='%s' AND container='%s'", itemName, container.getName()));
-			conn.close();
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.DELETE_ITEM)) {
+			s.setInt(1, household);
+			s.setString(2, itemName);
+			s.setString(3, container.getName());
+			if (s.executeUpdate() > 0) {
+				publish(ChangeEvent.itemRemoved(container.getName(), itemName));
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -252,125 +647,676 @@ public class DB {
 	 * @return The {@link Item} object if found, {@code null} otherwise.
 	 */
 	public Item getItem(Container c, String itemName) {
-		Connection conn = init();
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.SELECT_ITEM)) {
+			s.setInt(1, household);
+			s.setString(2, itemName);
+			s.setString(3, c.getName());
+			ResultSet rs = s.executeQuery();
 
-		try {
-			Statement s = conn.createStatement();
-			ResultSet rs = s.executeQuery(
-					String.format("SELECT * FROM item WHERE name='%s' AND container='%s'", itemName, c.getName()));
+			if (rs.next()) {
+				return mapItem(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Updates the food group of a specific item within a container. If the new
+	 * values for food group are provided (not null), the corresponding field of the
+	 * item are updated in the database. If value is null, no update is made.
+	 *
+	 * @param c            The container that contains the item to be updated.
+	 * @param itemName     The name of the item to be updated.
+	 * @param newFoodGroup The new food group classification for the item (can be
+	 *                     null if not updating).
+	 */
+	public void updateItemFoodGroup(Container c, String itemName, FoodGroup newFoodGroup) {
+		if (newFoodGroup == null) {
+			// If there are no updates to make, simply return
+			return;
+		}
+
+		try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(Queries.UPDATE_ITEM_FOOD_GROUP)) {
+			pstmt.setString(1, newFoodGroup.getDisplayName());
+			pstmt.setInt(2, household);
+			pstmt.setString(3, itemName);
+			pstmt.setString(4, c.getName());
+			if (pstmt.executeUpdate() > 0) {
+				publish(ChangeEvent.foodGroupUpdated(c.getName(), itemName, newFoodGroup));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns a list of Items belonging to a Container in the database
+	 *
+	 * @param c a Container object to retrieve items from
+	 * @return a list of Items belonging to a Container in the database
+	 */
+	public List<Item> retrieveItems(Container c) {
+		List<Item> l = new ArrayList<Item>();
+		if (!this.forEachItem(c, l::add)) {
+			return null;
+		}
+		return l;
+	}
 
+	/**
+	 * Streams the Items belonging to a Container to the given action, one at a
+	 * time, without building a list. Rows are read through a cursor in batches of
+	 * {@link #getFetchSize()}, so only one batch is held in memory at once.
+	 *
+	 * @param c      a Container object to retrieve items from
+	 * @param action called once for every item in the container
+	 * @return true if every item was read, false if the query failed
+	 */
+	public boolean forEachItem(Container c, Consumer<Item> action) {
+		return streamItems(Queries.SELECT_ITEMS_IN_CONTAINER, c, false, action);
+	}
+
+	/**
+	 * Returns the Items belonging to a Container together with their custom tag
+	 * and notes, read with a single joined query. Multiple notes on an item are
+	 * joined with new lines, as in {@link #getNote(String)}.
+	 *
+	 * @param c a Container object to retrieve items from
+	 * @return a list of Items with their custom tag and note set, or null if the
+	 *         query failed
+	 */
+	public List<Item> retrieveAnnotatedItems(Container c) {
+		List<Item> l = new ArrayList<Item>();
+		if (!streamItems(Queries.SELECT_ANNOTATED_ITEMS_IN_CONTAINER, c, true, l::add)) {
+			return null;
+		}
+		return l;
+	}
+
+	/**
+	 * Retrieves an {@link Item} by its container and name together with its
+	 * custom tag and notes, as {@link #retrieveAnnotatedItems} reads them.
+	 *
+	 * @param c        The container in which the item is stored.
+	 * @param itemName The name of the item to retrieve.
+	 * @return The item with its custom tag and note set, or null if it was not
+	 *         found or the query failed.
+	 */
+	Item getAnnotatedItem(Container c, String itemName) {
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.SELECT_ANNOTATED_ITEM)) {
+			s.setInt(1, household);
+			s.setString(2, c.getName());
+			s.setString(3, itemName);
+			ResultSet rs = s.executeQuery();
 			if (rs.next()) {
-				GenericTag<FoodGroup> fg = (rs.getString("fg") != null)
-						? GenericTag.fromString(FoodGroup.class, rs.getString("fg"))
-								: null;
-				GenericTag<FoodFreshness> fresh = (rs.getString("fresh") != null)
-						? GenericTag.fromString(FoodFreshness.class, rs.getString("fresh"))
-								: null;
+				return annotate(mapItem(rs), rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the custom tag and note of an item from the tag and notes columns of
+	 * the current row.
+	 */
+	private static Item annotate(Item item, ResultSet rs) throws SQLException {
+		String tag = rs.getString("tag");
+		String notes = rs.getString("notes");
+		if (tag != null) {
+			item.addCustomTag(tag);
+		}
+		item.setCustomNote(notes != null ? notes : "");
+		return item;
+	}
+
+	/**
+	 * Runs an item query for a container through a cursor and passes every mapped
+	 * item to the action.
+	 *
+	 * @param sql       the query, taking the household and the container name
+	 * @param c         the container whose items are read
+	 * @param annotated whether the query also returns the tag and notes columns
+	 * @param action    called once for every item
+	 * @return true if every item was read, false if the query failed
+	 */
+	private boolean streamItems(String sql, Container c, boolean annotated, Consumer<Item> action) {
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(sql)) {
+			// The driver only uses a cursor inside a transaction
+			conn.setAutoCommit(false);
+			s.setFetchSize(fetchSize);
+			s.setInt(1, household);
+			s.setString(2, c.getName());
+
+			try (ResultSet result = s.executeQuery()) {
+				while (result.next()) {
+					Item item = mapItem(result);
+					if (annotated) {
+						annotate(item, result);
+					}
+					action.accept(item);
+				}
+			}
+			conn.commit();
+			return true;
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Publishes every item of every container, ordered by container and name, as
+	 * the subscriber asks for them.
+	 *
+	 * @return a publisher of all items with their container names
+	 */
+	public Flow.Publisher<ContainerItem> publishAllItems() {
+		return publish(Queries.SELECT_ALL_ITEMS, s -> s.setInt(1, household), rs -> new ContainerItem(rs.getString("container"), mapItem(rs)));
+	}
+
+	/**
+	 * Returns the first page of the items matched by a query. Sorting, filtering
+	 * and paging are done by the database, so only one page of rows is read
+	 * however many items match.
+	 *
+	 * @param query the items to list and their order
+	 * @return the first page, or null if the query failed
+	 */
+	public ItemPage queryItems(ItemQuery query) {
+		return queryWindow(query, null, true);
+	}
+
+	/**
+	 * Returns the page after a page. It starts after the last row of the page, so
+	 * rows before it are not read again.
+	 *
+	 * @param page a page returned by this database
+	 * @return the next page, which is empty if there are no more items, or null
+	 *         if the query failed
+	 */
+	public ItemPage nextPage(ItemPage page) {
+		if (page.isEmpty()) {
+			return page;
+		}
+		return queryWindow(page.getQuery(), page.getRows().get(page.getRows().size() - 1), true);
+	}
+
+	/**
+	 * Returns the page before a page, ending just before its first row. Once the
+	 * start of the list is reached the full first page is returned instead.
+	 *
+	 * @param page a page returned by this database
+	 * @return the previous page, or null if the query failed
+	 */
+	public ItemPage previousPage(ItemPage page) {
+		if (page.isEmpty()) {
+			return queryItems(page.getQuery());
+		}
+		ItemPage previous = queryWindow(page.getQuery(), page.getRows().get(0), false);
+		if (previous != null && !previous.hasPrevious() && previous.getRows().size() < page.getQuery().getPageSize()) {
+			// Reached the start with a short window, so show a full first page instead
+			return queryItems(page.getQuery());
+		}
+		return previous;
+	}
+
+	/**
+	 * Reads one window of a query next to a boundary row. Rows are compared on
+	 * (sort column, name, container), which is unique, and the sort column puts
+	 * NULLs last. Going backwards reads in reverse order and flips the result.
+	 *
+	 * @param query    the items to list and their order
+	 * @param boundary the row the window starts after, or ends before; null for
+	 *                 the first page
+	 * @param forward  true to read after the boundary, false to read before it
+	 * @return the page, or null if the query failed
+	 */
+	private ItemPage queryWindow(ItemQuery query, ContainerItem boundary, boolean forward) {
+		String column = sortColumn(query.getSort());
+		StringBuilder sql = new StringBuilder(Queries.SELECT_ITEM_ROWS);
+		List<Object> params = new ArrayList<>();
+		List<String> where = new ArrayList<>();
+		params.add(household);
+
+		if (query.getContainer() != null) {
+			where.add("container = ?");
+			params.add(query.getContainer());
+		}
+		if (query.getNameContains() != null) {
+			where.add("name ILIKE ?");
+			params.add("%" + query.getNameContains().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+		}
+		if (query.getFoodGroup() != null) {
+			where.add("fg = ?::Food_Group");
+			params.add(query.getFoodGroup().getDisplayName());
+		}
+		if (query.getFreshness() != null) {
+			where.add("fresh = ?::Freshness");
+			params.add(query.getFreshness().getDisplayName());
+		}
+
+		if (boundary != null) {
+			String op = forward ? ">" : "<";
+			Object key = column == null ? null : sortKey(query.getSort(), boundary.getItem());
+			if (column == null) {
+				where.add("(name, container) " + op + " (?, ?)");
+			} else if (key != null) {
+				String cast = sortCast(query.getSort());
+				where.add(forward
+						? "((" + column + ", name, container) > (?" + cast + ", ?, ?) OR " + column + " IS NULL)"
+						: "(" + column + ", name, container) < (?" + cast + ", ?, ?)");
+				params.add(key);
+			} else {
+				where.add(forward
+						? "(" + column + " IS NULL AND (name, container) > (?, ?))"
+						: "(" + column + " IS NOT NULL OR (name, container) < (?, ?))");
+			}
+			params.add(boundary.getItem().getName());
+			params.add(boundary.getContainer());
+		}
+
+		if (!where.isEmpty()) {
+			sql.append(" AND ").append(String.join(" AND ", where));
+		}
+		String direction = forward ? "" : " DESC";
+		sql.append(" ORDER BY ");
+		if (column != null) {
+			sql.append(column).append(direction).append(", ");
+		}
+		sql.append("name").append(direction).append(", container").append(direction);
+		sql.append(" LIMIT ?");
+		params.add(query.getPageSize() + 1);
+
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(sql.toString())) {
+			for (int i = 0; i < params.size(); i++) {
+				s.setObject(i + 1, params.get(i));
+			}
+			ResultSet result = s.executeQuery();
+
+			List<ContainerItem> rows = new ArrayList<>();
+			while (result.next()) {
+				rows.add(new ContainerItem(result.getString("container"), mapItem(result)));
+			}
+			boolean more = rows.size() > query.getPageSize();
+			if (more) {
+				rows.remove(rows.size() - 1);
+			}
+			if (!forward) {
+				Collections.reverse(rows);
+				return new ItemPage(query, rows, more, true);
+			}
+			return new ItemPage(query, rows, boundary != null, more);
+
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	private static String sortColumn(ItemSort sort) {
+		switch (sort) {
+		case EXPIRY:
+			return "expiry";
+		case FOOD_GROUP:
+			return "fg";
+		case FRESHNESS:
+			return "fresh";
+		default:
+			return null;
+		}
+	}
+
+	private static String sortCast(ItemSort sort) {
+		switch (sort) {
+		case EXPIRY:
+			return "::date";
+		case FOOD_GROUP:
+			return "::Food_Group";
+		default:
+			return "::Freshness";
+		}
+	}
 
+	/**
+	 * Returns the value of the sort column for an item, or null if it has none.
+	 */
+	private static Object sortKey(ItemSort sort, Item item) {
+		switch (sort) {
+		case EXPIRY:
+			return item.getExpiryDate() == null ? null : new Date(item.getExpiryDate().getTime());
+		case FOOD_GROUP:
+			return item.getFoodGroupTag() == null || item.getFoodGroupTag().getTag() == null ? null
+					: item.getFoodGroupTag().getTag().getDisplayName();
+		case FRESHNESS:
+			return item.getFoodFreshnessTag() == null || item.getFoodFreshnessTag().getTag() == null ? null
+					: item.getFoodFreshnessTag().getTag().getDisplayName();
+		default:
+			return item.getName();
+		}
+	}
+
+	/**
+	 * Publishes the names on the grocery list as the subscriber asks for them.
+	 *
+	 * @return a publisher of grocery item names
+	 */
+	public Flow.Publisher<String> publishGroceryItems() {
+		return publish(Queries.SELECT_GROCERY_ITEMS, s -> s.setInt(1, household), rs -> rs.getString("name"));
+	}
+
+	/**
+	 * Sets the parameters of a query.
+	 */
+	private interface Binder {
+		void bind(PreparedStatement s) throws SQLException;
+	}
+
+	/**
+	 * Maps the current row of a result set.
+	 */
+	private interface RowMapper<T> {
+		T map(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Creates a publisher whose subscriptions each run the query through their
+	 * own cursor. The connection is held until the subscription completes, fails
+	 * or is cancelled. Its lease is renewed with every chunk read, so a long
+	 * export is not reclaimed by the pool, but a subscriber that leaves it idle
+	 * for too long loses it. Its transaction is read-only, so the change version,
+	 * which only waits for transactions that write, moves on while it is open.
+	 */
+	private <T> Flow.Publisher<T> publish(String sql, Binder binder, RowMapper<T> mapper) {
+		int chunkSize = fetchSize;
+		return new ChunkedPublisher<T>(() -> {
+			Connection conn = connect();
+			PreparedStatement s = null;
+			try {
+				// The driver only uses a cursor inside a transaction. A read-only
+				// one never takes a transaction id, so it stays out of the
+				// snapshot the change version is read from.
+				conn.setAutoCommit(false);
+				try (Statement readOnly = conn.createStatement()) {
+					readOnly.execute("SET TRANSACTION READ ONLY");
+				}
+				s = conn.prepareStatement(sql);
+				s.setFetchSize(chunkSize);
+				binder.bind(s);
+				ResultSet result = s.executeQuery();
+				PreparedStatement statement = s;
+
+				return new ChunkedPublisher.Cursor<T>() {
+					@Override
+					public List<T> next(int max) throws SQLException {
+						List<T> chunk = new ArrayList<T>();
+						while (chunk.size() < max && result.next()) {
+							chunk.add(mapper.map(result));
+						}
+						ConnectionPool.renewLease(conn);
+						return chunk;
+					}
+
+					@Override
+					public void close() throws SQLException {
+						try {
+							result.close();
+							statement.close();
+							conn.commit();
+						} finally {
+							conn.close();
+						}
+					}
+				};
+			} catch (SQLException e) {
+				if (s != null) {
+					s.close();
+				}
 				conn.close();
-				return Item.getInstance(rs.getString("name"), fg, fresh, rs.getInt("quantity"), rs.getDate("expiry"));
+				throw e;
+			}
+		}, chunkSize);
+	}
+
+	/**
+	 * Builds an Item from the current row of a result set over the item table.
+	 *
+	 * @param rs a result set positioned on an item row
+	 * @return the Item in that row
+	 * @throws SQLException if a column cannot be read
+	 */
+	protected static Item mapItem(ResultSet rs) throws SQLException {
+		String fgName = rs.getString("fg");
+		String freshName = rs.getString("fresh");
+		GenericTag<FoodGroup> fg = (fgName != null) ? GenericTag.fromString(FoodGroup.class, fgName) : null;
+		GenericTag<FoodFreshness> fresh = (freshName != null)
+				? GenericTag.fromString(FoodFreshness.class, freshName)
+				: null;
+
+		return Item.getInstance(rs.getString("name"), fg, fresh, rs.getInt("quantity"), rs.getDate("expiry"));
+	}
+
+	/**
+	 * Recomputes the freshness status of every item in every container with a
+	 * single statement, rewriting only the rows whose Expired, Near_Expiry or
+	 * Fresh status changed since the last run.
+	 *
+	 * @return The number of items whose status changed, or -1 if the update
+	 *         failed.
+	 */
+	public int refreshFreshness() {
+		try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(Queries.REFRESH_FRESHNESS)) {
+			pstmt.setInt(1, household);
+			int changed = pstmt.executeUpdate();
+			if (changed > 0) {
+				publish(ChangeEvent.itemsReloaded(null));
 			}
+			return changed;
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return -1;
+	}
+
+	/**
+	 * Drops the change log entries logged before a number of days ago, since
+	 * every write appends to the log. The log is shared by every household, so
+	 * this is run by the operator with {@link ChangeLogTool} rather than by
+	 * each client. Clients whose version is older than the dropped entries are
+	 * told by the next change set to read their tables again.
+	 *
+	 * @param days The number of days entries are kept.
+	 * @return The number of entries dropped, or -1 if the log could not be
+	 *         pruned.
+	 */
+	public int pruneChangeLog(int days) {
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.PRUNE_CHANGE_LOG)) {
+			s.setInt(1, days);
+			ResultSet rs = s.executeQuery();
+			rs.next();
+			return rs.getInt(1);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
-
-		return null;
-
+		return -1;
 	}
 
 	/**
-	 * Updates the food group of a specific item within a container. If the new
-	 * values for food group are provided (not null), the corresponding field of the
-	 * item are updated in the database. If value is null, no update is made.
+	 * Returns the version a client should keep before reading whole tables, to
+	 * ask later for only what changed since. Reading it costs no table access.
 	 *
-	 * @param c            The container that contains the item to be updated.
-	 * @param itemName     The name of the item to be updated.
-	 * @param newFoodGroup The new food group classification for the item (can be
-	 *                     null if not updating).
+	 * @return The current change version, or -1 if it could not be read.
 	 */
-	public void updateItemFoodGroup(Container c, String itemName, FoodGroup newFoodGroup) {
-		List<String> setClauses = new ArrayList<>();
-		if (newFoodGroup != null) {
-			setClauses.add("fg = '" + newFoodGroup.getDisplayName() + "'");
-		}
-
-		if (setClauses.isEmpty()) {
-			// If there are no updates to make, simply return
-			return;
-		}
-
-		String setClause = String.join(", ", setClauses);
-		String sql = "UPDATE item SET " + setClause + " WHERE name = ? AND container = ?";
-
-		try (Connection conn = this.init(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-			pstmt.setString(1, itemName);
-			pstmt.setString(2, c.getName());
-			pstmt.executeUpdate();
+	public long getChangeVersion() {
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.SELECT_CHANGE_VERSION)) {
+			ResultSet rs = s.executeQuery();
+			rs.next();
+			return rs.getLong(1);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
+		return -1;
 	}
 
 	/**
-	 * Returns a list of Items belonging to a Container in the database
+	 * Checks with one index probe whether any item, container, grocery,
+	 * recipe, tag or note row may have changed since a version. Changes pruned from the log
+	 * since the version count as changes.
 	 *
-	 * @param c a Container object to retrieve items from
-	 * @return a list of Items belonging to a Container in the database
+	 * @param version A version from {@link #getChangeVersion()} or a
+	 *                {@link ChangeSet}.
+	 * @return true if there may be changes, or if the check failed.
 	 */
-	public List<Item> retrieveItems(Container c) {
-		Connection conn = init();
-		try {
-			Statement s = conn.createStatement();
-			ResultSet result = s.executeQuery(String.format("SELECT * FROM item WHERE container='%s'", c.getName()));
-			List<Item> l = new ArrayList<Item>();
-
-			while (result.next()) {
-				l.add(this.getItem(new Container(result.getString("container")), result.getString("name")));
-			}
-			return l;
+	public boolean hasChangesSince(long version) {
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.HAS_CHANGES)) {
+			s.setInt(1, household);
+			s.setLong(2, version);
+			s.setLong(3, version);
+			ResultSet rs = s.executeQuery();
+			rs.next();
+			return rs.getBoolean(1);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
+		return true;
+	}
 
-		return null;
+	/**
+	 * Reads the items added, updated, moved or removed since a version.
+	 *
+	 * @param version A version from {@link #getChangeVersion()} or a
+	 *                {@link ChangeSet}.
+	 * @return Item additions with the current item, its custom tag and note set,
+	 *         and removals, or null if the query failed.
+	 */
+	public ChangeSet getItemChangesSince(long version) {
+		return changesSince(Queries.SELECT_ITEM_CHANGES, version, household(version), rs -> {
+			String container = rs.getString("changed_container");
+			if (rs.getString("name") == null) {
+				return ChangeEvent.itemRemoved(container, rs.getString("changed_name"));
+			}
+			return ChangeEvent.itemAdded(container, annotate(mapItem(rs), rs));
+		});
+	}
+
+	/**
+	 * Reads the item tags and notes changed since a version. Every changed item
+	 * name gives one update carrying its current tag or notes, as
+	 * {@link #retrieveAnnotatedItems} reads them; a name left without any is a
+	 * removal.
+	 *
+	 * @param version A version from {@link #getChangeVersion()} or a
+	 *                {@link ChangeSet}.
+	 * @return Tag and note updates and removals, or null if the query failed.
+	 */
+	public ChangeSet getAnnotationChangesSince(long version) {
+		return changesSince(Queries.SELECT_ANNOTATION_CHANGES, version, s -> {
+			s.setInt(1, household);
+			s.setLong(2, version);
+		}, rs -> "tag".equals(rs.getString("changed_target"))
+				? ChangeEvent.tagUpdated(rs.getString("changed_name"), rs.getString("tag"))
+				: ChangeEvent.noteUpdated(rs.getString("changed_name"), rs.getString("notes")));
+	}
 
+	/**
+	 * Reads the containers added or removed since a version. A renamed
+	 * container is a removal of the old name and an addition of the new one.
+	 *
+	 * @param version A version from {@link #getChangeVersion()} or a
+	 *                {@link ChangeSet}.
+	 * @return Container additions and removals, or null if the query failed.
+	 */
+	public ChangeSet getContainerChangesSince(long version) {
+		return changesSince(Queries.SELECT_CONTAINER_CHANGES, version, household(version), rs -> rs.getString("name") == null
+				? ChangeEvent.containerRemoved(rs.getString("changed_name"))
+				: ChangeEvent.containerAdded(rs.getString("name")));
 	}
 
 	/**
-	 * Updates the freshness status of all items within a specified container in the
-	 * database. This method sets the freshness status based on the current date and
-	 * the expiry date of the items. Items past the current date are marked as
-	 * 'Expired', items expiring within the next 7 days are marked as 'Near_Expiry',
-	 * and all other items are marked as 'Fresh'.
+	 * Reads the grocery list entries added or removed since a version.
 	 *
-	 * @param container The container whose items' freshness statuses are to be
-	 *                  updated.
+	 * @param version A version from {@link #getChangeVersion()} or a
+	 *                {@link ChangeSet}.
+	 * @return Grocery additions and removals, or null if the query failed.
 	 */
-	public void batchUpdateItemFreshness(Container container) {
-		// SQL query to update the freshness of items based on their expiry date
-		String sql = "UPDATE item SET fresh = CASE " + "WHEN expiry < CURRENT_DATE THEN 'Expired'::Freshness "
-				+ "WHEN expiry >= CURRENT_DATE AND expiry <= CURRENT_DATE + interval '7' day THEN 'Near_Expiry'::Freshness "
-				+ "ELSE 'Fresh'::Freshness END " + "WHERE container = ?";
+	public ChangeSet getGroceryChangesSince(long version) {
+		return changesSince(Queries.SELECT_GROCERY_CHANGES, version, household(version), rs -> rs.getString("name") == null
+				? ChangeEvent.groceryRemoved(rs.getString("changed_name"))
+				: ChangeEvent.groceryAdded(rs.getString("name")));
+	}
 
-		try (Connection conn = this.init(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+	/**
+	 * Reads the starred recipes saved or removed since a version. Saved recipes
+	 * are summaries, as from {@link #getStarredRecipePage}; removed ones carry
+	 * only their id and title.
+	 *
+	 * @param version A version from {@link #getChangeVersion()} or a
+	 *                {@link ChangeSet}.
+	 * @return Recipe additions and removals, or null if the query failed.
+	 */
+	public ChangeSet getRecipeChangesSince(long version) {
+		return changesSince(Queries.SELECT_RECIPE_CHANGES, version, s -> s.setLong(1, version), rs -> {
+			if (rs.getString("title") == null) {
+				return ChangeEvent.recipeRemoved(new Recipe(rs.getInt("changed_id"), rs.getString("changed_name"), null));
+			}
+			return ChangeEvent.recipeAdded(new Recipe(rs.getInt("id"), rs.getString("title"), rs.getString("image_url")));
+		});
+	}
 
-			pstmt.setString(1, container.getName());
-			pstmt.executeUpdate();
+	/**
+	 * Binds the parameters of a change query reading the household's rows,
+	 * which takes the household before and after the version.
+	 */
+	private Binder household(long version) {
+		return s -> {
+			s.setInt(1, household);
+			s.setLong(2, version);
+			s.setInt(3, household);
+		};
+	}
 
+	/**
+	 * Runs a change query. Its first row always carries the new version and the
+	 * pruned horizon; rows without a changed key carry nothing else.
+	 *
+	 * @param version The version the changes are read since.
+	 * @param binder  Binds the version and any other parameters of the query.
+	 */
+	private ChangeSet changesSince(String sql, long version, Binder binder, RowMapper<ChangeEvent> mapper) {
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(sql)) {
+			binder.bind(s);
+			ResultSet rs = s.executeQuery();
+			long next = version;
+			boolean pruned = false;
+			List<ChangeEvent> changes = new ArrayList<ChangeEvent>();
+			while (rs.next()) {
+				next = rs.getLong("horizon");
+				pruned = rs.getLong("pruned") > version;
+				if (rs.getString("changed_name") != null) {
+					changes.add(mapper.map(rs));
+				}
+			}
+			return new ChangeSet(next, changes, pruned);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
+		return null;
 	}
 
 	public String getStorageTip(String name) {
-		Connection conn = init();
 		String tip = null;
 		
 		String formattedName = name.substring(0,1).toUpperCase() + (name.substring(1)).toLowerCase();
 
-		try {
-			Statement s = conn.createStatement();
-			ResultSet result = s.executeQuery(String.format("SELECT * FROM storage_tips WHERE name='%s'", formattedName));
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(Queries.SELECT_STORAGE_TIP)) {
+			s.setString(1, formattedName);
+			ResultSet result = s.executeQuery();
 
 			while (result.next()) {
 				tip = result.getString("info");
@@ -389,19 +1335,16 @@ public class DB {
 	 * @param itemName The name of the item to add to the grocery list.
 	 */
 	public void addToGroceryList(String itemName) {
-		// Establish a connection to the database
-		Connection conn = init();
-		try {
-			// Prepare an SQL statement to insert an item into the grocery table
-			PreparedStatement statement = conn.prepareStatement("INSERT INTO grocery (name) VALUES (?)");
-			// Set the item name as a parameter in the SQL statement
-			statement.setString(1, itemName);
+		// Establish a connection to the database and prepare an SQL statement to
+		// insert an item into the grocery table; both are closed automatically
+		try (Connection conn = connect();
+				PreparedStatement statement = conn.prepareStatement(Queries.INSERT_GROCERY)) {
+			// Set the household and item name as parameters in the SQL statement
+			statement.setInt(1, household);
+			statement.setString(2, itemName);
 			// Execute the SQL statement to insert the item into the grocery table
 			statement.executeUpdate();
-			// Close the prepared statement
-			statement.close();
-			// Close the database connection
-			conn.close();
+			publish(ChangeEvent.groceryAdded(itemName));
 		} catch (SQLException e) {
 			// Handle any SQL exceptions by printing the stack trace
 			e.printStackTrace();
@@ -414,20 +1357,17 @@ public class DB {
 	 * @param itemName The name of the item to remove from the grocery list.
 	 */
 	public void removeFromGroceryList(String itemName) {
-		// Establish a connection to the database
-		Connection conn = init();
-		try {
-			// Prepare an SQL statement to delete an item from the grocery table based on
-			// its name
-			PreparedStatement statement = conn.prepareStatement("DELETE FROM grocery WHERE name = ?");
-			// Set the item name as a parameter in the SQL statement
-			statement.setString(1, itemName);
+		// Establish a connection to the database and prepare an SQL statement to
+		// delete an item from the grocery table based on its name
+		try (Connection conn = connect();
+				PreparedStatement statement = conn.prepareStatement(Queries.DELETE_GROCERY)) {
+			// Set the household and item name as parameters in the SQL statement
+			statement.setInt(1, household);
+			statement.setString(2, itemName);
 			// Execute the SQL statement to delete the item from the grocery table
-			statement.executeUpdate();
-			// Close the prepared statement
-			statement.close();
-			// Close the database connection
-			conn.close();
+			if (statement.executeUpdate() > 0) {
+				publish(ChangeEvent.groceryRemoved(itemName));
+			}
 		} catch (SQLException e) {
 			// Handle any SQL exceptions by printing the stack trace
 			e.printStackTrace();
@@ -442,28 +1382,22 @@ public class DB {
 	 * @return A 2D array containing all grocery items, where each row represents an item.
 	 */
 	public Object[][] getAllGroceryItems() {
-		Connection conn = init();
 		List<Object[]> itemList = new ArrayList<>();
 
-		if (conn != null) {
-			try {
-				PreparedStatement statement = conn.prepareStatement("SELECT * FROM grocery");
-				ResultSet resultSet = statement.executeQuery();
-
-				while (resultSet.next()) {
-					String itemName = resultSet.getString("name");
+		try (Connection conn = connect();
+				PreparedStatement statement = conn.prepareStatement("SELECT * FROM grocery WHERE household = ?")) {
+			statement.setInt(1, household);
+			ResultSet resultSet = statement.executeQuery();
 
-					// Create an array representing the current item
-					Object[] itemData = { itemName };
-					itemList.add(itemData);
-				}
+			while (resultSet.next()) {
+				String itemName = resultSet.getString("name");
 
-				resultSet.close();
-				statement.close();
-				conn.close();
-			} catch (SQLException e) {
-				e.printStackTrace();
+				// Create an array representing the current item
+				Object[] itemData = { itemName };
+				itemList.add(itemData);
 			}
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
 
 		// Convert the list to a 2D array
@@ -482,15 +1416,14 @@ public class DB {
 	 */
 	public void updateQuantity(String item, int value, Container c) {
 
-		Connection conn = init();
-
-		try {
-			String query = "UPDATE item SET quantity = ? WHERE name = ? AND container = ?";
-			PreparedStatement p = conn.prepareStatement(query);
+		try (Connection conn = connect(); PreparedStatement p = conn.prepareStatement(Queries.UPDATE_QUANTITY)) {
 			p.setInt(1, value);
-			p.setString(2, item);
-			p.setString(3, c.getName());
-			p.executeUpdate();
+			p.setInt(2, household);
+			p.setString(3, item);
+			p.setString(4, c.getName());
+			if (p.executeUpdate() > 0) {
+				publish(ChangeEvent.quantityUpdated(c.getName(), item, value));
+			}
 
 		} catch (SQLException e) {
 
@@ -505,13 +1438,11 @@ public class DB {
 	 */
 	public List<String> getExpiringItems() {
 		List<String> expiringItems = new ArrayList<>();
-		Connection conn = init();
-
-		try {
-			//  select items whose expiry date is within the next 7 days
-			String sql = "SELECT name, container FROM item WHERE fresh = 'Near_Expiry'";
-			PreparedStatement pstmt = conn.prepareStatement(sql);
+		//  select items whose expiry date is within the next 7 days
+		String sql = "SELECT name, container FROM item WHERE household = ? AND fresh = 'Near_Expiry'";
 
+		try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setInt(1, household);
 			// Execute the query
 			ResultSet rs = pstmt.executeQuery();
 			//
@@ -526,11 +1457,6 @@ public class DB {
 			//                Date expiryDate = rs.getDate("expiry");
 			//                expiringItems.add(itemName + " in " + containerName + " (Expiry: " + expiryDate + ")");
 			//            }
-			//
-			// Close resources
-			rs.close();
-			pstmt.close();
-			conn.close();
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -545,24 +1471,17 @@ public class DB {
 	 */
 	public Set<String> getNearExpiryOrFreshItemNames() {
 		Set<String> itemNames = new HashSet<>();
-		Connection conn = init();
-		if (conn != null) {
-			try {
-				String sql = "SELECT name FROM item WHERE fresh IN ('Near_Expiry', 'Fresh')";
-				PreparedStatement pstmt = conn.prepareStatement(sql);
-				ResultSet rs = pstmt.executeQuery();
-
-				while (rs.next()) {
-					String name = rs.getString("name").toLowerCase();
-					itemNames.add(name);
-				}
+		String sql = "SELECT name FROM item WHERE household = ? AND fresh IN ('Near_Expiry', 'Fresh')";
+		try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setInt(1, household);
+			ResultSet rs = pstmt.executeQuery();
 
-				rs.close();
-				pstmt.close();
-				conn.close();
-			} catch (SQLException e) {
-				e.printStackTrace();
+			while (rs.next()) {
+				String name = rs.getString("name").toLowerCase();
+				itemNames.add(name);
 			}
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
 		return itemNames;
 	}
@@ -574,28 +1493,20 @@ public class DB {
 	 */
 	public String[] getSettings(){
 		String [] settings = new String [2];
-		Connection conn = init();
-		if (conn != null) {
-			try {
-				String sql = "SELECT fontsize, notificationBoolean FROM settings";
-				PreparedStatement pstmt = conn.prepareStatement(sql);
-				ResultSet rs = pstmt.executeQuery();
-
-				while(rs.next()) {
-					String font = rs.getString("fontsize").toLowerCase();
-					String notifBool = rs.getString("notificationBoolean").toLowerCase();
-
-					settings[0] = font;
-					settings[1] = notifBool;
-				}
+		String sql = "SELECT fontsize, notificationBoolean FROM settings WHERE household = ? AND setting_type = 'User'";
+		try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setInt(1, household);
+			ResultSet rs = pstmt.executeQuery();
 
+			while(rs.next()) {
+				String font = rs.getString("fontsize").toLowerCase();
+				String notifBool = rs.getString("notificationBoolean").toLowerCase();
 
-				rs.close();
-				pstmt.close();
-				conn.close();
-			} catch (SQLException e) {
-				e.printStackTrace();
+				settings[0] = font;
+				settings[1] = notifBool;
 			}
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
 
 		return settings;
@@ -606,12 +1517,12 @@ public class DB {
 	 * @param n The fontSize 
 	 */
 	public void setFontsize(int n) {
-		Connection conn = init();
-		try {
-			String query = "UPDATE settings SET fontsize = ? WHERE setting_type = 'User'";
-			PreparedStatement p = conn.prepareStatement(query);
+		String query = "UPDATE settings SET fontsize = ? WHERE household = ? AND setting_type = 'User'";
+		try (Connection conn = connect(); PreparedStatement p = conn.prepareStatement(query)) {
 			p.setInt(1, n);
+			p.setInt(2, household);
 			p.executeUpdate();
+			publish(ChangeEvent.settingUpdated(ChangeEvent.FONT_SIZE, Integer.toString(n)));
 
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -624,12 +1535,12 @@ public class DB {
 	 * @param b Boolean value, true if notifcation should be on, false otherwise
 	 */
 	public void setNotificationBoolean(boolean b) {
-		Connection conn = init();
-		try {
-			String query = "UPDATE settings SET notificationboolean = ? WHERE setting_type = 'User';";
-			PreparedStatement p = conn.prepareStatement(query);
+		String query = "UPDATE settings SET notificationboolean = ? WHERE household = ? AND setting_type = 'User';";
+		try (Connection conn = connect(); PreparedStatement p = conn.prepareStatement(query)) {
 			p.setString(1, Boolean.toString(b));
+			p.setInt(2, household);
 			p.executeUpdate();
+			publish(ChangeEvent.settingUpdated(ChangeEvent.NOTIFICATIONS, Boolean.toString(b)));
 
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -639,124 +1550,100 @@ public class DB {
 	/**
 	 * Saves a recipe and its associated details into the database. This includes inserting the recipe's basic information,
 	 * the ingredients used, and detailed instructions. If any of the ingredients do not exist in the database, they are added.
-	 * The method manages database transactions manually to ensure data consistency, including rolling back transactions in
-	 * case of errors.
+	 *
+	 * The detailed instructions are fetched before the transaction starts, so no connection is held during a remote call.
+	 * The recipe row is inserted first and, if a recipe with the same id already exists, nothing else is written. The
+	 * ingredients, their links and the instruction steps are then each written with one batch.
 	 *
 	 * @param recipe The Recipe object containing all the information to be saved to the database.
+	 * @return true if the recipe was saved, false if it was already in the database or could not be saved.
 	 */
-	public void saveRecipeToDatabase(Recipe recipe) {
-		Connection conn = init();
-		if (conn != null) {
-			try {
-				conn.setAutoCommit(false);
-
-				Map<Integer, String> detailedInstructions;
-				try {
-					detailedInstructions = recipe.getDetailedInstructions();
-				} catch (Exception e) {
-					System.err.println("Failed to get detailed instructions: " + e.getMessage());
-					detailedInstructions = new HashMap<>();
-				}
+	public boolean saveRecipeToDatabase(Recipe recipe) {
+		Map<Integer, String> detailedInstructions;
+		try {
+			detailedInstructions = recipe.getDetailedInstructions();
+		} catch (Exception e) {
+			System.err.println("Failed to get detailed instructions: " + e.getMessage());
+			detailedInstructions = new HashMap<>();
+		}
 
-				String insertRecipeSQL = "INSERT INTO recipes (id, title, image_url) VALUES (?, ?, ?)";
-				try (PreparedStatement pstmt = conn.prepareStatement(insertRecipeSQL)) {
+		try (Connection conn = connect()) {
+			conn.setAutoCommit(false);
+			try {
+				try (PreparedStatement pstmt = conn.prepareStatement(Queries.INSERT_RECIPE_IF_ABSENT)) {
 					pstmt.setInt(1, recipe.getId());
 					pstmt.setString(2, recipe.getTitle());
 					pstmt.setString(3, recipe.getImage());
-					pstmt.executeUpdate();
+					if (pstmt.executeUpdate() == 0) {
+						conn.rollback();
+						return false;
+					}
 				}
 
+				Map<Integer, Ingredient> ingredients = new LinkedHashMap<>();
 				for (Ingredient ingredient : recipe.getUsedIngredients()) {
-					int ingredientId = getOrInsertIngredient(conn, ingredient);
-					linkRecipeIngredient(conn, recipe.getId(), ingredientId, ingredient.getAmount(), true);
+					ingredients.putIfAbsent(ingredient.getId(), ingredient);
 				}
 				for (Ingredient ingredient : recipe.getMissedIngredients()) {
-					int ingredientId = getOrInsertIngredient(conn, ingredient);
-					linkRecipeIngredient(conn, recipe.getId(), ingredientId, ingredient.getAmount(), false);
+					ingredients.putIfAbsent(ingredient.getId(), ingredient);
+				}
+				try (PreparedStatement pstmt = conn.prepareStatement(Queries.INSERT_INGREDIENT_IF_ABSENT)) {
+					for (Ingredient ingredient : ingredients.values()) {
+						pstmt.setInt(1, ingredient.getId());
+						pstmt.setString(2, ingredient.getName());
+						pstmt.setString(3, ingredient.getUnit());
+						pstmt.setString(4, ingredient.getImage());
+						pstmt.setString(5, ingredient.getOriginal());
+						pstmt.addBatch();
+					}
+					pstmt.executeBatch();
+				}
+
+				try (PreparedStatement pstmt = conn.prepareStatement(Queries.INSERT_RECIPE_INGREDIENT)) {
+					addIngredientLinks(pstmt, recipe.getId(), recipe.getUsedIngredients(), true);
+					addIngredientLinks(pstmt, recipe.getId(), recipe.getMissedIngredients(), false);
+					pstmt.executeBatch();
 				}
 
-				String insertInstructionSQL = "INSERT INTO detailed_instructions (recipe_id, step_number, instruction) VALUES (?, ?, ?)";
-				try (PreparedStatement pstmt = conn.prepareStatement(insertInstructionSQL)) {
+				try (PreparedStatement pstmt = conn.prepareStatement(Queries.INSERT_INSTRUCTION)) {
 					for (Map.Entry<Integer, String> entry : detailedInstructions.entrySet()) {
 						pstmt.setInt(1, recipe.getId());
 						pstmt.setInt(2, entry.getKey());
 						pstmt.setString(3, entry.getValue());
-						pstmt.executeUpdate();
+						pstmt.addBatch();
 					}
+					pstmt.executeBatch();
 				}
 
 				conn.commit();
+				publish(ChangeEvent.recipeAdded(recipe));
+				return true;
 			} catch (SQLException e) {
-				try {
-					if (conn != null) conn.rollback();
-				} catch (SQLException ex) {
-					ex.printStackTrace();
-				}
-				e.printStackTrace();
-			} finally {
-				try {
-					if (conn != null) {
-						conn.setAutoCommit(true);
-						conn.close();
-					}
-				} catch (SQLException e) {
-					e.printStackTrace();
-				}
-			}
-		}
-	}
-
-	/**
-	 * Checks if an ingredient exists in the database by its ID. If it does not exist, the ingredient is inserted into
-	 * the database. This method is utilized by saveRecipeToDatabase to ensure all ingredients of a recipe are present
-	 * in the database before linking them to the recipe.
-	 *
-	 * @param conn The database connection to be used for the query.
-	 * @param ingredient The ingredient to check or insert into the database.
-	 * @return The ID of the ingredient, either found or newly inserted.
-	 * @throws SQLException if there is a problem accessing the database.
-	 */
-	private int getOrInsertIngredient(Connection conn, Ingredient ingredient) throws SQLException {
-		String checkIngredientSQL = "SELECT id FROM ingredients WHERE id = ?";
-		try (PreparedStatement pstmt = conn.prepareStatement(checkIngredientSQL)) {
-			pstmt.setInt(1, ingredient.getId());
-			ResultSet rs = pstmt.executeQuery();
-			if (rs.next()) {
-				return ingredient.getId();
+				conn.rollback();
+				throw e;
 			}
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
-
-		String insertIngredientSQL = "INSERT INTO ingredients (id, name, unit, image_url, original) VALUES (?, ?, ?, ?, ?)";
-		try (PreparedStatement pstmt = conn.prepareStatement(insertIngredientSQL)) {
-			pstmt.setInt(1, ingredient.getId());
-			pstmt.setString(2, ingredient.getName());
-			pstmt.setString(3, ingredient.getUnit());
-			pstmt.setString(4, ingredient.getImage());
-			pstmt.setString(5, ingredient.getOriginal());
-			pstmt.executeUpdate();
-		}
-		return ingredient.getId();
+		return false;
 	}
 
 	/**
-	 * Links an ingredient to a recipe in the database with the specified amount and usage status. This method is called by
-	 * saveRecipeToDatabase for each ingredient in the recipe to be saved.
+	 * Adds one link row per ingredient to a batch. An ingredient listed twice for the same recipe is linked once.
 	 *
-	 * @param conn The database connection to be used for the operation.
-	 * @param recipeId The ID of the recipe to which the ingredient is to be linked.
-	 * @param ingredientId The ID of the ingredient to be linked to the recipe.
-	 * @param amount The amount of the ingredient used in the recipe.
-	 * @param isUsed Boolean indicating whether the ingredient is used or missed in the recipe.
-	 * @throws SQLException if there is a problem accessing the database.
+	 * @param pstmt The prepared link insert.
+	 * @param recipeId The ID of the recipe to which the ingredients are linked.
+	 * @param ingredients The ingredients to link.
+	 * @param isUsed Boolean indicating whether the ingredients are used or missed in the recipe.
+	 * @throws SQLException if a parameter cannot be set.
 	 */
-	private void linkRecipeIngredient(Connection conn, int recipeId, int ingredientId, double amount, boolean isUsed) throws SQLException {
-		String sql = "INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, is_used) VALUES (?, ?, ?, ?)";
-		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+	private void addIngredientLinks(PreparedStatement pstmt, int recipeId, List<Ingredient> ingredients, boolean isUsed) throws SQLException {
+		for (Ingredient ingredient : ingredients) {
 			pstmt.setInt(1, recipeId);
-			pstmt.setInt(2, ingredientId);
-			pstmt.setDouble(3, amount);
+			pstmt.setInt(2, ingredient.getId());
+			pstmt.setDouble(3, ingredient.getAmount());
 			pstmt.setBoolean(4, isUsed);
-			pstmt.executeUpdate();
+			pstmt.addBatch();
 		}
 	}
 
@@ -845,6 +1732,63 @@ public class DB {
 		return recipes;
 	}
 
+	/**
+	 * Retrieves one page of starred recipes with only their id, title and image, ordered by id. Pages are found by
+	 * id rather than by offset, so reading a later page costs the same as reading the first. The recipes returned
+	 * are not hydrated; use {@link #hydrateRecipes(List)} to load their ingredients and instructions.
+	 *
+	 * @param afterId The id of the last recipe of the previous page, or 0 for the first page.
+	 * @param limit The largest number of recipes to return.
+	 * @return The recipes of the page, or an empty list if there are no more or they could not be read.
+	 */
+	public List<Recipe> getStarredRecipePage(int afterId, int limit) {
+		List<Recipe> recipes = new ArrayList<>();
+		try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(Queries.SELECT_STARRED_RECIPE_PAGE)) {
+			pstmt.setInt(1, afterId);
+			pstmt.setInt(2, limit);
+			ResultSet rs = pstmt.executeQuery();
+			while (rs.next()) {
+				Recipe recipe = new Recipe(rs.getInt("id"), rs.getString("title"), rs.getString("image_url"));
+				// Instructions of a starred recipe come from the database, never from the API
+				recipe.setFetchedStep(true);
+				recipe.setHydrated(false);
+				recipes.add(recipe);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return recipes;
+	}
+
+	/**
+	 * Loads the ingredients and detailed instructions of starred recipes that were read as summaries. All recipes
+	 * are loaded with one query for ingredients and one for instructions.
+	 *
+	 * @param recipes The recipes to complete.
+	 * @return true if the recipes were loaded, false if the queries failed.
+	 */
+	public boolean hydrateRecipes(List<Recipe> recipes) {
+		List<Integer> recipeIds = new ArrayList<>();
+		for (Recipe recipe : recipes) {
+			recipeIds.add(recipe.getId());
+		}
+		try (Connection conn = connect()) {
+			Map<Integer, List<Ingredient>> ingredientsMap = getAllIngredientsForRecipes(conn, recipeIds);
+			Map<Integer, Map<Integer, String>> instructionsMap = getAllDetailedInstructionsForRecipes(conn, recipeIds);
+			for (Recipe recipe : recipes) {
+				recipe.setUsedIngredients(ingredientsMap.getOrDefault(recipe.getId(), new ArrayList<>()));
+				recipe.setMissedIngredients(new ArrayList<>());
+				recipe.setDetailedInstructions(instructionsMap.getOrDefault(recipe.getId(), new HashMap<>()));
+				recipe.setFetchedStep(true);
+				recipe.setHydrated(true);
+			}
+			return true;
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+
 	/**
 	 * Retrieves a mapping of recipe IDs to lists of Ingredient objects for a given list of recipe IDs. This method queries
 	 * the database to find all ingredients associated with each recipe ID provided. It's used to efficiently fetch ingredients
@@ -861,15 +1805,9 @@ public class DB {
 			return recipeIngredientsMap;
 		}
 
-		String inClause = recipeIds.stream().map(String::valueOf).collect(Collectors.joining(","));
-		String selectIngredientsSQL =
-				"SELECT ri.recipe_id, i.id, i.name, ri.amount, i.unit, i.image_url, i.original " +
-						"FROM ingredients i " +
-						"JOIN recipe_ingredients ri ON i.id = ri.ingredient_id " +
-						"WHERE ri.recipe_id IN (" + inClause + ")";
-
-		try (Statement stmt = conn.createStatement();
-			 ResultSet rsIngredients = stmt.executeQuery(selectIngredientsSQL)) {
+		try (PreparedStatement stmt = conn.prepareStatement(Queries.SELECT_RECIPE_INGREDIENTS)) {
+			stmt.setArray(1, conn.createArrayOf("integer", recipeIds.toArray()));
+			ResultSet rsIngredients = stmt.executeQuery();
 			while (rsIngredients.next()) {
 				int recipeId = rsIngredients.getInt("recipe_id");
 				int id = rsIngredients.getInt("id");
@@ -904,14 +1842,9 @@ public class DB {
 			return recipeInstructionsMap;
 		}
 
-		String inClause = recipeIds.stream().map(String::valueOf).collect(Collectors.joining(","));
-		String selectInstructionsSQL =
-				"SELECT recipe_id, step_number, instruction " +
-						"FROM detailed_instructions WHERE recipe_id IN (" + inClause + ") " +
-						"ORDER BY recipe_id, step_number";
-
-		try (Statement stmt = conn.createStatement();
-			 ResultSet rsInstructions = stmt.executeQuery(selectInstructionsSQL)) {
+		try (PreparedStatement stmt = conn.prepareStatement(Queries.SELECT_RECIPE_INSTRUCTIONS)) {
+			stmt.setArray(1, conn.createArrayOf("integer", recipeIds.toArray()));
+			ResultSet rsInstructions = stmt.executeQuery();
 			while (rsInstructions.next()) {
 				int recipeId = rsInstructions.getInt("recipe_id");
 				int stepNumber = rsInstructions.getInt("step_number");
@@ -954,6 +1887,7 @@ public class DB {
 				}
 
 				conn.commit();
+				publish(ChangeEvent.recipeRemoved(recipe));
 			} catch (SQLException e) {
 				try {
 					if (conn != null) conn.rollback();
@@ -977,6 +1911,11 @@ public class DB {
 	/**
 	 * Clears all recipe-related data from the database.
 	 * This includes recipes, their ingredients links, and detailed instructions.
+	 *
+	 * Recipes are shared by every household, so this clears the starred recipes
+	 * of all of them. It is left out of {@link Storage}, which holds what one
+	 * household's views and tools may change, and is meant for tests and
+	 * maintenance on a database of one's own.
 	 */
 	public void clearRecipesTable() {
 		Connection conn = init();
@@ -997,6 +1936,7 @@ public class DB {
 				}
 
 				conn.commit();
+				publish(ChangeEvent.recipesCleared());
 			} catch (SQLException e) {
 				e.printStackTrace();
 				try {
@@ -1029,26 +1969,18 @@ public class DB {
 	 */
 	public ArrayList<String> getTotalCount(String container) {
 		
-		Connection conn = init();
-		
-		try {
-			Statement s = conn.createStatement();
-			ResultSet result;
-			if (container == null){
-				result = s.executeQuery("SELECT * FROM item");
-			}
-			else {
-				result = s.executeQuery("Select * FROM item where container='" + container +"'");
+		String sql = container == null ? Queries.SELECT_ALL_FOOD_GROUPS : Queries.SELECT_CONTAINER_FOOD_GROUPS;
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(sql)) {
+			s.setInt(1, household);
+			if (container != null) {
+				s.setString(2, container);
 			}
+			ResultSet result = s.executeQuery();
 			
 			ArrayList<String> l = new ArrayList<String>();
 			while (result.next()) {
-				if (result.getString("fg") != null) {
-							l.add(result.getString("fg"));
-				}
-		
+				l.add(result.getString("fg"));
 			}
-			conn.close();
 			return l;
 			
 		} catch (SQLException e) {
@@ -1058,6 +1990,53 @@ public class DB {
 		return null;
 	}
 	
+	/**
+	 * Counts the items of each food group in a container, or in all containers if
+	 * none is specified. The counting is done by the database, so only one row
+	 * per food group is read.
+	 *
+	 * @param container The name of the container to count, or null to count
+	 *                  every container.
+	 * @return The number of items in each food group, with 0 for groups that have
+	 *         no items, or null if the query failed.
+	 */
+	public EnumMap<FoodGroup, Integer> getFoodGroupCounts(String container) {
+
+		String sql = container == null ? Queries.COUNT_ALL_FOOD_GROUPS : Queries.COUNT_CONTAINER_FOOD_GROUPS;
+		try (Connection conn = connect(); PreparedStatement s = conn.prepareStatement(sql)) {
+			s.setInt(1, household);
+			if (container != null) {
+				s.setString(2, container);
+			}
+			ResultSet result = s.executeQuery();
+
+			EnumMap<FoodGroup, Integer> counts = emptyFoodGroupCounts();
+			while (result.next()) {
+				FoodGroup group = GenericTag.fromString(FoodGroup.class, result.getString("fg")).getTag();
+				counts.put(group, result.getInt(2));
+			}
+			return counts;
+
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a food group histogram with every group set to 0.
+	 *
+	 * @return A map from every food group to 0.
+	 */
+	protected static EnumMap<FoodGroup, Integer> emptyFoodGroupCounts() {
+		EnumMap<FoodGroup, Integer> counts = new EnumMap<FoodGroup, Integer>(FoodGroup.class);
+		for (FoodGroup group : FoodGroup.values()) {
+			counts.put(group, 0);
+		}
+		return counts;
+	}
+
 	/**
 	 * Inserts custom tags associated with an item into the database.
 	 *
@@ -1065,13 +2044,13 @@ public class DB {
 	 * @param tag     The list of custom tags to be inserted.
 	 */
 	public void insertItemTag(String itemName, String tag) {
-	    Connection conn = init();
-	    try {
-	        PreparedStatement ps = conn.prepareStatement("INSERT INTO item_tags (item_name, tag) VALUES (?, ?)");
-	        ps.setString(1, itemName);
-	        ps.setString(2, tag);
+	    try (Connection conn = connect();
+	            PreparedStatement ps = conn.prepareStatement(Queries.INSERT_ITEM_TAG)) {
+	        ps.setInt(1, household);
+	        ps.setString(2, itemName);
+	        ps.setString(3, tag);
 	        ps.executeUpdate();
-	        conn.close();
+	        publish(ChangeEvent.tagAdded(itemName, tag));
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -1085,18 +2064,14 @@ public class DB {
      */
     public String getItemTag(String itemName) {
         String tag = null;
-        Connection conn = init();
-        try {
-            String query = "SELECT tag FROM item_tags WHERE item_name = ?";
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, itemName);
+        String query = "SELECT tag FROM item_tags WHERE household = ? AND item_name = ?";
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, household);
+            pstmt.setString(2, itemName);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 tag = rs.getString("tag");
             }
-            rs.close();
-            pstmt.close();
-            conn.close();
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1111,15 +2086,14 @@ public class DB {
      */
     public boolean removeItemTag(String itemName) {
         boolean success = false;
-        Connection conn = init();
-        try {
-        	String query = "DELETE FROM item_tags WHERE item_name = ?";
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, itemName);
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(Queries.DELETE_ITEM_TAGS)) {
+            pstmt.setInt(1, household);
+            pstmt.setString(2, itemName);
             int rowsAffected = pstmt.executeUpdate();
             success = rowsAffected > 0;
-            pstmt.close();
-            conn.close();
+            if (success) {
+                publish(ChangeEvent.tagRemoved(itemName));
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1133,13 +2107,13 @@ public class DB {
      * @param note     The note to be added
      */
     public void addNote(String itemName, String note) {
-        Connection conn = init();
-        try {
-            PreparedStatement statement = conn.prepareStatement("INSERT INTO note (item_name, note) VALUES (?, ?)");
-            statement.setString(1, itemName);
-            statement.setString(2, note);
+        try (Connection conn = connect();
+                PreparedStatement statement = conn.prepareStatement(Queries.INSERT_NOTE)) {
+            statement.setInt(1, household);
+            statement.setString(2, itemName);
+            statement.setString(3, note);
             statement.executeUpdate();
-            conn.close();
+            publish(ChangeEvent.noteAdded(itemName, note));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1151,27 +2125,130 @@ public class DB {
      * @param itemName The name of the item
      */
     public void deleteNote(String itemName) {
-        Connection conn = init();
-        try {
-            String query = "DELETE FROM note WHERE item_name = ?";
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, itemName);
-            pstmt.executeUpdate();
-            pstmt.close();
-            conn.close();
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(Queries.DELETE_NOTES)) {
+            pstmt.setInt(1, household);
+            pstmt.setString(2, itemName);
+            if (pstmt.executeUpdate() > 0) {
+                publish(ChangeEvent.noteRemoved(itemName));
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
-    
+    /**
+     * Replaces the tag of an item in one transaction. An empty or null tag
+     * removes it.
+     *
+     * @param itemName The name of the item.
+     * @param tag      The new tag.
+     */
+    public void replaceItemTag(String itemName, String tag) {
+        PendingEdits edits = new PendingEdits();
+        edits.setTag(itemName, tag);
+        if (applyEdits(edits)) {
+            publish(ChangeEvent.tagUpdated(itemName, tag));
+        }
+    }
+
+    /**
+     * Replaces all notes of an item with one note in one transaction. An empty
+     * or null note removes them.
+     *
+     * @param itemName The name of the item.
+     * @param note     The new note.
+     */
+    public void replaceNote(String itemName, String note) {
+        PendingEdits edits = new PendingEdits();
+        edits.setNote(itemName, note);
+        if (applyEdits(edits)) {
+            publish(ChangeEvent.noteUpdated(itemName, note));
+        }
+    }
+
+    /**
+     * Writes quantity, tag and note edits in one transaction, each kind as a
+     * single JDBC batch.
+     *
+     * @param edits The edits to write.
+     * @return true if the edits were committed, false otherwise.
+     */
+    boolean applyEdits(PendingEdits edits) {
+        return applyEdits(edits, null);
+    }
+
+    /**
+     * Writes quantity, tag and note edits in one transaction, and lists the
+     * quantity edits whose item is no longer stored.
+     *
+     * @param edits   The edits to write.
+     * @param missing Receives the key of every quantity edit that matched no
+     *                item, or null.
+     * @return true if the edits were committed, false otherwise.
+     */
+    boolean applyEdits(PendingEdits edits, List<ItemKey> missing) {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            if (!edits.getQuantities().isEmpty()) {
+                try (PreparedStatement p = conn.prepareStatement(Queries.UPDATE_QUANTITY)) {
+                    for (Map.Entry<ItemKey, Integer> e : edits.getQuantities().entrySet()) {
+                        p.setInt(1, e.getValue());
+                        p.setInt(2, household);
+                        p.setString(3, e.getKey().name);
+                        p.setString(4, e.getKey().container);
+                        p.addBatch();
+                    }
+                    int[] counts = p.executeBatch();
+                    if (missing != null) {
+                        int i = 0;
+                        for (ItemKey key : edits.getQuantities().keySet()) {
+                            if (counts[i++] == 0) {
+                                missing.add(key);
+                            }
+                        }
+                    }
+                }
+            }
+            replaceAll(conn, household, Queries.DELETE_ITEM_TAGS, Queries.INSERT_ITEM_TAG, edits.getTags());
+            replaceAll(conn, household, Queries.DELETE_NOTES, Queries.INSERT_NOTE, edits.getNotes());
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private static void replaceAll(Connection conn, int household, String deleteSql, String insertSql,
+            Map<String, String> values) throws SQLException {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            for (Map.Entry<String, String> e : values.entrySet()) {
+                delete.setInt(1, household);
+                delete.setString(2, e.getKey());
+                delete.addBatch();
+                if (!e.getValue().isEmpty()) {
+                    insert.setInt(1, household);
+                    insert.setString(2, e.getKey());
+                    insert.setString(3, e.getValue());
+                    insert.addBatch();
+                }
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+        }
+    }
+
     // Method to retrieve notes for a specific item
     public String getNote(String itemName) {
         StringBuilder noteBuilder = new StringBuilder();
-        Connection conn = init();
-        try {
-            PreparedStatement statement = conn.prepareStatement("SELECT note FROM note WHERE item_name = ?");
-            statement.setString(1, itemName);
+        try (Connection conn = connect();
+                PreparedStatement statement = conn.prepareStatement("SELECT note FROM note WHERE household = ? AND item_name = ?")) {
+            statement.setInt(1, household);
+            statement.setString(2, itemName);
             ResultSet resultSet = statement.executeQuery();
             while (resultSet.next()) {
                 if (noteBuilder.length() > 0) {
@@ -1179,7 +2256,6 @@ public class DB {
                 }
                 noteBuilder.append(resultSet.getString("note"));
             }
-            conn.close();
         } catch (SQLException e) {
             e.printStackTrace();
         }
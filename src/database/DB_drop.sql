@@ -10,3 +10,13 @@ DROP TABLE IF EXISTS "detailed_instructions" CASCADE;
 DROP TABLE IF EXISTS "recipe_ingredients" CASCADE;
 DROP TABLE IF EXISTS "note";
 DROP TABLE IF EXISTS "item_tags";
+DROP TABLE IF EXISTS "schema_version";
+DROP TABLE IF EXISTS "household" CASCADE;
+DROP FUNCTION IF EXISTS create_household(varchar);
+DROP TABLE IF EXISTS "change_log";
+DROP TABLE IF EXISTS "change_log_pruned";
+DROP FUNCTION IF EXISTS log_item_changes();
+DROP FUNCTION IF EXISTS log_container_changes();
+DROP FUNCTION IF EXISTS log_grocery_changes();
+DROP FUNCTION IF EXISTS log_recipe_changes();
+DROP FUNCTION IF EXISTS log_annotation_changes();
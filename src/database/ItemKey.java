@@ -0,0 +1,40 @@
+package database;
+
+import java.util.Objects;
+
+/**
+ * The key of an item row: its container and name. Item names are only unique
+ * within a container, so both are needed to identify an item.
+ */
+final class ItemKey implements Comparable<ItemKey> {
+	final String container;
+	final String name;
+
+	ItemKey(String container, String name) {
+		this.container = container;
+		this.name = name;
+	}
+
+	/**
+	 * Orders keys by container, then by name.
+	 */
+	@Override
+	public int compareTo(ItemKey other) {
+		int c = container.compareTo(other.container);
+		return c != 0 ? c : name.compareTo(other.name);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof ItemKey)) {
+			return false;
+		}
+		ItemKey other = (ItemKey) o;
+		return container.equals(other.container) && name.equals(other.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(container, name);
+	}
+}
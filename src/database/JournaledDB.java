@@ -0,0 +1,851 @@
+package database;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+import domain.logic.item.ItemImportRow;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.recipe.Recipe;
+
+/**
+ * A {@link DB} that keeps working while PostgreSQL is unreachable. Item, grocery
+ * and tag writes are recorded in a {@link WriteJournal} on local disk and
+ * applied to an in-memory copy of the pantry, then replayed to the database in
+ * order by a background thread, so they return as soon as the journal record
+ * is on disk however slow the server is.
+ *
+ * Reads go to the database once the journal has been replayed. While writes
+ * are still waiting to be replayed, or the database cannot be reached, they are
+ * answered from the in-memory copy, which starts from the startup snapshot if
+ * there is one and is reloaded from the database whenever it comes back. Other
+ * writes, such as creating containers or editing notes, still need the
+ * database and are refused while it is down.
+ *
+ * Journaled writes publish their {@link ChangeEvent} when they are recorded,
+ * and a reload of the in-memory copy publishes
+ * {@link ChangeEvent#pantryReloaded()}.
+ *
+ * Writes the database does not accept on replay, such as an item another
+ * client already added, are dropped from the journal and reported as
+ * {@link ReplayConflict}s. A write is only dropped once the database has
+ * stored it or refused it. Replay is at least once: a write that was applied
+ * just before a crash may be applied again, which leaves the data as it was
+ * and at most reports the repeat as a conflict.
+ */
+public class JournaledDB extends DB {
+
+	/**
+	 * Default time between background replays.
+	 */
+	public static final long DEFAULT_REPLAY_INTERVAL_MILLIS = 250;
+
+	/**
+	 * Time between attempts to reach the database while offline.
+	 */
+	public static final long OFFLINE_RETRY_MILLIS = 2000;
+
+	/**
+	 * Largest number of journal writes replayed in one batch.
+	 */
+	private static final int REPLAY_BATCH = 500;
+
+	private final DB remote = new DB(getHousehold());
+	private final WriteJournal journal;
+	private final Object lock = new Object();
+	private final Object replayLock = new Object();
+	private final List<ReplayConflict> conflicts = new CopyOnWriteArrayList<>();
+	private final ScheduledExecutorService replayer;
+	private final Runnable shutdownTask = this::close;
+	private volatile MemoryStorage local;
+	private volatile boolean online = true;
+	private volatile boolean needsResync = true;
+	/**
+	 * Whether the in-memory copy holds the pantry, from a snapshot or a read of
+	 * the database, rather than only the writes made since startup.
+	 */
+	private volatile boolean loaded;
+	private volatile Consumer<ReplayConflict> conflictListener = c -> System.err.println("Replay conflict: " + c);
+	private long localVersion;
+	private long nextProbe;
+
+	/**
+	 * Creates a journaled database with the default replay interval.
+	 *
+	 * @param journalFile  The file holding writes not replayed yet.
+	 * @param snapshotFile A {@link PantrySnapshot} to start the in-memory copy
+	 *                     from, or null.
+	 * @throws IOException if the journal could not be opened
+	 */
+	public JournaledDB(Path journalFile, Path snapshotFile) throws IOException {
+		this(journalFile, snapshotFile, DEFAULT_REPLAY_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Creates a journaled database.
+	 *
+	 * @param journalFile          The file holding writes not replayed yet.
+	 * @param snapshotFile         A {@link PantrySnapshot} to start the in-memory
+	 *                             copy from, or null.
+	 * @param replayIntervalMillis The time between background replays.
+	 * @throws IOException if the journal could not be opened
+	 */
+	public JournaledDB(Path journalFile, Path snapshotFile, long replayIntervalMillis) throws IOException {
+		journal = new WriteJournal(journalFile);
+
+		MemoryStorage copy = null;
+		if (snapshotFile != null && Files.isRegularFile(snapshotFile)) {
+			try {
+				copy = PantrySnapshot.load(snapshotFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		local = copy != null ? copy : new MemoryStorage();
+		loaded = copy != null;
+		// Writes made after the snapshot was taken
+		for (WriteJournal.Entry entry : journal.pending()) {
+			apply(local, entry);
+		}
+
+		// Creating the pool registers the shutdown hook that runs the final replay
+		getConnectionPool();
+		addShutdownTask(shutdownTask);
+
+		replayer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "journal-replayer");
+			t.setDaemon(true);
+			return t;
+		});
+		replayer.scheduleWithFixedDelay(this::backgroundReplay, 0, replayIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Checks a connection out of the pool, switching to offline mode when the
+	 * database cannot be reached.
+	 */
+	@Override
+	protected Connection connect() throws SQLException {
+		try {
+			return super.connect();
+		} catch (SQLException e) {
+			goOffline();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return true unless the database was found unreachable and has not answered
+	 *         since.
+	 */
+	public boolean isOnline() {
+		return online;
+	}
+
+	/**
+	 * @return The number of journal writes not replayed yet.
+	 */
+	public int getPendingCount() {
+		return journal.size();
+	}
+
+	/**
+	 * @return The writes refused by the database so far, oldest first.
+	 */
+	public List<ReplayConflict> getConflicts() {
+		return Collections.unmodifiableList(new ArrayList<ReplayConflict>(conflicts));
+	}
+
+	/**
+	 * Sets what is told about refused writes, on the replaying thread. By default
+	 * they are printed.
+	 *
+	 * @param listener Called once for every refused write.
+	 */
+	public void setConflictListener(Consumer<ReplayConflict> listener) {
+		conflictListener = listener;
+	}
+
+	/**
+	 * Replays the journal to the database now, in order. Consecutive item adds to
+	 * one container are sent as one batch, and consecutive quantity and tag
+	 * edits as one transaction.
+	 *
+	 * @return true if nothing is left to replay, false if the database could not
+	 *         be reached.
+	 */
+	public boolean replay() {
+		synchronized (replayLock) {
+			List<WriteJournal.Entry> entries = journal.pending();
+			int start = 0;
+			while (start < entries.size()) {
+				int end = batchEnd(entries, start);
+				List<WriteJournal.Entry> batch = entries.subList(start, end);
+				if (!replayBatch(batch)) {
+					goOffline();
+					return false;
+				}
+				try {
+					journal.acknowledge(batch.get(batch.size() - 1).getSequence());
+				} catch (IOException e) {
+					e.printStackTrace();
+					return false;
+				}
+				start = end;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Stops the background replays, replays what is left if the database can be
+	 * reached and closes the journal.
+	 */
+	public void close() {
+		removeShutdownTask(shutdownTask);
+		replayer.shutdown();
+		if (online) {
+			replay();
+		}
+		try {
+			journal.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public Boolean addItem(Container c, String name, Item ite) {
+		synchronized (lock) {
+			if (ite == null || name == null || local.getItem(c, name) != null
+					|| !record(WriteJournal.Entry.addItem(c.getName(), ite))) {
+				return false;
+			}
+			if (!local.findContainer(c.getName())) {
+				local.putContainer(c.getName());
+			}
+			local.addItem(c, name, ite);
+		}
+		publish(ChangeEvent.itemAdded(c.getName(), ite));
+		return true;
+	}
+
+	@Override
+	public void removeItem(Container container, String itemName) {
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.removeItem(container.getName(), itemName))) {
+				return;
+			}
+			local.removeItem(container, itemName);
+		}
+		publish(ChangeEvent.itemRemoved(container.getName(), itemName));
+	}
+
+	@Override
+	public void updateQuantity(String item, int value, Container c) {
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.updateQuantity(c.getName(), item, value))) {
+				return;
+			}
+			local.updateQuantity(item, value, c);
+		}
+		publish(ChangeEvent.quantityUpdated(c.getName(), item, value));
+	}
+
+	@Override
+	public void addToGroceryList(String itemName) {
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.addGrocery(itemName))) {
+				return;
+			}
+			local.addToGroceryList(itemName);
+		}
+		publish(ChangeEvent.groceryAdded(itemName));
+	}
+
+	@Override
+	public void removeFromGroceryList(String itemName) {
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.removeGrocery(itemName))) {
+				return;
+			}
+			local.removeFromGroceryList(itemName);
+		}
+		publish(ChangeEvent.groceryRemoved(itemName));
+	}
+
+	@Override
+	public void insertItemTag(String itemName, String tag) {
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.insertTag(itemName, tag))) {
+				return;
+			}
+			local.insertItemTag(itemName, tag);
+		}
+		publish(ChangeEvent.tagAdded(itemName, tag));
+	}
+
+	@Override
+	public boolean removeItemTag(String itemName) {
+		boolean removed;
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.removeTag(itemName))) {
+				return false;
+			}
+			removed = local.removeItemTag(itemName);
+		}
+		if (removed) {
+			publish(ChangeEvent.tagRemoved(itemName));
+		}
+		return removed;
+	}
+
+	@Override
+	public void replaceItemTag(String itemName, String tag) {
+		synchronized (lock) {
+			if (!record(WriteJournal.Entry.replaceTag(itemName, tag))) {
+				return;
+			}
+			local.replaceItemTag(itemName, tag);
+		}
+		publish(ChangeEvent.tagUpdated(itemName, tag));
+	}
+
+	@Override
+	protected boolean commit(UnitOfWork unit) {
+		return write(() -> super.commit(unit), s -> {
+			for (Consumer<Storage> operation : unit.getOperations()) {
+				operation.accept(s);
+			}
+		}, false);
+	}
+
+	@Override
+	public void putContainer(String nameOfContainer) {
+		write(() -> super.putContainer(nameOfContainer), s -> s.putContainer(nameOfContainer));
+	}
+
+	@Override
+	public void removeContainer(String name) {
+		write(() -> super.removeContainer(name), s -> s.removeContainer(name));
+	}
+
+	@Override
+	public void editContainer(String prevName, String newName) {
+		write(() -> super.editContainer(prevName, newName), s -> s.editContainer(prevName, newName));
+	}
+
+	@Override
+	public void emptyContainer(Container c) {
+		write(() -> super.emptyContainer(c), s -> s.emptyContainer(c));
+	}
+
+	@Override
+	public void addContainer(String containerName, Container c) {
+		write(() -> super.addContainer(containerName, c), s -> s.addContainer(containerName, c));
+	}
+
+	@Override
+	public List<AddItemOutcome> addItems(Container c, Collection<Item> items) {
+		return write(() -> super.addItems(c, items), s -> s.addItems(c, items), null);
+	}
+
+	@Override
+	public List<ItemImportRow> importItems(Iterator<ItemImportRow> rows) {
+		// The rows can only be read once, so the copy is reloaded instead
+		return write(() -> super.importItems(rows), s -> needsResync = true, null);
+	}
+
+	@Override
+	public void updateItemFoodGroup(Container c, String itemName, FoodGroup newFoodGroup) {
+		write(() -> super.updateItemFoodGroup(c, itemName, newFoodGroup),
+				s -> s.updateItemFoodGroup(c, itemName, newFoodGroup));
+	}
+
+	@Override
+	public int refreshFreshness() {
+		return write(super::refreshFreshness, Storage::refreshFreshness, -1);
+	}
+
+	@Override
+	public void setFontsize(int n) {
+		write(() -> super.setFontsize(n), s -> s.setFontsize(n));
+	}
+
+	@Override
+	public void setNotificationBoolean(boolean b) {
+		write(() -> super.setNotificationBoolean(b), s -> s.setNotificationBoolean(b));
+	}
+
+	@Override
+	public void addNote(String itemName, String note) {
+		write(() -> super.addNote(itemName, note), s -> s.addNote(itemName, note));
+	}
+
+	@Override
+	public void deleteNote(String itemName) {
+		write(() -> super.deleteNote(itemName), s -> s.deleteNote(itemName));
+	}
+
+	@Override
+	public void replaceNote(String itemName, String note) {
+		write(() -> super.replaceNote(itemName, note), s -> s.replaceNote(itemName, note));
+	}
+
+	@Override
+	public boolean saveRecipeToDatabase(Recipe recipe) {
+		return write(() -> super.saveRecipeToDatabase(recipe), s -> {
+		}, false);
+	}
+
+	@Override
+	public void removeStarredRecipe(Recipe recipe) {
+		write(() -> super.removeStarredRecipe(recipe), s -> {
+		});
+	}
+
+	@Override
+	public List<String> retrieveContainers() {
+		return read(super::retrieveContainers, Storage::retrieveContainers);
+	}
+
+	@Override
+	public boolean findContainer(String name) {
+		return read(() -> super.findContainer(name), s -> s.findContainer(name));
+	}
+
+	@Override
+	public Item getItem(Container c, String itemName) {
+		return read(() -> super.getItem(c, itemName), s -> s.getItem(c, itemName));
+	}
+
+	@Override
+	public List<Item> retrieveItems(Container c) {
+		return read(() -> super.retrieveItems(c), s -> s.retrieveItems(c));
+	}
+
+	@Override
+	public boolean forEachItem(Container c, Consumer<Item> action) {
+		return read(() -> super.forEachItem(c, action), s -> s.forEachItem(c, action));
+	}
+
+	@Override
+	public List<Item> retrieveAnnotatedItems(Container c) {
+		return read(() -> super.retrieveAnnotatedItems(c), s -> s.retrieveAnnotatedItems(c));
+	}
+
+	@Override
+	public Flow.Publisher<ContainerItem> publishAllItems() {
+		return read(super::publishAllItems, Storage::publishAllItems);
+	}
+
+	@Override
+	public ItemPage queryItems(ItemQuery query) {
+		return read(() -> super.queryItems(query), s -> s.queryItems(query));
+	}
+
+	@Override
+	public ItemPage nextPage(ItemPage page) {
+		return read(() -> super.nextPage(page), s -> s.nextPage(page));
+	}
+
+	@Override
+	public ItemPage previousPage(ItemPage page) {
+		return read(() -> super.previousPage(page), s -> s.previousPage(page));
+	}
+
+	@Override
+	public List<String> getExpiringItems() {
+		return read(super::getExpiringItems, Storage::getExpiringItems);
+	}
+
+	@Override
+	public Set<String> getNearExpiryOrFreshItemNames() {
+		return read(super::getNearExpiryOrFreshItemNames, Storage::getNearExpiryOrFreshItemNames);
+	}
+
+	@Override
+	public ArrayList<String> getTotalCount(String container) {
+		return read(() -> super.getTotalCount(container), s -> s.getTotalCount(container));
+	}
+
+	@Override
+	public EnumMap<FoodGroup, Integer> getFoodGroupCounts(String container) {
+		return read(() -> super.getFoodGroupCounts(container), s -> s.getFoodGroupCounts(container));
+	}
+
+	@Override
+	public String getStorageTip(String name) {
+		return read(() -> super.getStorageTip(name), s -> s.getStorageTip(name));
+	}
+
+	@Override
+	public Object[][] getAllGroceryItems() {
+		return read(super::getAllGroceryItems, Storage::getAllGroceryItems);
+	}
+
+	@Override
+	public Flow.Publisher<String> publishGroceryItems() {
+		return read(super::publishGroceryItems, Storage::publishGroceryItems);
+	}
+
+	@Override
+	public String[] getSettings() {
+		return read(super::getSettings, Storage::getSettings);
+	}
+
+	@Override
+	public boolean isRecipeInDatabase(int recipeId) {
+		return read(() -> super.isRecipeInDatabase(recipeId), s -> s.isRecipeInDatabase(recipeId));
+	}
+
+	@Override
+	public List<Recipe> getAllStarredRecipes() {
+		return read(super::getAllStarredRecipes, Storage::getAllStarredRecipes);
+	}
+
+	@Override
+	public List<Recipe> getStarredRecipePage(int afterId, int limit) {
+		return read(() -> super.getStarredRecipePage(afterId, limit), s -> s.getStarredRecipePage(afterId, limit));
+	}
+
+	@Override
+	public boolean hydrateRecipes(List<Recipe> recipes) {
+		return read(() -> super.hydrateRecipes(recipes), s -> s.hydrateRecipes(recipes));
+	}
+
+	@Override
+	public String getItemTag(String itemName) {
+		return read(() -> super.getItemTag(itemName), s -> s.getItemTag(itemName));
+	}
+
+	@Override
+	public String getNote(String itemName) {
+		return read(() -> super.getNote(itemName), s -> s.getNote(itemName));
+	}
+
+	/**
+	 * Answers a read from the database once the journal is replayed, or from the
+	 * in-memory copy when the database cannot be reached. While writes are
+	 * waiting in the journal the copy answers too, since it already holds them,
+	 * and the replay is left to the background thread so the caller does not
+	 * wait for a slow server. Only before the copy was first loaded is the
+	 * journal replayed here.
+	 */
+	private <T> T read(Supplier<T> fromDatabase, Function<Storage, T> fromCopy) {
+		if (online && (journal.isEmpty() || !loaded && replay())) {
+			// A connection failure switches to offline mode before DB returns
+			T result = fromDatabase.get();
+			if (online) {
+				return result;
+			}
+		}
+		return fromCopy.apply(local);
+	}
+
+	private void write(Runnable toDatabase, Consumer<Storage> toCopy) {
+		write(() -> {
+			toDatabase.run();
+			return null;
+		}, toCopy, null);
+	}
+
+	/**
+	 * Makes a write that is not journaled: the journal is replayed first so it
+	 * applies in order, then the write goes to the database and, if it was
+	 * reached, to the in-memory copy.
+	 */
+	private <T> T write(Supplier<T> toDatabase, Consumer<Storage> toCopy, T offlineResult) {
+		if (online && replay()) {
+			T result = toDatabase.get();
+			if (online) {
+				synchronized (lock) {
+					toCopy.accept(local);
+					localVersion++;
+				}
+				return result;
+			}
+		}
+		System.err.println("The database cannot be reached, the change was not saved");
+		return offlineResult;
+	}
+
+	/**
+	 * Appends a write to the journal. Called with the lock held, before the
+	 * write is applied to the in-memory copy, so a write is only acknowledged
+	 * once it will survive a restart.
+	 *
+	 * @return false if the journal could not be written, in which case the write
+	 *         must not be made.
+	 */
+	private boolean record(WriteJournal.Entry entry) {
+		try {
+			journal.append(entry);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.err.println("The write could not be journaled and was not saved");
+			return false;
+		}
+		localVersion++;
+		return true;
+	}
+
+	private void goOffline() {
+		if (online) {
+			online = false;
+			System.err.println("The database cannot be reached, working offline");
+		}
+	}
+
+	private boolean reachable() {
+		try (Connection conn = getConnectionPool().getConnection()) {
+			return conn.isValid(2);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Runs on the replay thread: checks whether an unreachable database is back,
+	 * replays the journal and reloads the in-memory copy when it may be out of
+	 * date.
+	 */
+	private void backgroundReplay() {
+		try {
+			if (!online) {
+				if (System.currentTimeMillis() < nextProbe) {
+					return;
+				}
+				if (!reachable()) {
+					nextProbe = System.currentTimeMillis() + OFFLINE_RETRY_MILLIS;
+					return;
+				}
+				System.err.println("The database is reachable again, replaying " + journal.size() + " writes");
+				needsResync = true;
+				online = true;
+			}
+			if (replay() && needsResync && resync()) {
+				needsResync = false;
+			}
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Replaces the in-memory copy with a fresh read of the database, unless a
+	 * write was made while it was read.
+	 *
+	 * @return true if the copy was replaced.
+	 */
+	private boolean resync() {
+		long version;
+		synchronized (lock) {
+			version = localVersion;
+		}
+		MemoryStorage copy = new MemoryStorage();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PantrySnapshot.write(remote, out);
+			PantrySnapshot.restore(ByteBuffer.wrap(out.toByteArray()), copy);
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			return false;
+		}
+		synchronized (lock) {
+			if (version != localVersion || !journal.isEmpty()) {
+				return false;
+			}
+			local = copy;
+			loaded = true;
+		}
+		publish(ChangeEvent.pantryReloaded());
+		return true;
+	}
+
+	/**
+	 * Sends one batch of journal writes to the database.
+	 *
+	 * @return true if the batch was applied or refused, false if the database
+	 *         could not be reached.
+	 */
+	private boolean replayBatch(List<WriteJournal.Entry> batch) {
+		WriteJournal.Entry first = batch.get(0);
+		switch (first.getOp()) {
+		case ADD_ITEM: {
+			List<Item> items = new ArrayList<Item>();
+			for (WriteJournal.Entry e : batch) {
+				items.add(e.toItem());
+			}
+			List<AddItemOutcome> outcomes = remote.addItems(new Container(first.getContainer()), items);
+			if (outcomes == null) {
+				return refuse(batch, "the database did not accept the items");
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				if (outcomes.get(i) == AddItemOutcome.DUPLICATE) {
+					conflict(batch.get(i), "the item is already stored in " + first.getContainer());
+				} else if (outcomes.get(i) == AddItemOutcome.INVALID) {
+					conflict(batch.get(i), "the item is not valid");
+				}
+			}
+			return true;
+		}
+		case UPDATE_QUANTITY:
+		case REPLACE_TAG: {
+			PendingEdits edits = new PendingEdits();
+			for (WriteJournal.Entry e : batch) {
+				if (e.getOp() == WriteJournal.Op.UPDATE_QUANTITY) {
+					edits.setQuantity(e.getContainer(), e.getName(), e.getQuantity());
+				} else {
+					edits.setTag(e.getName(), e.getText());
+				}
+			}
+			List<ItemKey> missing = new ArrayList<ItemKey>();
+			if (!remote.applyEdits(edits, missing)) {
+				return refuse(batch, "the database did not accept the edits");
+			}
+			for (WriteJournal.Entry e : batch) {
+				if (e.getOp() == WriteJournal.Op.UPDATE_QUANTITY
+						&& missing.contains(new ItemKey(e.getContainer(), e.getName()))) {
+					conflict(e, "the item is no longer stored");
+				}
+			}
+			return true;
+		}
+		default:
+			// A unit of work reports whether the write was stored
+			try (UnitOfWork unit = remote.beginUnitOfWork()) {
+				if (!stage(unit, first).commit()) {
+					return refuse(batch, "the database did not accept the write");
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Adds a journal write that is replayed on its own to a unit of work.
+	 */
+	private static UnitOfWork stage(UnitOfWork unit, WriteJournal.Entry e) {
+		switch (e.getOp()) {
+		case REMOVE_ITEM:
+			return unit.removeItem(new Container(e.getContainer()), e.getName());
+		case ADD_GROCERY:
+			return unit.addToGroceryList(e.getName());
+		case REMOVE_GROCERY:
+			return unit.removeFromGroceryList(e.getName());
+		case INSERT_TAG:
+			return unit.insertItemTag(e.getName(), e.getText());
+		case REMOVE_TAG:
+			return unit.removeItemTag(e.getName());
+		default:
+			throw new IllegalArgumentException("Replayed in a batch: " + e.getOp());
+		}
+	}
+
+	/**
+	 * Reports a failed batch as refused if the database can still be reached.
+	 */
+	private boolean refuse(List<WriteJournal.Entry> batch, String reason) {
+		if (!reachable()) {
+			return false;
+		}
+		for (WriteJournal.Entry e : batch) {
+			conflict(e, reason);
+		}
+		return true;
+	}
+
+	private void conflict(WriteJournal.Entry entry, String reason) {
+		ReplayConflict c = new ReplayConflict(entry, reason);
+		conflicts.add(c);
+		// The copy holds a write the database does not
+		needsResync = true;
+		Consumer<ReplayConflict> listener = conflictListener;
+		if (listener != null) {
+			listener.accept(c);
+		}
+	}
+
+	private static int batchEnd(List<WriteJournal.Entry> entries, int start) {
+		WriteJournal.Entry first = entries.get(start);
+		int end = start + 1;
+		while (end < entries.size() && end - start < REPLAY_BATCH && sameBatch(first, entries.get(end))) {
+			end++;
+		}
+		return end;
+	}
+
+	private static boolean sameBatch(WriteJournal.Entry first, WriteJournal.Entry next) {
+		switch (first.getOp()) {
+		case ADD_ITEM:
+			return next.getOp() == WriteJournal.Op.ADD_ITEM && next.getContainer().equals(first.getContainer());
+		case UPDATE_QUANTITY:
+		case REPLACE_TAG:
+			return next.getOp() == WriteJournal.Op.UPDATE_QUANTITY || next.getOp() == WriteJournal.Op.REPLACE_TAG;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Applies one journal write to a store.
+	 */
+	private static void apply(Storage s, WriteJournal.Entry e) {
+		switch (e.getOp()) {
+		case ADD_ITEM:
+			Container c = new Container(e.getContainer());
+			if (!s.findContainer(c.getName())) {
+				s.putContainer(c.getName());
+			}
+			s.addItem(c, e.getName(), e.toItem());
+			break;
+		case REMOVE_ITEM:
+			s.removeItem(new Container(e.getContainer()), e.getName());
+			break;
+		case UPDATE_QUANTITY:
+			s.updateQuantity(e.getName(), e.getQuantity(), new Container(e.getContainer()));
+			break;
+		case ADD_GROCERY:
+			s.addToGroceryList(e.getName());
+			break;
+		case REMOVE_GROCERY:
+			s.removeFromGroceryList(e.getName());
+			break;
+		case INSERT_TAG:
+			s.insertItemTag(e.getName(), e.getText());
+			break;
+		case REMOVE_TAG:
+			s.removeItemTag(e.getName());
+			break;
+		case REPLACE_TAG:
+			s.replaceItemTag(e.getName(), e.getText());
+			break;
+		}
+	}
+}
@@ -0,0 +1,929 @@
+package database;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.FoodFreshness;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.GenericTag;
+import domain.logic.item.Item;
+import domain.logic.item.ItemImportRow;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.item.ItemSort;
+import domain.logic.recipe.Recipe;
+
+/**
+ * A {@link Storage} engine that keeps the whole pantry in memory. It follows
+ * the same rules as the PostgreSQL engine: item names are unique within a
+ * container, removing a container removes its items, freshness is computed from
+ * the expiry date when an item is added, and callers get copies of the stored
+ * items rather than the stored objects. Nothing is written to disk, so it suits
+ * demos, tests and benchmarks that should do no I/O, as well as embedding.
+ *
+ * Items are keyed by (container, name) in concurrent maps and indexed by expiry
+ * date, food group and freshness, so expiring items, food group counts and
+ * freshness refreshes do not scan the whole pantry. Stored items are never
+ * changed in place: an update replaces the item with an edited copy, so reads
+ * take no locks. Writes lock the stripe of their container, and operations
+ * touching several containers lock each of their stripes in a fixed order.
+ */
+public class MemoryStorage implements Storage {
+
+	/**
+	 * Number of elements sent at once by the publishers.
+	 */
+	private static final int CHUNK_SIZE = DB.DEFAULT_FETCH_SIZE;
+
+	/**
+	 * Number of locks the containers are spread over.
+	 */
+	private static final int STRIPES = 16;
+
+	/**
+	 * Names of the items of each container, in name order.
+	 */
+	private final ConcurrentHashMap<String, ConcurrentSkipListSet<String>> containers = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<ItemKey, Item> items = new ConcurrentHashMap<>();
+
+	/**
+	 * Items by expiry day. Days whose items have all gone are left in place;
+	 * there is at most one per distinct expiry day.
+	 */
+	private final ConcurrentSkipListMap<LocalDate, Set<ItemKey>> byExpiry = new ConcurrentSkipListMap<>();
+	private final Map<FoodGroup, Set<ItemKey>> byFoodGroup = new EnumMap<>(FoodGroup.class);
+	private final Map<FoodFreshness, Set<ItemKey>> byFreshness = new EnumMap<>(FoodFreshness.class);
+
+	private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+	private final ConcurrentHashMap<String, List<String>> tags = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, List<String>> notes = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, String> storageTips = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListSet<String> groceryList = new ConcurrentSkipListSet<>();
+	private final ConcurrentSkipListMap<Integer, Recipe> recipes = new ConcurrentSkipListMap<>();
+	private volatile int fontSize = 14;
+	private volatile boolean notifications = true;
+
+	private final ChangeBus changes = new ChangeBus();
+
+	/**
+	 * Creates an empty in-memory store.
+	 */
+	public MemoryStorage() {
+		for (FoodGroup group : FoodGroup.values()) {
+			byFoodGroup.put(group, ConcurrentHashMap.newKeySet());
+		}
+		for (FoodFreshness fresh : FoodFreshness.values()) {
+			byFreshness.put(fresh, ConcurrentHashMap.newKeySet());
+		}
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Stores the storage tip shown for a food. The PostgreSQL engine reads tips
+	 * from the storage_tips table, which this engine has no equivalent of.
+	 *
+	 * @param name The name of the food, as in {@link #getStorageTip(String)}.
+	 * @param info The tip.
+	 */
+	public void putStorageTip(String name, String info) {
+		storageTips.put(formatTipName(name), info);
+	}
+
+	@Override
+	public ChangeBus getChangeBus() {
+		return changes;
+	}
+
+	@Override
+	public void putContainer(String nameOfContainer) {
+		if (containers.putIfAbsent(nameOfContainer, new ConcurrentSkipListSet<String>()) == null) {
+			changes.publish(ChangeEvent.containerAdded(nameOfContainer));
+		}
+	}
+
+	@Override
+	public List<String> retrieveContainers() {
+		return new ArrayList<String>(new TreeSet<String>(containers.keySet()));
+	}
+
+	@Override
+	public boolean findContainer(String name) {
+		return containers.containsKey(name);
+	}
+
+	@Override
+	public void removeContainer(String name) {
+		ReentrantLock lock = stripe(name);
+		lock.lock();
+		try {
+			Set<String> names = containers.remove(name);
+			if (names == null) {
+				return;
+			}
+			for (String itemName : names) {
+				delete(new ItemKey(name, itemName));
+			}
+		} finally {
+			lock.unlock();
+		}
+		changes.publish(ChangeEvent.containerRemoved(name));
+	}
+
+	/**
+	 * Renames a container. Like the item foreign key in PostgreSQL, a container
+	 * that still has items, or a name already in use, is left unchanged.
+	 */
+	@Override
+	public void editContainer(String prevName, String newName) {
+		int[] held = lockAll(List.of(prevName, newName));
+		try {
+			Set<String> names = containers.get(prevName);
+			if (names == null || !names.isEmpty() || containers.containsKey(newName)) {
+				return;
+			}
+			containers.put(newName, new ConcurrentSkipListSet<String>());
+			containers.remove(prevName);
+		} finally {
+			unlockAll(held);
+		}
+		changes.publish(ChangeEvent.containerRenamed(prevName, newName));
+	}
+
+	@Override
+	public void emptyContainer(Container c) {
+		ReentrantLock lock = stripe(c.getName());
+		lock.lock();
+		try {
+			Set<String> names = containers.get(c.getName());
+			if (names == null || names.isEmpty()) {
+				return;
+			}
+			for (String itemName : names) {
+				delete(new ItemKey(c.getName(), itemName));
+			}
+			names.clear();
+		} finally {
+			lock.unlock();
+		}
+		changes.publish(ChangeEvent.containerEmptied(c.getName()));
+	}
+
+	@Override
+	public void addContainer(String containerName, Container c) {
+		putContainer(containerName);
+	}
+
+	/**
+	 * Adds an item. The item's food group is kept and its freshness is computed
+	 * from its expiry date; an item without an expiry date has no freshness.
+	 */
+	@Override
+	public Boolean addItem(Container c, String name, Item ite) {
+		if (ite == null || name == null) {
+			return false;
+		}
+		ReentrantLock lock = stripe(c.getName());
+		lock.lock();
+		try {
+			Set<String> names = containers.get(c.getName());
+			if (names == null || names.contains(name)) {
+				return false;
+			}
+			Item stored = stored(name, ite);
+			insert(new ItemKey(c.getName(), name), stored);
+			names.add(name);
+			changes.publish(ChangeEvent.itemAdded(c.getName(), stored));
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public List<AddItemOutcome> addItems(Container c, Collection<Item> items) {
+		ReentrantLock lock = stripe(c.getName());
+		lock.lock();
+		try {
+			Set<String> names = containers.get(c.getName());
+			List<AddItemOutcome> outcomes = new ArrayList<AddItemOutcome>();
+			for (Item ite : items) {
+				if (!isInsertable(ite)) {
+					outcomes.add(AddItemOutcome.INVALID);
+				} else if (names == null) {
+					return null;
+				} else if (!names.add(ite.getName())) {
+					outcomes.add(AddItemOutcome.DUPLICATE);
+				} else {
+					Item stored = stored(ite.getName(), ite);
+					insert(new ItemKey(c.getName(), ite.getName()), stored);
+					outcomes.add(AddItemOutcome.ADDED);
+					changes.publish(ChangeEvent.itemAdded(c.getName(), stored));
+				}
+			}
+			return outcomes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds import rows. The rows are read first and every container they name is
+	 * locked while they are added, so other threads see all of the rows or none.
+	 */
+	@Override
+	public List<ItemImportRow> importItems(Iterator<ItemImportRow> rows) {
+		List<ItemImportRow> all = new ArrayList<ItemImportRow>();
+		Set<String> touched = new TreeSet<String>();
+		while (rows.hasNext()) {
+			ItemImportRow row = rows.next();
+			all.add(row);
+			touched.add(row.getContainer());
+		}
+
+		int[] held = lockAll(touched);
+		try {
+			List<ItemImportRow> duplicates = new ArrayList<ItemImportRow>();
+			for (ItemImportRow row : all) {
+				Set<String> names = containers.computeIfAbsent(row.getContainer(), k -> new ConcurrentSkipListSet<String>());
+				Item ite = row.getItem();
+				if (!names.add(ite.getName())) {
+					duplicates.add(row);
+				} else {
+					insert(new ItemKey(row.getContainer(), ite.getName()), stored(ite.getName(), ite));
+				}
+			}
+			changes.publish(ChangeEvent.itemsReloaded(null));
+			return duplicates;
+		} finally {
+			unlockAll(held);
+		}
+	}
+
+	@Override
+	public void removeItem(Container container, String itemName) {
+		ReentrantLock lock = stripe(container.getName());
+		lock.lock();
+		try {
+			Set<String> names = containers.get(container.getName());
+			if (names != null && names.remove(itemName)) {
+				delete(new ItemKey(container.getName(), itemName));
+				changes.publish(ChangeEvent.itemRemoved(container.getName(), itemName));
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Item getItem(Container c, String itemName) {
+		Item ite = items.get(new ItemKey(c.getName(), itemName));
+		return ite == null ? null : Item.getInstance(ite);
+	}
+
+	@Override
+	public void updateItemFoodGroup(Container c, String itemName, FoodGroup newFoodGroup) {
+		if (newFoodGroup == null) {
+			return;
+		}
+		if (update(new ItemKey(c.getName(), itemName), ite -> ite.setFoodGroupTag(newFoodGroup))) {
+			changes.publish(ChangeEvent.foodGroupUpdated(c.getName(), itemName, newFoodGroup));
+		}
+	}
+
+	@Override
+	public List<Item> retrieveItems(Container c) {
+		return snapshot(c.getName());
+	}
+
+	@Override
+	public boolean forEachItem(Container c, Consumer<Item> action) {
+		snapshot(c.getName()).forEach(action);
+		return true;
+	}
+
+	@Override
+	public List<Item> retrieveAnnotatedItems(Container c) {
+		List<Item> l = snapshot(c.getName());
+		for (Item item : l) {
+			String tag = getItemTag(item.getName());
+			if (tag != null) {
+				item.addCustomTag(tag);
+			}
+			item.setCustomNote(getNote(item.getName()));
+		}
+		return l;
+	}
+
+	@Override
+	public Flow.Publisher<ContainerItem> publishAllItems() {
+		List<ContainerItem> rows = new ArrayList<ContainerItem>();
+		for (String container : retrieveContainers()) {
+			for (Item ite : snapshot(container)) {
+				rows.add(new ContainerItem(container, ite));
+			}
+		}
+		return ChunkedPublisher.of(rows, CHUNK_SIZE);
+	}
+
+	@Override
+	public ItemPage queryItems(ItemQuery query) {
+		return window(query, matchingRows(query), 0);
+	}
+
+	/**
+	 * Returns the rows ordered after the last row of a page, even if that row has
+	 * since been removed.
+	 */
+	@Override
+	public ItemPage nextPage(ItemPage page) {
+		if (page.isEmpty()) {
+			return page;
+		}
+		List<ContainerItem> rows = matchingRows(page.getQuery());
+		ContainerItem last = page.getRows().get(page.getRows().size() - 1);
+		return window(page.getQuery(), rows, position(rows, last, page.getQuery().getSort(), true));
+	}
+
+	@Override
+	public ItemPage previousPage(ItemPage page) {
+		if (page.isEmpty()) {
+			return queryItems(page.getQuery());
+		}
+		List<ContainerItem> rows = matchingRows(page.getQuery());
+		int end = position(rows, page.getRows().get(0), page.getQuery().getSort(), false);
+		return window(page.getQuery(), rows, Math.max(0, end - page.getQuery().getPageSize()));
+	}
+
+	/**
+	 * Recomputes freshness from the expiry index. Only the items whose expiry day
+	 * puts them in a different bucket than the one they are stored in are
+	 * rewritten.
+	 */
+	@Override
+	public int refreshFreshness() {
+		LocalDate today = LocalDate.now();
+		LocalDate nearEnd = today.plusDays(7);
+		int changed = 0;
+		changed += refreshRange(byExpiry.headMap(today, false), FoodFreshness.EXPIRED);
+		changed += refreshRange(byExpiry.subMap(today, true, nearEnd, true), FoodFreshness.NEAR_EXPIRY);
+		changed += refreshRange(byExpiry.tailMap(nearEnd, false), FoodFreshness.FRESH);
+		if (changed > 0) {
+			changes.publish(ChangeEvent.itemsReloaded(null));
+		}
+		return changed;
+	}
+
+	@Override
+	public void updateQuantity(String item, int value, Container c) {
+		if (update(new ItemKey(c.getName(), item), ite -> ite.setQuantity(value))) {
+			changes.publish(ChangeEvent.quantityUpdated(c.getName(), item, value));
+		}
+	}
+
+	@Override
+	public List<String> getExpiringItems() {
+		List<String> expiringItems = new ArrayList<String>();
+		for (ItemKey key : new TreeSet<ItemKey>(byFreshness.get(FoodFreshness.NEAR_EXPIRY))) {
+			expiringItems.add(key.name + " - " + key.container);
+		}
+		return expiringItems;
+	}
+
+	@Override
+	public Set<String> getNearExpiryOrFreshItemNames() {
+		Set<String> itemNames = new HashSet<String>();
+		for (FoodFreshness fresh : new FoodFreshness[] { FoodFreshness.NEAR_EXPIRY, FoodFreshness.FRESH }) {
+			for (ItemKey key : byFreshness.get(fresh)) {
+				itemNames.add(key.name.toLowerCase());
+			}
+		}
+		return itemNames;
+	}
+
+	@Override
+	public ArrayList<String> getTotalCount(String container) {
+		ArrayList<String> l = new ArrayList<String>();
+		getFoodGroupCounts(container).forEach((group, count) -> {
+			for (int i = 0; i < count; i++) {
+				l.add(group.getDisplayName());
+			}
+		});
+		return l;
+	}
+
+	/**
+	 * Counts the items of each food group. The count for every container is read
+	 * from the size of the food group index.
+	 */
+	@Override
+	public EnumMap<FoodGroup, Integer> getFoodGroupCounts(String container) {
+		EnumMap<FoodGroup, Integer> counts = DB.emptyFoodGroupCounts();
+		for (Map.Entry<FoodGroup, Set<ItemKey>> e : byFoodGroup.entrySet()) {
+			if (container == null) {
+				counts.put(e.getKey(), e.getValue().size());
+			} else {
+				int n = 0;
+				for (ItemKey key : e.getValue()) {
+					if (key.container.equals(container)) {
+						n++;
+					}
+				}
+				counts.put(e.getKey(), n);
+			}
+		}
+		return counts;
+	}
+
+	@Override
+	public String getStorageTip(String name) {
+		return storageTips.get(formatTipName(name));
+	}
+
+	@Override
+	public void addToGroceryList(String itemName) {
+		if (groceryList.add(itemName)) {
+			changes.publish(ChangeEvent.groceryAdded(itemName));
+		}
+	}
+
+	@Override
+	public void removeFromGroceryList(String itemName) {
+		if (groceryList.remove(itemName)) {
+			changes.publish(ChangeEvent.groceryRemoved(itemName));
+		}
+	}
+
+	@Override
+	public Object[][] getAllGroceryItems() {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (String name : groceryList) {
+			rows.add(new Object[] { name });
+		}
+		return rows.toArray(new Object[rows.size()][]);
+	}
+
+	@Override
+	public Flow.Publisher<String> publishGroceryItems() {
+		return ChunkedPublisher.of(new ArrayList<String>(groceryList), CHUNK_SIZE);
+	}
+
+	@Override
+	public String[] getSettings() {
+		return new String[] { String.valueOf(fontSize), String.valueOf(notifications) };
+	}
+
+	@Override
+	public void setFontsize(int n) {
+		fontSize = n;
+		changes.publish(ChangeEvent.settingUpdated(ChangeEvent.FONT_SIZE, Integer.toString(n)));
+	}
+
+	@Override
+	public void setNotificationBoolean(boolean b) {
+		notifications = b;
+		changes.publish(ChangeEvent.settingUpdated(ChangeEvent.NOTIFICATIONS, Boolean.toString(b)));
+	}
+
+	/**
+	 * Stars a copy of a recipe. As in the PostgreSQL engine, the instructions are
+	 * fetched before anything is stored, and a failed fetch saves the recipe
+	 * without them.
+	 */
+	@Override
+	public boolean saveRecipeToDatabase(Recipe recipe) {
+		Map<Integer, String> detailedInstructions;
+		try {
+			detailedInstructions = recipe.getDetailedInstructions();
+		} catch (Exception e) {
+			System.err.println("Failed to get detailed instructions: " + e.getMessage());
+			detailedInstructions = new HashMap<>();
+		}
+
+		Recipe copy = new Recipe(recipe.getId(), recipe.getTitle(), recipe.getImage());
+		copy.setUsedIngredients(new ArrayList<>(recipe.getUsedIngredients()));
+		copy.setMissedIngredients(new ArrayList<>(recipe.getMissedIngredients()));
+		copy.setDetailedInstructions(new HashMap<>(detailedInstructions));
+		copy.setFetchedStep(true);
+		if (recipes.putIfAbsent(recipe.getId(), copy) != null) {
+			return false;
+		}
+		changes.publish(ChangeEvent.recipeAdded(recipe));
+		return true;
+	}
+
+	@Override
+	public boolean isRecipeInDatabase(int recipeId) {
+		return recipes.containsKey(recipeId);
+	}
+
+	@Override
+	public List<Recipe> getAllStarredRecipes() {
+		return new ArrayList<Recipe>(recipes.values());
+	}
+
+	/**
+	 * Returns one page of starred recipes. Recipes are stored whole, so the page
+	 * needs no hydrating.
+	 */
+	@Override
+	public List<Recipe> getStarredRecipePage(int afterId, int limit) {
+		List<Recipe> page = new ArrayList<Recipe>();
+		for (Recipe recipe : recipes.tailMap(afterId, false).values()) {
+			if (page.size() == limit) {
+				break;
+			}
+			page.add(recipe);
+		}
+		return page;
+	}
+
+	@Override
+	public boolean hydrateRecipes(List<Recipe> recipes) {
+		for (Recipe recipe : recipes) {
+			recipe.setHydrated(true);
+		}
+		return true;
+	}
+
+	@Override
+	public void removeStarredRecipe(Recipe recipe) {
+		if (recipes.remove(recipe.getId()) != null) {
+			changes.publish(ChangeEvent.recipeRemoved(recipe));
+		}
+	}
+
+	@Override
+	public void insertItemTag(String itemName, String tag) {
+		tags.merge(itemName, List.of(tag), MemoryStorage::concat);
+		changes.publish(ChangeEvent.tagAdded(itemName, tag));
+	}
+
+	@Override
+	public String getItemTag(String itemName) {
+		List<String> l = tags.get(itemName);
+		return l == null ? null : l.get(0);
+	}
+
+	@Override
+	public boolean removeItemTag(String itemName) {
+		if (tags.remove(itemName) == null) {
+			return false;
+		}
+		changes.publish(ChangeEvent.tagRemoved(itemName));
+		return true;
+	}
+
+	@Override
+	public void replaceItemTag(String itemName, String tag) {
+		if (tag == null || tag.isEmpty()) {
+			tags.remove(itemName);
+		} else {
+			tags.put(itemName, List.of(tag));
+		}
+		changes.publish(ChangeEvent.tagUpdated(itemName, tag));
+	}
+
+	@Override
+	public void addNote(String itemName, String note) {
+		notes.merge(itemName, List.of(note), MemoryStorage::concat);
+		changes.publish(ChangeEvent.noteAdded(itemName, note));
+	}
+
+	@Override
+	public void deleteNote(String itemName) {
+		if (notes.remove(itemName) != null) {
+			changes.publish(ChangeEvent.noteRemoved(itemName));
+		}
+	}
+
+	@Override
+	public void replaceNote(String itemName, String note) {
+		if (note == null || note.isEmpty()) {
+			notes.remove(itemName);
+		} else {
+			notes.put(itemName, List.of(note));
+		}
+		changes.publish(ChangeEvent.noteUpdated(itemName, note));
+	}
+
+	@Override
+	public String getNote(String itemName) {
+		List<String> l = notes.get(itemName);
+		return l == null ? "" : String.join("\n", l);
+	}
+
+	private static List<String> concat(List<String> a, List<String> b) {
+		List<String> l = new ArrayList<String>(a);
+		l.addAll(b);
+		return Collections.unmodifiableList(l);
+	}
+
+	/**
+	 * Returns the lock of the stripe a container belongs to.
+	 */
+	private ReentrantLock stripe(String container) {
+		return stripes[stripeIndex(container)];
+	}
+
+	private static int stripeIndex(String container) {
+		return (container.hashCode() & 0x7fffffff) % STRIPES;
+	}
+
+	/**
+	 * Locks the stripes of several containers in ascending order, so two threads
+	 * locking overlapping sets cannot deadlock.
+	 *
+	 * @return the indexes of the stripes locked, for {@link #unlockAll(int[])}
+	 */
+	private int[] lockAll(Collection<String> names) {
+		int[] held = names.stream().mapToInt(MemoryStorage::stripeIndex).distinct().sorted().toArray();
+		for (int i : held) {
+			stripes[i].lock();
+		}
+		return held;
+	}
+
+	private void unlockAll(int[] held) {
+		for (int i = held.length - 1; i >= 0; i--) {
+			stripes[held[i]].unlock();
+		}
+	}
+
+	/**
+	 * Stores an item and adds it to the indexes. Called with its container's
+	 * stripe locked.
+	 */
+	private void insert(ItemKey key, Item ite) {
+		items.put(key, ite);
+		index(key, ite);
+	}
+
+	/**
+	 * Removes an item and its index entries. Called with its container's stripe
+	 * locked.
+	 */
+	private void delete(ItemKey key) {
+		Item ite = items.remove(key);
+		if (ite != null) {
+			unindex(key, ite);
+		}
+	}
+
+	/**
+	 * Replaces an item with an edited copy and updates the indexes.
+	 *
+	 * @return false if the item is not stored
+	 */
+	private boolean update(ItemKey key, Consumer<Item> edit) {
+		ReentrantLock lock = stripe(key.container);
+		lock.lock();
+		try {
+			Item current = items.get(key);
+			if (current == null) {
+				return false;
+			}
+			Item edited = Item.getInstance(current);
+			edit.accept(edited);
+			unindex(key, current);
+			items.put(key, edited);
+			index(key, edited);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean refresh(ItemKey key) {
+		return update(key, ite -> {
+			Date expiry = ite.getExpiryDate();
+			if (expiry != null) {
+				ite.setFoodFreshnessTag(freshnessOf(expiry));
+			}
+		});
+	}
+
+	/**
+	 * Moves the items of a range of expiry days into a freshness bucket.
+	 *
+	 * @return the number of items moved
+	 */
+	private int refreshRange(Map<LocalDate, Set<ItemKey>> days, FoodFreshness fresh) {
+		int changed = 0;
+		for (Set<ItemKey> keys : days.values()) {
+			for (ItemKey key : keys) {
+				Item ite = items.get(key);
+				if (ite != null && freshness(ite) != fresh) {
+					refresh(key);
+					changed++;
+				}
+			}
+		}
+		return changed;
+	}
+
+	private void index(ItemKey key, Item ite) {
+		if (ite.getExpiryDate() != null) {
+			byExpiry.computeIfAbsent(toDay(ite.getExpiryDate()), d -> ConcurrentHashMap.newKeySet()).add(key);
+		}
+		if (foodGroup(ite) != null) {
+			byFoodGroup.get(foodGroup(ite)).add(key);
+		}
+		if (freshness(ite) != null) {
+			byFreshness.get(freshness(ite)).add(key);
+		}
+	}
+
+	private void unindex(ItemKey key, Item ite) {
+		if (ite.getExpiryDate() != null) {
+			Set<ItemKey> keys = byExpiry.get(toDay(ite.getExpiryDate()));
+			if (keys != null) {
+				keys.remove(key);
+			}
+		}
+		if (foodGroup(ite) != null) {
+			byFoodGroup.get(foodGroup(ite)).remove(key);
+		}
+		if (freshness(ite) != null) {
+			byFreshness.get(freshness(ite)).remove(key);
+		}
+	}
+
+	/**
+	 * Returns copies of the items of a container, ordered by name.
+	 */
+	private List<Item> snapshot(String container) {
+		List<Item> l = new ArrayList<Item>();
+		Set<String> names = containers.get(container);
+		if (names != null) {
+			for (String name : names) {
+				Item ite = items.get(new ItemKey(container, name));
+				if (ite != null) {
+					l.add(Item.getInstance(ite));
+				}
+			}
+		}
+		return l;
+	}
+
+	/**
+	 * Builds the copy of an item that is stored, with its freshness computed from
+	 * its expiry date.
+	 */
+	private static Item stored(String name, Item ite) {
+		Item copy = ite.getQuantity() > 0 ? Item.getInstance(name, ite.getQuantity()) : Item.getInstance(name);
+		Date expiry = ite.getExpiryDate();
+		copy.setExpiryDate(expiry);
+		copy.setFoodGroupTag(ite.getFoodGroupTag());
+		copy.setFoodFreshnessTag(expiry == null ? ite.getFoodFreshnessTag()
+				: new GenericTag<FoodFreshness>(freshnessOf(expiry)));
+		return copy;
+	}
+
+	private static LocalDate toDay(Date date) {
+		return date instanceof java.sql.Date ? ((java.sql.Date) date).toLocalDate()
+				: date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+	/**
+	 * Returns the freshness of an expiry date: expired before today, near expiry
+	 * within the next 7 days and fresh otherwise.
+	 */
+	static FoodFreshness freshnessOf(Date expiry) {
+		LocalDate date = toDay(expiry);
+		LocalDate today = LocalDate.now();
+		if (date.isBefore(today)) {
+			return FoodFreshness.EXPIRED;
+		}
+		return date.isAfter(today.plusDays(7)) ? FoodFreshness.FRESH : FoodFreshness.NEAR_EXPIRY;
+	}
+
+	private static FoodFreshness freshness(Item ite) {
+		return ite.getFoodFreshnessTag() == null ? null : ite.getFoodFreshnessTag().getTag();
+	}
+
+	private static FoodGroup foodGroup(Item ite) {
+		return ite.getFoodGroupTag() == null ? null : ite.getFoodGroupTag().getTag();
+	}
+
+	private static boolean isInsertable(Item ite) {
+		return ite != null && ite.getName() != null && !ite.getName().trim().isEmpty()
+				&& ite.getName().length() <= 50 && ite.getQuantity() > 0 && ite.getExpiryDate() != null;
+	}
+
+	private static String formatTipName(String name) {
+		return name.substring(0, 1).toUpperCase() + name.substring(1).toLowerCase();
+	}
+
+	/**
+	 * Returns copies of the items matching a query, in the query's order. When
+	 * the query filters on food group or freshness only the matching index entries
+	 * are read.
+	 */
+	private List<ContainerItem> matchingRows(ItemQuery query) {
+		Collection<ItemKey> candidates;
+		if (query.getFoodGroup() != null) {
+			candidates = byFoodGroup.get(query.getFoodGroup());
+		} else if (query.getFreshness() != null) {
+			candidates = byFreshness.get(query.getFreshness());
+		} else if (query.getContainer() != null) {
+			candidates = new ArrayList<ItemKey>();
+			Set<String> names = containers.get(query.getContainer());
+			if (names != null) {
+				for (String name : names) {
+					candidates.add(new ItemKey(query.getContainer(), name));
+				}
+			}
+		} else {
+			candidates = items.keySet();
+		}
+
+		List<ContainerItem> rows = new ArrayList<ContainerItem>();
+		String text = query.getNameContains() == null ? null : query.getNameContains().toLowerCase();
+		for (ItemKey key : candidates) {
+			Item ite = items.get(key);
+			if (ite != null && (query.getContainer() == null || query.getContainer().equals(key.container))
+					&& (text == null || key.name.toLowerCase().contains(text))
+					&& (query.getFoodGroup() == null || query.getFoodGroup() == foodGroup(ite))
+					&& (query.getFreshness() == null || query.getFreshness() == freshness(ite))) {
+				rows.add(new ContainerItem(key.container, Item.getInstance(ite)));
+			}
+		}
+		rows.sort(order(query.getSort()));
+		return rows;
+	}
+
+	/**
+	 * Returns the order of a sort: the sort value with nulls last, then name, then
+	 * container.
+	 */
+	private static Comparator<ContainerItem> order(ItemSort sort) {
+		Comparator<ContainerItem> bySortValue = Comparator.comparing(row -> sortValue(sort, row.getItem()),
+				Comparator.nullsLast(Comparator.naturalOrder()));
+		return bySortValue.thenComparing(row -> row.getItem().getName()).thenComparing(ContainerItem::getContainer);
+	}
+
+	private static Comparable<Object> sortValue(ItemSort sort, Item item) {
+		Comparable<?> value;
+		switch (sort) {
+		case EXPIRY:
+			value = item.getExpiryDate() == null ? null : toDay(item.getExpiryDate());
+			break;
+		case FOOD_GROUP:
+			value = foodGroup(item);
+			break;
+		case FRESHNESS:
+			value = freshness(item);
+			break;
+		default:
+			value = null;
+		}
+		@SuppressWarnings("unchecked")
+		Comparable<Object> key = (Comparable<Object>) value;
+		return key;
+	}
+
+	/**
+	 * Returns where a boundary row falls in sorted rows.
+	 *
+	 * @param after true for the index of the first row ordered after the
+	 *              boundary, false for the first row not ordered before it
+	 */
+	private static int position(List<ContainerItem> rows, ContainerItem boundary, ItemSort sort, boolean after) {
+		int i = Collections.binarySearch(rows, boundary, order(sort));
+		if (i < 0) {
+			return -i - 1;
+		}
+		return after ? i + 1 : i;
+	}
+
+	private static ItemPage window(ItemQuery query, List<ContainerItem> rows, int from) {
+		int to = Math.min(rows.size(), from + query.getPageSize());
+		return new ItemPage(query, new ArrayList<ContainerItem>(rows.subList(Math.min(from, to), to)), from > 0,
+				to < rows.size());
+	}
+}
@@ -0,0 +1,442 @@
+package database;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+
+/**
+ * Reads and writes a compact binary copy of a pantry: the settings, every
+ * container with its items, the item tags and notes, and the grocery list.
+ * Starred recipes are not included.
+ *
+ * A snapshot starts with the bytes "PPSN", a format version and the time it
+ * was written, followed by records that each start with a one byte type:
+ * settings, a container with its items, a tag, a note or a grocery entry, and
+ * finally an end record. Counts, lengths and quantities are written as
+ * variable length integers and expiry dates as the number of days since
+ * 1970-01-01, so an item usually takes only a few bytes more than its name.
+ * Freshness is not stored since it follows from the expiry date.
+ *
+ * Writing reads one container at a time from the source, and reading maps the
+ * file into memory and applies records as they are decoded, so neither holds
+ * the whole pantry twice.
+ */
+public final class PantrySnapshot {
+
+	/**
+	 * The format version written. Files with a newer version are refused.
+	 */
+	public static final int VERSION = 1;
+
+	private static final byte[] MAGIC = { 'P', 'P', 'S', 'N' };
+
+	private static final int END = 0;
+	private static final int SETTINGS = 1;
+	private static final int CONTAINER = 2;
+	private static final int TAG = 3;
+	private static final int NOTE = 4;
+	private static final int GROCERY = 5;
+
+	/**
+	 * Number of items restored with one call to {@link Storage#addItems}.
+	 */
+	private static final int RESTORE_BATCH = 500;
+
+	private PantrySnapshot() {
+	}
+
+	/**
+	 * Writes a snapshot of a store to a file. The snapshot is written to a
+	 * temporary file next to it and moved into place, so a failed write leaves
+	 * the previous snapshot intact.
+	 *
+	 * @param source the store to copy
+	 * @param file   the snapshot file
+	 * @return the number of items written
+	 * @throws IOException if the file could not be written, or the source could
+	 *                     not be read
+	 */
+	public static int save(Storage source, Path file) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try {
+			int count;
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				count = write(source, out);
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return count;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a store to a stream.
+	 *
+	 * @param source the store to copy
+	 * @param out    the stream written to; it is flushed but not closed
+	 * @return the number of items written
+	 * @throws IOException if the stream could not be written, or the source could
+	 *                     not be read
+	 */
+	public static int write(Storage source, OutputStream out) throws IOException {
+		Writer w = new Writer(new BufferedOutputStream(out, 64 * 1024));
+		w.bytes(MAGIC);
+		w.u16(VERSION);
+		w.u16(0);
+		w.u64(System.currentTimeMillis());
+
+		// A household without a settings row has no record, so the defaults apply
+		String[] settings = source.getSettings();
+		if (settings != null && settings[0] != null) {
+			w.u8(SETTINGS);
+			w.varint(Integer.parseInt(settings[0]));
+			w.u8(Boolean.parseBoolean(settings[1]) ? 1 : 0);
+		}
+
+		List<String> containers = source.retrieveContainers();
+		if (containers == null) {
+			throw new IOException("Could not read the containers");
+		}
+		int count = 0;
+		Map<String, String> tags = new LinkedHashMap<String, String>();
+		Map<String, String> notes = new LinkedHashMap<String, String>();
+		for (String name : containers) {
+			List<Item> items = source.retrieveAnnotatedItems(new Container(name));
+			if (items == null) {
+				throw new IOException("Could not read the items of " + name);
+			}
+			w.u8(CONTAINER);
+			w.string(name);
+			w.varint(items.size());
+			for (Item item : items) {
+				w.string(item.getName());
+				w.zigzag(item.getQuantity());
+				w.zigzag(toEpochDay(item.getExpiryDate()));
+				FoodGroup group = item.getFoodGroupTag() == null ? null : item.getFoodGroupTag().getTag();
+				w.u8(group == null ? 0 : group.ordinal() + 1);
+				// Tags and notes belong to the item name, whatever its container
+				if (item.getCustomTag() != null) {
+					tags.putIfAbsent(item.getName(), item.getCustomTag());
+				}
+				if (item.getCustomNote() != null && !item.getCustomNote().isEmpty()) {
+					notes.putIfAbsent(item.getName(), item.getCustomNote());
+				}
+			}
+			count += items.size();
+		}
+		for (Map.Entry<String, String> e : tags.entrySet()) {
+			w.u8(TAG);
+			w.string(e.getKey());
+			w.string(e.getValue());
+		}
+		for (Map.Entry<String, String> e : notes.entrySet()) {
+			w.u8(NOTE);
+			w.string(e.getKey());
+			w.string(e.getValue());
+		}
+		for (Object[] row : source.getAllGroceryItems()) {
+			w.u8(GROCERY);
+			w.string((String) row[0]);
+		}
+		w.u8(END);
+		w.flush();
+		return count;
+	}
+
+	/**
+	 * Reads a snapshot file into a new in-memory store.
+	 *
+	 * @param file the snapshot file
+	 * @return the store holding the snapshot
+	 * @throws IOException if the file could not be read or is not a snapshot
+	 */
+	public static MemoryStorage load(Path file) throws IOException {
+		MemoryStorage storage = new MemoryStorage();
+		restore(file, storage);
+		return storage;
+	}
+
+	/**
+	 * Adds the contents of a snapshot file to a store. Containers are created as
+	 * needed, items and grocery entries already in the store are left as they
+	 * are, and tags and notes replace those of the same item name. The file is mapped into memory rather
+	 * than read through a stream.
+	 *
+	 * @param file   the snapshot file
+	 * @param target the store to add to
+	 * @return the number of items added
+	 * @throws IOException if the file could not be read or is not a snapshot
+	 */
+	public static int restore(Path file, Storage target) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return restore(buffer, target);
+		}
+	}
+
+	/**
+	 * Adds the contents of a snapshot held in a buffer to a store.
+	 *
+	 * @param buffer the snapshot, read from its position
+	 * @param target the store to add to
+	 * @return the number of items added
+	 * @throws IOException if the buffer does not hold a valid snapshot
+	 */
+	public static int restore(ByteBuffer buffer, Storage target) throws IOException {
+		try {
+			Reader r = new Reader(buffer);
+			for (byte b : MAGIC) {
+				if (r.u8() != b) {
+					throw new IOException("Not a pantry snapshot");
+				}
+			}
+			int version = r.u16();
+			if (version > VERSION) {
+				throw new IOException("Unsupported snapshot version " + version);
+			}
+			r.u16();
+			r.u64();
+
+			int added = 0;
+			Set<String> groceries = null;
+			while (true) {
+				int type = r.u8();
+				switch (type) {
+				case END:
+					return added;
+				case SETTINGS:
+					target.setFontsize(r.varint());
+					target.setNotificationBoolean(r.u8() != 0);
+					break;
+				case CONTAINER:
+					added += restoreContainer(r, target);
+					break;
+				case TAG:
+					target.replaceItemTag(r.string(), r.string());
+					break;
+				case NOTE:
+					target.replaceNote(r.string(), r.string());
+					break;
+				case GROCERY:
+					if (groceries == null) {
+						groceries = new HashSet<String>();
+						for (Object[] row : target.getAllGroceryItems()) {
+							groceries.add((String) row[0]);
+						}
+					}
+					String name = r.string();
+					if (groceries.add(name)) {
+						target.addToGroceryList(name);
+					}
+					break;
+				default:
+					throw new IOException("Unknown snapshot record " + type);
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated pantry snapshot", e);
+		}
+	}
+
+	private static int restoreContainer(Reader r, Storage target) throws IOException {
+		Container c = new Container(r.string());
+		if (!target.findContainer(c.getName())) {
+			target.addContainer(c.getName(), c);
+		}
+		int size = r.varint();
+		int added = 0;
+		List<Item> batch = new ArrayList<Item>();
+		List<FoodGroup> groups = new ArrayList<FoodGroup>();
+		for (int i = 0; i < size; i++) {
+			String name = r.string();
+			int quantity = r.zigzag();
+			Date expiry = fromEpochDay(r.zigzag());
+			int group = r.u8();
+			if (group > FoodGroup.values().length) {
+				throw new IOException("Unknown food group " + group);
+			}
+			if (quantity <= 0) {
+				throw new IOException("Invalid quantity " + quantity + " for " + name);
+			}
+			batch.add(Item.getInstance(name, quantity, expiry));
+			groups.add(group == 0 ? null : FoodGroup.values()[group - 1]);
+			if (batch.size() == RESTORE_BATCH || i == size - 1) {
+				added += addBatch(target, c, batch, groups);
+				batch.clear();
+				groups.clear();
+			}
+		}
+		return added;
+	}
+
+	private static int addBatch(Storage target, Container c, List<Item> batch, List<FoodGroup> groups)
+			throws IOException {
+		List<AddItemOutcome> outcomes = target.addItems(c, batch);
+		if (outcomes == null) {
+			throw new IOException("Could not add the items of " + c.getName());
+		}
+		int added = 0;
+		for (int i = 0; i < outcomes.size(); i++) {
+			if (outcomes.get(i) == AddItemOutcome.ADDED) {
+				added++;
+				// The food group is not part of an insert
+				if (groups.get(i) != null) {
+					target.updateItemFoodGroup(c, batch.get(i).getName(), groups.get(i));
+				}
+			}
+		}
+		return added;
+	}
+
+	static int toEpochDay(Date date) {
+		return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+	}
+
+	static Date fromEpochDay(int day) {
+		return Date.from(LocalDate.ofEpochDay(day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	/**
+	 * Encodes values onto a stream.
+	 */
+	private static final class Writer {
+		private final OutputStream out;
+
+		Writer(OutputStream out) {
+			this.out = out;
+		}
+
+		void u8(int v) throws IOException {
+			out.write(v);
+		}
+
+		void u16(int v) throws IOException {
+			out.write(v >>> 8);
+			out.write(v);
+		}
+
+		void u64(long v) throws IOException {
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				out.write((int) (v >>> shift));
+			}
+		}
+
+		void bytes(byte[] b) throws IOException {
+			out.write(b);
+		}
+
+		/**
+		 * Writes a non-negative int seven bits at a time, low bits first, with the
+		 * top bit of each byte set while more bytes follow.
+		 */
+		void varint(int v) throws IOException {
+			if (v < 0) {
+				throw new IOException("Negative length " + v);
+			}
+			while ((v & ~0x7f) != 0) {
+				out.write((v & 0x7f) | 0x80);
+				v >>>= 7;
+			}
+			out.write(v);
+		}
+
+		/**
+		 * Writes a signed int as a varint, mapping small negative numbers to small
+		 * codes.
+		 */
+		void zigzag(int v) throws IOException {
+			int code = (v << 1) ^ (v >> 31);
+			while ((code & ~0x7f) != 0) {
+				out.write((code & 0x7f) | 0x80);
+				code >>>= 7;
+			}
+			out.write(code);
+		}
+
+		void string(String s) throws IOException {
+			byte[] b = s.getBytes(StandardCharsets.UTF_8);
+			varint(b.length);
+			out.write(b);
+		}
+
+		void flush() throws IOException {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Decodes values from a buffer.
+	 */
+	private static final class Reader {
+		private final ByteBuffer in;
+
+		Reader(ByteBuffer in) {
+			this.in = in;
+		}
+
+		int u8() {
+			return in.get() & 0xff;
+		}
+
+		int u16() {
+			return in.getShort() & 0xffff;
+		}
+
+		long u64() {
+			return in.getLong();
+		}
+
+		int varint() throws IOException {
+			int v = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				int b = u8();
+				v |= (b & 0x7f) << shift;
+				if ((b & 0x80) == 0) {
+					return v;
+				}
+			}
+			throw new IOException("Malformed varint");
+		}
+
+		int zigzag() throws IOException {
+			int code = varint();
+			return (code >>> 1) ^ -(code & 1);
+		}
+
+		String string() throws IOException {
+			int length = varint();
+			if (length < 0 || length > in.remaining()) {
+				throw new IOException("Malformed string length " + length);
+			}
+			byte[] b = new byte[length];
+			in.get(b);
+			return new String(b, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Edits waiting to be written by {@link WriteBehindDB}. Only the latest value is
+ * kept for each key, so repeated edits to the same item collapse into one
+ * write. Quantities are keyed by container and item; tags and notes by item
+ * name, as in the item_tags and note tables. An empty tag or note means the
+ * tag or notes are removed.
+ */
+class PendingEdits {
+
+	private final Map<ItemKey, Integer> quantities = new LinkedHashMap<>();
+	private final Map<String, String> tags = new LinkedHashMap<>();
+	private final Map<String, String> notes = new LinkedHashMap<>();
+
+	void setQuantity(String container, String itemName, int quantity) {
+		quantities.put(new ItemKey(container, itemName), quantity);
+	}
+
+	void setTag(String itemName, String tag) {
+		tags.put(itemName, tag == null ? "" : tag);
+	}
+
+	void setNote(String itemName, String note) {
+		notes.put(itemName, note == null ? "" : note);
+	}
+
+	/**
+	 * @return The pending quantity, or null if the quantity was not edited.
+	 */
+	Integer getQuantity(String container, String itemName) {
+		return quantities.get(new ItemKey(container, itemName));
+	}
+
+	/**
+	 * @return The pending tag, "" if it is being removed, or null if the tag was
+	 *         not edited.
+	 */
+	String getTag(String itemName) {
+		return tags.get(itemName);
+	}
+
+	/**
+	 * @return The pending note, "" if it is being removed, or null if the note
+	 *         was not edited.
+	 */
+	String getNote(String itemName) {
+		return notes.get(itemName);
+	}
+
+	Map<ItemKey, Integer> getQuantities() {
+		return quantities;
+	}
+
+	Map<String, String> getTags() {
+		return tags;
+	}
+
+	Map<String, String> getNotes() {
+		return notes;
+	}
+
+	int size() {
+		return quantities.size() + tags.size() + notes.size();
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Adds edits that were made before the ones already held, without overwriting
+	 * any newer value. Used to put back edits whose write failed.
+	 *
+	 * @param older The earlier edits.
+	 */
+	void addOlder(PendingEdits older) {
+		older.quantities.forEach(quantities::putIfAbsent);
+		older.tags.forEach(tags::putIfAbsent);
+		older.notes.forEach(notes::putIfAbsent);
+	}
+}
@@ -0,0 +1,94 @@
+package database;
+
+/**
+ * An immutable snapshot of {@link ConnectionPool} usage, used to size the pool
+ * under load.
+ */
+public class PoolStats {
+	private final int maxSize;
+	private final int active;
+	private final int idle;
+	private final int waiting;
+	private final long totalCheckouts;
+	private final double averageWaitMillis;
+	private final double maxWaitMillis;
+	private final long timeouts;
+	private final long leaksDetected;
+	private final long connectionsOpened;
+
+	/**
+	 * Constructs a new snapshot of pool metrics.
+	 *
+	 * @param maxSize           The maximum number of physical connections.
+	 * @param active            Connections currently checked out.
+	 * @param idle              Connections open and waiting in the pool.
+	 * @param waiting           Threads currently waiting for a connection.
+	 * @param totalCheckouts    Checkouts served since the pool was created.
+	 * @param averageWaitMillis Average time spent waiting for a connection.
+	 * @param maxWaitMillis     Longest time spent waiting for a connection.
+	 * @param timeouts          Checkouts that gave up waiting.
+	 * @param leaksDetected     Connections reported as leaked.
+	 * @param connectionsOpened Physical connections opened since creation.
+	 */
+	public PoolStats(int maxSize, int active, int idle, int waiting, long totalCheckouts, double averageWaitMillis,
+			double maxWaitMillis, long timeouts, long leaksDetected, long connectionsOpened) {
+		this.maxSize = maxSize;
+		this.active = active;
+		this.idle = idle;
+		this.waiting = waiting;
+		this.totalCheckouts = totalCheckouts;
+		this.averageWaitMillis = averageWaitMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.timeouts = timeouts;
+		this.leaksDetected = leaksDetected;
+		this.connectionsOpened = connectionsOpened;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	public int getWaiting() {
+		return waiting;
+	}
+
+	public long getTotalCheckouts() {
+		return totalCheckouts;
+	}
+
+	public double getAverageWaitMillis() {
+		return averageWaitMillis;
+	}
+
+	public double getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	public long getLeaksDetected() {
+		return leaksDetected;
+	}
+
+	public long getConnectionsOpened() {
+		return connectionsOpened;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"active=%d, idle=%d, max=%d, waiting=%d, checkouts=%d, avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, leaks=%d, opened=%d",
+				active, idle, maxSize, waiting, totalCheckouts, averageWaitMillis, maxWaitMillis, timeouts,
+				leaksDetected, connectionsOpened);
+	}
+}
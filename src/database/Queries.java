@@ -0,0 +1,222 @@
+package database;
+
+/**
+ * The parameterized SQL used for container, item and storage tip access. The
+ * driver prepares each statement once per pooled connection and reuses it by
+ * its SQL text, so the same text must be used for every call.
+ *
+ * Statements on household data take the household as their first parameter,
+ * except where a new value is set first, so that the planner reads only that
+ * household's partition of {@code item}.
+ */
+final class Queries {
+
+	static final String INSERT_CONTAINER = "INSERT INTO container (household, container_name) VALUES (?, ?)";
+
+	static final String SELECT_CONTAINERS = "SELECT container_name FROM container WHERE household = ?";
+
+	static final String FIND_CONTAINER = "SELECT 1 FROM container WHERE household = ? AND container_name = ?";
+
+	static final String DELETE_CONTAINER = "DELETE FROM container WHERE household = ? AND container_name = ?";
+
+	static final String COPY_CONTAINER = "INSERT INTO container (household, container_name)"
+			+ " SELECT household, ? FROM container WHERE household = ? AND container_name = ?";
+
+	static final String MOVE_CONTAINER_ITEMS = "UPDATE item SET container = ? WHERE household = ? AND container = ?";
+
+	static final String EMPTY_CONTAINER = "DELETE FROM item WHERE household = ? AND container = ?";
+
+	static final String INSERT_ITEM = "INSERT INTO item (household, name, container, quantity, expiry, fresh)"
+			+ " SELECT v.household, v.name, v.container, v.quantity, v.expiry, " + freshnessOf("v.expiry")
+			+ " FROM (VALUES (?::integer, ?::varchar, ?::varchar, ?::integer, ?::date))"
+			+ " AS v (household, name, container, quantity, expiry)";
+
+	static final String INSERT_ITEM_IF_ABSENT = INSERT_ITEM + " ON CONFLICT (household, name, container) DO NOTHING";
+
+	static final String DELETE_ITEM = "DELETE FROM item WHERE household = ? AND name = ? AND container = ?";
+
+	static final String MOVE_ITEM = "UPDATE item SET container = ? WHERE household = ? AND name = ? AND container = ?";
+
+	static final String SELECT_ITEM = "SELECT name, fg, fresh, quantity, expiry FROM item"
+			+ " WHERE household = ? AND name = ? AND container = ?";
+
+	static final String SELECT_ITEMS_IN_CONTAINER = "SELECT name, fg, fresh, quantity, expiry FROM item"
+			+ " WHERE household = ? AND container = ?";
+
+	/**
+	 * Joins the tag and notes of the item aliased i as the columns tag and notes.
+	 */
+	private static final String ANNOTATIONS = " LEFT JOIN LATERAL (SELECT min(tag) AS tag FROM item_tags"
+			+ " WHERE household = i.household AND item_name = i.name) t ON true"
+			+ " LEFT JOIN LATERAL (SELECT string_agg(note, E'\\n') AS notes FROM note"
+			+ " WHERE household = i.household AND item_name = i.name) n ON true";
+
+	static final String SELECT_ANNOTATED_ITEMS_IN_CONTAINER = "SELECT i.name, i.fg, i.fresh, i.quantity, i.expiry, t.tag, n.notes"
+			+ " FROM item i" + ANNOTATIONS
+			+ " WHERE i.household = ? AND i.container = ?";
+
+	static final String SELECT_ANNOTATED_ITEM = SELECT_ANNOTATED_ITEMS_IN_CONTAINER + " AND i.name = ?";
+
+	static final String SELECT_ITEM_ROWS = "SELECT name, container, fg, fresh, quantity, expiry FROM item WHERE household = ?";
+
+	static final String SELECT_ALL_ITEMS = "SELECT name, container, fg, fresh, quantity, expiry FROM item WHERE household = ?"
+			+ " ORDER BY container, name";
+
+	static final String INSERT_GROCERY = "INSERT INTO grocery (household, name) VALUES (?, ?)";
+
+	static final String DELETE_GROCERY = "DELETE FROM grocery WHERE household = ? AND name = ?";
+
+	static final String SELECT_GROCERY_ITEMS = "SELECT name FROM grocery WHERE household = ? ORDER BY name";
+
+	static final String UPDATE_ITEM_FOOD_GROUP = "UPDATE item SET fg = ?::Food_Group"
+			+ " WHERE household = ? AND name = ? AND container = ?";
+
+	static final String SELECT_STORAGE_TIP = "SELECT info FROM storage_tips WHERE name = ?";
+
+	static final String SELECT_ALL_FOOD_GROUPS = "SELECT fg FROM item WHERE household = ? AND fg IS NOT NULL";
+
+	static final String SELECT_CONTAINER_FOOD_GROUPS = "SELECT fg FROM item"
+			+ " WHERE household = ? AND fg IS NOT NULL AND container = ?";
+
+	static final String COUNT_ALL_FOOD_GROUPS = "SELECT fg, count(*) FROM item"
+			+ " WHERE household = ? AND fg IS NOT NULL GROUP BY fg";
+
+	static final String COUNT_CONTAINER_FOOD_GROUPS = "SELECT fg, count(*) FROM item"
+			+ " WHERE household = ? AND fg IS NOT NULL AND container = ? GROUP BY fg";
+
+	static final String CREATE_IMPORT_STAGING = "CREATE TEMP TABLE item_import (line integer, name varchar(50),"
+			+ " container varchar(50), quantity integer, expiry date) ON COMMIT DROP";
+
+	static final String COPY_IMPORT_STAGING = "COPY item_import (line, name, container, quantity, expiry)"
+			+ " FROM STDIN (FORMAT csv)";
+
+	static final String ANALYZE_IMPORT_STAGING = "ANALYZE item_import";
+
+	static final String SELECT_IMPORT_DUPLICATES = "SELECT line, name, container, quantity, expiry FROM ("
+			+ "SELECT s.*, row_number() OVER (PARTITION BY name, container ORDER BY line) AS occurrence"
+			+ " FROM item_import s) s"
+			+ " WHERE occurrence > 1 OR EXISTS (SELECT 1 FROM item i"
+			+ " WHERE i.household = ? AND i.name = s.name AND i.container = s.container)"
+			+ " ORDER BY line";
+
+	static final String MERGE_IMPORT_CONTAINERS = "INSERT INTO container (household, container_name)"
+			+ " SELECT DISTINCT ?::integer, container FROM item_import ON CONFLICT DO NOTHING";
+
+	static final String MERGE_IMPORT_ITEMS = "INSERT INTO item (household, name, container, quantity, expiry, fresh)"
+			+ " SELECT DISTINCT ON (name, container) ?::integer, name, container, quantity, expiry, " + freshnessOf("expiry")
+			+ " FROM item_import"
+			+ " ORDER BY name, container, line ON CONFLICT (household, name, container) DO NOTHING";
+
+	static final String SELECT_STARRED_RECIPE_PAGE = "SELECT id, title, image_url FROM recipes WHERE id > ? ORDER BY id LIMIT ?";
+
+	static final String SELECT_RECIPE_INGREDIENTS = "SELECT ri.recipe_id, i.id, i.name, ri.amount, i.unit, i.image_url, i.original"
+			+ " FROM ingredients i JOIN recipe_ingredients ri ON i.id = ri.ingredient_id WHERE ri.recipe_id = ANY(?)";
+
+	static final String SELECT_RECIPE_INSTRUCTIONS = "SELECT recipe_id, step_number, instruction FROM detailed_instructions"
+			+ " WHERE recipe_id = ANY(?) ORDER BY recipe_id, step_number";
+
+	static final String INSERT_RECIPE_IF_ABSENT = "INSERT INTO recipes (id, title, image_url) VALUES (?, ?, ?)"
+			+ " ON CONFLICT (id) DO NOTHING";
+
+	static final String INSERT_INGREDIENT_IF_ABSENT = "INSERT INTO ingredients (id, name, unit, image_url, original)"
+			+ " VALUES (?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+	static final String INSERT_RECIPE_INGREDIENT = "INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, is_used)"
+			+ " VALUES (?, ?, ?, ?) ON CONFLICT (recipe_id, ingredient_id) DO NOTHING";
+
+	static final String INSERT_INSTRUCTION = "INSERT INTO detailed_instructions (recipe_id, step_number, instruction)"
+			+ " VALUES (?, ?, ?)";
+
+	static final String UPDATE_QUANTITY = "UPDATE item SET quantity = ? WHERE household = ? AND name = ? AND container = ?";
+
+	static final String INSERT_ITEM_TAG = "INSERT INTO item_tags (household, item_name, tag) VALUES (?, ?, ?)";
+
+	static final String DELETE_ITEM_TAGS = "DELETE FROM item_tags WHERE household = ? AND item_name = ?";
+
+	static final String INSERT_NOTE = "INSERT INTO note (household, item_name, note) VALUES (?, ?, ?)";
+
+	static final String DELETE_NOTES = "DELETE FROM note WHERE household = ? AND item_name = ?";
+
+	static final String REFRESH_FRESHNESS = "UPDATE item SET fresh = " + freshnessOf("expiry")
+			+ " WHERE household = ? AND fresh IS DISTINCT FROM " + freshnessOf("expiry");
+
+	/**
+	 * The oldest transaction still running. Changes logged by it or any later
+	 * transaction may not have been seen yet.
+	 */
+	private static final String CHANGE_HORIZON = "pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+	/**
+	 * The lowest version whose changes are all still logged.
+	 */
+	private static final String PRUNED_HORIZON = "(SELECT xact FROM change_log_pruned)";
+
+	static final String SELECT_CHANGE_VERSION = "SELECT " + CHANGE_HORIZON;
+
+	static final String HAS_CHANGES = "SELECT EXISTS (SELECT 1 FROM change_log WHERE household IN (?, 0)"
+			+ " AND target IN ('item', 'container', 'grocery', 'recipe', 'tag', 'note') AND xact >= ?) OR " + PRUNED_HORIZON + " > ?";
+
+	/**
+	 * Drops the entries logged before a number of days ago and moves the pruned
+	 * horizon past them, returning the number dropped.
+	 */
+	static final String PRUNE_CHANGE_LOG = "WITH pruned AS (DELETE FROM change_log"
+			+ " WHERE logged_at < now() - make_interval(days => ?) RETURNING xact)"
+			+ " UPDATE change_log_pruned SET xact = greatest(xact, (SELECT max(xact) + 1 FROM pruned))"
+			+ " RETURNING (SELECT count(*) FROM pruned)";
+
+	static final String SELECT_ITEM_CHANGES = "SELECT " + CHANGE_HORIZON + " AS horizon, " + PRUNED_HORIZON + " AS pruned,"
+			+ " c.container AS changed_container, c.name AS changed_name, i.name, i.fg, i.fresh, i.quantity, i.expiry,"
+			+ " t.tag, n.notes"
+			+ " FROM (VALUES (1)) AS one (x)"
+			+ " LEFT JOIN (SELECT DISTINCT container, name FROM change_log"
+			+ " WHERE household = ? AND target = 'item' AND xact >= ?) c ON true"
+			+ " LEFT JOIN item i ON i.household = ? AND i.container = c.container AND i.name = c.name" + ANNOTATIONS;
+
+	static final String SELECT_ANNOTATION_CHANGES = "SELECT " + CHANGE_HORIZON + " AS horizon, " + PRUNED_HORIZON + " AS pruned,"
+			+ " c.target AS changed_target, c.name AS changed_name, t.tag, n.notes"
+			+ " FROM (VALUES (1)) AS one (x)"
+			+ " LEFT JOIN (SELECT DISTINCT household, target, name FROM change_log"
+			+ " WHERE household = ? AND target IN ('tag', 'note') AND xact >= ?) c ON true"
+			+ " LEFT JOIN LATERAL (SELECT min(tag) AS tag FROM item_tags"
+			+ " WHERE household = c.household AND item_name = c.name) t ON true"
+			+ " LEFT JOIN LATERAL (SELECT string_agg(note, E'\\n') AS notes FROM note"
+			+ " WHERE household = c.household AND item_name = c.name) n ON true";
+
+	static final String SELECT_CONTAINER_CHANGES = "SELECT " + CHANGE_HORIZON + " AS horizon, " + PRUNED_HORIZON + " AS pruned,"
+			+ " c.name AS changed_name, k.container_name AS name"
+			+ " FROM (VALUES (1)) AS one (x)"
+			+ " LEFT JOIN (SELECT DISTINCT name FROM change_log"
+			+ " WHERE household = ? AND target = 'container' AND xact >= ?) c ON true"
+			+ " LEFT JOIN container k ON k.household = ? AND k.container_name = c.name";
+
+	static final String SELECT_GROCERY_CHANGES = "SELECT " + CHANGE_HORIZON + " AS horizon, " + PRUNED_HORIZON + " AS pruned,"
+			+ " c.name AS changed_name, g.name"
+			+ " FROM (VALUES (1)) AS one (x)"
+			+ " LEFT JOIN (SELECT DISTINCT name FROM change_log"
+			+ " WHERE household = ? AND target = 'grocery' AND xact >= ?) c ON true"
+			+ " LEFT JOIN grocery g ON g.household = ? AND g.name = c.name";
+
+	static final String SELECT_RECIPE_CHANGES = "SELECT " + CHANGE_HORIZON + " AS horizon, " + PRUNED_HORIZON + " AS pruned,"
+			+ " c.recipe_id AS changed_id, c.name AS changed_name, r.id, r.title, r.image_url"
+			+ " FROM (VALUES (1)) AS one (x)"
+			+ " LEFT JOIN (SELECT DISTINCT ON (recipe_id) recipe_id, name FROM change_log"
+			+ " WHERE household = 0 AND target = 'recipe' AND xact >= ? ORDER BY recipe_id, version DESC) c ON true"
+			+ " LEFT JOIN recipes r ON r.id = c.recipe_id";
+
+	private Queries() {
+	}
+
+	/**
+	 * Builds the expression for the freshness bucket of an expiry date: Expired
+	 * before today, Near_Expiry within the next 7 days, Fresh otherwise.
+	 *
+	 * @param expiry The SQL expression giving the expiry date.
+	 * @return The CASE expression.
+	 */
+	private static String freshnessOf(String expiry) {
+		return "CASE WHEN " + expiry + " < CURRENT_DATE THEN 'Expired'::Freshness"
+				+ " WHEN " + expiry + " <= CURRENT_DATE + 7 THEN 'Near_Expiry'::Freshness"
+				+ " ELSE 'Fresh'::Freshness END";
+	}
+}
@@ -0,0 +1,35 @@
+package database;
+
+/**
+ * A write from the {@link WriteJournal} that the database did not accept when
+ * it was replayed, for example an item added offline that another client had
+ * already added. The write is dropped from the journal and reported instead.
+ */
+public class ReplayConflict {
+	private final WriteJournal.Entry entry;
+	private final String reason;
+
+	/**
+	 * Constructs a new conflict.
+	 *
+	 * @param entry  The write that was refused.
+	 * @param reason Why it was refused.
+	 */
+	public ReplayConflict(WriteJournal.Entry entry, String reason) {
+		this.entry = entry;
+		this.reason = reason;
+	}
+
+	public WriteJournal.Entry getEntry() {
+		return entry;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		return entry + ": " + reason;
+	}
+}
@@ -0,0 +1,148 @@
+package database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Brings the database schema up to date by running the scripts in the
+ * {@code migrations} package in order. Scripts are named
+ * {@code V<version>__<description>.sql}; each is applied in its own transaction
+ * and recorded in the {@code schema_version} table, so every script runs once
+ * per database. An advisory lock keeps two starting applications from applying
+ * the same script.
+ *
+ * The tables created by {@code DB_init.sql} are the starting point; scripts only
+ * change what is already there.
+ */
+public class SchemaMigrator {
+
+	/**
+	 * The migration scripts, oldest first. New scripts are added to the end.
+	 */
+	static final List<String> MIGRATIONS = Arrays.asList("V1__item_indexes.sql", "V2__item_keyset_indexes.sql",
+			"V3__household_partitioning.sql", "V4__change_log.sql", "V5__change_log_retention.sql",
+			"V6__annotation_change_log.sql");
+
+	/**
+	 * Key of the advisory lock held while a script is applied.
+	 */
+	private static final long LOCK_KEY = 2311_0001L;
+
+	private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+			+ " version INTEGER PRIMARY KEY, description VARCHAR(200) NOT NULL,"
+			+ " applied_on TIMESTAMP NOT NULL DEFAULT now())";
+
+	private static final String SELECT_VERSION = "SELECT coalesce(max(version), 0) FROM schema_version";
+
+	private static final String INSERT_VERSION = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+
+	private final ConnectionPool pool;
+	private final List<String> migrations;
+
+	/**
+	 * Creates a migrator for the database behind the pool.
+	 *
+	 * @param pool The pool to take a connection from.
+	 */
+	public SchemaMigrator(ConnectionPool pool) {
+		this(pool, MIGRATIONS);
+	}
+
+	SchemaMigrator(ConnectionPool pool, List<String> migrations) {
+		this.pool = pool;
+		this.migrations = migrations;
+	}
+
+	/**
+	 * Applies every script newer than the recorded schema version.
+	 *
+	 * @return The number of scripts applied.
+	 * @throws SQLException if a script fails; scripts applied before it stay
+	 *                      applied.
+	 */
+	public int migrate() throws SQLException {
+		int applied = 0;
+		try (Connection conn = pool.getConnection()) {
+			conn.setAutoCommit(false);
+			for (String script : migrations) {
+				int version = versionOf(script);
+				try (Statement s = conn.createStatement()) {
+					s.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+					s.execute(CREATE_VERSION_TABLE);
+					if (currentVersion(conn) >= version) {
+						conn.commit();
+						continue;
+					}
+
+					s.execute(read(script));
+					try (PreparedStatement p = conn.prepareStatement(INSERT_VERSION)) {
+						p.setInt(1, version);
+						p.setString(2, descriptionOf(script));
+						p.executeUpdate();
+					}
+					conn.commit();
+					applied++;
+				} catch (SQLException e) {
+					conn.rollback();
+					throw e;
+				}
+			}
+		}
+		return applied;
+	}
+
+	/**
+	 * Returns the version of the newest script applied to the database.
+	 *
+	 * @return The schema version, or 0 if no script has been applied.
+	 * @throws SQLException if the version cannot be read.
+	 */
+	public int getCurrentVersion() throws SQLException {
+		try (Connection conn = pool.getConnection(); Statement s = conn.createStatement()) {
+			s.execute(CREATE_VERSION_TABLE);
+			return currentVersion(conn);
+		}
+	}
+
+	private static int currentVersion(Connection conn) throws SQLException {
+		try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery(SELECT_VERSION)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	/**
+	 * Reads the version number from a script name such as
+	 * {@code V1__item_indexes.sql}.
+	 */
+	static int versionOf(String script) {
+		int end = script.indexOf("__");
+		if (!script.startsWith("V") || end < 2) {
+			throw new IllegalArgumentException("Migration script " + script + " is not named V<version>__<description>.sql");
+		}
+		return Integer.parseInt(script.substring(1, end));
+	}
+
+	private static String descriptionOf(String script) {
+		return script.substring(script.indexOf("__") + 2, script.lastIndexOf('.')).replace('_', ' ');
+	}
+
+	private static String read(String script) throws SQLException {
+		try (InputStream in = SchemaMigrator.class.getResourceAsStream("migrations/" + script)) {
+			if (in == null) {
+				throw new SQLException("Migration script " + script + " was not found");
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new SQLException("Migration script " + script + " could not be read", e);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package database;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Backs up the PostgreSQL pantry to a {@link PantrySnapshot} file, or restores
+ * one into it.
+ *
+ * <pre>
+ * java database.SnapshotTool backup pantry.snapshot
+ * java database.SnapshotTool backup -            (writes to standard output)
+ * java database.SnapshotTool restore pantry.snapshot
+ * </pre>
+ *
+ * A restore adds to what is stored: items already in a container are kept, and
+ * the settings, tags and notes of the snapshot replace the stored ones.
+ */
+public class SnapshotTool {
+
+	public static void main(String[] args) {
+		if (args.length != 2 || !(args[0].equals("backup") || args[0].equals("restore"))) {
+			System.err.println("Usage: SnapshotTool backup|restore <file>");
+			System.exit(2);
+		}
+		DB db = new DB();
+		long start = System.nanoTime();
+		try {
+			int items;
+			if (args[0].equals("backup")) {
+				if (args[1].equals("-")) {
+					items = PantrySnapshot.write(db, System.out);
+				} else {
+					items = PantrySnapshot.save(db, Paths.get(args[1]));
+				}
+			} else {
+				Path file = Paths.get(args[1]);
+				items = PantrySnapshot.restore(file, db);
+			}
+			long millis = (System.nanoTime() - start) / 1_000_000;
+			System.err.println(args[0] + ": " + items + " items in " + millis + " ms");
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
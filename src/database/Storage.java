@@ -0,0 +1,417 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+import domain.logic.item.ItemImportRow;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.recipe.Recipe;
+
+/**
+ * The operations the application needs from a pantry store: containers, their
+ * items, item tags and notes, the grocery list, settings and starred recipes.
+ * The views and domain utilities only use this interface, so the storage
+ * engine can be chosen at startup. {@link DB} stores everything in PostgreSQL
+ * and {@link MemoryStorage} keeps it in memory.
+ */
+public interface Storage {
+
+	/**
+	 * Inserts a new container.
+	 *
+	 * @param nameOfContainer The name of the container.
+	 */
+	void putContainer(String nameOfContainer);
+
+	/**
+	 * Returns the names of the stored containers.
+	 *
+	 * @return A list of container names, or null if they could not be read.
+	 */
+	List<String> retrieveContainers();
+
+	/**
+	 * Checks whether a container is stored.
+	 *
+	 * @param name The name of the container.
+	 * @return True if the container exists.
+	 */
+	boolean findContainer(String name);
+
+	/**
+	 * Removes a container and its items.
+	 *
+	 * @param name The name of the container.
+	 */
+	void removeContainer(String name);
+
+	/**
+	 * Renames a container.
+	 *
+	 * @param prevName The current name of the container.
+	 * @param newName  The new name of the container.
+	 */
+	void editContainer(String prevName, String newName);
+
+	/**
+	 * Removes every item from a container.
+	 *
+	 * @param c The container to empty.
+	 */
+	void emptyContainer(Container c);
+
+	/**
+	 * Adds a new container.
+	 *
+	 * @param containerName The name of the container.
+	 * @param c             The container being added.
+	 */
+	void addContainer(String containerName, Container c);
+
+	/**
+	 * Adds an item to a container.
+	 *
+	 * @param c    The container the item is added to.
+	 * @param name The name of the item.
+	 * @param ite  The item to add.
+	 * @return True if the item was added, false if it already exists or could
+	 *         not be stored.
+	 */
+	Boolean addItem(Container c, String name, Item ite);
+
+	/**
+	 * Adds several items to a container at once.
+	 *
+	 * @param c     The container the items are added to.
+	 * @param items The items to add.
+	 * @return The outcome of each item in iteration order, or null if nothing
+	 *         was added.
+	 */
+	List<AddItemOutcome> addItems(Container c, Collection<Item> items);
+
+	/**
+	 * Adds validated import rows, creating missing containers.
+	 *
+	 * @param rows The validated rows.
+	 * @return The rows skipped as duplicates, or null if nothing was stored.
+	 */
+	List<ItemImportRow> importItems(Iterator<ItemImportRow> rows);
+
+	/**
+	 * Removes an item from a container.
+	 *
+	 * @param container The container holding the item.
+	 * @param itemName  The name of the item.
+	 */
+	void removeItem(Container container, String itemName);
+
+	/**
+	 * Returns an item of a container.
+	 *
+	 * @param c        The container holding the item.
+	 * @param itemName The name of the item.
+	 * @return The item, or null if it is not stored.
+	 */
+	Item getItem(Container c, String itemName);
+
+	/**
+	 * Sets the food group of an item. A null food group leaves it unchanged.
+	 *
+	 * @param c            The container holding the item.
+	 * @param itemName     The name of the item.
+	 * @param newFoodGroup The new food group, or null.
+	 */
+	void updateItemFoodGroup(Container c, String itemName, FoodGroup newFoodGroup);
+
+	/**
+	 * Returns the items of a container.
+	 *
+	 * @param c The container to read.
+	 * @return The items, or null if they could not be read.
+	 */
+	List<Item> retrieveItems(Container c);
+
+	/**
+	 * Passes every item of a container to an action without building a list.
+	 *
+	 * @param c      The container to read.
+	 * @param action Called once for every item.
+	 * @return True if every item was read.
+	 */
+	boolean forEachItem(Container c, Consumer<Item> action);
+
+	/**
+	 * Returns the items of a container with their custom tag and note set.
+	 *
+	 * @param c The container to read.
+	 * @return The items, or null if they could not be read.
+	 */
+	List<Item> retrieveAnnotatedItems(Container c);
+
+	/**
+	 * Publishes every item of every container, ordered by container and name.
+	 *
+	 * @return A publisher of all items with their container names.
+	 */
+	Flow.Publisher<ContainerItem> publishAllItems();
+
+	/**
+	 * Returns the first page of the items matched by a query.
+	 *
+	 * @param query The items to list and their order.
+	 * @return The first page, or null if the query failed.
+	 */
+	ItemPage queryItems(ItemQuery query);
+
+	/**
+	 * Returns the page after a page.
+	 *
+	 * @param page A page returned by this storage.
+	 * @return The next page, or null if the query failed.
+	 */
+	ItemPage nextPage(ItemPage page);
+
+	/**
+	 * Returns the page before a page.
+	 *
+	 * @param page A page returned by this storage.
+	 * @return The previous page, or null if the query failed.
+	 */
+	ItemPage previousPage(ItemPage page);
+
+	/**
+	 * Recomputes the freshness of the items of every container.
+	 *
+	 * @return The number of items whose freshness changed, or -1 on failure.
+	 */
+	int refreshFreshness();
+
+	/**
+	 * Sets the quantity of an item.
+	 *
+	 * @param item  The name of the item.
+	 * @param value The new quantity.
+	 * @param c     The container holding the item.
+	 */
+	void updateQuantity(String item, int value, Container c);
+
+	/**
+	 * Returns the items close to expiring as "name - container" labels.
+	 *
+	 * @return The labels of the near expiry items.
+	 */
+	List<String> getExpiringItems();
+
+	/**
+	 * Returns the lower case names of the items that are fresh or near expiry.
+	 *
+	 * @return The item names.
+	 */
+	Set<String> getNearExpiryOrFreshItemNames();
+
+	/**
+	 * Returns the food group of every item that has one.
+	 *
+	 * @param container The container to read, or null for every container.
+	 * @return The food group names, or null if they could not be read.
+	 */
+	ArrayList<String> getTotalCount(String container);
+
+	/**
+	 * Counts the items of each food group.
+	 *
+	 * @param container The container to count, or null for every container.
+	 * @return The number of items in each food group, or null on failure.
+	 */
+	EnumMap<FoodGroup, Integer> getFoodGroupCounts(String container);
+
+	/**
+	 * Returns the storage tip for a food.
+	 *
+	 * @param name The name of the food.
+	 * @return The tip, or null if there is none.
+	 */
+	String getStorageTip(String name);
+
+	/**
+	 * Adds a name to the grocery list.
+	 *
+	 * @param itemName The name to add.
+	 */
+	void addToGroceryList(String itemName);
+
+	/**
+	 * Removes a name from the grocery list.
+	 *
+	 * @param itemName The name to remove.
+	 */
+	void removeFromGroceryList(String itemName);
+
+	/**
+	 * Returns the grocery list as table rows of one column.
+	 *
+	 * @return The grocery list rows.
+	 */
+	Object[][] getAllGroceryItems();
+
+	/**
+	 * Publishes the names on the grocery list, ordered by name.
+	 *
+	 * @return A publisher of grocery item names.
+	 */
+	Flow.Publisher<String> publishGroceryItems();
+
+	/**
+	 * Returns the font size and the notification flag, as strings.
+	 *
+	 * @return The settings.
+	 */
+	String[] getSettings();
+
+	/**
+	 * Saves the font size.
+	 *
+	 * @param n The font size.
+	 */
+	void setFontsize(int n);
+
+	/**
+	 * Saves whether notifications are shown at startup.
+	 *
+	 * @param b True to show notifications.
+	 */
+	void setNotificationBoolean(boolean b);
+
+	/**
+	 * Stars a recipe, storing its ingredients and instructions.
+	 *
+	 * @param recipe The recipe to save.
+	 * @return True if the recipe was saved, false if it was already saved or
+	 *         could not be saved.
+	 */
+	boolean saveRecipeToDatabase(Recipe recipe);
+
+	/**
+	 * Checks whether a recipe is starred.
+	 *
+	 * @param recipeId The id of the recipe.
+	 * @return True if the recipe is saved.
+	 */
+	boolean isRecipeInDatabase(int recipeId);
+
+	/**
+	 * Returns every starred recipe with its ingredients and instructions.
+	 *
+	 * @return The starred recipes.
+	 */
+	List<Recipe> getAllStarredRecipes();
+
+	/**
+	 * Returns one page of starred recipes ordered by id.
+	 *
+	 * @param afterId The id of the last recipe of the previous page, or 0.
+	 * @param limit   The largest number of recipes to return.
+	 * @return The recipes of the page.
+	 */
+	List<Recipe> getStarredRecipePage(int afterId, int limit);
+
+	/**
+	 * Loads the ingredients and instructions of recipes read by page.
+	 *
+	 * @param recipes The recipes to complete.
+	 * @return True if they were loaded.
+	 */
+	boolean hydrateRecipes(List<Recipe> recipes);
+
+	/**
+	 * Removes a starred recipe.
+	 *
+	 * @param recipe The recipe to remove.
+	 */
+	void removeStarredRecipe(Recipe recipe);
+
+	/**
+	 * Adds a custom tag to an item name.
+	 *
+	 * @param itemName The name of the item.
+	 * @param tag      The tag to add.
+	 */
+	void insertItemTag(String itemName, String tag);
+
+	/**
+	 * Returns the custom tag of an item name.
+	 *
+	 * @param itemName The name of the item.
+	 * @return The tag, or null if there is none.
+	 */
+	String getItemTag(String itemName);
+
+	/**
+	 * Removes the custom tags of an item name.
+	 *
+	 * @param itemName The name of the item.
+	 * @return True if a tag was removed.
+	 */
+	boolean removeItemTag(String itemName);
+
+	/**
+	 * Replaces the custom tag of an item name. An empty or null tag removes it.
+	 *
+	 * @param itemName The name of the item.
+	 * @param tag      The new tag.
+	 */
+	void replaceItemTag(String itemName, String tag);
+
+	/**
+	 * Adds a note to an item name.
+	 *
+	 * @param itemName The name of the item.
+	 * @param note     The note to add.
+	 */
+	void addNote(String itemName, String note);
+
+	/**
+	 * Removes the notes of an item name.
+	 *
+	 * @param itemName The name of the item.
+	 */
+	void deleteNote(String itemName);
+
+	/**
+	 * Replaces the notes of an item name with one note. An empty or null note
+	 * removes them.
+	 *
+	 * @param itemName The name of the item.
+	 * @param note     The new note.
+	 */
+	void replaceNote(String itemName, String note);
+
+	/**
+	 * Returns the notes of an item name, separated by new lines.
+	 *
+	 * @param itemName The name of the item.
+	 * @return The notes, or an empty string if there are none.
+	 */
+	String getNote(String itemName);
+
+	/**
+	 * Returns the bus on which a {@link ChangeEvent} is published after every
+	 * write that was stored, so views and caches can apply the change instead
+	 * of reading everything again.
+	 *
+	 * @return The change bus of this storage.
+	 */
+	ChangeBus getChangeBus();
+}
@@ -0,0 +1,356 @@
+package database;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import domain.logic.container.Container;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+
+/**
+ * Groups several pantry writes so they are stored together or not at all.
+ * Nothing is sent while the writes are being added; {@link #commit()} sends
+ * them in order on one connection, in one transaction, and consecutive writes
+ * of the same kind go out as a single JDBC batch. A move or rename therefore
+ * costs one commit instead of one per step, and a crash in the middle leaves
+ * the pantry as it was.
+ *
+ * The {@link ChangeEvent}s of the writes are published once the transaction
+ * has committed, and only for writes that changed a row. A unit that is closed
+ * without being committed is discarded.
+ *
+ * <pre>
+ * try (UnitOfWork unit = db.beginUnitOfWork()) {
+ * 	unit.moveItem("Milk", pantry, fridge).replaceNote("Milk", "Opened");
+ * 	unit.commit();
+ * }
+ * </pre>
+ */
+public class UnitOfWork implements AutoCloseable {
+
+	/**
+	 * One statement of a unit with its parameters, and the events to publish if
+	 * it changes a row.
+	 */
+	static final class Step {
+		final String sql;
+		final Object[] params;
+		final ChangeEvent[] events;
+
+		Step(String sql, Object[] params, ChangeEvent... events) {
+			this.sql = sql;
+			this.params = params;
+			this.events = events;
+		}
+	}
+
+	private final DB db;
+	private final int household;
+	private final List<Step> steps = new ArrayList<Step>();
+	private final List<Consumer<Storage>> operations = new ArrayList<Consumer<Storage>>();
+	private final Set<String> containers = new LinkedHashSet<String>();
+	private boolean finished;
+
+	UnitOfWork(DB db) {
+		this.db = db;
+		this.household = db.getHousehold();
+	}
+
+	/**
+	 * @param name The name of the container to add.
+	 * @return This unit.
+	 */
+	public UnitOfWork addContainer(String name) {
+		add(d -> d.putContainer(name), name);
+		step(Queries.INSERT_CONTAINER, new Object[] { household, name }, ChangeEvent.containerAdded(name));
+		return this;
+	}
+
+	/**
+	 * @param name The name of the container to remove with its items.
+	 * @return This unit.
+	 */
+	public UnitOfWork removeContainer(String name) {
+		add(d -> d.removeContainer(name), name);
+		step(Queries.DELETE_CONTAINER, new Object[] { household, name }, ChangeEvent.containerRemoved(name));
+		return this;
+	}
+
+	/**
+	 * Renames a container and moves its items to the new name. Tags and notes
+	 * are kept by item name, so they follow the items.
+	 *
+	 * @param prevName The current name of the container.
+	 * @param newName  The new name.
+	 * @return This unit.
+	 */
+	public UnitOfWork renameContainer(String prevName, String newName) {
+		add(d -> d.editContainer(prevName, newName), prevName, newName);
+		step(Queries.COPY_CONTAINER, new Object[] { newName, household, prevName },
+				ChangeEvent.containerRenamed(prevName, newName));
+		step(Queries.MOVE_CONTAINER_ITEMS, new Object[] { newName, household, prevName });
+		step(Queries.DELETE_CONTAINER, new Object[] { household, prevName });
+		return this;
+	}
+
+	/**
+	 * @param c The container to remove every item from.
+	 * @return This unit.
+	 */
+	public UnitOfWork emptyContainer(Container c) {
+		String name = c.getName();
+		add(d -> d.emptyContainer(c), name);
+		step(Queries.EMPTY_CONTAINER, new Object[] { household, name }, ChangeEvent.containerEmptied(name));
+		return this;
+	}
+
+	/**
+	 * Adds an item. Unlike {@link DB#addItem}, an item already in the container
+	 * fails the whole unit, so a move never silently loses the moved item.
+	 *
+	 * @param c   The container to add to.
+	 * @param ite The item, with an expiry date.
+	 * @return This unit.
+	 */
+	public UnitOfWork addItem(Container c, Item ite) {
+		String name = c.getName();
+		Item copy = Item.getInstance(ite);
+		add(d -> d.addItem(c, copy.getName(), copy), name);
+		step(Queries.INSERT_ITEM,
+				new Object[] { household, copy.getName(), name, copy.getQuantity(),
+						new Date(copy.getExpiryDate().getTime()) },
+				ChangeEvent.itemAdded(name, copy));
+		return this;
+	}
+
+	/**
+	 * @param c        The container of the item.
+	 * @param itemName The name of the item to remove.
+	 * @return This unit.
+	 */
+	public UnitOfWork removeItem(Container c, String itemName) {
+		String name = c.getName();
+		add(d -> d.removeItem(c, itemName), name);
+		step(Queries.DELETE_ITEM, new Object[] { household, itemName, name }, ChangeEvent.itemRemoved(name, itemName));
+		return this;
+	}
+
+	/**
+	 * Moves an item to another container, keeping its quantity, expiry, food
+	 * group and freshness. The item must not already be in the target container.
+	 *
+	 * @param itemName The name of the item.
+	 * @param from     The container it is in.
+	 * @param to       The container to move it to.
+	 * @return This unit.
+	 */
+	public UnitOfWork moveItem(String itemName, Container from, Container to) {
+		String source = from.getName();
+		String target = to.getName();
+		add(d -> {
+			Item ite = d.getItem(from, itemName);
+			if (ite != null) {
+				d.removeItem(from, itemName);
+				d.addItem(to, itemName, ite);
+			}
+		}, source, target);
+		step(Queries.MOVE_ITEM, new Object[] { target, household, itemName, source },
+				ChangeEvent.itemRemoved(source, itemName), ChangeEvent.itemsReloaded(target));
+		return this;
+	}
+
+	/**
+	 * @param c        The container of the item.
+	 * @param itemName The name of the item.
+	 * @param quantity The new quantity.
+	 * @return This unit.
+	 */
+	public UnitOfWork updateQuantity(Container c, String itemName, int quantity) {
+		String name = c.getName();
+		add(d -> d.updateQuantity(itemName, quantity, c), name);
+		step(Queries.UPDATE_QUANTITY, new Object[] { quantity, household, itemName, name },
+				ChangeEvent.quantityUpdated(name, itemName, quantity));
+		return this;
+	}
+
+	/**
+	 * @param c         The container of the item.
+	 * @param itemName  The name of the item.
+	 * @param foodGroup The new food group.
+	 * @return This unit.
+	 */
+	public UnitOfWork updateItemFoodGroup(Container c, String itemName, FoodGroup foodGroup) {
+		String name = c.getName();
+		add(d -> d.updateItemFoodGroup(c, itemName, foodGroup), name);
+		step(Queries.UPDATE_ITEM_FOOD_GROUP, new Object[] { foodGroup.getDisplayName(), household, itemName, name },
+				ChangeEvent.foodGroupUpdated(name, itemName, foodGroup));
+		return this;
+	}
+
+	/**
+	 * Replaces the tag of an item. An empty or null tag removes it.
+	 *
+	 * @param itemName The name of the item.
+	 * @param tag      The new tag.
+	 * @return This unit.
+	 */
+	public UnitOfWork replaceItemTag(String itemName, String tag) {
+		add(d -> d.replaceItemTag(itemName, tag));
+		replace(Queries.DELETE_ITEM_TAGS, Queries.INSERT_ITEM_TAG, itemName, tag, ChangeEvent.tagUpdated(itemName, tag));
+		return this;
+	}
+
+	/**
+	 * @param itemName The name of the item.
+	 * @param tag      A tag to add to its tags.
+	 * @return This unit.
+	 */
+	public UnitOfWork insertItemTag(String itemName, String tag) {
+		add(d -> d.insertItemTag(itemName, tag));
+		step(Queries.INSERT_ITEM_TAG, new Object[] { household, itemName, tag }, ChangeEvent.tagAdded(itemName, tag));
+		return this;
+	}
+
+	/**
+	 * @param itemName The name of the item whose tags are removed.
+	 * @return This unit.
+	 */
+	public UnitOfWork removeItemTag(String itemName) {
+		add(d -> d.removeItemTag(itemName));
+		step(Queries.DELETE_ITEM_TAGS, new Object[] { household, itemName }, ChangeEvent.tagRemoved(itemName));
+		return this;
+	}
+
+	/**
+	 * Replaces all notes of an item with one note. An empty or null note
+	 * removes them.
+	 *
+	 * @param itemName The name of the item.
+	 * @param note     The new note.
+	 * @return This unit.
+	 */
+	public UnitOfWork replaceNote(String itemName, String note) {
+		add(d -> d.replaceNote(itemName, note));
+		replace(Queries.DELETE_NOTES, Queries.INSERT_NOTE, itemName, note, ChangeEvent.noteUpdated(itemName, note));
+		return this;
+	}
+
+	/**
+	 * @param itemName The name of the item.
+	 * @param note     A note to add to its notes.
+	 * @return This unit.
+	 */
+	public UnitOfWork addNote(String itemName, String note) {
+		add(d -> d.addNote(itemName, note));
+		step(Queries.INSERT_NOTE, new Object[] { household, itemName, note }, ChangeEvent.noteAdded(itemName, note));
+		return this;
+	}
+
+	/**
+	 * @param itemName The name of the item whose notes are removed.
+	 * @return This unit.
+	 */
+	public UnitOfWork deleteNote(String itemName) {
+		add(d -> d.deleteNote(itemName));
+		step(Queries.DELETE_NOTES, new Object[] { household, itemName }, ChangeEvent.noteRemoved(itemName));
+		return this;
+	}
+
+	/**
+	 * @param itemName The name to put on the grocery list.
+	 * @return This unit.
+	 */
+	public UnitOfWork addToGroceryList(String itemName) {
+		add(d -> d.addToGroceryList(itemName));
+		step(Queries.INSERT_GROCERY, new Object[] { household, itemName }, ChangeEvent.groceryAdded(itemName));
+		return this;
+	}
+
+	/**
+	 * @param itemName The name to take off the grocery list.
+	 * @return This unit.
+	 */
+	public UnitOfWork removeFromGroceryList(String itemName) {
+		add(d -> d.removeFromGroceryList(itemName));
+		step(Queries.DELETE_GROCERY, new Object[] { household, itemName }, ChangeEvent.groceryRemoved(itemName));
+		return this;
+	}
+
+	/**
+	 * @return The number of statements the unit will send.
+	 */
+	public int size() {
+		return steps.size();
+	}
+
+	/**
+	 * Stores every write of the unit in one transaction. Once committed, or if
+	 * the commit fails, the unit cannot be used again.
+	 *
+	 * @return true if every write was stored, false if none was.
+	 */
+	public boolean commit() {
+		finish();
+		return db.commit(this);
+	}
+
+	/**
+	 * Discards the unit if it was not committed.
+	 */
+	@Override
+	public void close() {
+		finished = true;
+	}
+
+	List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * @return The writes of the unit as calls on a store, for databases that
+	 *         keep a copy of the data to bring up to date.
+	 */
+	List<Consumer<Storage>> getOperations() {
+		return Collections.unmodifiableList(operations);
+	}
+
+	/**
+	 * @return The names of the containers whose items the unit changes.
+	 */
+	Set<String> getContainers() {
+		return Collections.unmodifiableSet(containers);
+	}
+
+	private void add(Consumer<Storage> operation, String... containerNames) {
+		if (finished) {
+			throw new IllegalStateException("The unit of work has already been committed or closed");
+		}
+		operations.add(operation);
+		Collections.addAll(containers, containerNames);
+	}
+
+	private void step(String sql, Object[] params, ChangeEvent... events) {
+		steps.add(new Step(sql, params, events));
+	}
+
+	private void replace(String deleteSql, String insertSql, String itemName, String value, ChangeEvent event) {
+		if (value == null || value.isEmpty()) {
+			step(deleteSql, new Object[] { household, itemName }, event);
+		} else {
+			step(deleteSql, new Object[] { household, itemName });
+			step(insertSql, new Object[] { household, itemName, value }, event);
+		}
+	}
+
+	private void finish() {
+		if (finished) {
+			throw new IllegalStateException("The unit of work has already been committed or closed");
+		}
+		finished = true;
+	}
+}
@@ -0,0 +1,305 @@
+package database;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import domain.logic.container.Container;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.Item;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+
+/**
+ * A {@link DB} that buffers quantity, tag and note edits instead of writing them
+ * straight away, so the Swing thread does not wait on the database while the
+ * user makes a run of edits. Successive edits to the same item are coalesced
+ * and written in one transaction by a background thread every flush interval,
+ * and on JVM shutdown before the connection pool closes.
+ *
+ * Reads through this object see the buffered values, and buffered edits are
+ * published as {@link ChangeEvent}s when they are buffered. Edits that change
+ * which rows exist, such as removing an item or renaming a container, and
+ * units of work flush the buffer first so they apply in order.
+ */
+public class WriteBehindDB extends DB {
+
+	/**
+	 * Default time between background flushes.
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 250;
+
+	private final Object lock = new Object();
+	private final Object flushLock = new Object();
+	private PendingEdits pending = new PendingEdits();
+	private PendingEdits inFlight = new PendingEdits();
+	private final ScheduledExecutorService flusher;
+	private final Runnable shutdownTask = this::close;
+
+	/**
+	 * Creates a write-behind database with the default flush interval.
+	 */
+	public WriteBehindDB() {
+		this(DEFAULT_FLUSH_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Creates a write-behind database.
+	 *
+	 * @param flushIntervalMillis The time between background flushes.
+	 */
+	public WriteBehindDB(long flushIntervalMillis) {
+		// Creating the pool registers the shutdown hook that runs the final flush
+		getConnectionPool();
+		addShutdownTask(shutdownTask);
+
+		flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "write-behind-flusher");
+			t.setDaemon(true);
+			return t;
+		});
+		flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Writes every buffered edit now. If the write fails the edits stay buffered
+	 * and are retried on the next flush.
+	 *
+	 * @return true if the buffer was written or empty, false if the write failed.
+	 */
+	public boolean flush() {
+		synchronized (flushLock) {
+			PendingEdits batch;
+			synchronized (lock) {
+				if (pending.isEmpty()) {
+					return true;
+				}
+				batch = pending;
+				pending = new PendingEdits();
+				inFlight = batch;
+			}
+
+			boolean written = applyEdits(batch);
+
+			synchronized (lock) {
+				inFlight = new PendingEdits();
+				if (!written) {
+					pending.addOlder(batch);
+				}
+			}
+			return written;
+		}
+	}
+
+	/**
+	 * Stops the background flushes and writes what is left in the buffer.
+	 */
+	public void close() {
+		removeShutdownTask(shutdownTask);
+		flusher.shutdown();
+		flush();
+	}
+
+	/**
+	 * @return The number of edits waiting to be written.
+	 */
+	public int getPendingCount() {
+		synchronized (lock) {
+			return pending.size() + inFlight.size();
+		}
+	}
+
+	@Override
+	public void updateQuantity(String item, int value, Container c) {
+		synchronized (lock) {
+			pending.setQuantity(c.getName(), item, value);
+		}
+		publish(ChangeEvent.quantityUpdated(c.getName(), item, value));
+	}
+
+	@Override
+	public void replaceItemTag(String itemName, String tag) {
+		synchronized (lock) {
+			pending.setTag(itemName, tag);
+		}
+		publish(ChangeEvent.tagUpdated(itemName, tag));
+	}
+
+	@Override
+	public void replaceNote(String itemName, String note) {
+		synchronized (lock) {
+			pending.setNote(itemName, note);
+		}
+		publish(ChangeEvent.noteUpdated(itemName, note));
+	}
+
+	@Override
+	public void insertItemTag(String itemName, String tag) {
+		flush();
+		super.insertItemTag(itemName, tag);
+	}
+
+	@Override
+	public boolean removeItemTag(String itemName) {
+		flush();
+		return super.removeItemTag(itemName);
+	}
+
+	@Override
+	public void addNote(String itemName, String note) {
+		flush();
+		super.addNote(itemName, note);
+	}
+
+	@Override
+	public void deleteNote(String itemName) {
+		flush();
+		super.deleteNote(itemName);
+	}
+
+	@Override
+	public void removeItem(Container container, String itemName) {
+		flush();
+		super.removeItem(container, itemName);
+	}
+
+	@Override
+	public void emptyContainer(Container c) {
+		flush();
+		super.emptyContainer(c);
+	}
+
+	@Override
+	public void removeContainer(String name) {
+		flush();
+		super.removeContainer(name);
+	}
+
+	@Override
+	public void editContainer(String prevName, String newName) {
+		flush();
+		super.editContainer(prevName, newName);
+	}
+
+	@Override
+	protected boolean commit(UnitOfWork unit) {
+		return flush() && super.commit(unit);
+	}
+
+	@Override
+	public Item getItem(Container c, String itemName) {
+		return overlay(super.getItem(c, itemName), c.getName());
+	}
+
+	@Override
+	public boolean forEachItem(Container c, Consumer<Item> action) {
+		return super.forEachItem(c, item -> action.accept(overlay(item, c.getName())));
+	}
+
+	@Override
+	public List<Item> retrieveAnnotatedItems(Container c) {
+		List<Item> items = super.retrieveAnnotatedItems(c);
+		if (items != null) {
+			for (Item item : items) {
+				overlay(item, c.getName());
+			}
+		}
+		return items;
+	}
+
+	@Override
+	public Flow.Publisher<ContainerItem> publishAllItems() {
+		flush();
+		return super.publishAllItems();
+	}
+
+	@Override
+	public ItemPage queryItems(ItemQuery query) {
+		return overlay(super.queryItems(query));
+	}
+
+	@Override
+	public ItemPage nextPage(ItemPage page) {
+		return overlay(super.nextPage(page));
+	}
+
+	@Override
+	public ItemPage previousPage(ItemPage page) {
+		return overlay(super.previousPage(page));
+	}
+
+	@Override
+	public String getItemTag(String itemName) {
+		String tag = pendingTag(itemName);
+		if (tag == null) {
+			return super.getItemTag(itemName);
+		}
+		return tag.isEmpty() ? null : tag;
+	}
+
+	@Override
+	public String getNote(String itemName) {
+		String note = pendingNote(itemName);
+		return note == null ? super.getNote(itemName) : note;
+	}
+
+	/**
+	 * Applies buffered edits to the rows of a page. Quantities are not a sort key,
+	 * so the page order is still correct.
+	 */
+	private ItemPage overlay(ItemPage page) {
+		if (page != null) {
+			for (ContainerItem row : page.getRows()) {
+				overlay(row.getItem(), row.getContainer());
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Applies buffered edits to an item read from the database.
+	 */
+	private Item overlay(Item item, String container) {
+		if (item == null) {
+			return null;
+		}
+		synchronized (lock) {
+			Integer quantity = pending.getQuantity(container, item.getName());
+			if (quantity == null) {
+				quantity = inFlight.getQuantity(container, item.getName());
+			}
+			if (quantity != null) {
+				item.setQuantity(quantity);
+			}
+		}
+
+		String tag = pendingTag(item.getName());
+		if (tag != null && tag.isEmpty()) {
+			item.removeCustomTag();
+		} else if (tag != null) {
+			item.addCustomTag(tag);
+		}
+		String note = pendingNote(item.getName());
+		if (note != null) {
+			item.setCustomNote(note);
+		}
+		return item;
+	}
+
+	private String pendingTag(String itemName) {
+		synchronized (lock) {
+			String tag = pending.getTag(itemName);
+			return tag != null ? tag : inFlight.getTag(itemName);
+		}
+	}
+
+	private String pendingNote(String itemName) {
+		synchronized (lock) {
+			String note = pending.getNote(itemName);
+			return note != null ? note : inFlight.getNote(itemName);
+		}
+	}
+}
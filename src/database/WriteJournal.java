@@ -0,0 +1,354 @@
+package database;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import domain.logic.item.Item;
+
+/**
+ * An append-only file of item, grocery and tag writes that have not reached the
+ * database yet. Each write is one record, written with a single
+ * {@link FileChannel} write and forced to disk before {@link #append} returns,
+ * so a write the user saw succeed survives a crash.
+ *
+ * A record is its length, a CRC32 of its contents and the contents: a sequence
+ * number, a record type and the fields of the write. Writes that have been
+ * replayed are marked by appending an acknowledgement record rather than by
+ * rewriting the file, and once nothing is pending the file is truncated. A
+ * record cut short by a crash fails its checksum and is dropped, along with
+ * anything after it, when the journal is opened.
+ */
+public class WriteJournal implements Closeable {
+
+	/**
+	 * The writes a journal records.
+	 */
+	public enum Op {
+		ADD_ITEM, REMOVE_ITEM, UPDATE_QUANTITY, ADD_GROCERY, REMOVE_GROCERY, INSERT_TAG, REMOVE_TAG, REPLACE_TAG
+	}
+
+	/**
+	 * Record type of an acknowledgement, after the types of {@link Op}.
+	 */
+	private static final int ACK = 0x7f;
+
+	private static final int HEADER_BYTES = 8;
+
+	/**
+	 * Largest record accepted when reading, to stop a damaged length from
+	 * allocating a huge buffer.
+	 */
+	private static final int MAX_RECORD_BYTES = 1 << 20;
+
+	/**
+	 * One write recorded in the journal.
+	 */
+	public static final class Entry {
+		private final long sequence;
+		private final Op op;
+		private final String container;
+		private final String name;
+		private final int quantity;
+		private final Date expiry;
+		private final String text;
+
+		private Entry(long sequence, Op op, String container, String name, int quantity, Date expiry, String text) {
+			this.sequence = sequence;
+			this.op = op;
+			this.container = container;
+			this.name = name;
+			this.quantity = quantity;
+			this.expiry = expiry;
+			this.text = text;
+		}
+
+		public static Entry addItem(String container, Item item) {
+			return new Entry(0, Op.ADD_ITEM, container, item.getName(), item.getQuantity(), item.getExpiryDate(), null);
+		}
+
+		public static Entry removeItem(String container, String itemName) {
+			return new Entry(0, Op.REMOVE_ITEM, container, itemName, 0, null, null);
+		}
+
+		public static Entry updateQuantity(String container, String itemName, int quantity) {
+			return new Entry(0, Op.UPDATE_QUANTITY, container, itemName, quantity, null, null);
+		}
+
+		public static Entry addGrocery(String itemName) {
+			return new Entry(0, Op.ADD_GROCERY, null, itemName, 0, null, null);
+		}
+
+		public static Entry removeGrocery(String itemName) {
+			return new Entry(0, Op.REMOVE_GROCERY, null, itemName, 0, null, null);
+		}
+
+		public static Entry insertTag(String itemName, String tag) {
+			return new Entry(0, Op.INSERT_TAG, null, itemName, 0, null, tag);
+		}
+
+		public static Entry removeTag(String itemName) {
+			return new Entry(0, Op.REMOVE_TAG, null, itemName, 0, null, null);
+		}
+
+		public static Entry replaceTag(String itemName, String tag) {
+			return new Entry(0, Op.REPLACE_TAG, null, itemName, 0, null, tag);
+		}
+
+		/**
+		 * @return The position of the write in the journal, from 1.
+		 */
+		public long getSequence() {
+			return sequence;
+		}
+
+		public Op getOp() {
+			return op;
+		}
+
+		/**
+		 * @return The container of an item write, or null.
+		 */
+		public String getContainer() {
+			return container;
+		}
+
+		/**
+		 * @return The item or grocery name written.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public int getQuantity() {
+			return quantity;
+		}
+
+		/**
+		 * @return The expiry date of an added item, or null.
+		 */
+		public Date getExpiry() {
+			return expiry == null ? null : new Date(expiry.getTime());
+		}
+
+		/**
+		 * @return The tag of a tag write, or null.
+		 */
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * @return The item added by an {@link Op#ADD_ITEM} entry.
+		 */
+		public Item toItem() {
+			return Item.getInstance(name, quantity, expiry);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder("#").append(sequence).append(' ').append(op).append(' ').append(name);
+			if (container != null) {
+				sb.append(" in ").append(container);
+			}
+			if (op == Op.ADD_ITEM || op == Op.UPDATE_QUANTITY) {
+				sb.append(" x").append(quantity);
+			}
+			if (text != null) {
+				sb.append(" \"").append(text).append('"');
+			}
+			return sb.toString();
+		}
+
+		private Entry withSequence(long sequence) {
+			return new Entry(sequence, op, container, name, quantity, expiry, text);
+		}
+	}
+
+	private final FileChannel channel;
+	private final List<Entry> pending = new ArrayList<Entry>();
+	private long nextSequence = 1;
+
+	/**
+	 * Opens a journal, creating the file if needed, and reads the writes still
+	 * pending in it.
+	 *
+	 * @param file The journal file.
+	 * @throws IOException if the file could not be opened or read
+	 */
+	public WriteJournal(Path file) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			recover();
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Appends a write and forces it to disk.
+	 *
+	 * @param entry The write, as made by one of the {@link Entry} factories.
+	 * @return The entry with its sequence number.
+	 * @throws IOException if the record could not be written
+	 */
+	public synchronized Entry append(Entry entry) throws IOException {
+		Entry stamped = entry.withSequence(nextSequence);
+		write(encode(stamped));
+		nextSequence++;
+		pending.add(stamped);
+		return stamped;
+	}
+
+	/**
+	 * Marks every write up to a sequence number as replayed. When no writes are
+	 * left the file is emptied.
+	 *
+	 * @param sequence The sequence number of the last replayed write.
+	 * @throws IOException if the acknowledgement could not be written
+	 */
+	public synchronized void acknowledge(long sequence) throws IOException {
+		Iterator<Entry> it = pending.iterator();
+		while (it.hasNext() && it.next().sequence <= sequence) {
+			it.remove();
+		}
+		if (pending.isEmpty()) {
+			channel.truncate(0);
+			channel.force(false);
+		} else {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(sequence);
+			out.writeByte(ACK);
+			write(bytes.toByteArray());
+		}
+	}
+
+	/**
+	 * @return The writes not replayed yet, oldest first.
+	 */
+	public synchronized List<Entry> pending() {
+		return new ArrayList<Entry>(pending);
+	}
+
+	/**
+	 * @return The number of writes not replayed yet.
+	 */
+	public synchronized int size() {
+		return pending.size();
+	}
+
+	public synchronized boolean isEmpty() {
+		return pending.isEmpty();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	private void write(byte[] payload) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+		record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+		long position = channel.size();
+		while (record.hasRemaining()) {
+			position += channel.write(record, position);
+		}
+		channel.force(false);
+	}
+
+	/**
+	 * Reads every complete record, dropping a damaged tail.
+	 */
+	private void recover() throws IOException {
+		long size = channel.size();
+		long position = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		while (position + HEADER_BYTES <= size) {
+			header.clear();
+			channel.read(header, position);
+			header.flip();
+			int length = header.getInt();
+			int checksum = header.getInt();
+			if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+				break;
+			}
+			ByteBuffer payload = ByteBuffer.allocate(length);
+			while (payload.hasRemaining()) {
+				channel.read(payload, position + HEADER_BYTES + payload.position());
+			}
+			CRC32 crc = new CRC32();
+			crc.update(payload.array());
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+			apply(payload.array());
+			position += HEADER_BYTES + length;
+		}
+		if (position < size) {
+			System.err.println("Dropping " + (size - position) + " damaged bytes at the end of the write journal");
+			channel.truncate(position);
+			channel.force(false);
+		}
+	}
+
+	private void apply(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		long sequence = in.readLong();
+		int type = in.readUnsignedByte();
+		nextSequence = Math.max(nextSequence, sequence + 1);
+		if (type == ACK) {
+			pending.removeIf(e -> e.sequence <= sequence);
+			return;
+		}
+		if (type >= Op.values().length) {
+			throw new IOException("Unknown journal record " + type);
+		}
+		String container = in.readBoolean() ? in.readUTF() : null;
+		String name = in.readUTF();
+		int quantity = in.readInt();
+		Date expiry = in.readBoolean() ? PantrySnapshot.fromEpochDay(in.readInt()) : null;
+		String text = in.readBoolean() ? in.readUTF() : null;
+		pending.add(new Entry(sequence, Op.values()[type], container, name, quantity, expiry, text));
+	}
+
+	private static byte[] encode(Entry e) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeLong(e.sequence);
+		out.writeByte(e.op.ordinal());
+		out.writeBoolean(e.container != null);
+		if (e.container != null) {
+			out.writeUTF(e.container);
+		}
+		out.writeUTF(e.name);
+		out.writeInt(e.quantity);
+		out.writeBoolean(e.expiry != null);
+		if (e.expiry != null) {
+			out.writeInt(PantrySnapshot.toEpochDay(e.expiry));
+		}
+		out.writeBoolean(e.text != null);
+		if (e.text != null) {
+			out.writeUTF(e.text);
+		}
+		return bytes.toByteArray();
+	}
+}
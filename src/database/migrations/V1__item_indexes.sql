@@ -0,0 +1,12 @@
+-- Items are listed, emptied and cascaded by container alone, which the
+-- (name, container) primary key cannot serve.
+CREATE INDEX IF NOT EXISTS item_container_name_idx ON item (container, name);
+
+CREATE INDEX IF NOT EXISTS item_expiry_idx ON item (expiry);
+
+CREATE INDEX IF NOT EXISTS item_fresh_idx ON item (fresh);
+
+CREATE INDEX IF NOT EXISTS item_fg_idx ON item (fg);
+
+-- Only the few items close to expiring, for the expiry notification.
+CREATE INDEX IF NOT EXISTS item_near_expiry_idx ON item (name, container) WHERE fresh = 'Near_Expiry';
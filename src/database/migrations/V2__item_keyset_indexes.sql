@@ -0,0 +1,14 @@
+-- Keyset paging orders by (sort column, name, container). These indexes let a
+-- page be read straight off the index for a single container and, for expiry,
+-- across all containers. Listing by name uses item_container_name_idx and the
+-- primary key.
+CREATE INDEX IF NOT EXISTS item_container_expiry_idx ON item (container, expiry, name);
+
+CREATE INDEX IF NOT EXISTS item_container_fg_idx ON item (container, fg, name);
+
+CREATE INDEX IF NOT EXISTS item_container_fresh_idx ON item (container, fresh, name);
+
+-- Replaces item_expiry_idx, which is a prefix of this index.
+CREATE INDEX IF NOT EXISTS item_expiry_name_idx ON item (expiry, name, container);
+
+DROP INDEX IF EXISTS item_expiry_idx;
@@ -0,0 +1,102 @@
+-- Every pantry row belongs to a household, so one database can serve many
+-- households. Rows that existed before this script belong to household 1.
+-- Recipes, storage tips and general tips stay shared by every household.
+CREATE TABLE household (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL
+);
+
+INSERT INTO household (id, name) VALUES (1, 'Default');
+
+SELECT setval(pg_get_serial_sequence('household', 'id'), 1);
+
+-- item is rebuilt below, which drops its foreign key to container.
+ALTER TABLE item RENAME TO item_unpartitioned;
+
+ALTER TABLE item_unpartitioned DROP CONSTRAINT IF EXISTS item_container_fkey;
+
+ALTER TABLE container ADD COLUMN household INTEGER NOT NULL DEFAULT 1
+    REFERENCES household (id) ON DELETE CASCADE;
+ALTER TABLE container DROP CONSTRAINT container_pkey;
+ALTER TABLE container ADD PRIMARY KEY (household, container_name);
+
+ALTER TABLE grocery ADD COLUMN household INTEGER NOT NULL DEFAULT 1
+    REFERENCES household (id) ON DELETE CASCADE;
+ALTER TABLE grocery DROP CONSTRAINT IF EXISTS grocery_name_key;
+ALTER TABLE grocery DROP CONSTRAINT grocery_pkey;
+ALTER TABLE grocery ADD PRIMARY KEY (household, name);
+
+ALTER TABLE settings ADD COLUMN household INTEGER NOT NULL DEFAULT 1
+    REFERENCES household (id) ON DELETE CASCADE;
+ALTER TABLE settings DROP CONSTRAINT settings_pkey;
+ALTER TABLE settings ADD PRIMARY KEY (household, setting_type);
+
+ALTER TABLE item_tags ADD COLUMN household INTEGER NOT NULL DEFAULT 1
+    REFERENCES household (id) ON DELETE CASCADE;
+ALTER TABLE item_tags DROP CONSTRAINT item_tags_pkey;
+ALTER TABLE item_tags ADD PRIMARY KEY (household, item_name, tag);
+
+ALTER TABLE note ADD COLUMN household INTEGER NOT NULL DEFAULT 1
+    REFERENCES household (id) ON DELETE CASCADE;
+ALTER TABLE note DROP CONSTRAINT note_pkey;
+ALTER TABLE note ADD PRIMARY KEY (household, item_name, note);
+
+-- Items are partitioned by household. Every query names its household, so it
+-- only reads that household's partition, and a household can be vacuumed,
+-- dumped or detached (ALTER TABLE item DETACH PARTITION) on its own. Households
+-- without a partition of their own share item_default.
+CREATE TABLE item (
+    household INTEGER NOT NULL DEFAULT 1,
+    name VARCHAR(50),
+    container VARCHAR(50),
+    quantity INTEGER,
+    expiry DATE,
+    fg Food_Group,
+    fresh Freshness
+) PARTITION BY LIST (household);
+
+CREATE TABLE item_h1 PARTITION OF item FOR VALUES IN (1);
+
+CREATE TABLE item_default PARTITION OF item DEFAULT;
+
+INSERT INTO item (household, name, container, quantity, expiry, fg, fresh)
+    SELECT 1, name, container, quantity, expiry, fg, fresh FROM item_unpartitioned;
+
+DROP TABLE item_unpartitioned;
+
+ALTER TABLE item ADD PRIMARY KEY (household, name, container);
+
+ALTER TABLE item ADD FOREIGN KEY (household, container)
+    REFERENCES container (household, container_name) ON DELETE CASCADE;
+
+-- The indexes of V1 and V2, led by the household so that they also serve the
+-- default partition.
+CREATE INDEX item_container_name_idx ON item (household, container, name);
+
+CREATE INDEX item_fresh_idx ON item (household, fresh);
+
+CREATE INDEX item_fg_idx ON item (household, fg);
+
+CREATE INDEX item_near_expiry_idx ON item (household, name, container) WHERE fresh = 'Near_Expiry';
+
+CREATE INDEX item_container_expiry_idx ON item (household, container, expiry, name);
+
+CREATE INDEX item_container_fg_idx ON item (household, container, fg, name);
+
+CREATE INDEX item_container_fresh_idx ON item (household, container, fresh, name);
+
+CREATE INDEX item_expiry_name_idx ON item (household, expiry, name, container);
+
+-- Adds a household with its own item partition and default settings, and
+-- returns its id.
+CREATE FUNCTION create_household(household_name VARCHAR) RETURNS INTEGER AS $$
+DECLARE
+    new_id INTEGER;
+BEGIN
+    INSERT INTO household (name) VALUES (household_name) RETURNING id INTO new_id;
+    EXECUTE format('CREATE TABLE item_h%s PARTITION OF item FOR VALUES IN (%s)', new_id, new_id);
+    INSERT INTO settings (household, setting_type, fontsize, notificationBoolean)
+        VALUES (new_id, 'User', 14, 'true');
+    RETURN new_id;
+END;
+$$ LANGUAGE plpgsql;
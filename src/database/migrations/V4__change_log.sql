@@ -0,0 +1,111 @@
+-- Every insert, update and delete of an item, container, grocery or starred
+-- recipe row adds the key of the row to change_log, so a client can read only
+-- what changed since it last looked. A key is logged without its values; the
+-- reader joins back to the table, and a key with no row left is a deletion.
+--
+-- xact is the id of the writing transaction. Clients keep the oldest
+-- transaction still running when they last read (pg_snapshot_xmin) and ask
+-- for rows with xact at or above it, so a transaction that commits after a
+-- later one is still seen. version orders the log.
+CREATE TABLE change_log (
+    version BIGSERIAL PRIMARY KEY,
+    xact BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+    -- 0 for the recipe tables, which every household shares.
+    household INTEGER NOT NULL,
+    target VARCHAR(16) NOT NULL,
+    container VARCHAR(50),
+    name VARCHAR(255),
+    recipe_id INTEGER
+);
+
+CREATE INDEX change_log_target_xact_idx ON change_log (household, target, xact);
+
+-- Statement-level triggers read the changed rows from transition tables, so a
+-- bulk import or freshness refresh logs its rows with one insert.
+CREATE OR REPLACE FUNCTION log_item_changes() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO change_log (household, target, container, name)
+            SELECT household, 'item', container, name FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (household, target, container, name)
+            SELECT household, 'item', container, name FROM old_rows;
+    ELSE
+        -- A move logs the old key as well as the new one
+        INSERT INTO change_log (household, target, container, name)
+            SELECT household, 'item', container, name FROM new_rows
+            UNION SELECT household, 'item', container, name FROM old_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION log_container_changes() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name)
+            SELECT household, 'container', container_name FROM new_rows;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name)
+            SELECT household, 'container', container_name FROM old_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION log_grocery_changes() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name)
+            SELECT household, 'grocery', name FROM new_rows;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name)
+            SELECT household, 'grocery', name FROM old_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION log_recipe_changes() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name, recipe_id)
+            SELECT 0, 'recipe', title, id FROM new_rows;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name, recipe_id)
+            SELECT 0, 'recipe', title, id FROM old_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER item_insert_log AFTER INSERT ON item
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_item_changes();
+CREATE TRIGGER item_update_log AFTER UPDATE ON item
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_item_changes();
+CREATE TRIGGER item_delete_log AFTER DELETE ON item
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_item_changes();
+
+CREATE TRIGGER container_insert_log AFTER INSERT ON container
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_container_changes();
+CREATE TRIGGER container_update_log AFTER UPDATE ON container
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_container_changes();
+CREATE TRIGGER container_delete_log AFTER DELETE ON container
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_container_changes();
+
+CREATE TRIGGER grocery_insert_log AFTER INSERT ON grocery
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_grocery_changes();
+CREATE TRIGGER grocery_update_log AFTER UPDATE ON grocery
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_grocery_changes();
+CREATE TRIGGER grocery_delete_log AFTER DELETE ON grocery
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_grocery_changes();
+
+CREATE TRIGGER recipes_insert_log AFTER INSERT ON recipes
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_recipe_changes();
+CREATE TRIGGER recipes_update_log AFTER UPDATE ON recipes
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_recipe_changes();
+CREATE TRIGGER recipes_delete_log AFTER DELETE ON recipes
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_recipe_changes();
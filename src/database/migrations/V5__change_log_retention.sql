@@ -0,0 +1,17 @@
+-- change_log only grows, so DB.pruneChangeLog drops the entries logged before
+-- a retention period. logged_at is when the writing transaction started.
+--
+-- change_log_pruned keeps the lowest version a client can still sync from:
+-- every dropped entry has a lower xact. A client holding an older version may
+-- have missed dropped changes, so instead of applying a change set it reads
+-- its tables again.
+ALTER TABLE change_log ADD COLUMN logged_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE INDEX change_log_logged_at_idx ON change_log (logged_at);
+
+CREATE TABLE change_log_pruned (
+    only_row BOOLEAN PRIMARY KEY DEFAULT true CHECK (only_row),
+    xact BIGINT NOT NULL
+);
+
+INSERT INTO change_log_pruned (xact) VALUES (0);
@@ -0,0 +1,31 @@
+-- Item tags and notes are keyed by item name rather than by container, so
+-- their changes are logged with the target 'tag' or 'note' and no container.
+-- A client caching annotated items reads the current tag or notes of each
+-- logged name and applies them to every cached item of that name.
+CREATE OR REPLACE FUNCTION log_annotation_changes() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name)
+            SELECT DISTINCT household, TG_ARGV[0], item_name FROM new_rows;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        INSERT INTO change_log (household, target, name)
+            SELECT DISTINCT household, TG_ARGV[0], item_name FROM old_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER item_tags_insert_log AFTER INSERT ON item_tags
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_annotation_changes('tag');
+CREATE TRIGGER item_tags_update_log AFTER UPDATE ON item_tags
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_annotation_changes('tag');
+CREATE TRIGGER item_tags_delete_log AFTER DELETE ON item_tags
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_annotation_changes('tag');
+
+CREATE TRIGGER note_insert_log AFTER INSERT ON note
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_annotation_changes('note');
+CREATE TRIGGER note_update_log AFTER UPDATE ON note
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_annotation_changes('note');
+CREATE TRIGGER note_delete_log AFTER DELETE ON note
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_annotation_changes('note');
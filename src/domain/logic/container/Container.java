@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 
+import database.Storage;
 import domain.logic.item.Item;
 import gui.add_items.ContainerView;
 import gui.home.HomeView;
@@ -33,9 +34,21 @@ public class Container {
 	 * @param home The Home instance to associate with this container's GUI view.
 	 */
 	public Container(String n, HomeView home) {
+		this(n, home, HomeView.data);
+	}
+
+	/**
+	 * Constructs a new Container whose GUI view shows the items read from a given
+	 * store, for example a startup snapshot, instead of the database.
+	 * 
+	 * @param n      The name of the container.
+	 * @param home   The Home instance to associate with this container's GUI view.
+	 * @param source The store the view's first rows are read from.
+	 */
+	public Container(String n, HomeView home, Storage source) {
 		this.name = n;
 		listOfItem = new HashMap<String, Item>();
-		containerViewgui = new ContainerView(home, this); // Pass Home instance to ContainerView
+		containerViewgui = new ContainerView(home, this, source); // Pass Home instance to ContainerView
 	}
 
 	/**
@@ -150,6 +163,16 @@ public class Container {
 		containerViewgui.setupContainerViewGUI(true);
 	}
 
+	/**
+	 * Closes the GUI view associated with this container, if it has one, so it
+	 * stops following the storage once the container is replaced or removed.
+	 */
+	public void close() {
+		if (containerViewgui != null) {
+			containerViewgui.close();
+		}
+	}
+
 	/**
 	 * Sets the name of the container.
 	 * 
@@ -1,17 +1,19 @@
 package domain.logic.container;
 
 import java.awt.Font;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import javax.swing.JButton;
 
-import database.DB;
+import database.Storage;
 import gui.home.HomeView;
 
 /**
- * Utility class for operations related to containers in the inventory DB system.
+ * Utility class for operations related to containers in the inventory Storage system.
  * This includes adding, deleting, editing, and initializing containers.
  */
 public class ContainerUtility {
@@ -28,7 +30,7 @@ public class ContainerUtility {
 	 * @param errorHandler    A Consumer that handles error messages.
 	 * @param successCallback A Runnable that is executed upon successful addition.
 	 */
-	public static void verifyAddContainer(String name, DB data, HomeView homeView,
+	public static void verifyAddContainer(String name, Storage data, HomeView homeView,
 			ConcurrentHashMap<JButton, Container> map, Consumer<String> errorHandler, Runnable successCallback) {
 
 		try {
@@ -66,12 +68,15 @@ public class ContainerUtility {
 	 * @param errorHandler    A Consumer that handles error messages.
 	 * @param successCallback A Runnable that is executed upon successful addition.
 	 */
-	public static void verifyDeleteContainer(String name, DB data, JButton b, ConcurrentHashMap<JButton, Container> map,
+	public static void verifyDeleteContainer(String name, Storage data, JButton b, ConcurrentHashMap<JButton, Container> map,
 			Consumer<String> errorHandler, Runnable successCallback) {
 
 		try {
 
-			map.remove(b);
+			Container c = map.remove(b);
+			if (c != null) {
+				c.close();
+			}
 			data.removeContainer(name);
 			successCallback.run();
 		} catch (Exception e) {
@@ -94,7 +99,7 @@ public class ContainerUtility {
 	 * @param errorHandler    A Consumer that handles error messages.
 	 * @param successCallback A Runnable that is executed upon successful addition.
 	 */
-	public static void verifyEditContainer(String prevName, String newName, DB data, JButton b,
+	public static void verifyEditContainer(String prevName, String newName, Storage data, JButton b,
 			ConcurrentHashMap<JButton, Container> map, Consumer<String> errorHandler, Runnable successCallback) {
 
 		try {
@@ -116,19 +121,77 @@ public class ContainerUtility {
 
 	}
 
+	/**
+	 * Adds buttons for containers that exist in the database but not yet in the
+	 * container map, for example after an import created new containers, and
+	 * removes those of containers no longer stored. The views of removed
+	 * containers are closed.
+	 *
+	 * @param map      A ConcurrentHashMap that maps buttons to containers.
+	 * @param data     The database object used to retrieve container information.
+	 * @param homeView The HomeView which contains the container map.
+	 */
+	public static void syncContainers(ConcurrentHashMap<JButton, Container> map, Storage data, HomeView homeView) {
+		syncContainers(map, data.retrieveContainers(), homeView);
+	}
+
+	/**
+	 * Makes the container map match a list of container names read beforehand:
+	 * buttons are added for new names and removed for names no longer listed, for
+	 * example when the containers painted from a startup snapshot are checked
+	 * against the database. The views of removed containers are closed, so they
+	 * stop following the storage.
+	 *
+	 * @param map      A ConcurrentHashMap that maps buttons to containers.
+	 * @param names    The names of the stored containers.
+	 * @param homeView The HomeView which contains the container map.
+	 */
+	public static void syncContainers(ConcurrentHashMap<JButton, Container> map, List<String> names,
+			HomeView homeView) {
+		if (names == null) {
+			return;
+		}
+		List<String> known = new ArrayList<>();
+		for (Map.Entry<JButton, Container> e : map.entrySet()) {
+			if (names.contains(e.getValue().getName())) {
+				known.add(e.getValue().getName());
+			} else if (map.remove(e.getKey(), e.getValue())) {
+				e.getValue().close();
+			}
+		}
+
+		for (String t : names) {
+			if (!known.contains(t)) {
+				Container c = new Container(t, homeView);
+				JButton b = new JButton(t);
+				b.setFont(new Font("Lucida Grande", Font.PLAIN, 17));
+				map.put(b, c);
+			}
+		}
+	}
+
 	/**
 	 * Initializes the container buttons and associates them with their respective container objects upon
 	 * application startup. It retrieves all container names from the database and adds them to the container map.
+	 * The item views of the containers are filled from the same store, so a startup snapshot paints them without
+	 * reading the database. Containers already in the map are closed and replaced.
 	 *
 	 * @param map      A ConcurrentHashMap that maps buttons to containers.
 	 * @param data     The database object used to retrieve container information.
 	 * @param homeView The HomeView which contains the container map.
 	 */
-	public static void initContainers(ConcurrentHashMap<JButton, Container> map, DB data, HomeView homeView) {
+	public static void initContainers(ConcurrentHashMap<JButton, Container> map, Storage data, HomeView homeView) {
 		List<String> a = data.retrieveContainers();
+		if (a == null) {
+			return;
+		}
+		for (Container old : map.values()) {
+			old.close();
+		}
+		map.clear();
 
 		for (String t : a) {
-			Container c = new Container(t, homeView);
+			Container c = new Container(t, homeView, data);
 			JButton b = new JButton(t);
 			b.setFont(new Font("Lucida Grande", Font.PLAIN, 17));
 			map.put(b, c);
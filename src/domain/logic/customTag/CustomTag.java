@@ -2,19 +2,19 @@ package domain.logic.customTag;
 
 import javax.swing.JOptionPane;
 
-import database.DB;
+import database.Storage;
 import domain.logic.item.Item;
 import gui.add_items.ItemsListView;
 
 public class CustomTag {
 
-    private DB data;
+    private Storage data;
     
     /**
      * Initializes the class.
      * @param data
      */
-    public CustomTag(DB data) {
+    public CustomTag(Storage data) {
         this.data = data;
     }
     
@@ -32,12 +32,11 @@ public class CustomTag {
             if (selectedItem != null) {
                 String newTag = JOptionPane.showInputDialog("Enter new tag:");
                 if (newTag != null && !newTag.isEmpty()) {
-                    data.removeItemTag(selectedItem.getName());
                     selectedItem.addCustomTag(newTag);
                     itemsListView.getTable().setValueAt(newTag, row, 5);
-                    data.insertItemTag(selectedItem.getName(), newTag);
+                    data.replaceItemTag(selectedItem.getName(), newTag);
                 } else if (newTag != null && newTag.isEmpty()) {
-                	data.removeItemTag(selectedItem.getName());
+                	data.replaceItemTag(selectedItem.getName(), "");
 	            	selectedItem.removeCustomTag();
                     itemsListView.getTable().setValueAt("", row, 5);
                 }
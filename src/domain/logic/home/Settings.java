@@ -18,6 +18,20 @@ public class Settings {
 
 	}
 
+	/**
+	 * Creates the settings from values already read, such as those of a startup
+	 * snapshot. Changes are still saved to the database.
+	 *
+	 * @param settings The font size and the notification flag, as strings.
+	 */
+	public Settings(String[] settings) {
+		this.settings = settings;
+
+		fontSize = Integer.parseInt(settings[0]);
+		notificationBoolean = Boolean.parseBoolean(settings[1]);
+
+	}
+
 	public void getSettings() {
 		settings = HomeView.data.getSettings();
 	}
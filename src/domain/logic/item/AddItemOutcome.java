@@ -0,0 +1,21 @@
+package domain.logic.item;
+
+/**
+ * Represents the result of adding one item as part of a batch.
+ */
+public enum AddItemOutcome {
+    /**
+     * Indicates that the item was stored.
+     */
+    ADDED,
+
+    /**
+     * Indicates that the container already holds an item with the same name.
+     */
+    DUPLICATE,
+
+    /**
+     * Indicates that the item was rejected because its input is not valid.
+     */
+    INVALID
+}
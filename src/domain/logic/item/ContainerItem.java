@@ -0,0 +1,29 @@
+package domain.logic.item;
+
+/**
+ * An item together with the name of the container it is stored in, as read
+ * when listing the items of every container at once.
+ */
+public class ContainerItem {
+	private final String container;
+	private final Item item;
+
+	/**
+	 * Constructs a new container item.
+	 *
+	 * @param container The name of the container the item belongs to.
+	 * @param item      The item.
+	 */
+	public ContainerItem(String container, Item item) {
+		this.container = container;
+		this.item = item;
+	}
+
+	public String getContainer() {
+		return container;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+}
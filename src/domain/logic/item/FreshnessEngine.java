@@ -0,0 +1,119 @@
+package domain.logic.item;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import database.Storage;
+
+/**
+ * Keeps the stored freshness status of items current. Freshness only depends on
+ * the expiry date and today's date, so it is recomputed once when the
+ * application starts and again at each day boundary, with one statement across
+ * all containers that only rewrites rows whose status changed. New items get
+ * their status when they are inserted, so views can read freshness without
+ * writing it. A recomputation that fails is retried every
+ * {@value #RETRY_DELAY_MINUTES} minutes until it succeeds.
+ */
+public class FreshnessEngine {
+
+	/**
+	 * Minutes to wait before retrying a recomputation that failed.
+	 */
+	public static final int RETRY_DELAY_MINUTES = 5;
+
+	private final Storage database;
+	private ScheduledExecutorService scheduler;
+	private LocalDate lastRefresh;
+
+	/**
+	 * Constructs a freshness engine for a database.
+	 *
+	 * @param database The database object
+	 */
+	public FreshnessEngine(Storage database) {
+		this.database = database;
+	}
+
+	/**
+	 * Brings freshness up to date now and schedules a recomputation shortly after
+	 * every following midnight.
+	 *
+	 * @return true if freshness is current, false if it could not be recomputed
+	 *         now and will be retried.
+	 */
+	public synchronized boolean start() {
+		boolean current = refreshIfStale();
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "freshness-engine");
+				t.setDaemon(true);
+				return t;
+			});
+			if (current) {
+				scheduleNextDay();
+			} else {
+				scheduleRetry();
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Stops the daily recomputation.
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Recomputes freshness if it has not been recomputed yet today. A failed
+	 * recomputation leaves freshness stale, so the next call tries again.
+	 *
+	 * @return true if freshness is current, either already or after the
+	 *         recomputation, false if the recomputation failed.
+	 */
+	public synchronized boolean refreshIfStale() {
+		LocalDate today = LocalDate.now();
+		if (today.equals(lastRefresh)) {
+			return true;
+		}
+		if (database.refreshFreshness() < 0) {
+			return false;
+		}
+		lastRefresh = today;
+		return true;
+	}
+
+	private void scheduleNextDay() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime next = now.toLocalDate().plusDays(1).atStartOfDay().plusSeconds(1);
+		schedule(Duration.between(now, next).toMillis());
+	}
+
+	private void scheduleRetry() {
+		schedule(TimeUnit.MINUTES.toMillis(RETRY_DELAY_MINUTES));
+	}
+
+	private void schedule(long delayMillis) {
+		scheduler.schedule(() -> {
+			boolean current = refreshIfStale();
+			synchronized (this) {
+				if (scheduler == null) {
+					return;
+				}
+				if (current) {
+					scheduleNextDay();
+				} else {
+					scheduleRetry();
+				}
+			}
+		}, delayMillis, TimeUnit.MILLISECONDS);
+	}
+}
@@ -0,0 +1,109 @@
+package domain.logic.item;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of an item import: how many rows were read and imported, and
+ * every row that was rejected with the reason why.
+ */
+public class ImportReport {
+	private int rowCount = 0;
+	private int importedCount = 0;
+	private final List<RejectedRow> rejected = new ArrayList<>();
+
+	void addRows(int count) {
+		rowCount += count;
+	}
+
+	void setImportedCount(int importedCount) {
+		this.importedCount = importedCount;
+	}
+
+	void reject(int line, String row, String reason) {
+		rejected.add(new RejectedRow(line, row, reason));
+	}
+
+	/**
+	 * @return The number of data rows read from the file, excluding the header.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return The number of items stored in the database.
+	 */
+	public int getImportedCount() {
+		return importedCount;
+	}
+
+	/**
+	 * @return The rejected rows, ordered by line number.
+	 */
+	public List<RejectedRow> getRejected() {
+		List<RejectedRow> sorted = new ArrayList<>(rejected);
+		sorted.sort((a, b) -> Integer.compare(a.getLine(), b.getLine()));
+		return Collections.unmodifiableList(sorted);
+	}
+
+	/**
+	 * Writes the rejected rows to a CSV file with the columns line, reason and
+	 * row.
+	 *
+	 * @param file The file to write the report to.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void writeRejected(Path file) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			out.write("line,reason,row");
+			out.newLine();
+			for (RejectedRow r : getRejected()) {
+				out.write(r.getLine() + "," + quote(r.getReason()) + "," + quote(r.getRow()));
+				out.newLine();
+			}
+		}
+	}
+
+	private static String quote(String s) {
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+
+	@Override
+	public String toString() {
+		return importedCount + " of " + rowCount + " rows imported, " + rejected.size() + " rejected";
+	}
+
+	/**
+	 * A row of the import file that was not imported.
+	 */
+	public static class RejectedRow {
+		private final int line;
+		private final String row;
+		private final String reason;
+
+		RejectedRow(int line, String row, String reason) {
+			this.line = line;
+			this.row = row;
+			this.reason = reason;
+		}
+
+		public int getLine() {
+			return line;
+		}
+
+		public String getRow() {
+			return row;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+	}
+}
@@ -165,7 +165,11 @@ public class Item implements Comparable<Item>{
      * @return A new Item instance with the same properties as the item parameter.
      */
     public static Item getInstance(Item item){
-        return Item.getInstance(item.getName(), item.getFoodGroupTag(), item.getFoodFreshnessTag(), item.getQuantity(), item.getExpiryDate());
+        // Copied field by field, so items made with getInstance(name) can be copied too
+        Item copy = new Item(item.getName(), item.getQuantity(), item.getExpiryDate());
+        copy.setFoodGroupTag(item.getFoodGroupTag());
+        copy.setFoodFreshnessTag(item.getFoodFreshnessTag());
+        return copy;
     }
 
     // Helper method to parse date strings
@@ -293,19 +297,19 @@ public class Item implements Comparable<Item>{
     /**
      * Gets the item's expiry date.
      *
-     * @return A new Date object representing the item's expiry date.
+     * @return A new Date object representing the item's expiry date, or null if the item has none.
      */
     public Date getExpiryDate() {
-        return new Date(expiryDate.getTime());
+        return expiryDate == null ? null : new Date(expiryDate.getTime());
     }
 
     /**
      * Sets the item's expiry date from a Date object.
      *
-     * @param expiryDate The new expiry date for the item.
+     * @param expiryDate The new expiry date for the item, or null to clear it.
      */
     public void setExpiryDate(Date expiryDate) {
-        this.expiryDate = new Date(expiryDate.getTime());
+        this.expiryDate = expiryDate == null ? null : new Date(expiryDate.getTime());
     }
 
     /**
@@ -0,0 +1,187 @@
+package domain.logic.item;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import database.Storage;
+
+/**
+ * Exports the items of every container, or the grocery list, to a file. Rows
+ * are written as the database publishes them, a chunk at a time, so the first
+ * rows are on disk before the rest have been read and the whole pantry is never
+ * held in memory.
+ *
+ * Items are written as CSV with the {@code name}, {@code container},
+ * {@code quantity} and {@code expiry} columns that {@link ItemImporter} reads,
+ * and the grocery list as one name per line.
+ */
+public class ItemExporter {
+
+	/**
+	 * Number of rows asked of the database at a time.
+	 */
+	public static final int CHUNK_SIZE = 1000;
+
+	private final Storage database;
+
+	/**
+	 * Constructs an exporter that reads from the given database.
+	 *
+	 * @param database The database object
+	 */
+	public ItemExporter(Storage database) {
+		this.database = database;
+	}
+
+	/**
+	 * Writes every item to a CSV file, replacing the file if it exists.
+	 *
+	 * @param file The file to write.
+	 * @return The number of items written.
+	 * @throws IOException if the file cannot be written or the items cannot be
+	 *                     read.
+	 */
+	public int exportItems(Path file) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			return exportItems(out);
+		}
+	}
+
+	/**
+	 * Writes every item as CSV, starting with the header row.
+	 *
+	 * @param out Where the rows are written.
+	 * @return The number of items written.
+	 * @throws IOException if the rows cannot be written or the items cannot be
+	 *                     read.
+	 */
+	public int exportItems(Writer out) throws IOException {
+		out.write(String.join(",", "name", "container", "quantity", "expiry"));
+		out.write(System.lineSeparator());
+		SimpleDateFormat expiry = new SimpleDateFormat("dd-MMM-yyyy", Locale.ENGLISH);
+		return write(database.publishAllItems(), out, row -> {
+			Item item = row.getItem();
+			return quote(item.getName()) + "," + quote(row.getContainer()) + "," + item.getQuantity() + ","
+					+ (item.getExpiryDate() == null ? "" : expiry.format(item.getExpiryDate()));
+		});
+	}
+
+	/**
+	 * Writes the names on the grocery list to a file, one per line, replacing the
+	 * file if it exists.
+	 *
+	 * @param file The file to write.
+	 * @return The number of names written.
+	 * @throws IOException if the file cannot be written or the list cannot be
+	 *                     read.
+	 */
+	public int exportGroceryList(Path file) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			return write(database.publishGroceryItems(), out, Function.identity());
+		}
+	}
+
+	/**
+	 * Subscribes to a publisher and writes one line per element until it
+	 * completes, asking for {@link #CHUNK_SIZE} elements at a time.
+	 */
+	private static <T> int write(Flow.Publisher<T> publisher, Writer out, Function<T, String> format)
+			throws IOException {
+		LineWriter<T> writer = new LineWriter<T>(out, format);
+		publisher.subscribe(writer);
+		try {
+			writer.done.await();
+		} catch (InterruptedException e) {
+			writer.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The export was interrupted.");
+		}
+		if (writer.failure instanceof IOException) {
+			throw (IOException) writer.failure;
+		} else if (writer.failure != null) {
+			throw new IOException("The rows could not be read: " + writer.failure.getMessage(), writer.failure);
+		}
+		return writer.count;
+	}
+
+	private static String quote(String s) {
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0) {
+			return s;
+		}
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * Writes the elements it receives on the publisher's thread. The exporting
+	 * thread waits on {@code done} before reading the count or the failure.
+	 */
+	private static class LineWriter<T> implements Flow.Subscriber<T> {
+		private final Writer out;
+		private final Function<T, String> format;
+		final CountDownLatch done = new CountDownLatch(1);
+		private volatile Flow.Subscription subscription;
+		private long outstanding;
+		int count = 0;
+		Throwable failure;
+
+		LineWriter(Writer out, Function<T, String> format) {
+			this.out = out;
+			this.format = format;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			outstanding = CHUNK_SIZE;
+			subscription.request(CHUNK_SIZE);
+		}
+
+		@Override
+		public void onNext(T element) {
+			if (failure != null) {
+				return;
+			}
+			try {
+				out.write(format.apply(element));
+				out.write(System.lineSeparator());
+				count++;
+			} catch (IOException e) {
+				failure = e;
+				subscription.cancel();
+				done.countDown();
+				return;
+			}
+			if (--outstanding == 0) {
+				outstanding = CHUNK_SIZE;
+				subscription.request(CHUNK_SIZE);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			failure = throwable;
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			done.countDown();
+		}
+
+		void cancel() {
+			if (subscription != null) {
+				subscription.cancel();
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package domain.logic.item;
+
+/**
+ * A validated row of an item import file: the item and the container it goes
+ * into, together with the line of the file it was read from.
+ */
+public class ItemImportRow {
+	private final int line;
+	private final String container;
+	private final Item item;
+
+	/**
+	 * Constructs a new import row.
+	 *
+	 * @param line      The line number of the row in the import file.
+	 * @param container The name of the container the item belongs to.
+	 * @param item      The item described by the row.
+	 */
+	public ItemImportRow(int line, String container, Item item) {
+		this.line = line;
+		this.container = container;
+		this.item = item;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public String getContainer() {
+		return container;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+}
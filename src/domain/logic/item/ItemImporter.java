@@ -0,0 +1,261 @@
+package domain.logic.item;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import database.Storage;
+
+/**
+ * Imports items from CSV or TSV files. The file must start with a header row
+ * naming the columns {@code name}, {@code container}, {@code quantity} and
+ * {@code expiry} in any order; other columns are ignored. Expiry dates use the
+ * same dd-MMM-yyyy format as the Add Item dialog.
+ *
+ * The file is read in chunks that are validated in parallel with the same rules
+ * as {@link ItemUtility#verifyAddItem}, and valid rows are streamed straight to
+ * {@link Storage#importItems(Iterator)}, so the whole file is never held in memory.
+ * Missing containers are created. Rows that fail validation, or that name an
+ * item already in its container, are listed in the {@link ImportReport}.
+ */
+public class ItemImporter {
+
+	/**
+	 * Number of lines read and validated together.
+	 */
+	public static final int CHUNK_SIZE = 8192;
+
+	private static final String[] COLUMNS = { "name", "container", "quantity", "expiry" };
+
+	private final Storage database;
+
+	/**
+	 * Constructs an importer that stores items in the given database.
+	 *
+	 * @param database The database object
+	 */
+	public ItemImporter(Storage database) {
+		this.database = database;
+	}
+
+	/**
+	 * Imports the items in a file. Files ending in {@code .tsv} or {@code .tab}
+	 * are read as tab separated, anything else as comma separated.
+	 *
+	 * @param file The file to import.
+	 * @return The import report.
+	 * @throws IOException if the file cannot be read, has no usable header, or
+	 *                     the database rejects the import.
+	 */
+	public ImportReport importFile(Path file) throws IOException {
+		String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		char delimiter = fileName.endsWith(".tsv") || fileName.endsWith(".tab") ? '\t' : ',';
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return importFrom(reader, delimiter);
+		}
+	}
+
+	/**
+	 * Imports the items read from a reader.
+	 *
+	 * @param reader    The source of the rows, starting with the header.
+	 * @param delimiter The field separator, usually ',' or '\t'.
+	 * @return The import report.
+	 * @throws IOException if the rows cannot be read, there is no usable header,
+	 *                     or the database rejects the import.
+	 */
+	public ImportReport importFrom(BufferedReader reader, char delimiter) throws IOException {
+		String header = reader.readLine();
+		if (header == null) {
+			throw new IOException("The import file is empty.");
+		}
+		if (header.startsWith("\uFEFF")) {
+			header = header.substring(1);
+		}
+		int[] columns = findColumns(parseLine(header, delimiter));
+
+		ImportReport report = new ImportReport();
+		ValidatingReader rows = new ValidatingReader(reader, delimiter, columns, report);
+
+		List<ItemImportRow> duplicates;
+		try {
+			duplicates = database.importItems(rows);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		if (duplicates == null) {
+			throw new IOException("The database could not import the items.");
+		}
+
+		for (ItemImportRow d : duplicates) {
+			report.reject(d.getLine(), d.getItem().getName() + delimiter + d.getContainer(),
+					"No Duplicate Items! The container already holds this item.");
+		}
+		report.setImportedCount(rows.validCount - duplicates.size());
+		return report;
+	}
+
+	private static int[] findColumns(List<String> header) throws IOException {
+		int[] columns = new int[COLUMNS.length];
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columns[i] = -1;
+			for (int j = 0; j < header.size(); j++) {
+				if (header.get(j).trim().equalsIgnoreCase(COLUMNS[i])) {
+					columns[i] = j;
+				}
+			}
+			if (columns[i] == -1) {
+				throw new IOException("The header is missing the \"" + COLUMNS[i] + "\" column.");
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Splits one line into fields. Fields may be wrapped in double quotes, with
+	 * embedded quotes doubled; quoted fields cannot span lines.
+	 */
+	static List<String> parseLine(String line, char delimiter) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char ch = line.charAt(i);
+			if (quoted) {
+				if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (ch == '"') {
+					quoted = false;
+				} else {
+					field.append(ch);
+				}
+			} else if (ch == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (ch == delimiter) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(ch);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * Validates one line, returning the row if it is valid or recording the
+	 * rejection in the report otherwise.
+	 */
+	private static Object validate(int lineNumber, String line, char delimiter, int[] columns) {
+		List<String> fields = parseLine(line, delimiter);
+		for (int column : columns) {
+			if (column >= fields.size()) {
+				return "The row has fewer columns than the header.";
+			}
+		}
+		String name = fields.get(columns[0]);
+		String container = fields.get(columns[1]).trim();
+		String quantity = fields.get(columns[2]);
+		String expiry = fields.get(columns[3]);
+
+		String[] error = new String[1];
+		if (!ItemUtility.verifyAddItem(name, quantity, expiry, msg -> error[0] = msg)) {
+			return error[0];
+		}
+		if (container.isEmpty()) {
+			return "Container Name cannot be empty!";
+		}
+		if (container.length() > 50) {
+			return "Container Name exceeds character length (50).";
+		}
+
+		Item item = Item.getInstance(name.trim(), Integer.parseInt(quantity.trim()), expiry.trim());
+		return new ItemImportRow(lineNumber, container, item);
+	}
+
+	/**
+	 * Reads the file a chunk at a time, validates each chunk in parallel and
+	 * hands out the valid rows in file order.
+	 */
+	private static class ValidatingReader implements Iterator<ItemImportRow> {
+		private final BufferedReader reader;
+		private final char delimiter;
+		private final int[] columns;
+		private final ImportReport report;
+		private final ArrayDeque<ItemImportRow> pending = new ArrayDeque<>();
+		private int lineNumber = 1;
+		private boolean finished = false;
+		int validCount = 0;
+
+		ValidatingReader(BufferedReader reader, char delimiter, int[] columns, ImportReport report) {
+			this.reader = reader;
+			this.delimiter = delimiter;
+			this.columns = columns;
+			this.report = report;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (pending.isEmpty() && !finished) {
+				readChunk();
+			}
+			return !pending.isEmpty();
+		}
+
+		@Override
+		public ItemImportRow next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return pending.poll();
+		}
+
+		private void readChunk() {
+			List<String> lines = new ArrayList<>(CHUNK_SIZE);
+			List<Integer> numbers = new ArrayList<>(CHUNK_SIZE);
+			try {
+				String line;
+				while (lines.size() < CHUNK_SIZE && (line = reader.readLine()) != null) {
+					lineNumber++;
+					if (!line.trim().isEmpty()) {
+						lines.add(line);
+						numbers.add(lineNumber);
+					}
+				}
+				if (lines.size() < CHUNK_SIZE) {
+					finished = true;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			List<Object> results = IntStream.range(0, lines.size()).parallel()
+					.mapToObj(i -> validate(numbers.get(i), lines.get(i), delimiter, columns))
+					.collect(Collectors.toList());
+
+			report.addRows(lines.size());
+			for (int i = 0; i < results.size(); i++) {
+				Object result = results.get(i);
+				if (result instanceof ItemImportRow) {
+					pending.add((ItemImportRow) result);
+					validCount++;
+				} else {
+					report.reject(numbers.get(i), lines.get(i), (String) result);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package domain.logic.item;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One window of the items matched by an {@link ItemQuery}, in query order. The
+ * first and last rows of the page are where the previous and next pages start,
+ * so moving between pages never re-reads the rows that were skipped.
+ */
+public class ItemPage {
+	private final ItemQuery query;
+	private final List<ContainerItem> rows;
+	private final boolean hasPrevious;
+	private final boolean hasNext;
+
+	/**
+	 * Constructs a new page.
+	 *
+	 * @param query       The query the page belongs to.
+	 * @param rows        The items of the page, in query order.
+	 * @param hasPrevious Whether items come before this page.
+	 * @param hasNext     Whether items come after this page.
+	 */
+	public ItemPage(ItemQuery query, List<ContainerItem> rows, boolean hasPrevious, boolean hasNext) {
+		this.query = query;
+		this.rows = Collections.unmodifiableList(rows);
+		this.hasPrevious = hasPrevious;
+		this.hasNext = hasNext;
+	}
+
+	public ItemQuery getQuery() {
+		return query;
+	}
+
+	public List<ContainerItem> getRows() {
+		return rows;
+	}
+
+	public boolean hasPrevious() {
+		return hasPrevious;
+	}
+
+	public boolean hasNext() {
+		return hasNext;
+	}
+
+	public boolean isEmpty() {
+		return rows.isEmpty();
+	}
+}
@@ -0,0 +1,112 @@
+package domain.logic.item;
+
+/**
+ * Describes which items to list and in which order, so that the database can
+ * sort, filter and page them instead of the view. Every filter left unset
+ * matches all items.
+ */
+public class ItemQuery {
+
+	/**
+	 * Default number of items in one page.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 200;
+
+	private String container;
+	private ItemSort sort = ItemSort.NAME;
+	private String nameContains;
+	private FoodGroup foodGroup;
+	private FoodFreshness freshness;
+	private int pageSize = DEFAULT_PAGE_SIZE;
+
+	/**
+	 * Creates a query over every container, ordered by name.
+	 */
+	public ItemQuery() {
+	}
+
+	/**
+	 * Creates a query over one container, ordered by name.
+	 *
+	 * @param container The name of the container, or null for every container.
+	 */
+	public ItemQuery(String container) {
+		this.container = container;
+	}
+
+	public String getContainer() {
+		return container;
+	}
+
+	public ItemSort getSort() {
+		return sort;
+	}
+
+	/**
+	 * @param sort The order to list items in.
+	 * @return This query.
+	 */
+	public ItemQuery sortBy(ItemSort sort) {
+		if (sort == null) {
+			throw new IllegalArgumentException("Sort order must not be null");
+		}
+		this.sort = sort;
+		return this;
+	}
+
+	public String getNameContains() {
+		return nameContains;
+	}
+
+	/**
+	 * @param text Only list items whose name contains this text, ignoring case.
+	 *             Null or empty matches every name.
+	 * @return This query.
+	 */
+	public ItemQuery nameContains(String text) {
+		this.nameContains = text == null || text.isEmpty() ? null : text;
+		return this;
+	}
+
+	public FoodGroup getFoodGroup() {
+		return foodGroup;
+	}
+
+	/**
+	 * @param foodGroup Only list items in this food group, or null for all.
+	 * @return This query.
+	 */
+	public ItemQuery foodGroup(FoodGroup foodGroup) {
+		this.foodGroup = foodGroup;
+		return this;
+	}
+
+	public FoodFreshness getFreshness() {
+		return freshness;
+	}
+
+	/**
+	 * @param freshness Only list items with this freshness, or null for all.
+	 * @return This query.
+	 */
+	public ItemQuery freshness(FoodFreshness freshness) {
+		this.freshness = freshness;
+		return this;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * @param pageSize The largest number of items in one page.
+	 * @return This query.
+	 */
+	public ItemQuery pageSize(int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be greater than 0");
+		}
+		this.pageSize = pageSize;
+		return this;
+	}
+}
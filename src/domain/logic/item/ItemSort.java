@@ -0,0 +1,43 @@
+package domain.logic.item;
+
+/**
+ * Represents the order items are listed in by an {@link ItemQuery}. Items with
+ * the same value are ordered by name, then by container. Items with no value
+ * come last.
+ */
+public enum ItemSort {
+    /**
+     * Orders items by name.
+     */
+    NAME("Name"),
+
+    /**
+     * Orders items by expiry date, soonest first.
+     */
+    EXPIRY("Expiry Date"),
+
+    /**
+     * Orders items by food group.
+     */
+    FOOD_GROUP("Food Group"),
+
+    /**
+     * Orders items by freshness.
+     */
+    FRESHNESS("Food Freshness");
+
+    private final String displayName;
+
+    ItemSort(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
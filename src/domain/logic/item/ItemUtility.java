@@ -2,14 +2,16 @@ package domain.logic.item;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 
 import javax.swing.table.DefaultTableModel;
 
-import database.DB;
+import database.Storage;
 import domain.logic.container.Container;
 import gui.home.HomeView;
 
@@ -27,7 +29,7 @@ public class ItemUtility {
 	 * @param database The database object
 	 * @return Boolean indicating the success or failure of the item deletion.
 	 */
-	public static Boolean verifyDeleteItem(String itemName, Container container, DB database) {
+	public static Boolean verifyDeleteItem(String itemName, Container container, Storage database) {
 		if (database.getItem(container, itemName) != null) {
 			database.removeItem(container, itemName);
 			return true;
@@ -89,6 +91,50 @@ public class ItemUtility {
 		return true;
 	}
 
+	/**
+	 * Validates several rows of item input and adds the valid ones to a container
+	 * in a single batch. Each row holds the name, quantity and expiry date, in the
+	 * same formats accepted by
+	 * {@link #verifyAddItem(String, String, String, Consumer)}. Validation errors
+	 * are passed to the error handler prefixed with their row number.
+	 *
+	 * @param container    The container the items are added to.
+	 * @param rows         The rows of input, each {name, quantity, expiry date}.
+	 * @param database     The database object
+	 * @param errorHandler A Consumer that handles error messages.
+	 * @return The outcome of each row, in the same order as the rows, or null if
+	 *         the database could not add the batch.
+	 */
+	public static List<AddItemOutcome> verifyAddItems(Container container, List<String[]> rows, Storage database,
+			Consumer<String> errorHandler) {
+		List<Item> valid = new ArrayList<>();
+		List<AddItemOutcome> outcomes = new ArrayList<>();
+
+		for (int i = 0; i < rows.size(); i++) {
+			String[] row = rows.get(i);
+			int rowNumber = i + 1;
+			if (verifyAddItem(row[0], row[1], row[2], msg -> errorHandler.accept("Row " + rowNumber + ": " + msg))) {
+				valid.add(Item.getInstance(row[0].trim(), Integer.parseInt(row[1].trim()), row[2].trim()));
+				outcomes.add(null);
+			} else {
+				outcomes.add(AddItemOutcome.INVALID);
+			}
+		}
+
+		List<AddItemOutcome> added = valid.isEmpty() ? new ArrayList<>() : database.addItems(container, valid);
+		if (added == null) {
+			return null;
+		}
+
+		Iterator<AddItemOutcome> it = added.iterator();
+		for (int i = 0; i < outcomes.size(); i++) {
+			if (outcomes.get(i) == null) {
+				outcomes.set(i, it.next());
+			}
+		}
+		return outcomes;
+	}
+
 	private static boolean isQuantityValid(String quantityStr) {
 		try {
 			int quantity = Integer.parseInt(quantityStr);
@@ -136,7 +182,7 @@ public class ItemUtility {
 	 * @param database The database object
 	 * @return true if the item was successfully updated, false otherwise.
 	 */
-	public static void updateItemFoodGroupTag(Container container, String itemName, Object newValue, int column, DB database) {
+	public static void updateItemFoodGroupTag(Container container, String itemName, Object newValue, int column, Storage database) {
 		if (column == 3 && newValue instanceof FoodGroup) {
 			database.updateItemFoodGroup(container, itemName, (FoodGroup) newValue);
 		}
@@ -144,19 +190,31 @@ public class ItemUtility {
 
 	/**
 	 * Retrieves and initializes the rows in ItemsListViews from the database for a
-	 * specified container.
+	 * specified container. The rows are left as they are if the items cannot be
+	 * read.
 	 * 
 	 * @param c          Container object to initialize the items for
 	 * @param tableModel the table object to initialize the rows for
 	 * @param database The database object
 	 */
-	public static void initItems(Container c, DefaultTableModel tableModel, DB database) {
-		List<Item> items = database.retrieveItems(c);
+	public static void initItems(Container c, DefaultTableModel tableModel, Storage database) {
+		List<Item> items = database.retrieveAnnotatedItems(c);
+		if (items != null) {
+			showItems(items, tableModel);
+		}
+	}
+
+	/**
+	 * Replaces the rows in an ItemsListView with items read beforehand.
+	 * 
+	 * @param items      The annotated items of the container
+	 * @param tableModel the table object to fill
+	 */
+	public static void showItems(List<Item> items, DefaultTableModel tableModel) {
 		tableModel.setRowCount(0);
 		for (Item item : items) {
-			String tag = database.getItemTag(item.getName());
 			tableModel.addRow(new Object[] { item.getName(), item.getQuantity(), dateFormat(item.getExpiryDate()),
-					item.getFoodGroupTag(), item.getFoodFreshnessTag(), tag });
+					item.getFoodGroupTag(), item.getFoodFreshnessTag(), item.getCustomTag() });
 		}
 	}
 
@@ -173,16 +231,6 @@ public class ItemUtility {
 		return format;
 	}
 
-	/**
-	 * Assigns FoodFreshness tags to items based on their expiry dates.
-	 * 
-	 * @param container The container whose items' freshness will be updated.
-	 * @param database The database object
-	 */
-	public static void assignFoodFreshness(Container container, DB database) {
-		database.batchUpdateItemFreshness(container);
-	}
-
 	/**
 	 * Retrieves storage tips for a specific food item from the database. This
 	 * method queries the database through its interface to
@@ -196,7 +244,7 @@ public class ItemUtility {
 	 *         {@code null} if no tips are found or if there's an error in
 	 *         retrieving the data.
 	 */
-	public static String retrieveStorageTip(String foodName, DB database) {
+	public static String retrieveStorageTip(String foodName, Storage database) {
 		return database.getStorageTip(foodName);
 
 	}
@@ -211,7 +259,7 @@ public class ItemUtility {
 	 * @param errorHandler    A Consumer thsat handles error messages.
 	 * @param successCallback A Runnable that is executed upon successful addition.
 	 */
-	public static void verifyEditQuantity(String val, DB database, Container c, String item, Consumer<String> errorHandler,
+	public static void verifyEditQuantity(String val, Storage database, Container c, String item, Consumer<String> errorHandler,
 			Runnable successCallback) {
 		try {
 			if (val == null) {
@@ -243,15 +291,14 @@ public class ItemUtility {
 
 	}
 	
-	public static void updateFreshness(DB database) {
-
-		 List<String> s =  database.retrieveContainers();
-	       Container c;
-	       for (String containerName: s) {
-	    	   
-	    	   c = new Container(containerName);
-			   database.batchUpdateItemFreshness(c);
-	       }
+	/**
+	 * Recomputes the freshness of the items in every container with a single
+	 * update that only rewrites items whose status changed.
+	 *
+	 * @param database The database object
+	 */
+	public static void updateFreshness(Storage database) {
+		database.refreshFreshness();
 	}
 	
 }
@@ -14,6 +14,7 @@ public class Recipe {
     private List<Ingredient> missedIngredients;
     private Map<Integer, String> detailedInstructions;
     private boolean fetchedStep = false;
+    private boolean hydrated = true;
 
     public void setFetchedStep(boolean fetchedStep){
         this.fetchedStep = fetchedStep;
@@ -22,6 +23,20 @@ public class Recipe {
     public boolean getFetchedStep(){
         return this.fetchedStep;
     }
+
+    /**
+     * Marks whether the ingredients and instructions of the recipe have been loaded. Starred recipes are listed
+     * with only their id, title and image and are completed when they are opened.
+     *
+     * @param hydrated true if the ingredients and instructions are loaded
+     */
+    public void setHydrated(boolean hydrated){
+        this.hydrated = hydrated;
+    }
+
+    public boolean isHydrated(){
+        return this.hydrated;
+    }
     /**
      * Constructs a Recipe instance with specified details.
      *
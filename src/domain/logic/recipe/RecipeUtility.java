@@ -4,7 +4,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
-import database.DB;
+import database.Storage;
 import gui.home.HomeView;
 
 /**
@@ -56,7 +56,7 @@ public class RecipeUtility {
     /**
      * Attempts to save a recipe to the database if it does not already exist.
      *
-     * This method checks whether a recipe with the same ID already exists in the database.
+     * The check for a recipe with the same ID is made in the same transaction as the save.
      * If the recipe is new, it saves the recipe to the database and returns true.
      * If the recipe already exists, it does not perform any operation and returns false.
      *
@@ -65,28 +65,8 @@ public class RecipeUtility {
      * @return true if the recipe was successfully saved (i.e., it did not exist in the database),
      *         false if the recipe already exists in the database and was not saved.
      */
-    public static boolean verifySaveRecipeToDatabase(Recipe recipe, DB database){
-        boolean isRecipeExists = RecipeUtility.isRecipeInDatabase(recipe.getId(), database);
-        if (!isRecipeExists) {
-            database.saveRecipeToDatabase(recipe);
-            return true;
-        } else {
-            return false;
-        }
-    }
-
-    /**
-     * Checks if a recipe with a specific ID exists in the database.
-     *
-     * This method queries the database to determine whether a recipe with the given ID
-     * is already stored. It is used internally to avoid duplicating recipes in the database.
-     *
-     * @param recipeId The unique identifier of the recipe to check in the database.
-     * @param database The database
-     * @return true if the recipe exists in the database, false otherwise.
-     */
-    private static boolean isRecipeInDatabase(int recipeId, DB database) {
-        return database.isRecipeInDatabase(recipeId);
+    public static boolean verifySaveRecipeToDatabase(Recipe recipe, Storage database){
+        return database.saveRecipeToDatabase(recipe);
     }
 
 }
@@ -0,0 +1,102 @@
+package domain.logic.statistics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import database.Storage;
+import domain.logic.item.FoodGroup;
+
+/**
+ * The food group statistics shown at one moment: the histogram over every
+ * container and over one selected container, with totals and shares worked out
+ * once. A snapshot never changes after it is built, so it can be computed on a
+ * background thread and then shared by everything that draws statistics
+ * without any of them reading the database.
+ *
+ * Every snapshot gets a new version number, which lets views tell whether
+ * anything they drew earlier is out of date.
+ */
+public final class StatsSnapshot {
+
+	private static final AtomicLong versions = new AtomicLong();
+
+	private final long version;
+	private final String container;
+	private final Map<FoodGroup, Integer> allCounts;
+	private final Map<FoodGroup, Integer> containerCounts;
+	private final Map<FoodGroup, Double> allShares;
+	private final Map<FoodGroup, Double> containerShares;
+	private final int allTotal;
+	private final int containerTotal;
+
+	private StatsSnapshot(String container, Map<FoodGroup, Integer> allCounts, Map<FoodGroup, Integer> containerCounts) {
+		this.version = versions.incrementAndGet();
+		this.container = container;
+		this.allCounts = Collections.unmodifiableMap(new EnumMap<FoodGroup, Integer>(allCounts));
+		this.containerCounts = Collections.unmodifiableMap(new EnumMap<FoodGroup, Integer>(containerCounts));
+		this.allShares = Collections.unmodifiableMap(StatsUtilities.getShares(allCounts));
+		this.containerShares = Collections.unmodifiableMap(StatsUtilities.getShares(containerCounts));
+		this.allTotal = StatsUtilities.getTotal(allCounts);
+		this.containerTotal = StatsUtilities.getTotal(containerCounts);
+	}
+
+	/**
+	 * Reads the statistics for every container and for one container. This runs
+	 * two queries and should not be called on the event dispatch thread.
+	 *
+	 * @param data      The database to read from.
+	 * @param container The name of the selected container, or null for none.
+	 * @return The snapshot. Histograms that cannot be read are empty.
+	 */
+	public static StatsSnapshot compute(Storage data, String container) {
+		Map<FoodGroup, Integer> all = data.getFoodGroupCounts(null);
+		Map<FoodGroup, Integer> selected = container == null ? null : data.getFoodGroupCounts(container);
+		EnumMap<FoodGroup, Integer> none = new EnumMap<FoodGroup, Integer>(FoodGroup.class);
+		return new StatsSnapshot(container, all != null ? all : none, selected != null ? selected : none);
+	}
+
+	/**
+	 * Returns a snapshot with no items, shown until the first one is computed.
+	 *
+	 * @param container The name of the selected container, or null for none.
+	 * @return A snapshot with every count at 0.
+	 */
+	public static StatsSnapshot empty(String container) {
+		EnumMap<FoodGroup, Integer> none = new EnumMap<FoodGroup, Integer>(FoodGroup.class);
+		return new StatsSnapshot(container, none, none);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public String getContainer() {
+		return container;
+	}
+
+	public Map<FoodGroup, Integer> getAllCounts() {
+		return allCounts;
+	}
+
+	public Map<FoodGroup, Integer> getContainerCounts() {
+		return containerCounts;
+	}
+
+	public Map<FoodGroup, Double> getAllShares() {
+		return allShares;
+	}
+
+	public Map<FoodGroup, Double> getContainerShares() {
+		return containerShares;
+	}
+
+	public int getAllTotal() {
+		return allTotal;
+	}
+
+	public int getContainerTotal() {
+		return containerTotal;
+	}
+}
@@ -1,22 +1,58 @@
 package domain.logic.statistics;
 
-import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+
+import domain.logic.item.FoodGroup;
 
 public class StatsUtilities {
 	
 	
-	public static int getTotalFoodGroup(String group, ArrayList<String> s) {
-		
-		return s.stream().filter(x -> x!= null && x.equals(group)).toList().size();
+	/**
+	 * Adds up the item counts of every food group.
+	 *
+	 * @param counts The number of items in each food group.
+	 * @return The total number of items.
+	 */
+	public static int getTotal(Map<FoodGroup, Integer> counts) {
 		
+		int total = 0;
+		for (int count : counts.values()) {
+			total += count;
+		}
+		return total;
 		
 	}
 	
-	public static String getPercent(ArrayList<String> allItems, int total, String group) {
-		if (total == 0) {
-			return "0.0";
+	/**
+	 * Works out the share of each food group from its item count.
+	 *
+	 * @param counts The number of items in each food group.
+	 * @return The fraction of all items in each food group, between 0 and 1. Every
+	 *         share is 0 when there are no items.
+	 */
+	public static EnumMap<FoodGroup, Double> getShares(Map<FoodGroup, Integer> counts) {
+		
+		int total = getTotal(counts);
+		EnumMap<FoodGroup, Double> shares = new EnumMap<FoodGroup, Double>(FoodGroup.class);
+		for (FoodGroup group : FoodGroup.values()) {
+			Integer count = counts.get(group);
+			shares.put(group, total == 0 || count == null ? 0.0 : (double) count / total);
 		}
-		return String.format("%2.1f", ((StatsUtilities.getTotalFoodGroup(group, allItems)+0.0))/total*100);
+		return shares;
+		
+	}
+	
+	/**
+	 * Formats the share of a food group as a percentage.
+	 *
+	 * @param shares The fraction of all items in each food group.
+	 * @param group  The food group.
+	 * @return The percentage with one decimal place.
+	 */
+	public static String getPercent(Map<FoodGroup, Double> shares, FoodGroup group) {
+		
+		return String.format("%2.1f", shares.getOrDefault(group, 0.0) * 100);
 		
 	}
 
@@ -1,7 +1,9 @@
 package gui;
 
+import java.awt.BorderLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 
@@ -11,9 +13,14 @@ import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.table.DefaultTableModel;
 
 import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
 import domain.logic.item.Item;
 import domain.logic.item.ItemUtility;
 import gui.home.HomeView;
@@ -24,15 +31,19 @@ public class AddItemHomeView {
     private JTextField expiryDateField = new JTextField(10);
     private JTextField quantityField = new JTextField(10);
     private JButton addButton = new JButton("Add");
+    private JButton multipleButton = new JButton("Add Multiple...");
+    private DefaultTableModel rowsModel;
+    private JTable rowsTable;
 	JDialog j;
+	Font f;
 
    
     
     public AddItemHomeView(JFrame owner) {
-    	Font f = new Font("Lucida Grande", Font.PLAIN, HomeView.getSettings().getFontSize());
+    	f = new Font("Lucida Grande", Font.PLAIN, HomeView.getSettings().getFontSize());
     	j = new JDialog(HomeView.getFrame(), "Add New Item");
  
-        j.setLayout(new GridLayout(5, 2));
+        j.setLayout(new GridLayout(6, 2));
 
         JLabel itemName = new JLabel("Item Name:");
         itemName.setFont(f);
@@ -68,24 +79,146 @@ public class AddItemHomeView {
         addButton.addActionListener(e -> addItem());
         j.add(addButton);
 
+        multipleButton.setFont(f);
+        multipleButton.addActionListener(e -> showMultiRowMode());
+        j.add(multipleButton);
+
         j.pack();
         j.setVisible(true);
         j.setLocationRelativeTo(HomeView.getFrame());
     }
 
-    private void addItem() {
-        String itemName = itemNameField.getText();
+    /**
+     * Switches the dialog to a table where several items can be entered and added
+     * to the selected container at once.
+     */
+    private void showMultiRowMode() {
+        j.getContentPane().removeAll();
+        j.setLayout(new BorderLayout());
+
+        rowsModel = new DefaultTableModel(new Object[] { "Item Name", "Quantity", "Expiry Date (dd-MMM-yyyy)" }, 5);
+        rowsTable = new JTable(rowsModel);
+        rowsTable.setFont(f);
+        rowsTable.setRowHeight(f.getSize() + 8);
+        rowsTable.getTableHeader().setFont(f);
+        j.add(new JScrollPane(rowsTable), BorderLayout.CENTER);
+
+        JPanel top = new JPanel();
+        JLabel container = new JLabel("Container:");
+        container.setFont(f);
+        top.add(container);
+        top.add(containerComboBox);
+        j.add(top, BorderLayout.NORTH);
+
+        JPanel bottom = new JPanel();
+        JButton addRowButton = new JButton("Add Row");
+        addRowButton.setFont(f);
+        addRowButton.addActionListener(e -> rowsModel.addRow(new Object[3]));
+        bottom.add(addRowButton);
+
+        JButton addAllButton = new JButton("Add All");
+        addAllButton.setFont(f);
+        addAllButton.addActionListener(e -> addItems());
+        bottom.add(addAllButton);
+        j.add(bottom, BorderLayout.SOUTH);
+
+        j.pack();
+        j.setLocationRelativeTo(HomeView.getFrame());
+    }
+
+    /**
+     * Adds every filled-in row of the multi-row table to the selected container in
+     * one batch and reports the rows that were not added.
+     */
+    private void addItems() {
+        if (rowsTable.isEditing()) {
+            rowsTable.getCellEditor().stopCellEditing();
+        }
+        Container c = getSelectedContainer();
+        if (c == null) {
+            showNoContainer();
+            return;
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        List<Integer> modelRows = new ArrayList<>();
+        for (int i = 0; i < rowsModel.getRowCount(); i++) {
+            String[] row = new String[3];
+            boolean blank = true;
+            for (int col = 0; col < 3; col++) {
+                Object value = rowsModel.getValueAt(i, col);
+                row[col] = value == null ? "" : value.toString();
+                blank = blank && row[col].trim().isEmpty();
+            }
+            if (!blank) {
+                rows.add(row);
+                modelRows.add(i);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<String> errors = new ArrayList<>();
+        List<AddItemOutcome> outcomes = ItemUtility.verifyAddItems(c, rows, HomeView.data, errors::add);
+        if (outcomes == null) {
+            JOptionPane.showMessageDialog(HomeView.getFrame(), "The items could not be added.", "Add Item Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Drop the added rows so only the ones that need fixing stay in the table
+        int added = 0;
+        List<String> duplicates = new ArrayList<>();
+        for (int i = outcomes.size() - 1; i >= 0; i--) {
+            if (outcomes.get(i) == AddItemOutcome.ADDED) {
+                added++;
+                rowsModel.removeRow(modelRows.get(i));
+            } else if (outcomes.get(i) == AddItemOutcome.DUPLICATE) {
+                duplicates.add(0, rows.get(i)[0].trim());
+            }
+        }
+        if (errors.isEmpty() && duplicates.isEmpty()) {
+            j.dispose();
+            return;
+        }
+        StringBuilder message = new StringBuilder(added + " item(s) added.");
+        if (!duplicates.isEmpty()) {
+            message.append("\nNo Duplicate Items! Skipped: ").append(String.join(", ", duplicates));
+        }
+        for (String error : errors) {
+            message.append("\n").append(error);
+        }
+        JOptionPane.showMessageDialog(HomeView.getFrame(), message.toString(), "Add Item Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void showNoContainer() {
+        JOptionPane.showMessageDialog(HomeView.getFrame(), "Please add or select a container first.", "Add Item Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * @return The container chosen in the combo box, or null if there is none.
+     */
+    private Container getSelectedContainer() {
         String containerName = (String) containerComboBox.getSelectedItem(); // Get the selected container name
-        String expiryDateStr = expiryDateField.getText();
-        String quantityStr = quantityField.getText();
         Container c = null;
 
-        
         for (Entry<JButton, Container> entry: HomeView.getContainerMap().entrySet()){
         	if (entry.getKey().getText().equals(containerName)) {
 				c = entry.getValue();
 			}
 		}
+        return c;
+    }
+
+    private void addItem() {
+        String itemName = itemNameField.getText();
+        String expiryDateStr = expiryDateField.getText();
+        String quantityStr = quantityField.getText();
+        Container c = getSelectedContainer();
+        if (c == null) {
+            showNoContainer();
+            return;
+        }
 
 		boolean isValid = ItemUtility.verifyAddItem(itemName, quantityStr, expiryDateStr,
 				(errorMsg) -> JOptionPane.showMessageDialog(HomeView.getFrame(), errorMsg, "Input Error", JOptionPane.ERROR_MESSAGE));
@@ -2,30 +2,59 @@ package gui;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.table.DefaultTableModel;
 
 
+import database.ChangeEvent;
+import database.Storage;
 import domain.logic.container.Container;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.GenericTag;
 import domain.logic.item.Item;
+import domain.logic.item.ItemExporter;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.item.ItemSort;
 import domain.logic.item.ItemUtility;
 import gui.home.HomeView;
 
+/**
+ * Lists the items of every container a page at a time. The view is kept
+ * between visits and follows the {@link ChangeEvent}s of the storage: quantity
+ * and food group edits and removals are applied to the rows shown, and the page
+ * is only read again after a change it cannot apply, such as an added item.
+ */
 public class AllItemsView extends JPanel implements ActionListener {
 	
+	private static AllItemsView instance;
+	
 	/**
 	 * Button to go from AllItemsView to HomeView
 	 */
@@ -50,10 +79,53 @@ public class AllItemsView extends JPanel implements ActionListener {
 	
 	private JLabel viewInfo;
 	
+	/**
+	 * Drop down menu for the column the items are sorted by
+	 */
+	private JComboBox<ItemSort> sortSelect = new JComboBox<ItemSort>(ItemSort.values());
+	
+	/**
+	 * Text field that shows only the items whose name contains its text
+	 */
+	private JTextField nameFilter = new JTextField(12);
+	
+	private JButton filterButton = new JButton("Search");
+	
+	private JButton previousButton = new JButton("Previous");
+	
+	private JButton nextButton = new JButton("Next");
+	
+	private JButton exportButton = new JButton("Export to .csv");
+	
+	private JPanel pagePanel;
+	
+	/**
+	 * The page of items shown in the table
+	 */
+	private ItemPage page;
+	
+	/**
+	 * The page being read from the database, if any
+	 */
+	private SwingWorker<ItemPage, Void> loader;
+	
 	/**
 	 * Hash map containing the list of all the containers and their corresponding buttons from the database
 	 */
 	private static ConcurrentHashMap<JButton, Container> containerMap;
+	
+	/**
+	 * The font size the view was built with
+	 */
+	private final int fontSize;
+	
+	private final AutoCloseable changeSubscription;
+	
+	/**
+	 * Set when a change the rows shown cannot follow is published; the page is
+	 * read again the next time the view is shown
+	 */
+	private boolean stale;
 		
 	/**
 	 * Constructor method that initializes all of the objects and tables on the page
@@ -73,17 +145,142 @@ public class AllItemsView extends JPanel implements ActionListener {
 		
 		displayAllItems();
 		rowClickTransition();
+		
+		pagePanel = new JPanel(new FlowLayout());
+		pagePanel.add(new JLabel("Sort by"));
+		pagePanel.add(sortSelect);
+		pagePanel.add(nameFilter);
+		pagePanel.add(filterButton);
+		pagePanel.add(previousButton);
+		pagePanel.add(nextButton);
+		pagePanel.add(exportButton);
+		sortSelect.addActionListener(this);
+		nameFilter.addActionListener(this);
+		filterButton.addActionListener(this);
+		previousButton.addActionListener(this);
+		nextButton.addActionListener(this);
+		exportButton.addActionListener(this);
+		previousButton.setEnabled(false);
+		nextButton.setEnabled(false);
+		add(pagePanel, BorderLayout.SOUTH);
 				
 		add(new JScrollPane(allItemsTable), BorderLayout.CENTER);
+		fontSize = HomeView.getSettings().getFontSize();
 		addFonts();
+		
+		loadPage(data -> data.queryItems(newQuery()));
+		changeSubscription = HomeView.data.getChangeBus().subscribe(e -> SwingUtilities.invokeLater(() -> applyChange(e)));
 	}
 	
 	/**
-	 * Returns an instance of the AllItemsView object
-	 * @return an instance of the AllItemsView object
+	 * Returns the AllItemsView, building it again if the font size changed
+	 * @return the AllItemsView object
 	 */
 	public static AllItemsView getInstance() {
-		return new AllItemsView();
+		if (instance != null && instance.fontSize != HomeView.getSettings().getFontSize()) {
+			instance.close();
+			instance = null;
+		}
+		if (instance == null) {
+			instance = new AllItemsView();
+		}
+		return instance;
+	}
+	
+	/**
+	 * Stops following changes to the storage
+	 */
+	private void close() {
+		try {
+			changeSubscription.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Applies a published change to the rows shown, or marks the page stale if
+	 * it cannot be applied. A stale page is read again at once when the view is
+	 * showing.
+	 * @param e the change
+	 */
+	private void applyChange(ChangeEvent e) {
+		switch (e.getTarget()) {
+		case ITEM:
+			if (e.getAction() == ChangeEvent.Action.UPDATED) {
+				for (int row : rowsOf(e.getContainer(), e.getName())) {
+					if (e.getQuantity() != null) {
+						tableModel.setValueAt(e.getQuantity(), row, 1);
+					}
+					if (e.getFoodGroup() != null) {
+						tableModel.setValueAt(new GenericTag<FoodGroup>(e.getFoodGroup()), row, 3);
+					}
+				}
+				return;
+			}
+			if (e.getAction() == ChangeEvent.Action.REMOVED) {
+				removeRows(e.getContainer(), e.getName());
+				return;
+			}
+			break;
+		case CONTAINER:
+			if (e.getAction() == ChangeEvent.Action.REMOVED) {
+				removeRows(e.getContainer(), null);
+				return;
+			}
+			if (e.getAction() == ChangeEvent.Action.UPDATED) {
+				for (int row : rowsOf(e.getContainer(), null)) {
+					tableModel.setValueAt(e.getValue(), row, 5);
+				}
+				return;
+			}
+			return;
+		case PANTRY:
+			break;
+		default:
+			return;
+		}
+		stale = true;
+		if (isShowing()) {
+			reloadPage();
+		}
+	}
+	
+	/**
+	 * Returns the rows of an item, or of every item of a container if the name is null
+	 */
+	private List<Integer> rowsOf(String container, String name) {
+		List<Integer> rows = new ArrayList<Integer>();
+		for (int i = 0; i < tableModel.getRowCount(); i++) {
+			if (container.equals(tableModel.getValueAt(i, 5)) && (name == null || name.equals(tableModel.getValueAt(i, 0)))) {
+				rows.add(i);
+			}
+		}
+		return rows;
+	}
+	
+	private void removeRows(String container, String name) {
+		List<Integer> rows = rowsOf(container, name);
+		for (int i = rows.size() - 1; i >= 0; i--) {
+			tableModel.removeRow(rows.get(i));
+		}
+	}
+	
+	/**
+	 * Reads the page shown again, starting from its first row
+	 */
+	private void reloadPage() {
+		stale = false;
+		if (page == null || !page.hasPrevious()) {
+			ItemQuery query = page == null ? newQuery() : page.getQuery();
+			loadPage(data -> data.queryItems(query));
+			return;
+		}
+		ItemPage current = page;
+		loadPage(data -> {
+			ItemPage before = data.previousPage(current);
+			return before == null || before.isEmpty() ? data.queryItems(current.getQuery()) : data.nextPage(before);
+		});
 	}
 	
 	/**
@@ -104,18 +301,73 @@ public class AllItemsView extends JPanel implements ActionListener {
 			
 		};
 		
-		containerMap.forEach((button, container) -> {
-			ItemUtility.assignFoodFreshness(container, HomeView.data);
+		allItemsTable = new JTable(tableModel);
+	}
+	
+	/**
+	 * Builds a query from the selected sort and the name filter
+	 * @return the query for the first page of items
+	 */
+	private ItemQuery newQuery() {
+		ItemQuery query = new ItemQuery().sortBy((ItemSort) sortSelect.getSelectedItem());
+		String text = nameFilter.getText().trim();
+		if (!text.isEmpty()) {
+			query.nameContains(text);
+		}
+		return query;
+	}
+	
+	/**
+	 * Reads a page of items off the event dispatch thread and shows it in the table.
+	 * The database sorts and pages the items, so only one page is held at a time
+	 * however many items there are. A page still being read is abandoned.
+	 * @param read reads the page from the database
+	 */
+	private void loadPage(Function<Storage, ItemPage> read) {
+		if (loader != null) {
+			loader.cancel(false);
+		}
+		previousButton.setEnabled(false);
+		nextButton.setEnabled(false);
+		loader = new SwingWorker<ItemPage, Void>() {
 			
-			List<Item> items = HomeView.data.retrieveItems(container);
+			@Override
+			protected ItemPage doInBackground() {
+				return read.apply(HomeView.data);
+			}
 			
-			for (Item item : items) {
-				tableModel.addRow(new Object[] { item.getName(), item.getQuantity(), ItemUtility.dateFormat(item.getExpiryDate()),
-						item.getFoodGroupTag(), item.getFoodFreshnessTag(), container.getName() });
+			@Override
+			protected void done() {
+				if (isCancelled() || loader != this) {
+					return;
+				}
+				try {
+					ItemPage loaded = get();
+					if (loaded != null) {
+						showPage(loaded);
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
 			}
-		});
-		
-		allItemsTable = new JTable(tableModel);
+		};
+		loader.execute();
+	}
+	
+	/**
+	 * Replaces the rows of the table with a page of items
+	 * @param loaded the page to show
+	 */
+	private void showPage(ItemPage loaded) {
+		page = loaded;
+		tableModel.setRowCount(0);
+		for (ContainerItem row : page.getRows()) {
+			Item item = row.getItem();
+			tableModel.addRow(new Object[] { item.getName(), item.getQuantity(), ItemUtility.dateFormat(item.getExpiryDate()),
+					item.getFoodGroupTag(), item.getFoodFreshnessTag(), row.getContainer() });
+		}
+		previousButton.setEnabled(page.hasPrevious());
+		nextButton.setEnabled(page.hasNext());
 	}
 	
 	/**
@@ -128,6 +380,9 @@ public class AllItemsView extends JPanel implements ActionListener {
 		if (b) {
 			frame.getContentPane().removeAll();
 			AllItemsView allItemsView = AllItemsView.getInstance();
+			if (allItemsView.stale) {
+				allItemsView.reloadPage();
+			}
 			HomeView.getFrame().add(allItemsView);
 		
 		} else {
@@ -149,10 +404,54 @@ public class AllItemsView extends JPanel implements ActionListener {
 	public void actionPerformed(ActionEvent e) {
 		if (e.getSource() == backButton) {
 			setAllItemsViewVisibility(false);
+		} else if (e.getSource() == sortSelect || e.getSource() == nameFilter || e.getSource() == filterButton) {
+			loadPage(data -> data.queryItems(newQuery()));
+		} else if (e.getSource() == previousButton && page != null) {
+			ItemPage current = page;
+			loadPage(data -> data.previousPage(current));
+		} else if (e.getSource() == nextButton && page != null) {
+			ItemPage current = page;
+			loadPage(data -> data.nextPage(current));
+		} else if (e.getSource() == exportButton) {
+			exportItems();
 		}
 		
 	}
 	
+	/**
+	 * Lets the user pick a file and writes every item to it as CSV in the
+	 * background, in the format the item import reads.
+	 */
+	private void exportItems() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle("Export Items");
+		chooser.setSelectedFile(new File("all_items.csv"));
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File file = chooser.getSelectedFile();
+		exportButton.setEnabled(false);
+		new SwingWorker<Integer, Void>() {
+			@Override
+			protected Integer doInBackground() throws IOException {
+				return new ItemExporter(HomeView.data).exportItems(file.toPath());
+			}
+
+			@Override
+			protected void done() {
+				exportButton.setEnabled(true);
+				try {
+					JOptionPane.showMessageDialog(AllItemsView.this, get() + " items exported to " + file,
+							"Export Items", JOptionPane.INFORMATION_MESSAGE);
+				} catch (InterruptedException | ExecutionException e) {
+					Throwable cause = e.getCause() != null ? e.getCause() : e;
+					JOptionPane.showMessageDialog(AllItemsView.this, "Export failed: " + cause.getMessage(),
+							"Export Error", JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		}.execute();
+	}
+	
 	/**
 	 * Provides access to the JTable
 	 * @return the current JTable object
@@ -178,6 +477,12 @@ public class AllItemsView extends JPanel implements ActionListener {
 		getTable().setRowHeight(getTable().getRowHeight()+10);
 		backButton.setFont(f);
 		viewInfo.setFont(f);
+		sortSelect.setFont(f);
+		nameFilter.setFont(f);
+		filterButton.setFont(f);
+		previousButton.setFont(f);
+		nextButton.setFont(f);
+		exportButton.setFont(f);
 	}
 	
 	/**
@@ -0,0 +1,69 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import domain.logic.container.ContainerUtility;
+import domain.logic.item.ImportReport;
+import domain.logic.item.ItemImporter;
+import gui.home.HomeView;
+
+/**
+ * Lets the user pick a CSV or TSV file and imports its items in the background.
+ * When rows are rejected, a report is written next to the imported file.
+ */
+public class ImportItemsHomeView {
+
+	public ImportItemsHomeView(JFrame owner) {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle("Import Items");
+		chooser.setFileFilter(new FileNameExtensionFilter("CSV or TSV files", "csv", "tsv", "tab", "txt"));
+		if (chooser.showOpenDialog(owner) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File file = chooser.getSelectedFile();
+
+		new SwingWorker<ImportReport, Void>() {
+			@Override
+			protected ImportReport doInBackground() throws IOException {
+				return new ItemImporter(HomeView.data).importFile(file.toPath());
+			}
+
+			@Override
+			protected void done() {
+				try {
+					showReport(owner, file, get());
+				} catch (InterruptedException | ExecutionException e) {
+					Throwable cause = e.getCause() != null ? e.getCause() : e;
+					JOptionPane.showMessageDialog(owner, "Import failed: " + cause.getMessage(), "Import Error",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		}.execute();
+	}
+
+	private void showReport(JFrame owner, File file, ImportReport report) {
+		ContainerUtility.syncContainers(HomeView.getContainerMap(), HomeView.data, HomeView.getHomeView());
+
+		String message = report.getImportedCount() + " of " + report.getRowCount() + " items imported.";
+		if (!report.getRejected().isEmpty()) {
+			Path reportFile = file.toPath().resolveSibling(file.getName() + ".rejected.csv");
+			try {
+				report.writeRejected(reportFile);
+				message += "\n" + report.getRejected().size() + " rows were rejected, see " + reportFile;
+			} catch (IOException e) {
+				e.printStackTrace();
+				message += "\n" + report.getRejected().size() + " rows were rejected.";
+			}
+		}
+		JOptionPane.showMessageDialog(owner, message, "Import Items", JOptionPane.INFORMATION_MESSAGE);
+	}
+}
@@ -1,6 +1,6 @@
 package gui.add_items;
 
-import database.DB;
+import database.Storage;
 import domain.logic.item.Item;
 import domain.logic.item.ItemUtility;
 import gui.home.HomeView;
@@ -17,7 +17,7 @@ import java.awt.event.ActionListener;
 public class ActionListenerManager {
     private JTable table;
     private DefaultTableModel tableModel;
-    private DB data;
+    private Storage data;
     private ItemsListView itemsListView;
 
     /**
@@ -29,7 +29,7 @@ public class ActionListenerManager {
      * @param data The database connection object.
      * @param itemsListView The view that displays the list of items.
      */
-    public ActionListenerManager(JTable table, DefaultTableModel tableModel, DB data, ItemsListView itemsListView) {
+    public ActionListenerManager(JTable table, DefaultTableModel tableModel, Storage data, ItemsListView itemsListView) {
         this.table = table;
         this.tableModel = tableModel;
         this.data = data;
@@ -95,7 +95,6 @@ public class ActionListenerManager {
                 ItemUtility.verifyEditQuantity(val, data, itemsListView.getC(), name,
                         (errorMsg) -> JOptionPane.showMessageDialog(itemsListView, errorMsg, "Input Error", JOptionPane.ERROR_MESSAGE),
                         () -> table.setValueAt(val, row, CustomTableModel.QUANTITY_COLUMN));
-                ItemUtility.initItems(itemsListView.getC(), (CustomTableModel) tableModel, HomeView.data);
             }
         };
         editQty.addActionListener(listener);
@@ -2,7 +2,7 @@ package gui.add_items;
 
 import javax.swing.*;
 
-import database.DB;
+import database.Storage;
 import domain.logic.container.Container;
 import domain.logic.home.Settings;
 import domain.logic.item.Item;
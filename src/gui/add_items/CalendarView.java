@@ -7,7 +7,6 @@ import java.awt.GridLayout;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
@@ -196,7 +195,6 @@ public class CalendarView {
 	 */
 	public void addActionListenersToButtons(ContainerView containerView, HomeView homeView){
 		Exit.addActionListener(e -> {
-			new ContainerView(homeView, this.container);
 			containerView.setupContainerViewGUI(true);
 
 		});
@@ -314,10 +312,9 @@ public class CalendarView {
 	 * @return A hasmap of the integer date and arraylist of items that expire on that date
 	 */
 	public HashMap<Integer, ArrayList<Item>> getItemThatExpireInMonth(Calendar current){
-		List<Item> allItems = HomeView.data.retrieveItems(container);
 		HashMap<Integer, ArrayList<Item>> itemDate = new HashMap<Integer, ArrayList<Item>>();
 		
-		for (Item m : allItems) {
+		HomeView.data.forEachItem(container, m -> {
 			//Convert Date to Calendar
 			Calendar cal = Calendar.getInstance();
 			cal.setTime(m.getExpiryDate());
@@ -328,7 +325,7 @@ public class CalendarView {
 				}
 				itemDate.get(cal.get(Calendar.DATE)).add(m);
 			}
-		}
+		});
 		return itemDate;
 	}
 
@@ -15,7 +15,7 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 
-import database.DB;
+import database.Storage;
 import domain.logic.container.Container;
 import gui.home.HomeView;
 
@@ -48,7 +48,7 @@ public class ContainerView implements ActionListener {
 	private final String[] FOODGROUPSTRINGS = {"", "Grain", "Protein", "Fruit", "Vegetable", "Dairy"};
 	private final String[] FRESHNESSSTRINGS = {"", "Fresh", "Near_Expiry", "Expired"};
 
-	DB data = home.data;
+	Storage data = home.data;
 
 	private JButton toggleColorCodingButton = new JButton("Toggle Colour Coding");
 
@@ -60,6 +60,18 @@ public class ContainerView implements ActionListener {
 	 * @param container The container to be managed and displayed in this view.
 	 */
 	public ContainerView(HomeView home, Container container) {
+		this(home, container, HomeView.data);
+	}
+
+	/**
+	 * Constructs a new ContainerView whose item list is first filled from a given
+	 * store, for example a startup snapshot.
+	 * 
+	 * @param home      The Home instance that this view is part of.
+	 * @param container The container to be managed and displayed in this view.
+	 * @param source    The store the first rows are read from.
+	 */
+	public ContainerView(HomeView home, Container container, Storage source) {
 		this.home = home;
 		this.container = container;
 		containerView = new JPanel(new BorderLayout()); // Set BorderLayout for the main panel
@@ -71,7 +83,7 @@ public class ContainerView implements ActionListener {
 		foodFreshnessFilter = new JComboBox<String>(FRESHNESSSTRINGS);
 		foodFreshnessFilter.setSelectedItem("Freshness");
 		
-		itemsListPanel = new ItemsListView(home, container);
+		itemsListPanel = new ItemsListView(home, container, source);
 		addItemPanel = new AddItemView(itemsListPanel);
 		addItemPanel.add(viewCalendar);
 		viewCalendar.addActionListener(this);
@@ -124,6 +136,14 @@ public class ContainerView implements ActionListener {
 		// updated
 	}
 	
+	/**
+	 * Stops the item list following changes to the storage, once this view is
+	 * replaced or its container is gone.
+	 */
+	public void close() {
+		itemsListPanel.close();
+	}
+
 	/**
 	 * Adds fonts to components
 	 */
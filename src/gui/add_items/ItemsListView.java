@@ -19,13 +19,15 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.RowFilter;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
-import database.DB;
+import database.ChangeEvent;
+import database.Storage;
 import domain.logic.container.Container;
 import domain.logic.customTag.CustomTag;
 import domain.logic.item.FoodFreshness;
@@ -40,6 +42,10 @@ import gui.home.HomeView;
  * provides functionalities to add and remove items, and update item properties
  * directly from the table. It also supports color coding of items based on freshness
  * or food group, and includes a right-click menu for item management.
+ *
+ * The table follows the {@link ChangeEvent}s of the storage: added, removed and
+ * edited items of its container are applied to their rows, and only a reload
+ * reads the whole container again.
  */
 public class ItemsListView extends JPanel {
 	private DefaultTableModel tableModel;
@@ -58,11 +64,14 @@ public class ItemsListView extends JPanel {
 
 	private HomeView home;
 
-	private DB data;
+	private Storage data;
 	private Container container;
 	private CustomTag customTagHandler;
 	public CustomNoteView customNoteView;
 
+	private AutoCloseable changeSubscription;
+	private boolean applyingChange;
+
 	/**
 	 * Constructs an ItemsListView panel associated with a specific container.
 	 *
@@ -70,12 +79,28 @@ public class ItemsListView extends JPanel {
 	 * @param container The Container instance whose items are to be displayed and managed in this panel.
 	 */
 	public ItemsListView(HomeView home, Container container) {
+		this(home, container, HomeView.data);
+	}
+
+	/**
+	 * Constructs an ItemsListView panel whose first rows are read from a given
+	 * store, for example a startup snapshot, so it can be painted before the
+	 * database answers. Edits always go to the database.
+	 *
+	 * @param home      The HomeView instance, providing a reference to the main application frame for interaction.
+	 * @param container The Container instance whose items are to be displayed and managed in this panel.
+	 * @param source    The store the first rows are read from.
+	 */
+	public ItemsListView(HomeView home, Container container, Storage source) {
 		this.home = home;
-		this.data = home.data;
+		this.data = HomeView.data;
 		this.container = container;
 		this.customTagHandler = new CustomTag(data);
 		this.customNoteView = new CustomNoteView(this);
-		this.customNoteView.populateTable(this.data.retrieveItems(container));
+		List<Item> items = source.retrieveAnnotatedItems(container);
+		if (items != null) {
+			this.customNoteView.populateTable(items);
+		}
 		
 		
 		setLayout(new BorderLayout());
@@ -94,7 +119,7 @@ public class ItemsListView extends JPanel {
 			if (e.getType() == TableModelEvent.UPDATE) {
 				int row = e.getFirstRow();
 				int column = e.getColumn();
-				if (column == CustomTableModel.FOOD_GROUP_COLUMN) {
+				if (column == CustomTableModel.FOOD_GROUP_COLUMN && !applyingChange) {
 					updateItemFromTable(row, column);
 				}
 			}
@@ -105,8 +130,10 @@ public class ItemsListView extends JPanel {
 
 		add(new JScrollPane(getTable()), BorderLayout.CENTER);
 
-		ItemUtility.assignFoodFreshness(this.getC(), HomeView.data);
-		ItemUtility.initItems(container, tableModel, HomeView.data);
+		if (items != null) {
+			ItemUtility.showItems(items, tableModel);
+		}
+		changeSubscription = data.getChangeBus().subscribe(this::onChange);
 
 		popup = new JPopupMenu();
 		removeItem = new JMenuItem("Delete Item");
@@ -183,16 +210,58 @@ public class ItemsListView extends JPanel {
 	}
 
 	/**
-	 * Adds an item to the table and updates the underlying container.
+	 * Adds an item to the table, or updates its row if it is already shown. The
+	 * item is not read back from the database; its freshness and food group
+	 * follow with the change event of the write.
 	 * 
 	 * @param item The item to be added.
 	 */
 	public void addItem(Item item) {
-		String customTags = "";
-		tableModel.addRow(
-				new Object[] { item.getName(), item.getQuantity(), item.getExpiryDate().toString(), null, null, customTags});
-		ItemUtility.assignFoodFreshness(this.getC(), HomeView.data);
-		ItemUtility.initItems(this.getC(), tableModel, HomeView.data);
+		int row = findRow(item.getName());
+		Object[] values = { item.getName(), item.getQuantity(), ItemUtility.dateFormat(item.getExpiryDate()),
+				item.getFoodGroupTag(), item.getFoodFreshnessTag(), "" };
+		applyingChange = true;
+		try {
+			if (row < 0) {
+				tableModel.addRow(values);
+				return;
+			}
+			for (int column = CustomTableModel.QUANTITY_COLUMN; column < CustomTableModel.CUSTOM_TAG_COLUMN; column++) {
+				if (values[column] != null) {
+					tableModel.setValueAt(values[column], row, column);
+				}
+			}
+		} finally {
+			applyingChange = false;
+		}
+	}
+
+	/**
+	 * Reads the items of the container from the database off the event
+	 * dispatch thread and replaces the rows with them, for a table first
+	 * painted from a startup snapshot or after a reload of the storage. The rows
+	 * are kept if the database cannot be read.
+	 */
+	public void refreshItemsInBackground() {
+		new SwingWorker<List<Item>, Void>() {
+			@Override
+			protected List<Item> doInBackground() {
+				return data.retrieveAnnotatedItems(container);
+			}
+
+			@Override
+			protected void done() {
+				try {
+					List<Item> items = get();
+					if (items != null) {
+						ItemUtility.showItems(items, tableModel);
+						customNoteView.populateTable(items);
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}.execute();
 	}
 
 	/**
@@ -201,14 +270,107 @@ public class ItemsListView extends JPanel {
 	 * @param itemName The name of the item to be removed.
 	 */
 	public void removeItem(String itemName) {
-		// Iterate through the table to find the row with the given item name
+		int row = findRow(itemName);
+		if (row >= 0) {
+			tableModel.removeRow(row);
+		}
+	}
+
+	/**
+	 * Stops following changes to the storage, once the container is gone.
+	 */
+	public void close() {
+		try {
+			changeSubscription.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the model row of an item, or -1 if it is not shown.
+	 */
+	private int findRow(String itemName) {
 		for (int i = 0; i < tableModel.getRowCount(); i++) {
 			if (itemName.equals(tableModel.getValueAt(i, CustomTableModel.NAME_COLUMN))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Called on a bus thread; passes the changes this table shows to the Swing
+	 * thread.
+	 */
+	private void onChange(ChangeEvent e) {
+		if (e.affectsItemsOf(getC().getName()) || e.getTarget() == ChangeEvent.Target.TAG) {
+			SwingUtilities.invokeLater(() -> applyChange(e));
+		}
+	}
 
-				tableModel.removeRow(i);
+	/**
+	 * Applies one change to the rows of the table.
+	 */
+	private void applyChange(ChangeEvent e) {
+		switch (e.getTarget()) {
+		case PANTRY:
+			refreshItemsInBackground();
+			break;
+		case CONTAINER:
+			if (e.getAction() == ChangeEvent.Action.REMOVED) {
+				close();
+			}
+			break;
+		case TAG:
+			int tagged = findRow(e.getName());
+			if (tagged >= 0 && (e.getAction() != ChangeEvent.Action.ADDED
+					|| "".equals(tableModel.getValueAt(tagged, CustomTableModel.CUSTOM_TAG_COLUMN)))) {
+				tableModel.setValueAt(e.getValue() == null ? "" : e.getValue(), tagged,
+						CustomTableModel.CUSTOM_TAG_COLUMN);
+			}
+			break;
+		case ITEM:
+			applyItemChange(e);
+			break;
+		default:
+			break;
+		}
+	}
 
+	private void applyItemChange(ChangeEvent e) {
+		switch (e.getAction()) {
+		case ADDED:
+			addItem(e.getItem());
+			break;
+		case REMOVED:
+			if (e.getName() == null) {
+				tableModel.setRowCount(0);
+			} else {
+				removeItem(e.getName());
+			}
+			break;
+		case UPDATED:
+			int row = findRow(e.getName());
+			if (row < 0) {
 				break;
 			}
+			applyingChange = true;
+			try {
+				if (e.getQuantity() != null) {
+					tableModel.setValueAt(e.getQuantity(), row, CustomTableModel.QUANTITY_COLUMN);
+				}
+				if (e.getFoodGroup() != null) {
+					tableModel.setValueAt(new GenericTag<FoodGroup>(e.getFoodGroup()), row,
+							CustomTableModel.FOOD_GROUP_COLUMN);
+				}
+			} finally {
+				applyingChange = false;
+			}
+			break;
+		case RELOADED:
+			refreshItemsInBackground();
+			break;
 		}
 	}
 
@@ -223,8 +385,6 @@ public class ItemsListView extends JPanel {
 		Object newValue = table.getModel().getValueAt(row, column);
 
 		ItemUtility.updateItemFoodGroupTag(getC(), itemName, newValue, column, HomeView.data);
-		ItemUtility.assignFoodFreshness(this.getC(), HomeView.data);
-		ItemUtility.initItems(this.getC(), tableModel, HomeView.data);
 	}
 
 	/**
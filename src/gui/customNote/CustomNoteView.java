@@ -10,7 +10,7 @@ import java.awt.event.MouseEvent;
 import java.util.List;
 import domain.logic.item.Item;
 import domain.logic.container.Container;
-import database.DB;
+import database.Storage;
 import gui.add_items.ContainerView;
 import gui.add_items.ItemsListView;
 import gui.home.HomeView;
@@ -26,7 +26,7 @@ public class CustomNoteView extends JPanel implements ActionListener {
     private JButton backButton;
     private JTextArea customNoteTextArea;
     private JLabel titleLabel;
-    private DB data;
+    private Storage data;
     private static CustomNoteView customNoteView;
     private ItemsListView itemsListView;
 
@@ -96,9 +96,7 @@ public class CustomNoteView extends JPanel implements ActionListener {
     public void populateTable(List<Item> items) {
         clearTable();
         for (Item item : items) {
-            String itemName = item.getName();
-            String note = data.getNote(itemName);
-            addRow(itemName, note);
+            addRow(item.getName(), item.getCustomNote());
         }
         table.repaint();
     }
@@ -192,14 +190,13 @@ public class CustomNoteView extends JPanel implements ActionListener {
 	    return popupMenu;
 	}
     private void addNote(String itemName, Item item, String customNote, int selectedRowIndex) {
-    	data.deleteNote(itemName);
         tableModel.setValueAt(customNote, selectedRowIndex, 1);
         item.setCustomNote(customNote);
-        data.addNote(itemName, customNote);
+        data.replaceNote(itemName, customNote);
         customNoteTextArea.setText("");
     }
     private void removeNote(String itemName, Item item, int selectedRowIndex) {
-    	data.deleteNote(itemName);
+    	data.replaceNote(itemName, "");
     	item.setCustomNote("");
         tableModel.setValueAt("", selectedRowIndex, 1);
     }
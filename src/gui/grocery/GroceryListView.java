@@ -8,13 +8,14 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.font.TextAttribute;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -26,17 +27,19 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 
-import database.DB;
+import database.Storage;
+import domain.logic.item.ItemExporter;
 import gui.home.HomeView;
 
 public class GroceryListView extends JPanel implements ActionListener {
 	// Data model and components
     private DefaultTableModel tableModel;
     private JTable table;
-    private DB data;
+    private Storage data;
     private static GroceryListView groceryListView;
 
     private JLabel titleLabel = new JLabel("Grocery List");
@@ -251,20 +254,28 @@ public class GroceryListView extends JPanel implements ActionListener {
     }
 
     /**
-     * Export the grocery list to a text file.
+     * Export the grocery list to a text file. The names are written in the
+     * background as the database sends them.
      */
     private void exportToTxt() {
-        try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter("grocery_list.txt"));
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                writer.write((String) tableModel.getValueAt(i, 0));
-                writer.newLine();
+        Path file = Paths.get("grocery_list.txt");
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                return new ItemExporter(data).exportGroceryList(file);
             }
-            writer.close();
-            JOptionPane.showMessageDialog(this, "Grocery list exported successfully to grocery_list.txt", "Export Successful", JOptionPane.INFORMATION_MESSAGE);
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Error exporting grocery list: " + e.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
-        }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(GroceryListView.this, "Grocery list exported successfully to grocery_list.txt", "Export Successful", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(GroceryListView.this, "Error exporting grocery list: " + cause.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     /**
@@ -275,7 +286,7 @@ public class GroceryListView extends JPanel implements ActionListener {
         tableModel.setRowCount(0);
 
         // Retrieve the updated data from the database
-        Object[][] newData = data.getAllGroceryItems(); // Implement this method in your DB class
+        Object[][] newData = data.getAllGroceryItems(); // Implement this method in your Storage class
 
         // Add the updated data to the table model
         for (Object[] row : newData) {
@@ -6,6 +6,12 @@ import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JButton;
@@ -15,15 +21,23 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 
+import database.CachedDB;
 import database.DB;
+import database.JournaledDB;
+import database.MemoryStorage;
+import database.PantrySnapshot;
+import database.Storage;
+import database.WriteBehindDB;
 import database.StubDB;
 import domain.logic.container.Container;
 import domain.logic.container.ContainerUtility;
 import domain.logic.home.Settings;
-import domain.logic.item.ItemUtility;
+import domain.logic.item.FreshnessEngine;
 import gui.AddItemHomeView;
+import gui.ImportItemsHomeView;
 import gui.SeeContainersView;
 import gui.grocery.GroceryListView;
 import gui.recipe.RecipeListView;
@@ -43,9 +57,15 @@ public class HomeView implements ActionListener {
 	static JFrame frame = new JFrame("Perfect Pantry");
 
 	/**
-	 * Provide Access to Database
+	 * Provide Access to Database. Starting with -Dpantry.storage=memory keeps
+	 * everything in memory instead of PostgreSQL. With PostgreSQL,
+	 * -Dpantry.offline=true journals item, grocery and tag writes to local disk
+	 * and keeps working while the database is down, -Dpantry.writeBehind=true
+	 * buffers quantity, tag and note edits and writes them in the background;
+	 * otherwise container contents are cached in memory unless
+	 * -Dpantry.cache=false.
 	 */
-	public static DB data = new DB();
+	public static Storage data = createDatabase();
 
 	/**
 	 * Provide Access to stub Database
@@ -103,6 +123,13 @@ public class HomeView implements ActionListener {
 
 	private JButton addItemButton = new JButton("Add Item");
 
+	private JButton importItemsButton = new JButton("Import Items");
+
+
+	/**
+	 * Keeps the stored freshness of items current across day boundaries
+	 */
+	private static FreshnessEngine freshnessEngine;
 
 	/**
 	 * Holds this instance of HomeView
@@ -110,21 +137,32 @@ public class HomeView implements ActionListener {
 	private static HomeView home;
 
 	public static void main(String[] args) {
-		setting = new Settings();
+		Storage startup = loadSnapshot();
+		setting = new Settings(startup.getSettings());
 
 		// initialise other views
 		SeeContainersView m = new SeeContainersView();
 		GroceryListView g = new GroceryListView();
-		home = new HomeView();
+		home = new HomeView(startup);
 	}
 
 	/**
 	 * Launches the application and initializes the main GUI components.
 	 */
 	public HomeView() {
+		this(data);
+	}
+
+	/**
+	 * Launches the application, painting the containers from a store that may be
+	 * a startup snapshot. The database is read again in the background, and the
+	 * containers are corrected and the expiring items shown once it answers.
+	 *
+	 * @param startup The store the first screen is painted from.
+	 */
+	public HomeView(Storage startup) {
 		SettingsView s = new SettingsView(homePanel);
-		String[] settings = data.getSettings();
-		boolean notificationOn = Boolean.parseBoolean(settings[1]);
+		boolean notificationOn = getSettings().getNotificationBoolean();
 
 		// Initialize frame
 		frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE); // Close on exit
@@ -135,16 +173,135 @@ public class HomeView implements ActionListener {
 
 		// Initialize containerMap
 		containerMap = new ConcurrentHashMap<>();
-		ContainerUtility.initContainers(containerMap, data, this);
+		ContainerUtility.initContainers(containerMap, startup, this);
 
 		setHomeViewVisibility(true);
 
-		ItemUtility.updateFreshness(HomeView.data);
+		freshnessEngine = new FreshnessEngine(HomeView.data);
+		revalidate(startup != data, notificationOn);
+
+	}
+
+	/**
+	 * Refreshes the stored freshness and reads the containers and expiring items
+	 * from the database off the event thread, then updates the container buttons
+	 * and reloads their items if they were painted from a snapshot, shows the
+	 * expiring items and writes a new snapshot.
+	 *
+	 * @param fromSnapshot   Whether the containers were painted from a snapshot.
+	 * @param notificationOn Whether to show the expiring items.
+	 */
+	private void revalidate(boolean fromSnapshot, boolean notificationOn) {
+		SwingWorker<List<String>, Void> worker = new SwingWorker<List<String>, Void>() {
+
+			private List<String> expiringItems;
+
+			@Override
+			protected List<String> doInBackground() {
+				if (!freshnessEngine.start()) {
+					System.err.println("Item freshness could not be updated; retrying in "
+							+ FreshnessEngine.RETRY_DELAY_MINUTES + " minutes");
+				}
+				if (notificationOn) {
+					expiringItems = data.getExpiringItems();
+				}
+				return fromSnapshot ? data.retrieveContainers() : null;
+			}
+
+			@Override
+			protected void done() {
+				try {
+					List<String> names = get();
+					if (names != null) {
+						// The item lists were painted from the snapshot too
+						List<Container> painted = new ArrayList<>(containerMap.values());
+						ContainerUtility.syncContainers(containerMap, names, HomeView.this);
+						newContainerText.setText("Pantry" + (containerMap.size() + 1));
+						for (Container c : painted) {
+							if (containerMap.containsValue(c)) {
+								c.getContainerViewgui().getItemsListPanel().refreshItemsInBackground();
+							}
+						}
+					}
+					if (expiringItems != null) {
+						new NotificationView(expiringItems);
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				saveSnapshotLater();
+			}
+		};
+		worker.execute();
+	}
+
+	/**
+	 * Returns the file holding the startup snapshot, set with -Dpantry.snapshot
+	 * and kept in the user's home directory by default. An empty path turns
+	 * snapshots off. Only PostgreSQL is snapshotted, since the in-memory engine
+	 * starts empty.
+	 *
+	 * @return The snapshot file, or null if snapshots are off.
+	 */
+	private static Path snapshotFile() {
+		return data instanceof DB ? pantryFile("pantry.snapshot", "pantry.snapshot") : null;
+	}
+
+	/**
+	 * Returns a file kept in the user's home directory unless a system property
+	 * names another path.
+	 *
+	 * @param property The system property naming the file.
+	 * @param name     The default file name.
+	 * @return The file, or null if the property is set to an empty path.
+	 */
+	private static Path pantryFile(String property, String name) {
+		String path = System.getProperty(property,
+				Paths.get(System.getProperty("user.home"), ".perfectpantry", name).toString());
+		return path.isEmpty() ? null : Paths.get(path);
+	}
 
-		if(notificationOn) {
-			new NotificationView();
+	/**
+	 * Reads the startup snapshot, if there is one.
+	 *
+	 * @return The snapshot, or the database if there is no usable snapshot.
+	 */
+	private static Storage loadSnapshot() {
+		Path file = snapshotFile();
+		if (file == null || !Files.isRegularFile(file)) {
+			return data;
+		}
+		try {
+			return PantrySnapshot.load(file);
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			return data;
 		}
+	}
 
+	/**
+	 * Writes the startup snapshot in the background now, and again when the
+	 * application exits so the next start sees this session's changes. The exit
+	 * write is a database shutdown task, so it runs after buffered edits are
+	 * flushed and before the connection pool closes.
+	 */
+	private static void saveSnapshotLater() {
+		Path file = snapshotFile();
+		if (file == null) {
+			return;
+		}
+		Thread writer = new Thread(() -> saveSnapshot(file), "pantry-snapshot");
+		writer.setDaemon(true);
+		writer.start();
+		DB.addShutdownTask(() -> saveSnapshot(file));
+	}
+
+	private static synchronized void saveSnapshot(Path file) {
+		try {
+			PantrySnapshot.save(data, file);
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+		}
 	}
 
 	/**
@@ -167,6 +324,7 @@ public class HomeView implements ActionListener {
 			starredRecipeListButton.removeActionListener(this);
 			statisticsButton.removeActionListener(this);
 			addItemButton.removeActionListener(this);
+			importItemsButton.removeActionListener(this);
 
 
 			// Initialise all actionlisteners
@@ -205,7 +363,7 @@ public class HomeView implements ActionListener {
 
 			homePanel.add(scrollButtonsPanel);
 			scrollButtonsPanel.setBounds(570, 10, 200, 150);
-			buttonsPanel.setLayout(new GridLayout(4, 1));
+			buttonsPanel.setLayout(new GridLayout(5, 1));
 			buttonsPanel.setBackground(new Color(253, 241, 203));
 
 			buttonsPanel.add(groceryListButton);
@@ -233,6 +391,10 @@ public class HomeView implements ActionListener {
 			statisticsButton.setBounds(570, 150, 200, 40); // Adjust the positioning as needed
 			statisticsButton.addActionListener(this);
 
+			buttonsPanel.add(importItemsButton);
+			importItemsButton.setBackground(new Color(76, 183, 242));
+			importItemsButton.addActionListener(this);
+
 			homePanel.add(addItemButton);
 			addItemButton.addActionListener(this);
 			addItemButton.setBounds(240, 350, 250, 40);  // Adjust the positioning as needed
@@ -252,6 +414,7 @@ public class HomeView implements ActionListener {
 			starredRecipeListButton.removeActionListener(this);
 			statisticsButton.removeActionListener(this);
 			addItemButton.removeActionListener(this);
+			importItemsButton.removeActionListener(this);
 
 			homePanel.setVisible(false);
 		}
@@ -267,6 +430,7 @@ public class HomeView implements ActionListener {
 		recipeListButton.setFont(f);
 		starredRecipeListButton.setFont(f);
 		statisticsButton.setFont(f);
+		importItemsButton.setFont(f);
 		
 		newContainerText.setFont(f);
 		viewContainers.setFont(f);
@@ -351,6 +515,8 @@ public class HomeView implements ActionListener {
 			StatsView.getInstance().setStatsViewVisibility(true);
 		} else if (source == addItemButton) {
 			openAddItemDialog();
+		} else if (source == importItemsButton) {
+			new ImportItemsHomeView(frame);
 		}
 	}
 
@@ -363,6 +529,50 @@ public class HomeView implements ActionListener {
 		return frame;
 	}
 
+	/**
+	 * Chooses the storage engine and database implementation from the system
+	 * properties.
+	 */
+	private static Storage createDatabase() {
+		String engine = System.getProperty("pantry.storage", "postgres");
+		if (engine.equalsIgnoreCase("memory")) {
+			return new MemoryStorage();
+		}
+		if (!engine.equalsIgnoreCase("postgres")) {
+			System.err.println("Unknown storage engine " + engine + ", using postgres");
+		}
+		Path journal = pantryFile("pantry.journal", "writes.journal");
+		if (Boolean.getBoolean("pantry.offline") && journal != null) {
+			try {
+				return new JournaledDB(journal, pantryFile("pantry.snapshot", "pantry.snapshot"));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		if (Boolean.getBoolean("pantry.writeBehind")) {
+			return new WriteBehindDB();
+		}
+		if (Boolean.parseBoolean(System.getProperty("pantry.cache", "true"))) {
+			CachedDB cached = new CachedDB();
+			// Other clients' item changes are read every interval when one is set
+			long syncMillis = Long.getLong("pantry.syncMillis", 0);
+			if (syncMillis > 0) {
+				cached.startSync(syncMillis);
+			}
+			return cached;
+		}
+		return new DB();
+	}
+
+	/**
+	 * Provides access to the freshness engine
+	 *
+	 * @return The FreshnessEngine object
+	 */
+	public static FreshnessEngine getFreshnessEngine() {
+		return freshnessEngine;
+	}
+
 	/**
 	 * Provides access to HomeView object
 	 *
@@ -5,7 +5,6 @@ import java.util.List;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 
-import database.DB; 
 
 public class NotificationView extends JFrame {
 
@@ -13,15 +12,21 @@ public class NotificationView extends JFrame {
 
     public NotificationView() {
    
-        displayExpiringItemsNotification();
+        displayExpiringItemsNotification(HomeView.data.getExpiringItems());
+    }
+
+    /**
+     * Shows the expiring items read beforehand, for example off the event thread.
+     *
+     * @param expiringItems The labels of the near expiry items.
+     */
+    public NotificationView(List<String> expiringItems) {
+
+        displayExpiringItemsNotification(expiringItems);
     }
   
 
-    private void displayExpiringItemsNotification() {
-        // Create an instance of our DB class
-        DB db = HomeView.data;
-                
-        List<String> expiringItems = db.getExpiringItems(); // get expiring items 
+    private void displayExpiringItemsNotification(List<String> expiringItems) {
 
         if (!expiringItems.isEmpty()) {
             
@@ -13,6 +13,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -120,6 +121,10 @@ public class RecipeDetailView extends JPanel implements ActionListener {
      */
     public void setTextArea(Recipe recipe) {
         this.recipe = recipe;
+        // Starred recipes are listed without their ingredients and instructions
+        if (!recipe.isHydrated()) {
+            HomeView.data.hydrateRecipes(List.of(recipe));
+        }
          updateDetailsArea();
         this.revalidate();
         this.repaint();
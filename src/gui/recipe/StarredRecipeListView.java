@@ -21,10 +21,19 @@ public class StarredRecipeListView extends RecipeListView {
     private static StarredRecipeListView instance;
     private List<Recipe> starredRecipes = new ArrayList<>();
 
+    /**
+     * Number of starred recipes read from the database at a time
+     */
+    public static final int PAGE_SIZE = 20;
+
+    private JButton loadMoreButton = new JButton("Load more");
+
     private JLabel titleLabel = new JLabel("Starred Recipes");
 
     private StarredRecipeListView() {
         super();
+        loadMoreButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        loadMoreButton.addActionListener(e -> loadNextPage());
     }
 
     public static StarredRecipeListView getInstance() {
@@ -39,7 +48,7 @@ public class StarredRecipeListView extends RecipeListView {
         recipesPanel.removeAll();
         recipesPanel.setBackground(new Color(245, 223, 162));
 
-        starredRecipes = HomeView.data.getAllStarredRecipes();
+        starredRecipes = HomeView.data.getStarredRecipePage(0, PAGE_SIZE);
 
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         recipesPanel.add(titleLabel);
@@ -55,6 +64,9 @@ public class StarredRecipeListView extends RecipeListView {
                 JPanel recipePanel = createRecipePanel(recipe);
                 recipesPanel.add(recipePanel);
             }
+            if (starredRecipes.size() == PAGE_SIZE) {
+                recipesPanel.add(loadMoreButton);
+            }
         }
         recipesPanel.revalidate();
         recipesPanel.repaint();
@@ -62,6 +74,25 @@ public class StarredRecipeListView extends RecipeListView {
         scrollPane.repaint();
     }
 
+    /**
+     * Appends the next page of starred recipes, starting after the last one shown.
+     */
+    private void loadNextPage() {
+        int lastId = starredRecipes.get(starredRecipes.size() - 1).getId();
+        List<Recipe> page = HomeView.data.getStarredRecipePage(lastId, PAGE_SIZE);
+
+        recipesPanel.remove(loadMoreButton);
+        for (Recipe recipe : page) {
+            starredRecipes.add(recipe);
+            recipesPanel.add(createRecipePanel(recipe));
+        }
+        if (page.size() == PAGE_SIZE) {
+            recipesPanel.add(loadMoreButton);
+        }
+        recipesPanel.revalidate();
+        recipesPanel.repaint();
+    }
+
     @Override
     public JPanel createRecipePanel(Recipe recipe) {
         JPanel recipePanel = new JPanel(new BorderLayout(5, 0));
@@ -100,12 +131,16 @@ public class StarredRecipeListView extends RecipeListView {
                 .map(ingredient -> "<li>" + ingredient.getName() + "</li>")
                 .reduce("", (a, b) -> a + b);
         if (usedIngredientsList.isEmpty()) usedIngredientsList = "<li>No ingredients</li>";
+        // Ingredients are only loaded when the recipe is opened
+        String ingredientsSection = recipe.isHydrated()
+                ? "<br><b>Ingredients:</b> <ul>" + usedIngredientsList + "</ul>"
+                : "";
         JPanel detailsPanel = new JPanel(new BorderLayout());
         detailsPanel.setBackground(new Color(245, 223, 162));
 
         JButton recipeButton = new JButton("<html><body style='text-align:left; font-family: " + customFont.getFamily() + "; font-size: " + customFont.getSize() + "pt;'>"
                 + "<b>" + recipe.getTitle() + "</b><br>"
-                + "<br><b>Ingredients:</b> <ul>" + usedIngredientsList + "</ul>"
+                + ingredientsSection
                 + "</body></html>");
         recipeButton.addMouseListener(new MouseAdapter() {
             @Override
@@ -2,11 +2,12 @@ package gui.statistics;
 
 import java.awt.Color;
 import java.awt.GridLayout;
-import java.util.ArrayList;
+import java.util.Map;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import domain.logic.item.FoodGroup;
 import domain.logic.statistics.StatsUtilities;
 
 public class StatsDescView extends JPanel {
@@ -48,13 +49,13 @@ public class StatsDescView extends JPanel {
 
 	}
 
-	public void setDesc(ArrayList<String> allItems) {
+	public void setDesc(Map<FoodGroup, Double> shares) {
 
-		protein.setText("Protein: " + StatsUtilities.getPercent(allItems, allItems.size(), "Protein") + "%");
-		vegetable.setText("Vegetables: " + StatsUtilities.getPercent(allItems, allItems.size(), "Vegetable") + "%");
-		grain.setText("Grain: " + StatsUtilities.getPercent(allItems, allItems.size(), "Grain") + "%");
-		fruit.setText("Fruit: " + StatsUtilities.getPercent(allItems, allItems.size(), "Fruit") + "%");
-		dairy.setText("Dairy: " + StatsUtilities.getPercent(allItems, allItems.size(), "Dairy") + "%");
+		protein.setText("Protein: " + StatsUtilities.getPercent(shares, FoodGroup.PROTEIN) + "%");
+		vegetable.setText("Vegetables: " + StatsUtilities.getPercent(shares, FoodGroup.VEGETABLE) + "%");
+		grain.setText("Grain: " + StatsUtilities.getPercent(shares, FoodGroup.GRAIN) + "%");
+		fruit.setText("Fruit: " + StatsUtilities.getPercent(shares, FoodGroup.FRUIT) + "%");
+		dairy.setText("Dairy: " + StatsUtilities.getPercent(shares, FoodGroup.DAIRY) + "%");
 
 	}
 
@@ -2,41 +2,98 @@ package gui.statistics;
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.util.ArrayList;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
 
 import javax.swing.JPanel;
 
-import domain.logic.statistics.StatsUtilities;
-import gui.home.HomeView;
+import domain.logic.item.FoodGroup;
+import domain.logic.statistics.StatsSnapshot;
 
 public class StatsRectangleView extends JPanel {
 	
 	
-	public ArrayList<String> allItems;
-	private int totalItemCount;
-	
 	private final int BAR_LENGTH = 600;
 	private final int LEFT_EDGE = 100;
 	private final int yLevel = 400;
 	
+	/**
+	 * The chart as last drawn, and what it was drawn from. It is drawn again only
+	 * when the snapshot, the panel size or the font size changes.
+	 */
+	private BufferedImage chart;
+	private long chartVersion = -1;
+	private int chartWidth;
+	private int chartHeight;
+	private int chartFontSize;
+	private int renderCount = 0;
+	
 	public StatsRectangleView(String cName) {
 		
-		allItems = HomeView.data.getTotalCount(cName);
-		totalItemCount = allItems.size();
 		setLayout(null);
 		setVisible(true);
 	
 	}
 	
 
-	public void drawRect(Graphics g, int yLevel, ArrayList<String> allItems, int height) {
-
+	/**
+	 * Paints the chart of a snapshot: the bar for all containers and the bar for
+	 * the selected container. The bars are drawn once into an off-screen image
+	 * that is reused until the snapshot, the size or the font size changes.
+	 *
+	 * @param g        The graphics of the panel the chart is shown on.
+	 * @param snapshot The statistics to chart.
+	 * @param width    The width of the panel.
+	 * @param height   The height of the panel.
+	 * @param fontSize The font size setting.
+	 */
+	public void paintChart(Graphics g, StatsSnapshot snapshot, int width, int height, int fontSize) {
+		
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (chart == null || chartVersion != snapshot.getVersion() || chartWidth != width || chartHeight != height
+				|| chartFontSize != fontSize) {
+			chart = renderChart(snapshot, width, height);
+			chartVersion = snapshot.getVersion();
+			chartWidth = width;
+			chartHeight = height;
+			chartFontSize = fontSize;
+		}
+		g.drawImage(chart, 0, 0, null);
+		
+	}
 	
-		double protein = (double) StatsUtilities.getTotalFoodGroup("Protein", allItems) / allItems.size();
-		double vegetable = (double) StatsUtilities.getTotalFoodGroup("Vegetable", allItems) / allItems.size();
-		double grain = (double) StatsUtilities.getTotalFoodGroup("Grain", allItems) / allItems.size();
-		double fruit = (double) StatsUtilities.getTotalFoodGroup("Fruit", allItems) / allItems.size();
-		double dairy = (double) StatsUtilities.getTotalFoodGroup("Dairy", allItems) / allItems.size();
+	/**
+	 * @return How many times the chart has been drawn into the off-screen image.
+	 */
+	public int getRenderCount() {
+		return renderCount;
+	}
+	
+	private BufferedImage renderChart(StatsSnapshot snapshot, int width, int height) {
+		
+		renderCount++;
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			drawRect(g, 150, snapshot.getAllShares(), 50);
+			drawRect(g, yLevel, snapshot.getContainerShares(), 30);
+		} finally {
+			g.dispose();
+		}
+		return image;
+		
+	}
+
+	public void drawRect(Graphics g, int yLevel, Map<FoodGroup, Double> shares, int height) {
+
+		double protein = shares.get(FoodGroup.PROTEIN);
+		double vegetable = shares.get(FoodGroup.VEGETABLE);
+		double grain = shares.get(FoodGroup.GRAIN);
+		double fruit = shares.get(FoodGroup.FRUIT);
+		double dairy = shares.get(FoodGroup.DAIRY);
 
 		g.setColor(new Color(252, 156, 156));	
 		
@@ -6,7 +6,6 @@ import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.JButton;
@@ -14,7 +13,11 @@ import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
+import database.ChangeEvent;
+import domain.logic.statistics.StatsSnapshot;
 import gui.home.HomeView;
 
 public class StatsView extends JPanel implements ItemListener {
@@ -23,15 +26,30 @@ public class StatsView extends JPanel implements ItemListener {
 	private JPanel foodGroups;
 	private JLabel title;
 	private JButton backButton;
-	private JComboBox containerSelect;
+	private JComboBox<String> containerSelect;
 	private StatsRectangleView st;
 	StatsDescView d1;
 	StatsDescView dx;
 	JLabel b1;
 	JLabel bx;
 	List<String> containers;
-	public ArrayList<String> allItems;
-	private int totalItemCount;
+	
+	/**
+	 * The statistics currently shown. Painting only reads this snapshot, never
+	 * the database.
+	 */
+	private StatsSnapshot snapshot;
+	
+	/**
+	 * The snapshot being computed in the background, if any
+	 */
+	private SwingWorker<StatsSnapshot, Void> loader;
+
+	/**
+	 * Set when a change that may alter the statistics is published, so showing
+	 * the view again only reads them when something changed.
+	 */
+	private volatile boolean stale = true;
 
 	private final int BAR_LENGTH = 600;
 	private final int LEFT_EDGE = 100;
@@ -40,8 +58,7 @@ public class StatsView extends JPanel implements ItemListener {
 	protected void paintComponent(Graphics g) {
 
 		super.paintComponent(g);
-		st.drawRect(g, 150, allItems, 50);
-		st.drawRect(g, 400, HomeView.data.getTotalCount((String)containerSelect.getSelectedItem()), 30);
+		st.paintChart(g, snapshot, getWidth(), getHeight(), HomeView.getSettings().getFontSize());
 
 	}
 
@@ -52,21 +69,20 @@ public class StatsView extends JPanel implements ItemListener {
 		title = new JLabel("Pantry Composition: ");
 		backButton = new JButton("Back");
 		containers = HomeView.data.retrieveContainers();
-		containerSelect = new JComboBox(containers.toArray(new String[0]));
-		allItems = HomeView.data.getTotalCount(null);
-		totalItemCount = allItems.size();
+		containerSelect = new JComboBox<>(containers.toArray(new String[0]));
 		st = new StatsRectangleView(containers.get(0));
 		d1 = new StatsDescView(220);
-		d1.setDesc(allItems);
 		dx = new StatsDescView(450);
-		dx.setDesc(HomeView.data.getTotalCount(containers.get(0)));
 	
 
-		b1 = new JLabel("All Pantries: " + totalItemCount + " Items");
+		b1 = new JLabel();
 		b1.setBounds(LEFT_EDGE, 90, 300, 100);
 		
-		bx = new JLabel(HomeView.data.getTotalCount(containers.get(0)).size() + " Items");
+		bx = new JLabel();
 		bx.setBounds(LEFT_EDGE, 340, 300, 100);
+		
+		// The real statistics are loaded by refresh() when the view is shown
+		showSnapshot(StatsSnapshot.empty(containers.get(0)));
 
 
 		title.setFont(new Font("Lucida Grande", Font.PLAIN, 40));
@@ -81,6 +97,8 @@ public class StatsView extends JPanel implements ItemListener {
 		containerSelect.setBounds(LEFT_EDGE, 300, 200, 50);
 		containerSelect.addItemListener(this);
 
+		HomeView.data.getChangeBus().subscribe(this::onChange);
+
 		add(containerSelect);
 		add(backButton);
 		add(foodGroups);
@@ -129,21 +147,132 @@ public class StatsView extends JPanel implements ItemListener {
 			
 		if (e.getSource() == containerSelect && e.getStateChange() == ItemEvent.SELECTED) {
 			
-			dx.setDesc(HomeView.data.getTotalCount((String)containerSelect.getSelectedItem()));
-			bx.setText(HomeView.data.getTotalCount((String)containerSelect.getSelectedItem()).size() + " Items");
-			repaint();
+			loadSnapshot();
 			
 		}
 		
 	}
 	
+	/**
+	 * Shows the statistics of the selected container, reading them again only
+	 * if a change was published since they were read.
+	 */
 	public void refresh() {
-		allItems = HomeView.data.getTotalCount(null);
-		b1.setText("All Pantries: " + allItems.size() + " Items");
-		d1.setDesc(allItems);
-		bx.setText(HomeView.data.getTotalCount((String)containerSelect.getSelectedItem()).size() + " Items");
-		dx.setDesc(HomeView.data.getTotalCount((String)containerSelect.getSelectedItem()));
-		
+		if (stale || snapshot == null || !String.valueOf(containerSelect.getSelectedItem()).equals(snapshot.getContainer())) {
+			loadSnapshot();
+		}
+	}
+
+	/**
+	 * Called on a bus thread. Quantity edits leave the food group counts alone;
+	 * any other item or container change marks the statistics stale, and they
+	 * are read again straight away if the view is showing.
+	 */
+	private void onChange(ChangeEvent e) {
+		switch (e.getTarget()) {
+		case CONTAINER:
+			SwingUtilities.invokeLater(() -> updateContainers(e));
+			break;
+		case ITEM:
+			if (e.getAction() == ChangeEvent.Action.UPDATED && e.getFoodGroup() == null) {
+				return;
+			}
+			break;
+		case PANTRY:
+			break;
+		default:
+			return;
+		}
+		stale = true;
+		SwingUtilities.invokeLater(() -> {
+			if (isShowing()) {
+				refresh();
+			}
+		});
+	}
+
+	/**
+	 * Keeps the container list in step with added, removed and renamed
+	 * containers.
+	 */
+	private void updateContainers(ChangeEvent e) {
+		switch (e.getAction()) {
+		case ADDED:
+			containerSelect.addItem(e.getName());
+			break;
+		case REMOVED:
+			containerSelect.removeItem(e.getName());
+			break;
+		case UPDATED:
+			boolean selected = e.getName().equals(containerSelect.getSelectedItem());
+			for (int i = 0; i < containerSelect.getItemCount(); i++) {
+				if (e.getName().equals(containerSelect.getItemAt(i))) {
+					containerSelect.insertItemAt(e.getValue(), i);
+					containerSelect.removeItem(e.getName());
+					break;
+				}
+			}
+			if (selected) {
+				containerSelect.setSelectedItem(e.getValue());
+			}
+			break;
+		default:
+			break;
+		}
+	}
+	
+	/**
+	 * Computes a new statistics snapshot for the selected container off the event
+	 * dispatch thread and shows it when it is ready. A snapshot still being
+	 * computed is abandoned, so only the newest one is shown.
+	 */
+	private void loadSnapshot() {
+		if (loader != null) {
+			loader.cancel(false);
+		}
+		String container = (String)containerSelect.getSelectedItem();
+		stale = false;
+		loader = new SwingWorker<StatsSnapshot, Void>() {
+			
+			@Override
+			protected StatsSnapshot doInBackground() {
+				return StatsSnapshot.compute(HomeView.data, container);
+			}
+			
+			@Override
+			protected void done() {
+				if (isCancelled() || loader != this) {
+					return;
+				}
+				try {
+					showSnapshot(get());
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		};
+		loader.execute();
+	}
+	
+	/**
+	 * Updates the labels and chart from a snapshot.
+	 */
+	private void showSnapshot(StatsSnapshot s) {
+		snapshot = s;
+		b1.setText("All Pantries: " + s.getAllTotal() + " Items");
+		d1.setDesc(s.getAllShares());
+		bx.setText(s.getContainerTotal() + " Items");
+		dx.setDesc(s.getContainerShares());
+		repaint();
+	}
+	
+	/**
+	 * Provides access to the statistics currently shown
+	 *
+	 * @return the current StatsSnapshot
+	 */
+	public StatsSnapshot getSnapshot() {
+		return snapshot;
 	}
 
 }
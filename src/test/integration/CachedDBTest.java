@@ -0,0 +1,169 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.CachedDB;
+import database.DB;
+import domain.logic.container.Container;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+
+class CachedDBTest {
+
+	private CachedDB data;
+	private DB direct;
+	private Container container;
+
+	@BeforeEach
+	void setUp() {
+		data = new CachedDB(2);
+		direct = new DB();
+		container = new Container("Larder");
+		data.addContainer("Larder", container);
+		data.addItem(container, "Rice", Item.getInstance("Rice", 3, "12-APR-2030"));
+		data.addItem(container, "Beans", Item.getInstance("Beans", 4, "12-APR-2030"));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		data.removeContainer("Larder");
+		data.removeContainer("Shelf");
+		data.removeContainer("Bin");
+		data.removeContainer("Cellar");
+		data.removeItemTag("Rice");
+		data.deleteNote("Rice");
+	}
+
+	@Test
+	void testRepeatedReadsAreServedFromMemory() {
+		assertEquals(2, data.retrieveItems(container).size());
+		long misses = data.getMisses();
+
+		for (int i = 0; i < 10; i++) {
+			assertNotNull(data.getItem(container, "Rice"));
+			assertEquals(2, data.retrieveItems(container).size());
+		}
+
+		assertEquals(misses, data.getMisses(), "Later reads should not go to the database.");
+		assertTrue(data.getHits() >= 20);
+	}
+
+	@Test
+	void testWritesAreVisibleThroughTheCache() {
+		data.retrieveItems(container);
+
+		data.updateQuantity("Rice", 9, container);
+		data.updateItemFoodGroup(container, "Beans", FoodGroup.PROTEIN);
+		data.addItem(container, "Lentils", Item.getInstance("Lentils", 1, "12-APR-2030"));
+		data.removeItem(container, "Beans");
+
+		assertEquals(9, data.getItem(container, "Rice").getQuantity());
+		assertNull(data.getItem(container, "Beans"));
+		assertNotNull(data.getItem(container, "Lentils"));
+		assertEquals(direct.retrieveItems(container).size(), data.retrieveItems(container).size());
+		assertEquals(9, direct.getItem(container, "Rice").getQuantity());
+	}
+
+	@Test
+	void testWriteTheDatabaseDidNotMakeLeavesTheCache() {
+		data.retrieveItems(container);
+		direct.removeItem(container, "Rice");
+
+		data.updateQuantity("Rice", 5, container);
+		data.updateItemFoodGroup(container, "Rice", FoodGroup.GRAIN);
+
+		Item rice = data.getItem(container, "Rice");
+		assertEquals(3, rice.getQuantity(), "A write that changed no row is not applied to the cache.");
+		assertNull(rice.getFoodGroupTag());
+		data.updateQuantity("Beans", 6, container);
+		assertEquals(6, data.getItem(container, "Beans").getQuantity());
+	}
+
+	@Test
+	void testReturnedItemsAreCopies() {
+		data.getItem(container, "Rice").setQuantity(50);
+		assertEquals(3, data.getItem(container, "Rice").getQuantity());
+	}
+
+	@Test
+	void testAnnotatedReadsAreServedFromMemory() {
+		data.insertItemTag("Rice", "Staple");
+		data.addNote("Rice", "Top shelf");
+		assertEquals(direct.retrieveAnnotatedItems(container).size(), data.retrieveAnnotatedItems(container).size());
+		long misses = data.getMisses();
+
+		data.replaceNote("Rice", "Bottom shelf");
+		Item rice = annotated("Rice");
+		assertEquals("Staple", rice.getCustomTag());
+		assertEquals("Bottom shelf", rice.getCustomNote(), "The client's own edits are applied to the cache.");
+		rice.addCustomTag("Changed");
+		assertEquals("Staple", annotated("Rice").getCustomTag(), "Returned items are copies.");
+
+		data.removeItemTag("Rice");
+		assertEquals("", annotated("Rice").getCustomTag());
+		assertEquals("", data.getItem(container, "Rice").getCustomNote(), "Plain reads carry no annotations.");
+		assertEquals(misses, data.getMisses(), "Later reads should not go to the database.");
+	}
+
+	@Test
+	void testTotalCountOverEveryContainerIsNotCached() {
+		data.invalidateAll();
+		List<String> all = data.getTotalCount(null);
+		assertEquals(direct.getTotalCount(null).size(), all.size());
+		assertEquals(0, data.getCachedContainerCount(), "The count should not load containers.");
+
+		data.retrieveItems(container);
+		long hits = data.getHits();
+		assertEquals(direct.getTotalCount("Larder").size(), data.getTotalCount("Larder").size());
+		assertEquals(hits + 1, data.getHits(), "A cached container is counted from memory.");
+	}
+
+	@Test
+	void testLeastRecentlyUsedContainerIsEvicted() {
+		data.putContainer("Shelf");
+		data.putContainer("Bin");
+
+		data.retrieveItems(container);
+		data.retrieveItems(new Container("Shelf"));
+		data.retrieveItems(new Container("Bin"));
+
+		assertEquals(2, data.getCachedContainerCount());
+		assertEquals(1, data.getEvictions());
+
+		long misses = data.getMisses();
+		data.retrieveItems(container);
+		assertEquals(misses + 1, data.getMisses(), "The evicted container should be loaded again.");
+	}
+
+	@Test
+	void testEmptyAndRenameContainer() {
+		data.retrieveItems(container);
+		data.emptyContainer(container);
+		assertEquals(0, data.retrieveItems(container).size());
+
+		data.editContainer("Larder", "Cellar");
+		Container cellar = new Container("Cellar");
+		data.addItem(cellar, "Wine", Item.getInstance("Wine", 1, "12-APR-2030"));
+		List<Item> items = data.retrieveItems(cellar);
+		assertEquals(1, items.size());
+		assertEquals("Wine", items.get(0).getName());
+	}
+
+	private Item annotated(String name) {
+		for (Item item : data.retrieveAnnotatedItems(container)) {
+			if (item.getName().equals(name)) {
+				return item;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,187 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.CachedDB;
+import database.ChangeEvent;
+import database.ChangeEvent.Action;
+import database.ChangeSet;
+import database.DB;
+import domain.logic.container.Container;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.Item;
+
+class ChangeLogDBTest {
+
+	private DB data;
+	private Container shelf;
+
+	@BeforeEach
+	void setUp() {
+		data = new DB();
+		shelf = new Container("SyncShelf");
+		data.putContainer(shelf.getName());
+		data.addItem(shelf, "Rice", Item.getInstance("Rice", 1, "12-APR-2030"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		data.removeContainer(shelf.getName());
+		data.removeFromGroceryList("SyncFlour");
+		data.removeItemTag("Rice");
+		data.deleteNote("Rice");
+	}
+
+	@Test
+	void testChangesIncludeTombstones() {
+		long version = data.getChangeVersion();
+		assertTrue(version > 0);
+		assertFalse(data.hasChangesSince(version), "Nothing was written since the version was read.");
+
+		data.addItem(shelf, "Beans", Item.getInstance("Beans", 3, "12-APR-2030"));
+		data.updateQuantity("Rice", 4, shelf);
+		data.removeItem(shelf, "Rice");
+		data.addToGroceryList("SyncFlour");
+		assertTrue(data.hasChangesSince(version));
+
+		ChangeSet items = data.getItemChangesSince(version);
+		Map<String, ChangeEvent> byName = new HashMap<String, ChangeEvent>();
+		for (ChangeEvent e : items.getChanges()) {
+			byName.put(e.getName(), e);
+		}
+		assertEquals(2, byName.size(), items.toString());
+		assertEquals(Action.ADDED, byName.get("Beans").getAction());
+		assertEquals(3, byName.get("Beans").getItem().getQuantity());
+		assertEquals(Action.REMOVED, byName.get("Rice").getAction(), "A deleted row is reported by its key.");
+		assertEquals(shelf.getName(), byName.get("Rice").getContainer());
+
+		ChangeSet grocery = data.getGroceryChangesSince(version);
+		assertEquals(1, grocery.getChanges().size(), grocery.toString());
+		assertEquals("SyncFlour", grocery.getChanges().get(0).getName());
+		assertTrue(data.getContainerChangesSince(version).isEmpty());
+
+		assertTrue(data.getItemChangesSince(items.getVersion()).isEmpty(),
+				"The new version skips the changes already read.");
+	}
+
+	@Test
+	void testSyncAppliesOtherClientsChanges() {
+		CachedDB cache = new CachedDB();
+		assertEquals(1, cache.retrieveItems(shelf).size());
+
+		data.updateQuantity("Rice", 6, shelf);
+		data.addItem(shelf, "Oats", Item.getInstance("Oats", 2, "12-APR-2030"));
+		assertEquals(1, cache.getItem(shelf, "Rice").getQuantity(), "The cache has not synced yet.");
+
+		assertEquals(2, cache.sync());
+		assertEquals(6, cache.getItem(shelf, "Rice").getQuantity());
+		assertEquals(2, cache.getItem(shelf, "Oats").getQuantity());
+
+		data.removeItem(shelf, "Oats");
+		assertEquals(1, cache.sync());
+		assertNull(cache.getItem(shelf, "Oats"));
+		assertEquals(0, cache.sync(), "Changes already applied are not applied again.");
+	}
+
+	@Test
+	void testSyncAppliesOtherClientsTagsAndNotes() {
+		CachedDB cache = new CachedDB();
+		assertEquals("", cache.retrieveAnnotatedItems(shelf).get(0).getCustomTag());
+
+		long version = data.getChangeVersion();
+		data.insertItemTag("Rice", "Staple");
+		data.addNote("Rice", "Top shelf");
+		ChangeSet annotations = data.getAnnotationChangesSince(version);
+		assertEquals(2, annotations.getChanges().size(), annotations.toString());
+		assertEquals("Staple", annotations.getChanges().stream()
+				.filter(e -> e.getTarget() == ChangeEvent.Target.TAG).findFirst().get().getValue());
+
+		assertEquals(2, cache.sync());
+		Item rice = cache.retrieveAnnotatedItems(shelf).get(0);
+		assertEquals("Staple", rice.getCustomTag());
+		assertEquals("Top shelf", rice.getCustomNote());
+
+		data.removeItemTag("Rice");
+		assertEquals(1, cache.sync());
+		assertEquals("", cache.retrieveAnnotatedItems(shelf).get(0).getCustomTag());
+		assertEquals(0, cache.sync(), "Changes already applied are not applied again.");
+	}
+
+	@Test
+	void testPrunedChangesAskForReload() {
+		long version = data.getChangeVersion();
+		data.updateQuantity("Rice", 5, shelf);
+		data.refreshFreshness();
+		assertFalse(data.getItemChangesSince(version).isReloadNeeded(), "Only the operator prunes the log.");
+
+		assertTrue(data.pruneChangeLog(0) > 0, "Entries logged before now should be dropped.");
+		assertTrue(data.hasChangesSince(version));
+		ChangeSet items = data.getItemChangesSince(version);
+		assertTrue(items.isReloadNeeded(), "The change to Rice is no longer logged.");
+		assertFalse(data.getItemChangesSince(items.getVersion()).isReloadNeeded(),
+				"A version read after the prune can sync again.");
+	}
+
+	@Test
+	void testSyncReloadsAfterThePrune() {
+		CachedDB cache = new CachedDB();
+		assertEquals(1, cache.retrieveItems(shelf).size());
+
+		data.updateQuantity("Rice", 8, shelf);
+		data.pruneChangeLog(0);
+		assertEquals(1, cache.sync(), "The cached item is dropped.");
+		assertEquals(0, cache.getCachedContainerCount());
+		assertEquals(8, cache.getItem(shelf, "Rice").getQuantity(), "The container is read again.");
+		assertEquals(0, cache.sync());
+	}
+
+	@Test
+	void testOpenCursorDoesNotHoldBackTheVersion() throws InterruptedException {
+		data.addItem(shelf, "Beans", Item.getInstance("Beans", 3, "12-APR-2030"));
+		CountDownLatch first = new CountDownLatch(1);
+		Flow.Subscription[] held = new Flow.Subscription[1];
+		data.publishAllItems().subscribe(new Flow.Subscriber<ContainerItem>() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				held[0] = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(ContainerItem row) {
+				first.countDown();
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		assertTrue(first.await(10, TimeUnit.SECONDS));
+
+		try {
+			long version = data.getChangeVersion();
+			data.updateQuantity("Rice", 2, shelf);
+			assertTrue(data.getChangeVersion() > version, "The idle cursor should not pin the version.");
+			assertEquals(1, data.getItemChangesSince(version).getChanges().size());
+		} finally {
+			held[0].cancel();
+		}
+	}
+}
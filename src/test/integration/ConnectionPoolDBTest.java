@@ -0,0 +1,186 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import database.ConnectionPool;
+import database.DB;
+import database.PoolStats;
+import database.info;
+
+class ConnectionPoolDBTest {
+
+	private ConnectionPool pool;
+
+	@AfterEach
+	void cleanUp() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testConnectionIsReused() throws SQLException {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass);
+
+		for (int i = 0; i < 10; i++) {
+			try (Connection conn = pool.getConnection()) {
+				assertTrue(conn.isValid(2));
+			}
+		}
+
+		PoolStats stats = pool.getStats();
+		assertEquals(1, stats.getConnectionsOpened(), "Sequential checkouts should share one physical connection.");
+		assertEquals(10, stats.getTotalCheckouts());
+		assertEquals(0, stats.getActive());
+		assertEquals(1, stats.getIdle());
+	}
+
+	@Test
+	void testPoolIsBounded() throws SQLException {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass, 1, 200, 10_000);
+
+		try (Connection conn = pool.getConnection()) {
+			assertTrue(conn.isValid(2));
+			assertEquals(1, pool.getStats().getActive());
+			assertThrows(SQLException.class, () -> pool.getConnection());
+		}
+
+		assertEquals(1, pool.getStats().getTimeouts());
+		try (Connection conn = pool.getConnection()) {
+			assertTrue(conn.isValid(2));
+			assertEquals(1, pool.getStats().getActive());
+		}
+	}
+
+	@Test
+	void testLongLeaseIsReclaimed() throws Exception {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass, 1, 200, 50);
+		Connection conn = pool.getConnection();
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (pool.getStats().getActive() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(0, pool.getStats().getActive(), "A connection held too long should be taken back.");
+		assertEquals(1, pool.getStats().getLeaksDetected());
+		assertThrows(SQLException.class, () -> conn.createStatement());
+		try (Connection next = pool.getConnection()) {
+			assertTrue(next.isValid(2));
+		}
+	}
+
+	@Test
+	void testSlowCopyKeepsRenewedLease() throws Exception {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass, 1, 200, 100);
+		try (Connection conn = pool.getConnection()) {
+			conn.setAutoCommit(false);
+			try (Statement s = conn.createStatement()) {
+				s.execute("CREATE TEMPORARY TABLE slow_copy (n integer) ON COMMIT DROP");
+			}
+			CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn("COPY slow_copy FROM STDIN");
+			// Twice as long as the pool lets an unrenewed lease live.
+			for (int i = 0; i < 40; i++) {
+				byte[] row = (i + "\n").getBytes();
+				copy.writeToCopy(row, 0, row.length);
+				ConnectionPool.renewLease(conn);
+				Thread.sleep(20);
+			}
+			assertEquals(40, copy.endCopy());
+
+			try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("SELECT count(*) FROM slow_copy")) {
+				rs.next();
+				assertEquals(40, rs.getInt(1));
+			}
+			conn.commit();
+		}
+		assertEquals(0, pool.getStats().getLeaksDetected(), "A renewed lease should not be reported or reclaimed.");
+		assertEquals(0, pool.getStats().getActive());
+	}
+
+	@Test
+	void testReturnedConnectionCannotBeUsed() throws SQLException {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass);
+		Connection conn = pool.getConnection();
+		conn.close();
+
+		assertTrue(conn.isClosed());
+		assertThrows(SQLException.class, () -> conn.createStatement());
+	}
+
+	@Test
+	void testDBReturnsConnections() {
+		DB data = new DB();
+		int activeBefore = data.getPoolStats().getActive();
+		for (int i = 0; i < 20; i++) {
+			data.retrieveContainers();
+			data.getStorageTip("Apple");
+			data.getSettings();
+		}
+
+		assertEquals(activeBefore, data.getPoolStats().getActive(), "Every DB method should hand its connection back.");
+	}
+
+	@Test
+	void testStatementIsReusedAcrossCheckouts() throws SQLException {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass, 1, 1_000, 15_000);
+
+		for (int i = 0; i < 5; i++) {
+			try (Connection conn = pool.getConnection();
+					PreparedStatement s = conn.prepareStatement("SELECT ?::int AS reused")) {
+				s.setInt(1, i);
+				ResultSet rs = s.executeQuery();
+				assertTrue(rs.next());
+				assertEquals(i, rs.getInt(1));
+			}
+		}
+
+		try (Connection conn = pool.getConnection();
+				PreparedStatement s = conn.prepareStatement(
+						"SELECT count(*) FROM pg_prepared_statements WHERE statement LIKE '%AS reused'")) {
+			ResultSet rs = s.executeQuery();
+			assertTrue(rs.next());
+			assertEquals(1, rs.getInt(1), "The server should have prepared the statement once.");
+		}
+	}
+
+	@Test
+	void testStatementsGiveBackThePooledConnection() throws SQLException {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass);
+		try (Connection conn = pool.getConnection(); PreparedStatement s = conn.prepareStatement("SELECT 1")) {
+			assertSame(conn, s.getConnection());
+			s.getConnection().close();
+			assertTrue(conn.isClosed(), "Closing it should hand the connection back to the pool.");
+		}
+		assertEquals(0, pool.getStats().getActive());
+	}
+
+	@Test
+	void testStatementSettingsAreReset() throws SQLException {
+		pool = new ConnectionPool(info.url, info.dbUser, info.dbPass);
+		int defaultFetchSize;
+		try (Connection conn = pool.getConnection(); PreparedStatement s = conn.prepareStatement("SELECT 1")) {
+			defaultFetchSize = s.getFetchSize();
+			s.setFetchSize(defaultFetchSize + 500);
+			s.setMaxRows(1);
+		}
+
+		try (Connection conn = pool.getConnection(); PreparedStatement s = conn.prepareStatement("SELECT 1")) {
+			assertEquals(defaultFetchSize, s.getFetchSize(), "One caller's fetch size should not reach the next.");
+			assertEquals(0, s.getMaxRows());
+		}
+	}
+}
@@ -2,12 +2,15 @@ package test.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -19,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import database.DB;
 import domain.logic.container.Container;
 import domain.logic.container.ContainerUtility;
+import domain.logic.item.Item;
 
 class ContainerDBTest {
 
@@ -125,4 +129,22 @@ class ContainerDBTest {
 
 	}
 
+	@Test
+	void testNamesWithApostrophes() {
+		DB data = new DB();
+		String containerName = "Mom's Fridge";
+		Container c = new Container(containerName);
+		data.removeContainer(containerName);
+
+		data.putContainer(containerName);
+		assertTrue(data.findContainer(containerName));
+
+		Item item = Item.getInstance("Trader Joe's Salsa", 2, new Date());
+		assertTrue(data.addItem(c, item.getName(), item));
+		assertNotNull(data.getItem(c, "Trader Joe's Salsa"));
+		assertEquals(1, data.retrieveItems(c).size());
+
+		data.removeContainer(containerName);
+		assertFalse(data.findContainer(containerName));
+	}
 }
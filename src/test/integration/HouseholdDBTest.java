@@ -0,0 +1,91 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.DB;
+import domain.logic.container.Container;
+import domain.logic.item.Item;
+
+class HouseholdDBTest {
+
+	private DB first;
+	private DB second;
+
+	@BeforeEach
+	void setUp() {
+		first = new DB(DB.createHousehold("First"));
+		second = new DB(DB.createHousehold("Second"));
+		assertTrue(first.getHousehold() > 1 && second.getHousehold() > first.getHousehold());
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		try (Connection conn = DB.getConnectionPool().getConnection(); Statement s = conn.createStatement()) {
+			for (DB db : new DB[] { first, second }) {
+				s.execute("DELETE FROM household WHERE id = " + db.getHousehold());
+				s.execute("DROP TABLE IF EXISTS item_h" + db.getHousehold());
+			}
+		}
+	}
+
+	@Test
+	void testHouseholdsAreIsolated() {
+		Container fridge = new Container("Fridge");
+		first.addContainer("Fridge", fridge);
+		second.addContainer("Fridge", fridge);
+		first.addItem(fridge, "Milk", Item.getInstance("Milk", 2, "12-APR-2030"));
+		second.addItem(fridge, "Milk", Item.getInstance("Milk", 5, "12-APR-2030"));
+		first.addToGroceryList("Eggs");
+		second.addToGroceryList("Eggs");
+		first.insertItemTag("Milk", "Oat");
+		first.setFontsize(22);
+
+		assertEquals(2, first.getItem(fridge, "Milk").getQuantity());
+		assertEquals(5, second.getItem(fridge, "Milk").getQuantity(), "Both households can use the same names.");
+		assertEquals("Oat", first.getItemTag("Milk"));
+		assertEquals(null, second.getItemTag("Milk"));
+		assertEquals("22", first.getSettings()[0]);
+		assertEquals("14", second.getSettings()[0], "A new household starts with the default settings.");
+
+		second.removeContainer("Fridge");
+		second.removeFromGroceryList("Eggs");
+		assertFalse(second.findContainer("Fridge"));
+		assertTrue(first.findContainer("Fridge"));
+		assertEquals(1, first.retrieveItems(fridge).size());
+		assertEquals(1, first.getAllGroceryItems().length);
+		assertEquals(0, second.getAllGroceryItems().length);
+	}
+
+	@Test
+	void testQueriesReadOnlyTheHouseholdPartition() throws SQLException {
+		List<String> plan = new ArrayList<String>();
+		try (Connection conn = DB.getConnectionPool().getConnection();
+				PreparedStatement s = conn.prepareStatement(
+						"EXPLAIN SELECT name FROM item WHERE household = ? AND container = 'Fridge'")) {
+			s.setInt(1, second.getHousehold());
+			try (ResultSet rs = s.executeQuery()) {
+				while (rs.next()) {
+					plan.add(rs.getString(1));
+				}
+			}
+		}
+		String text = String.join("\n", plan);
+		assertTrue(text.contains("item_h" + second.getHousehold()), text);
+		assertFalse(text.contains("item_h" + first.getHousehold() + " "), text);
+		assertFalse(text.contains("item_default"), text);
+	}
+}
@@ -5,12 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import database.DB;
 import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.FoodFreshness;
+import domain.logic.item.FoodGroup;
 import domain.logic.item.Item;
 
 class ItemDBTest {
@@ -99,4 +107,102 @@ class ItemDBTest {
 		assertTrue(data.getItem(container, "Feta") == null);
 
 	}
+
+	@Test
+	void testRetrieveItemsInSmallBatches() {
+		container = new Container("Pantry");
+		data.addContainer("Pantry", container);
+		for (int i = 0; i < 25; i++) {
+			data.addItem(container, "Can " + i, Item.getInstance("Can " + i, i + 1, "12-APR-2030"));
+		}
+		data.setFetchSize(4);
+
+		List<Item> items = data.retrieveItems(container);
+		assertEquals(25, items.size(), "Every item should be read across several fetches.");
+
+		List<String> streamed = new ArrayList<>();
+		assertTrue(data.forEachItem(container, it -> streamed.add(it.getName())));
+		assertEquals(25, streamed.size());
+		assertTrue(streamed.contains("Can 24"));
+	}
+
+	@Test
+	void testRetrieveAnnotatedItems() {
+		container = new Container("Freezer");
+		data.addContainer("Freezer", container);
+		data.addItem(container, "Peas", Item.getInstance("Peas", 2, "12-APR-2030"));
+		data.addItem(container, "Corn", Item.getInstance("Corn", 1, "12-APR-2030"));
+		data.insertItemTag("Peas", "Frozen");
+		data.addNote("Peas", "Opened");
+
+		List<Item> items = data.retrieveAnnotatedItems(container);
+		data.removeItemTag("Peas");
+		data.deleteNote("Peas");
+
+		assertEquals(2, items.size());
+		for (Item it : items) {
+			if (it.getName().equals("Peas")) {
+				assertEquals("Frozen", it.getCustomTag());
+				assertEquals("Opened", it.getCustomNote());
+			} else {
+				assertEquals("", it.getCustomTag());
+				assertEquals("", it.getCustomNote());
+			}
+		}
+	}
+
+	@Test
+	void testAddItems() {
+		container = new Container("Cupboard");
+		data.addContainer("Cupboard", container);
+		data.addItem(container, "Flour", Item.getInstance("Flour", 1, "12-APR-2030"));
+
+		List<Item> items = Arrays.asList(Item.getInstance("Sugar", 2, "12-APR-2030"),
+				Item.getInstance("Flour", 3, "12-APR-2030"), null,
+				Item.getInstance("Sugar", 4, "12-APR-2030"), Item.getInstance("Oats", 5, "12-APR-2030"));
+		List<AddItemOutcome> outcomes = data.addItems(container, items);
+
+		assertEquals(Arrays.asList(AddItemOutcome.ADDED, AddItemOutcome.DUPLICATE, AddItemOutcome.INVALID,
+				AddItemOutcome.DUPLICATE, AddItemOutcome.ADDED), outcomes);
+		assertEquals(3, data.retrieveItems(container).size());
+		assertEquals(2, data.getItem(container, "Sugar").getQuantity());
+		assertEquals(1, data.getItem(container, "Flour").getQuantity());
+	}
+
+	@Test
+	void testFreshnessSetOnInsertAndOnlyChangedRowsRewritten() {
+		container = new Container("Crisper");
+		data.addContainer("Crisper", container);
+		java.util.Date soon = new java.util.Date(System.currentTimeMillis() + 3L * 24 * 60 * 60 * 1000);
+		data.addItem(container, "Lettuce", Item.getInstance("Lettuce", 1, soon));
+		data.addItem(container, "Carrots", Item.getInstance("Carrots", 1, "12-APR-2030"));
+
+		assertEquals(FoodFreshness.NEAR_EXPIRY, data.getItem(container, "Lettuce").getFoodFreshnessTag().getTag());
+		assertEquals(FoodFreshness.FRESH, data.getItem(container, "Carrots").getFoodFreshnessTag().getTag());
+
+		data.refreshFreshness();
+		assertEquals(0, data.refreshFreshness(), "A second pass on the same day should not rewrite any rows.");
+	}
+
+	@Test
+	void testFoodGroupCounts() {
+		container = new Container("Counter");
+		data.addContainer("Counter", container);
+		data.addItem(container, "Bread", Item.getInstance("Bread", 1, "12-APR-2030"));
+		data.addItem(container, "Rice", Item.getInstance("Rice", 1, "12-APR-2030"));
+		data.addItem(container, "Milk", Item.getInstance("Milk", 1, "12-APR-2030"));
+		data.addItem(container, "Salt", Item.getInstance("Salt", 1, "12-APR-2030"));
+		data.updateItemFoodGroup(container, "Bread", FoodGroup.GRAIN);
+		data.updateItemFoodGroup(container, "Rice", FoodGroup.GRAIN);
+		data.updateItemFoodGroup(container, "Milk", FoodGroup.DAIRY);
+
+		EnumMap<FoodGroup, Integer> counts = data.getFoodGroupCounts("Counter");
+		assertEquals(2, counts.get(FoodGroup.GRAIN));
+		assertEquals(1, counts.get(FoodGroup.DAIRY));
+		assertEquals(0, counts.get(FoodGroup.FRUIT), "Groups without items should be counted as 0.");
+		assertEquals(FoodGroup.values().length, counts.size());
+
+		EnumMap<FoodGroup, Integer> all = data.getFoodGroupCounts(null);
+		assertTrue(all.get(FoodGroup.GRAIN) >= 2);
+	}
 }
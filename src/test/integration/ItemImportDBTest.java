@@ -0,0 +1,57 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import database.DB;
+import domain.logic.container.Container;
+import domain.logic.item.ImportReport;
+import domain.logic.item.Item;
+import domain.logic.item.ItemImporter;
+
+class ItemImportDBTest {
+
+	private static final int CONTAINERS = 5;
+	private static final int ROWS = 20_000;
+
+	private DB data = new DB();
+
+	@AfterEach
+	void cleanUp() {
+		for (int c = 0; c < CONTAINERS; c++) {
+			data.removeContainer("Import " + c);
+		}
+	}
+
+	@Test
+	void testImportManyRows() throws IOException {
+		data.putContainer("Import 0");
+		data.addItem(new Container("Import 0"), "Item 0", Item.getInstance("Item 0", 1, "01-Jan-2099"));
+
+		StringBuilder csv = new StringBuilder("name,container,quantity,expiry\n");
+		for (int i = 0; i < ROWS; i++) {
+			csv.append("Item ").append(i).append(",Import ").append(i % CONTAINERS).append(',').append(i % 9 + 1)
+					.append(",01-Jan-2099\n");
+		}
+		csv.append("O'Brien's Jam,Import 1,2,01-Jan-2099\n");
+		csv.append("Bad Row,Import 1,lots,01-Jan-2099\n");
+		csv.append("Item 1,Import 1,1,01-Jan-2099\n");
+
+		ImportReport report = new ItemImporter(data).importFrom(new BufferedReader(new StringReader(csv.toString())), ',');
+
+		assertEquals(ROWS + 3, report.getRowCount());
+		assertEquals(ROWS, report.getImportedCount());
+		assertEquals(3, report.getRejected().size(), "Bad quantity, existing item and repeated row are rejected.");
+		assertTrue(data.findContainer("Import 4"));
+		assertEquals(ROWS / CONTAINERS, data.retrieveItems(new Container("Import 3")).size());
+		assertNotNull(data.getItem(new Container("Import 1"), "O'Brien's Jam"));
+	}
+}
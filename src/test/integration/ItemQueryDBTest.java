@@ -0,0 +1,145 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.DB;
+import domain.logic.container.Container;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.item.ItemSort;
+
+class ItemQueryDBTest {
+
+	private DB data;
+	private Container first;
+	private Container second;
+
+	@BeforeEach
+	void setUp() {
+		data = new DB();
+		first = new Container("Keyset Pantry");
+		second = new Container("Keyset Cellar");
+		data.addContainer("Keyset Pantry", first);
+		data.addContainer("Keyset Cellar", second);
+		for (int i = 0; i < 12; i++) {
+			String name = String.format("Keyset %02d", i);
+			data.addItem(first, name, Item.getInstance(name, i + 1, String.format("%02d-APR-2030", i % 4 + 1)));
+			data.addItem(second, name, Item.getInstance(name, i + 1, "20-MAY-2030"));
+		}
+		// Half of the pantry has a food group, the rest is left NULL
+		for (int i = 0; i < 12; i += 2) {
+			data.updateItemFoodGroup(first, String.format("Keyset %02d", i), i % 4 == 0 ? FoodGroup.DAIRY : FoodGroup.GRAIN);
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		data.removeContainer("Keyset Pantry");
+		data.removeContainer("Keyset Cellar");
+	}
+
+	@Test
+	void testPagesForwardAndBackOverEveryItem() {
+		ItemQuery query = new ItemQuery().nameContains("Keyset").pageSize(5);
+		List<String> seen = new ArrayList<>();
+
+		ItemPage page = data.queryItems(query);
+		assertFalse(page.hasPrevious());
+		List<ItemPage> pages = new ArrayList<>();
+		while (true) {
+			pages.add(page);
+			for (ContainerItem row : page.getRows()) {
+				seen.add(row.getItem().getName() + "/" + row.getContainer());
+			}
+			if (!page.hasNext()) {
+				break;
+			}
+			page = data.nextPage(page);
+		}
+
+		assertEquals(24, seen.size());
+		assertEquals(5, pages.size());
+		assertEquals("Keyset 00/Keyset Cellar", seen.get(0));
+		assertEquals("Keyset 00/Keyset Pantry", seen.get(1));
+		assertEquals("Keyset 11/Keyset Pantry", seen.get(23));
+
+		ItemPage previous = data.previousPage(pages.get(3));
+		assertEquals(rowKeys(pages.get(2)), rowKeys(previous));
+		assertTrue(previous.hasNext());
+		assertTrue(previous.hasPrevious());
+	}
+
+	@Test
+	void testNullSortValuesComeLastAndAreNotSkipped() {
+		ItemQuery query = new ItemQuery("Keyset Pantry").sortBy(ItemSort.FOOD_GROUP).pageSize(4);
+		List<Item> items = new ArrayList<>();
+		ItemPage page = data.queryItems(query);
+		List<ItemPage> pages = new ArrayList<>();
+		while (true) {
+			pages.add(page);
+			for (ContainerItem row : page.getRows()) {
+				items.add(row.getItem());
+			}
+			if (!page.hasNext()) {
+				break;
+			}
+			page = data.nextPage(page);
+		}
+
+		assertEquals(12, items.size());
+		for (int i = 0; i < 6; i++) {
+			assertTrue(foodGroup(items.get(i)) != null, "Grouped items should come first.");
+		}
+		for (int i = 6; i < 12; i++) {
+			assertEquals(null, foodGroup(items.get(i)), "Items without a group should come last.");
+		}
+
+		// Going back from the last page crosses from NULL groups into grouped items
+		assertEquals(rowKeys(pages.get(1)), rowKeys(data.previousPage(pages.get(2))));
+	}
+
+	@Test
+	void testFiltersAreAppliedByTheDatabase() {
+		ItemPage dairy = data.queryItems(new ItemQuery("Keyset Pantry").foodGroup(FoodGroup.DAIRY));
+		assertEquals(3, dairy.getRows().size());
+		assertFalse(dairy.hasNext());
+
+		ItemPage expiry = data.queryItems(new ItemQuery("Keyset Pantry").sortBy(ItemSort.EXPIRY).nameContains("keyset 1"));
+		assertEquals(List.of("Keyset 10", "Keyset 11"), names(expiry));
+
+		assertTrue(data.queryItems(new ItemQuery("Keyset Pantry").nameContains("%")).isEmpty(),
+				"Wildcards in the filter should be matched literally.");
+	}
+
+	private static FoodGroup foodGroup(Item item) {
+		return item.getFoodGroupTag() == null ? null : item.getFoodGroupTag().getTag();
+	}
+
+	private static List<String> rowKeys(ItemPage page) {
+		List<String> keys = new ArrayList<>();
+		for (ContainerItem row : page.getRows()) {
+			keys.add(row.getItem().getName() + "/" + row.getContainer());
+		}
+		return keys;
+	}
+
+	private static List<String> names(ItemPage page) {
+		List<String> names = new ArrayList<>();
+		for (ContainerItem row : page.getRows()) {
+			names.add(row.getItem().getName());
+		}
+		return names;
+	}
+}
@@ -0,0 +1,164 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import database.ChangeEvent;
+import database.DB;
+import database.JournaledDB;
+import database.PantrySnapshot;
+import database.ReplayConflict;
+import database.WriteJournal;
+import domain.logic.container.Container;
+import domain.logic.item.Item;
+
+class JournaledDBTest {
+
+	@TempDir
+	Path dir;
+
+	private DB direct;
+	private JournaledDB journaled;
+	private Container container;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		direct = new DB();
+		container = new Container("Camp Box");
+		direct.putContainer(container.getName());
+		direct.addItem(container, "Beans", Item.getInstance("Beans", 4, "12-APR-2030"));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		if (journaled != null) {
+			journaled.close();
+		}
+		direct.replaceItemTag("Beans", "");
+		direct.removeFromGroceryList("Matches");
+		direct.removeContainer(container.getName());
+	}
+
+	private JournaledDB open() throws IOException {
+		// Long interval so the test decides when writes are replayed
+		journaled = new JournaledDB(dir.resolve("writes.journal"), null, 60_000);
+		return journaled;
+	}
+
+	@Test
+	void testWritesAreJournaledThenReplayedInOrder() throws Exception {
+		// The copy starts from a snapshot, so reads can be answered from it
+		Path snapshot = dir.resolve("pantry.snapshot");
+		PantrySnapshot.save(direct, snapshot);
+		journaled = new JournaledDB(dir.resolve("writes.journal"), snapshot, 60_000);
+		// Let the startup pass of the replay thread finish, which reloads the copy
+		CountDownLatch reloaded = new CountDownLatch(1);
+		AutoCloseable subscription = journaled.getChangeBus().subscribe(e -> {
+			if (e.getTarget() == ChangeEvent.Target.PANTRY) {
+				reloaded.countDown();
+			}
+		});
+		reloaded.await(2, TimeUnit.SECONDS);
+		subscription.close();
+		assertTrue(journaled.replay());
+		journaled.addItem(container, "Rice", Item.getInstance("Rice", 1, "12-APR-2030"));
+		journaled.updateQuantity("Rice", 3, container);
+		journaled.updateQuantity("Beans", 2, container);
+		journaled.replaceItemTag("Beans", "Dinner");
+		journaled.addToGroceryList("Matches");
+		journaled.removeItem(container, "Rice");
+
+		assertEquals(6, journaled.getPendingCount());
+		assertEquals(4, direct.getItem(container, "Beans").getQuantity(), "Nothing is written before a replay.");
+
+		assertEquals(2, journaled.getItem(container, "Beans").getQuantity(), "Reads see the journaled writes.");
+		assertNull(journaled.getItem(container, "Rice"));
+		assertEquals(6, journaled.getPendingCount(), "Reads leave the replay to the background thread.");
+
+		assertTrue(journaled.replay());
+		assertEquals(0, journaled.getPendingCount());
+		assertEquals(2, direct.getItem(container, "Beans").getQuantity());
+		assertEquals("Dinner", direct.getItemTag("Beans"));
+		assertNull(direct.getItem(container, "Rice"));
+		boolean listed = false;
+		for (Object[] row : direct.getAllGroceryItems()) {
+			listed |= "Matches".equals(row[0]);
+		}
+		assertTrue(listed);
+		assertTrue(journaled.getConflicts().isEmpty());
+	}
+
+	@Test
+	void testWriteThatCannotBeJournaledIsNotMade() throws Exception {
+		open();
+		assertTrue(journaled.replay());
+		List<ChangeEvent> events = new CopyOnWriteArrayList<ChangeEvent>();
+		AutoCloseable subscription = journaled.getChangeBus().subscribe(events::add);
+		// Closing the journal makes every later append fail
+		journaled.close();
+
+		assertFalse(journaled.addItem(container, "Rice", Item.getInstance("Rice", 1, "12-APR-2030")));
+		journaled.updateQuantity("Beans", 9, container);
+		assertFalse(journaled.removeItemTag("Beans"));
+
+		assertNull(journaled.getItem(container, "Rice"));
+		assertEquals(4, journaled.getItem(container, "Beans").getQuantity());
+		Thread.sleep(200);
+		assertTrue(events.stream().noneMatch(e -> e.getTarget() != ChangeEvent.Target.PANTRY),
+				"A write that was not saved is not published: " + events);
+		subscription.close();
+	}
+
+	@Test
+	void testWritesLeftFromAnEarlierRunAreReplayed() throws IOException {
+		try (WriteJournal journal = new WriteJournal(dir.resolve("writes.journal"))) {
+			journal.append(WriteJournal.Entry.updateQuantity(container.getName(), "Beans", 9));
+			journal.append(WriteJournal.Entry.insertTag("Beans", "Camping"));
+		}
+
+		open();
+		assertEquals(2, journaled.getPendingCount());
+		assertTrue(journaled.replay());
+		assertEquals(9, direct.getItem(container, "Beans").getQuantity());
+		assertEquals("Camping", direct.getItemTag("Beans"));
+	}
+
+	@Test
+	void testRefusedWritesAreReported() throws IOException {
+		try (WriteJournal journal = new WriteJournal(dir.resolve("writes.journal"))) {
+			journal.append(WriteJournal.Entry.addItem(container.getName(), Item.getInstance("Rice", 1, "12-APR-2030")));
+			journal.append(WriteJournal.Entry.updateQuantity(container.getName(), "Beans", 1));
+			journal.append(WriteJournal.Entry.insertTag("Beans", "Camping"));
+		}
+		// Made by another client while those writes were offline
+		direct.addItem(container, "Rice", Item.getInstance("Rice", 5, "12-APR-2030"));
+		direct.removeItem(container, "Beans");
+		direct.insertItemTag("Beans", "Camping");
+
+		open();
+		assertTrue(journaled.replay());
+
+		List<ReplayConflict> conflicts = journaled.getConflicts();
+		assertEquals(3, conflicts.size());
+		assertEquals(WriteJournal.Op.ADD_ITEM, conflicts.get(0).getEntry().getOp());
+		assertEquals(WriteJournal.Op.UPDATE_QUANTITY, conflicts.get(1).getEntry().getOp());
+		assertEquals(WriteJournal.Op.INSERT_TAG, conflicts.get(2).getEntry().getOp(),
+				"A write the database fails is reported, not acknowledged as stored.");
+		assertEquals(5, direct.getItem(container, "Rice").getQuantity(), "The stored item is kept.");
+		assertEquals(0, journaled.getPendingCount());
+	}
+}
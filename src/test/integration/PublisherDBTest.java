@@ -0,0 +1,151 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.DB;
+import domain.logic.container.Container;
+import domain.logic.item.ContainerItem;
+import domain.logic.item.Item;
+
+class PublisherDBTest {
+
+	private DB data;
+	private Container container;
+
+	@BeforeEach
+	void setUp() {
+		data = new DB();
+		data.setFetchSize(10);
+		container = new Container("Stream Shelf");
+		data.addContainer("Stream Shelf", container);
+		for (int i = 0; i < 35; i++) {
+			data.addItem(container, "Jar " + i, Item.getInstance("Jar " + i, i + 1, "12-APR-2030"));
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		data.removeContainer("Stream Shelf");
+	}
+
+	@Test
+	void testPublishItemsInRequestedChunks() throws InterruptedException {
+		int activeBefore = data.getPoolStats().getActive();
+		CollectingSubscriber<ContainerItem> subscriber = new CollectingSubscriber<>(7);
+		data.publishAllItems().subscribe(subscriber);
+
+		assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+		assertEquals(35, subscriber.received.stream().filter(r -> r.getContainer().equals("Stream Shelf")).count());
+		assertTrue(subscriber.completed);
+		assertTrue(subscriber.largestBatch <= 7, "No more rows than requested should be sent.");
+		assertEquals(activeBefore, data.getPoolStats().getActive(), "The connection should be returned after completion.");
+	}
+
+	@Test
+	void testCancelStopsPublishing() throws InterruptedException {
+		int activeBefore = data.getPoolStats().getActive();
+		CountDownLatch first = new CountDownLatch(1);
+		List<ContainerItem> received = new ArrayList<>();
+		data.publishAllItems().subscribe(new Flow.Subscriber<ContainerItem>() {
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(3);
+			}
+
+			@Override
+			public void onNext(ContainerItem row) {
+				received.add(row);
+				if (received.size() == 3) {
+					subscription.cancel();
+					first.countDown();
+				}
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+
+		assertTrue(first.await(10, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		assertEquals(3, received.size());
+		assertEquals(activeBefore, data.getPoolStats().getActive(), "Cancelling should hand the connection back.");
+	}
+
+	@Test
+	void testPublishAllItemsCarriesContainer() throws InterruptedException {
+		CollectingSubscriber<ContainerItem> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+		data.publishAllItems().subscribe(subscriber);
+
+		assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+		long shelfItems = subscriber.received.stream().filter(r -> r.getContainer().equals("Stream Shelf")).count();
+		assertEquals(35, shelfItems);
+	}
+
+	/**
+	 * Requests a fixed number of elements each time the previous request has
+	 * been delivered.
+	 */
+	private static class CollectingSubscriber<T> implements Flow.Subscriber<T> {
+		final List<T> received = new ArrayList<>();
+		final CountDownLatch done = new CountDownLatch(1);
+		final long batch;
+		Flow.Subscription subscription;
+		long outstanding;
+		long inBatch;
+		long largestBatch;
+		boolean completed;
+
+		CollectingSubscriber(long batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			outstanding = batch;
+			subscription.request(batch);
+		}
+
+		@Override
+		public void onNext(T item) {
+			received.add(item);
+			inBatch++;
+			largestBatch = Math.max(largestBatch, inBatch);
+			if (--outstanding == 0) {
+				inBatch = 0;
+				outstanding = batch;
+				subscription.request(batch);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+			done.countDown();
+		}
+	}
+}
@@ -9,8 +9,10 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,6 +54,57 @@ class RecipeUtilityDBTest {
         assertFalse(saved, "The recipe should not be saved again to the database");
     }
 
+    @Test
+    void testSaveRecipeWithoutFetching() throws IOException, RateLimitPerMinuteExceededException, DailyLimitExceededException {
+        Recipe recipe = new Recipe(900001, "Omelette", "omelette.png");
+        Ingredient egg = new Ingredient(900101, "egg", 2, "", "egg.png", "2 eggs");
+        Ingredient butter = new Ingredient(900102, "butter", 1, "tbsp", "butter.png", "1 tbsp butter");
+        recipe.addUsedIngredient(egg);
+        recipe.addUsedIngredient(butter);
+        recipe.addMissedIngredient(egg);
+        Map<Integer, String> steps = new HashMap<>();
+        steps.put(1, "Beat the eggs.");
+        steps.put(2, "Cook in butter.");
+        recipe.setDetailedInstructions(steps);
+        recipe.setFetchedStep(true);
+
+        assertTrue(RecipeUtility.verifySaveRecipeToDatabase(recipe, database));
+        assertFalse(RecipeUtility.verifySaveRecipeToDatabase(recipe, database),
+                "A recipe that is already starred should not be saved again");
+
+        Recipe saved = database.getAllStarredRecipes().stream().filter(r -> r.getId() == 900001).findFirst().get();
+        assertEquals(2, saved.getUsedIngredients().size());
+        assertEquals("Cook in butter.", saved.getDetailedInstructions().get(2));
+    }
+
+    @Test
+    void testStarredRecipesPagedAndHydratedOnDemand() throws IOException, RateLimitPerMinuteExceededException, DailyLimitExceededException {
+        for (int id = 900011; id <= 900013; id++) {
+            Recipe recipe = new Recipe(id, "Recipe " + id, "image.png");
+            recipe.addUsedIngredient(new Ingredient(id + 100, "ingredient " + id, 1, "cup", "i.png", "1 cup"));
+            Map<Integer, String> steps = new HashMap<>();
+            steps.put(1, "Step for " + id);
+            recipe.setDetailedInstructions(steps);
+            recipe.setFetchedStep(true);
+            database.saveRecipeToDatabase(recipe);
+        }
+
+        List<Recipe> first = database.getStarredRecipePage(900010, 2);
+        assertEquals(2, first.size());
+        assertEquals(900011, first.get(0).getId());
+        assertFalse(first.get(0).isHydrated());
+        assertTrue(first.get(0).getUsedIngredients().isEmpty(), "A page should only hold summary rows");
+
+        List<Recipe> second = database.getStarredRecipePage(first.get(1).getId(), 2);
+        assertEquals(1, second.size());
+        assertEquals(900013, second.get(0).getId());
+
+        assertTrue(database.hydrateRecipes(first));
+        assertTrue(first.get(1).isHydrated());
+        assertEquals(1, first.get(1).getUsedIngredients().size());
+        assertEquals("Step for 900012", first.get(1).getDetailedInstructions().get(1));
+    }
+
     @Test
     void testIsNearExpiryItemsChanged() {
         Set<String> ingredients = new HashSet<>();
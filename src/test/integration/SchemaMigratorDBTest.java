@@ -0,0 +1,52 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import database.DB;
+import database.SchemaMigrator;
+
+class SchemaMigratorDBTest {
+
+	@Test
+	void testMigrationsAppliedOnceAtStartup() throws SQLException {
+		// Creating the pool applies the migrations
+		DB.getConnectionPool();
+		SchemaMigrator migrator = new SchemaMigrator(DB.getConnectionPool());
+
+		assertEquals(0, migrator.migrate(), "Scripts already applied should not run again.");
+		assertEquals(6, migrator.getCurrentVersion());
+	}
+
+	@Test
+	void testItemIndexesExist() throws SQLException {
+		Set<String> indexes = new HashSet<>();
+		try (Connection conn = DB.getConnectionPool().getConnection();
+				Statement s = conn.createStatement();
+				ResultSet rs = s.executeQuery("SELECT indexname FROM pg_indexes WHERE tablename = 'item'")) {
+			while (rs.next()) {
+				indexes.add(rs.getString(1));
+			}
+		}
+
+		assertTrue(indexes.contains("item_container_name_idx"));
+		assertTrue(indexes.contains("item_fresh_idx"));
+		assertTrue(indexes.contains("item_fg_idx"));
+		assertTrue(indexes.contains("item_near_expiry_idx"));
+		assertTrue(indexes.contains("item_container_expiry_idx"));
+		assertTrue(indexes.contains("item_container_fg_idx"));
+		assertTrue(indexes.contains("item_container_fresh_idx"));
+		assertTrue(indexes.contains("item_expiry_name_idx"));
+		assertFalse(indexes.contains("item_expiry_idx"), "The expiry index is replaced by item_expiry_name_idx.");
+	}
+}
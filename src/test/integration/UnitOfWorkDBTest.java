@@ -0,0 +1,101 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.ChangeEvent;
+import database.ChangeEvent.Action;
+import database.ChangeEvent.Target;
+import database.DB;
+import database.UnitOfWork;
+import domain.logic.container.Container;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+
+class UnitOfWorkDBTest {
+
+	private DB data;
+	private Container pantry;
+	private Container fridge;
+
+	@BeforeEach
+	void setUp() {
+		data = new DB();
+		pantry = new Container("UowPantry");
+		fridge = new Container("UowFridge");
+		data.putContainer(pantry.getName());
+		data.putContainer(fridge.getName());
+		data.addItem(pantry, "Milk", Item.getInstance("Milk", 2, "12-APR-2030"));
+		data.updateItemFoodGroup(pantry, "Milk", FoodGroup.DAIRY);
+	}
+
+	@AfterEach
+	void tearDown() {
+		data.removeContainer(pantry.getName());
+		data.removeContainer(fridge.getName());
+		data.removeContainer("UowCellar");
+		data.deleteNote("Milk");
+	}
+
+	@Test
+	void testWritesAreStoredTogether() {
+		try (UnitOfWork unit = data.beginUnitOfWork()) {
+			unit.moveItem("Milk", pantry, fridge).updateQuantity(fridge, "Milk", 3).replaceNote("Milk", "Opened");
+			assertEquals(4, unit.size(), "Replacing a note deletes the old notes first.");
+			assertNotNull(data.getItem(pantry, "Milk"), "Nothing is written before the commit.");
+			assertTrue(unit.commit());
+		}
+
+		assertNull(data.getItem(pantry, "Milk"));
+		Item moved = data.getItem(fridge, "Milk");
+		assertEquals(3, moved.getQuantity());
+		assertEquals(FoodGroup.DAIRY, moved.getFoodGroupTag().getTag(), "A move keeps the food group.");
+		assertEquals("Opened", data.getNote("Milk"));
+	}
+
+	@Test
+	void testFailedUnitStoresNothing() throws Exception {
+		data.addItem(fridge, "Milk", Item.getInstance("Milk", 1, "12-APR-2030"));
+		BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<ChangeEvent>();
+		AutoCloseable subscription = data.getChangeBus().subscribe(events::add);
+
+		UnitOfWork unit = data.beginUnitOfWork().updateQuantity(pantry, "Milk", 9).addItem(fridge,
+				Item.getInstance("Milk", 4, "12-APR-2030"));
+		assertFalse(unit.commit(), "The item is already in the fridge.");
+		assertThrows(IllegalStateException.class, () -> unit.addNote("Milk", "Late"));
+
+		assertEquals(2, data.getItem(pantry, "Milk").getQuantity(), "The earlier write is rolled back.");
+		assertEquals(1, data.getItem(fridge, "Milk").getQuantity());
+		assertNull(events.poll(200, TimeUnit.MILLISECONDS), "Nothing is published for a failed unit.");
+		subscription.close();
+	}
+
+	@Test
+	void testRenameMovesItems() throws Exception {
+		BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<ChangeEvent>();
+		AutoCloseable subscription = data.getChangeBus().subscribe(events::add);
+
+		data.editContainer(pantry.getName(), "UowCellar");
+
+		assertFalse(data.findContainer(pantry.getName()));
+		assertTrue(data.findContainer("UowCellar"));
+		assertEquals(2, data.getItem(new Container("UowCellar"), "Milk").getQuantity());
+		ChangeEvent renamed = events.poll(5, TimeUnit.SECONDS);
+		assertEquals(Target.CONTAINER, renamed.getTarget());
+		assertEquals(Action.UPDATED, renamed.getAction());
+		assertEquals("UowCellar", renamed.getValue());
+		subscription.close();
+	}
+}
@@ -0,0 +1,104 @@
+package test.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import database.ChangeEvent;
+import database.DB;
+import database.WriteBehindDB;
+import domain.logic.container.Container;
+import domain.logic.item.Item;
+
+class WriteBehindDBTest {
+
+	private DB direct;
+	private WriteBehindDB buffered;
+	private Container container;
+
+	@BeforeEach
+	void setUp() {
+		direct = new DB();
+		// Long interval so the test decides when edits are written
+		buffered = new WriteBehindDB(60_000);
+		container = new Container("Prep Station");
+		direct.putContainer(container.getName());
+		direct.addItem(container, "Eggs", Item.getInstance("Eggs", 12, "12-APR-2030"));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		buffered.close();
+		direct.replaceItemTag("Eggs", "");
+		direct.replaceNote("Eggs", "");
+		direct.removeContainer(container.getName());
+	}
+
+	@Test
+	void testQuantityEditsAreCoalesced() {
+		for (int i = 11; i >= 6; i--) {
+			buffered.updateQuantity("Eggs", i, container);
+		}
+
+		assertEquals(1, buffered.getPendingCount(), "Edits to one item should collapse into one.");
+		assertEquals(6, buffered.getItem(container, "Eggs").getQuantity(), "Reads should see the pending value.");
+		assertEquals(6, buffered.retrieveItems(container).get(0).getQuantity());
+		assertEquals(12, direct.getItem(container, "Eggs").getQuantity(), "Nothing is written before a flush.");
+
+		assertTrue(buffered.flush());
+		assertEquals(0, buffered.getPendingCount());
+		assertEquals(6, direct.getItem(container, "Eggs").getQuantity());
+	}
+
+	@Test
+	void testTagAndNoteEditsAreBuffered() {
+		buffered.replaceItemTag("Eggs", "Breakfast");
+		buffered.replaceItemTag("Eggs", "Baking");
+		buffered.replaceNote("Eggs", "Free range");
+
+		assertEquals("Baking", buffered.getItemTag("Eggs"));
+		assertEquals("Free range", buffered.retrieveAnnotatedItems(container).get(0).getCustomNote());
+		assertNull(direct.getItemTag("Eggs"));
+
+		buffered.close();
+		assertEquals("Baking", direct.getItemTag("Eggs"));
+		assertEquals("Free range", direct.getNote("Eggs"));
+	}
+
+	@Test
+	void testRemovingAnItemFlushesFirst() {
+		buffered.updateQuantity("Eggs", 3, container);
+		buffered.removeItem(container, "Eggs");
+
+		assertEquals(0, buffered.getPendingCount());
+		assertNull(direct.getItem(container, "Eggs"));
+	}
+
+	@Test
+	void testWritesArePublished() throws Exception {
+		BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<ChangeEvent>();
+		AutoCloseable subscription = buffered.getChangeBus().subscribe(events::add);
+
+		buffered.updateQuantity("Eggs", 4, container);
+		ChangeEvent quantity = events.poll(5, TimeUnit.SECONDS);
+		assertEquals(4, quantity.getQuantity(), "A buffered edit is published when it is buffered.");
+
+		buffered.removeItem(container, "Eggs");
+		ChangeEvent removed = events.poll(5, TimeUnit.SECONDS);
+		assertEquals(ChangeEvent.Action.REMOVED, removed.getAction(), "The flush itself publishes nothing.");
+		assertEquals("Eggs", removed.getName());
+		assertEquals(container.getName(), removed.getContainer());
+
+		buffered.removeItem(container, "Eggs");
+		assertNull(events.poll(200, TimeUnit.MILLISECONDS), "Removing a missing item changes nothing.");
+		subscription.close();
+	}
+}
@@ -0,0 +1,131 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import database.ChangeBus;
+import database.ChangeEvent;
+import database.ChangeEvent.Action;
+import database.ChangeEvent.Target;
+import database.MemoryStorage;
+import domain.logic.container.Container;
+import domain.logic.item.FoodFreshness;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+
+class ChangeBusTest {
+
+	private static ChangeEvent next(BlockingQueue<ChangeEvent> events) throws InterruptedException {
+		ChangeEvent e = events.poll(5, TimeUnit.SECONDS);
+		assertTrue(e != null, "An event should be delivered.");
+		return e;
+	}
+
+	@Test
+	void testStorageWritesArePublishedInOrder() throws Exception {
+		MemoryStorage db = new MemoryStorage();
+		BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<ChangeEvent>();
+		db.getChangeBus().subscribe(events::add);
+		Container fridge = new Container("Fridge");
+
+		db.addContainer("Fridge", fridge);
+		db.addItems(fridge, Arrays.asList(Item.getInstance("Milk", 2, "12-APR-2030"),
+				Item.getInstance("Milk", 3, "12-APR-2030")));
+		db.updateQuantity("Milk", 1, fridge);
+		db.updateQuantity("Cheese", 1, fridge);
+		db.updateItemFoodGroup(fridge, "Milk", FoodGroup.DAIRY);
+		db.replaceItemTag("Milk", "");
+		db.addToGroceryList("Eggs");
+		db.setFontsize(20);
+		db.removeContainer("Fridge");
+
+		ChangeEvent added = next(events);
+		assertEquals(Target.CONTAINER, added.getTarget());
+		assertEquals(Action.ADDED, added.getAction());
+
+		ChangeEvent item = next(events);
+		assertEquals(Action.ADDED, item.getAction(), "Only the stored duplicate is published.");
+		assertEquals("Fridge", item.getContainer());
+		assertEquals(2, item.getItem().getQuantity());
+		assertEquals(FoodFreshness.FRESH, item.getItem().getFoodFreshnessTag().getTag());
+
+		ChangeEvent quantity = next(events);
+		assertEquals(Action.UPDATED, quantity.getAction());
+		assertEquals(1, quantity.getQuantity(), "An update of a missing item is not published.");
+		assertEquals(FoodGroup.DAIRY, next(events).getFoodGroup());
+
+		ChangeEvent tag = next(events);
+		assertEquals(Target.TAG, tag.getTarget());
+		assertEquals(Action.REMOVED, tag.getAction(), "An empty tag removes it.");
+		assertEquals(Target.GROCERY, next(events).getTarget());
+		ChangeEvent setting = next(events);
+		assertEquals(ChangeEvent.FONT_SIZE, setting.getName());
+		assertEquals("20", setting.getValue());
+
+		ChangeEvent removed = next(events);
+		assertEquals(Target.CONTAINER, removed.getTarget());
+		assertEquals(Action.REMOVED, removed.getAction());
+		assertTrue(removed.affectsItemsOf("Fridge"));
+		assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void testSlowSubscriberIsToldToReload() throws Exception {
+		ChangeBus bus = new ChangeBus(2);
+		CountDownLatch release = new CountDownLatch(1);
+		List<ChangeEvent> slow = new ArrayList<ChangeEvent>();
+		CountDownLatch reloaded = new CountDownLatch(1);
+		CountDownLatch slowDone = new CountDownLatch(1);
+		bus.subscribe(e -> {
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (slow) {
+				slow.add(e);
+			}
+			if (e.getTarget() == Target.PANTRY) {
+				reloaded.countDown();
+			} else if ("last".equals(e.getName())) {
+				slowDone.countDown();
+			}
+		});
+		BlockingQueue<ChangeEvent> fast = new LinkedBlockingQueue<ChangeEvent>();
+		AutoCloseable fastSubscription = bus.subscribe(fast::add);
+
+		for (int i = 0; i < 20; i++) {
+			bus.publish(ChangeEvent.groceryAdded("Item " + i));
+			assertEquals("Item " + i, next(fast).getName(), "A slow subscriber does not hold up the others.");
+		}
+		release.countDown();
+		assertTrue(reloaded.await(5, TimeUnit.SECONDS), "A subscriber that missed events is told to reload.");
+		bus.publish(ChangeEvent.groceryAdded("last"));
+		assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+
+		synchronized (slow) {
+			assertTrue(slow.size() < 20, "Events beyond the queue are dropped.");
+			assertEquals(Target.PANTRY, slow.get(slow.size() - 2).getTarget(),
+					"The reload comes after the events queued before the gap.");
+			for (int i = 0; i < slow.size() - 2; i++) {
+				assertEquals("Item " + i, slow.get(i).getName(), "Queued events keep their order.");
+			}
+		}
+
+		assertEquals("last", next(fast).getName());
+		fastSubscription.close();
+		bus.publish(ChangeEvent.groceryRemoved("Eggs"));
+		assertNull(fast.poll(100, TimeUnit.MILLISECONDS), "A closed subscription gets nothing.");
+	}
+}
@@ -7,11 +7,17 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.swing.JButton;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import database.ChangeBus;
+import database.StubDB;
 import domain.logic.container.Container;
+import domain.logic.container.ContainerUtility;
 import domain.logic.item.Item;
 
 public class ContainerTest {
@@ -82,4 +88,55 @@ public class ContainerTest {
 		container.setName(newName);
 		assertEquals(newName, container.getName(), "Container name should be updated correctly");
 	}
-}
\ No newline at end of file
+
+	/**
+	 * A container whose view follows a change bus, like the item list of a
+	 * container shown on the home screen.
+	 */
+	private static class FollowingContainer extends Container {
+		private final AutoCloseable subscription;
+
+		FollowingContainer(String name, ChangeBus bus) {
+			super(name);
+			subscription = bus.subscribe(e -> {
+			});
+		}
+
+		@Override
+		public void close() {
+			try {
+				subscription.close();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Test
+	void testRebuildingTheContainerMapDoesNotAddSubscribers() {
+		StubDB data = new StubDB();
+		ChangeBus bus = data.getChangeBus();
+		ConcurrentHashMap<JButton, Container> map = new ConcurrentHashMap<JButton, Container>();
+		map.put(new JButton("Fridge"), new FollowingContainer("Fridge", bus));
+		map.put(new JButton("Freezer"), new FollowingContainer("Freezer", bus));
+		JButton pantry = new JButton("Pantry");
+		map.put(pantry, new FollowingContainer("Pantry", bus));
+		assertEquals(3, bus.getSubscriberCount());
+
+		for (int i = 0; i < 3; i++) {
+			ContainerUtility.syncContainers(map, Arrays.asList("Fridge", "Freezer", "Pantry"), null);
+		}
+		assertEquals(3, bus.getSubscriberCount(), "Containers that are kept should keep their one subscription");
+
+		ContainerUtility.syncContainers(map, Arrays.asList("Fridge", "Pantry"), null);
+		assertEquals(2, map.size());
+		assertEquals(2, bus.getSubscriberCount(), "A dropped container should stop following the storage");
+
+		data.putContainer("Pantry");
+		ContainerUtility.verifyDeleteContainer("Pantry", data, pantry, map, e -> {
+		}, () -> {
+		});
+		assertEquals(1, map.size());
+		assertEquals(1, bus.getSubscriberCount(), "A deleted container should stop following the storage");
+	}
+}
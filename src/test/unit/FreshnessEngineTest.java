@@ -0,0 +1,49 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import database.StubDB;
+import domain.logic.item.FreshnessEngine;
+
+class FreshnessEngineTest {
+
+	/**
+	 * A database whose freshness update fails until it is told otherwise.
+	 */
+	private static class FailingDB extends StubDB {
+		boolean failing = true;
+		int refreshes = 0;
+
+		@Override
+		public int refreshFreshness() {
+			refreshes++;
+			return failing ? -1 : super.refreshFreshness();
+		}
+	}
+
+	@Test
+	void testFailedRefreshIsReportedAndRetried() {
+		FailingDB db = new FailingDB();
+		FreshnessEngine engine = new FreshnessEngine(db);
+
+		assertFalse(engine.refreshIfStale(), "A failed recomputation should not report freshness as current.");
+		db.failing = false;
+		assertTrue(engine.refreshIfStale());
+		assertEquals(2, db.refreshes, "A failed recomputation should be tried again.");
+	}
+
+	@Test
+	void testRefreshRunsOncePerDay() {
+		FailingDB db = new FailingDB();
+		db.failing = false;
+		FreshnessEngine engine = new FreshnessEngine(db);
+
+		assertTrue(engine.refreshIfStale());
+		assertTrue(engine.refreshIfStale());
+		assertEquals(1, db.refreshes);
+	}
+}
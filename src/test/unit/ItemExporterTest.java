@@ -0,0 +1,64 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import database.StubDB;
+import domain.logic.container.Container;
+import domain.logic.item.ImportReport;
+import domain.logic.item.Item;
+import domain.logic.item.ItemExporter;
+import domain.logic.item.ItemImporter;
+
+class ItemExporterTest {
+
+	@Test
+	void testExportedItemsCanBeImported() throws IOException {
+		StubDB db = new StubDB();
+		Container fridge = new Container("Fridge");
+		db.addContainer("Fridge", fridge);
+		db.addItem(fridge, "Milk", Item.getInstance("Milk", 1, "01-Jan-2099"));
+		db.addItem(fridge, "Ben & Jerry's, Vanilla", Item.getInstance("Ben & Jerry's, Vanilla", 2, "01-Jan-2099"));
+
+		StringWriter out = new StringWriter();
+		assertEquals(2, new ItemExporter(db).exportItems(out));
+		String csv = out.toString();
+		assertTrue(csv.startsWith("name,container,quantity,expiry"), csv);
+		assertTrue(csv.contains("\"Ben & Jerry's, Vanilla\",Fridge,2,01-Jan-2099"), csv);
+
+		StubDB copy = new StubDB();
+		ImportReport report = new ItemImporter(copy).importFrom(new BufferedReader(new StringReader(csv)), ',');
+		assertEquals(2, report.getImportedCount(), report.toString());
+		assertEquals(2, copy.getItem(fridge, "Ben & Jerry's, Vanilla").getQuantity());
+	}
+
+	@Test
+	void testExportLargerThanOneChunk() throws IOException {
+		StubDB db = new StubDB();
+		int count = ItemExporter.CHUNK_SIZE * 2 + 5;
+		for (int i = 0; i < count; i++) {
+			db.addToGroceryList("Item " + i);
+		}
+
+		Path file = Files.createTempFile("grocery", ".txt");
+		try {
+			assertEquals(count, new ItemExporter(db).exportGroceryList(file));
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			assertEquals(count, lines.size());
+			assertTrue(lines.contains("Item " + (count - 1)));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import database.StubDB;
+import domain.logic.container.Container;
+import domain.logic.item.ImportReport;
+import domain.logic.item.ItemImporter;
+
+class ItemImporterTest {
+
+	private static BufferedReader reader(String text) {
+		return new BufferedReader(new StringReader(text));
+	}
+
+	@Test
+	void testImportCsv() throws IOException {
+		StubDB db = new StubDB();
+		String csv = "container,name,quantity,expiry\n"
+				+ "Fridge,Milk,1,01-Jan-2099\n"
+				+ "Fridge,\"Ben & Jerry's, Vanilla\",2,01-Jan-2099\n"
+				+ "Pantry,Rice,0,01-Jan-2099\n"
+				+ "\n"
+				+ "Pantry,Beans,3,2099-01-01\n"
+				+ "Fridge,Milk,4,01-Jan-2099\n"
+				+ ",Bread,1,01-Jan-2099\n";
+
+		ImportReport report = new ItemImporter(db).importFrom(reader(csv), ',');
+
+		assertEquals(6, report.getRowCount());
+		assertEquals(2, report.getImportedCount());
+		assertNotNull(db.getItem(new Container("Fridge"), "Ben & Jerry's, Vanilla"));
+
+		List<ImportReport.RejectedRow> rejected = report.getRejected();
+		assertEquals(4, rejected.size());
+		assertEquals(4, rejected.get(0).getLine());
+		assertEquals(6, rejected.get(1).getLine());
+		assertEquals(7, rejected.get(2).getLine());
+		assertEquals(8, rejected.get(3).getLine());
+	}
+
+	@Test
+	void testImportTsv() throws IOException {
+		StubDB db = new StubDB();
+		String tsv = "name\tquantity\texpiry\tcontainer\tnotes\n"
+				+ "Apple\t5\t01-Jan-2099\tFruit Bowl\tfrom the market\n";
+
+		ImportReport report = new ItemImporter(db).importFrom(reader(tsv), '\t');
+
+		assertEquals(1, report.getImportedCount());
+		assertEquals(5, db.getItem(new Container("Fruit Bowl"), "Apple").getQuantity());
+	}
+
+	@Test
+	void testMissingColumn() {
+		StubDB db = new StubDB();
+		assertThrows(IOException.class,
+				() -> new ItemImporter(db).importFrom(reader("name,quantity,expiry\nApple,1,01-Jan-2099\n"), ','));
+	}
+}
@@ -3,13 +3,20 @@ package test.unit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import database.StubDB;
 import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
 import domain.logic.item.Item;
 import domain.logic.item.ItemUtility;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
+import javax.swing.table.DefaultTableModel;
+
 public class ItemUtilityTest {
     private Container testContainer;
     private String existingItemName = "TestItem";
@@ -95,4 +102,43 @@ public class ItemUtilityTest {
     }
 
 
+
+    @Test
+    void testVerifyAddItemsReportsEachRow() {
+        StubDB db = new StubDB();
+        Container c = new Container("Pantry");
+        List<String[]> rows = Arrays.asList(
+                new String[] { "Rice", "2", "1-jan-2099" },
+                new String[] { "", "2", "1-jan-2099" },
+                new String[] { "Rice", "1", "1-jan-2099" },
+                new String[] { "Beans", "3", "1-jan-2099" });
+        List<String> errors = new ArrayList<>();
+
+        List<AddItemOutcome> outcomes = ItemUtility.verifyAddItems(c, rows, db, errors::add);
+
+        assertEquals(Arrays.asList(AddItemOutcome.ADDED, AddItemOutcome.INVALID, AddItemOutcome.DUPLICATE,
+                AddItemOutcome.ADDED), outcomes);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Row 2: "));
+        assertEquals(2, c.getItems().size());
+    }
+
+    @Test
+    void testInitItemsKeepsRowsWhenItemsCannotBeRead() {
+        StubDB db = new StubDB();
+        Container c = new Container("Pantry");
+        db.addItem(c, "Rice", Item.getInstance("Rice", 2, "1-jan-2099"));
+        DefaultTableModel model = new DefaultTableModel(new Object[] { "Name", "Quantity", "Expiry", "Group", "Freshness", "Tag" }, 0);
+        ItemUtility.initItems(c, model, db);
+        assertEquals(1, model.getRowCount());
+
+        StubDB unreachable = new StubDB() {
+            @Override
+            public List<Item> retrieveAnnotatedItems(Container container) {
+                return null;
+            }
+        };
+        ItemUtility.initItems(c, model, unreachable);
+        assertEquals(1, model.getRowCount(), "The painted rows should stay when the items cannot be read.");
+    }
 }
@@ -0,0 +1,240 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import database.MemoryStorage;
+import database.Storage;
+import domain.logic.container.Container;
+import domain.logic.item.AddItemOutcome;
+import domain.logic.item.FoodFreshness;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+import domain.logic.item.ItemPage;
+import domain.logic.item.ItemQuery;
+import domain.logic.item.ItemSort;
+
+class MemoryStorageTest {
+
+	private static Date inDays(int days) {
+		return Date.from(LocalDate.now().plusDays(days).atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	@Test
+	void testSameItemNameInTwoContainers() {
+		Storage db = new MemoryStorage();
+		Container fridge = new Container("Fridge");
+		Container pantry = new Container("Pantry");
+		db.addContainer("Fridge", fridge);
+		db.addContainer("Pantry", pantry);
+
+		assertTrue(db.addItem(fridge, "Milk", Item.getInstance("Milk", 1, inDays(3))));
+		assertTrue(db.addItem(pantry, "Milk", Item.getInstance("Milk", 2, inDays(30))));
+		assertFalse(db.addItem(fridge, "Milk", Item.getInstance("Milk", 5, inDays(3))));
+
+		assertEquals(1, db.getItem(fridge, "Milk").getQuantity());
+		assertEquals(2, db.getItem(pantry, "Milk").getQuantity());
+		assertFalse(db.addItem(new Container("Missing"), "Milk", Item.getInstance("Milk", 1, inDays(3))),
+				"Items can only be added to stored containers.");
+	}
+
+	@Test
+	void testFreshnessComputedFromExpiry() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		db.addItems(c, Arrays.asList(Item.getInstance("Old", 1, inDays(-1)), Item.getInstance("Soon", 1, inDays(2)),
+				Item.getInstance("Later", 1, inDays(20))));
+
+		assertEquals(FoodFreshness.EXPIRED, db.getItem(c, "Old").getFoodFreshnessTag().getTag());
+		assertEquals(FoodFreshness.NEAR_EXPIRY, db.getItem(c, "Soon").getFoodFreshnessTag().getTag());
+		assertEquals(FoodFreshness.FRESH, db.getItem(c, "Later").getFoodFreshnessTag().getTag());
+		assertEquals(List.of("Soon - Shelf"), db.getExpiringItems());
+		assertEquals(0, db.refreshFreshness(), "Nothing changed since the items were added.");
+	}
+
+	@Test
+	void testAddItemsOutcomes() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		db.addItem(c, "Rice", Item.getInstance("Rice", 1, inDays(100)));
+
+		List<AddItemOutcome> outcomes = db.addItems(c, Arrays.asList(Item.getInstance("Rice", 1, inDays(100)),
+				Item.getInstance("Beans", 1, inDays(100)), Item.getInstance("Beans", 2, inDays(100)),
+				null));
+
+		assertEquals(Arrays.asList(AddItemOutcome.DUPLICATE, AddItemOutcome.ADDED, AddItemOutcome.DUPLICATE,
+				AddItemOutcome.INVALID), outcomes);
+		assertEquals(2, db.retrieveItems(c).size());
+	}
+
+	@Test
+	void testReadsReturnCopies() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		db.addItem(c, "Rice", Item.getInstance("Rice", 1, inDays(100)));
+
+		Item first = db.getItem(c, "Rice");
+		first.setQuantity(50);
+
+		assertNotSame(first, db.getItem(c, "Rice"));
+		assertEquals(1, db.getItem(c, "Rice").getQuantity());
+		db.updateQuantity("Rice", 7, c);
+		assertEquals(7, db.getItem(c, "Rice").getQuantity());
+	}
+
+	@Test
+	void testContainerRemovalAndRename() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		db.addItem(c, "Rice", Item.getInstance("Rice", 1, inDays(100)));
+
+		db.editContainer("Shelf", "Cupboard");
+		assertTrue(db.findContainer("Shelf"), "A container with items keeps its name.");
+
+		db.emptyContainer(c);
+		db.editContainer("Shelf", "Cupboard");
+		assertEquals(List.of("Cupboard"), db.retrieveContainers());
+
+		Container cupboard = new Container("Cupboard");
+		db.addItem(cupboard, "Rice", Item.getInstance("Rice", 1, inDays(100)));
+		db.removeContainer("Cupboard");
+		assertTrue(db.retrieveContainers().isEmpty());
+		assertNull(db.getItem(cupboard, "Rice"));
+	}
+
+	@Test
+	void testTagsNotesAndGroceries() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		db.addItem(c, "Rice", Item.getInstance("Rice", 1, inDays(100)));
+
+		db.replaceItemTag("Rice", "Bulk");
+		db.addNote("Rice", "Top shelf");
+		db.addNote("Rice", "Use first");
+		Item annotated = db.retrieveAnnotatedItems(c).get(0);
+		assertEquals("Bulk", annotated.getCustomTag());
+		assertEquals("Top shelf\nUse first", annotated.getCustomNote());
+
+		db.replaceNote("Rice", "");
+		assertEquals("", db.getNote("Rice"));
+		assertTrue(db.removeItemTag("Rice"));
+		assertNull(db.getItemTag("Rice"));
+
+		db.addToGroceryList("Milk");
+		db.addToGroceryList("Eggs");
+		db.removeFromGroceryList("Milk");
+		assertEquals(1, db.getAllGroceryItems().length);
+		assertEquals("Eggs", db.getAllGroceryItems()[0][0]);
+	}
+
+	@Test
+	void testFoodGroupCountsAndPaging() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		for (int i = 0; i < 5; i++) {
+			db.addItem(c, "Item " + i, Item.getInstance("Item " + i, 1, inDays(10 + i)));
+		}
+		db.updateItemFoodGroup(c, "Item 3", FoodGroup.DAIRY);
+
+		assertEquals(1, db.getFoodGroupCounts("Shelf").get(FoodGroup.DAIRY));
+		assertEquals(0, db.getFoodGroupCounts(null).get(FoodGroup.GRAIN));
+
+		ItemPage page = db.queryItems(new ItemQuery("Shelf").sortBy(ItemSort.FOOD_GROUP).pageSize(2));
+		assertEquals("Item 3", page.getRows().get(0).getItem().getName());
+		page = db.nextPage(db.nextPage(page));
+		assertFalse(page.hasNext());
+		assertEquals(1, page.getRows().size());
+		assertEquals("Item 4", page.getRows().get(0).getItem().getName());
+	}
+
+	@Test
+	void testSettings() {
+		Storage db = new MemoryStorage();
+		db.setFontsize(20);
+		db.setNotificationBoolean(false);
+
+		assertEquals("20", db.getSettings()[0]);
+		assertEquals("false", db.getSettings()[1]);
+	}
+
+	@Test
+	void testIndexesFollowUpdates() {
+		Storage db = new MemoryStorage();
+		Container c = new Container("Shelf");
+		db.addContainer("Shelf", c);
+		db.addItem(c, "Yogurt", Item.getInstance("Yogurt", 1, inDays(1)));
+		db.updateItemFoodGroup(c, "Yogurt", FoodGroup.DAIRY);
+		db.updateItemFoodGroup(c, "Yogurt", FoodGroup.PROTEIN);
+
+		assertEquals(0, db.getFoodGroupCounts(null).get(FoodGroup.DAIRY));
+		assertEquals(1, db.getFoodGroupCounts(null).get(FoodGroup.PROTEIN));
+		assertEquals(1, db.queryItems(new ItemQuery().freshness(FoodFreshness.NEAR_EXPIRY)).getRows().size());
+
+		db.removeItem(c, "Yogurt");
+		assertEquals(0, db.getFoodGroupCounts(null).get(FoodGroup.PROTEIN));
+		assertTrue(db.getExpiringItems().isEmpty());
+	}
+
+	@Test
+	void testConcurrentWritersKeepIndexesConsistent() throws InterruptedException {
+		Storage db = new MemoryStorage();
+		int threads = 8;
+		int perThread = 500;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			pool.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				// Every thread writes to the same few containers
+				for (int i = 0; i < perThread; i++) {
+					Container c = new Container("Box " + (i % 4));
+					db.putContainer(c.getName());
+					String name = "Item " + id + "-" + i;
+					db.addItem(c, name, Item.getInstance(name, 1, inDays(i % 3 == 0 ? 2 : 30)));
+					db.updateItemFoodGroup(c, name, FoodGroup.GRAIN);
+					if (i % 2 == 0) {
+						db.removeItem(c, name);
+					}
+				}
+			});
+		}
+		start.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+		int stored = 0;
+		for (String name : db.retrieveContainers()) {
+			stored += db.retrieveItems(new Container(name)).size();
+		}
+		assertEquals(threads * perThread / 2, stored);
+		assertEquals(stored, db.getFoodGroupCounts(null).get(FoodGroup.GRAIN));
+		assertEquals(stored, db.queryItems(new ItemQuery().pageSize(10000)).getRows().size());
+	}
+
+}
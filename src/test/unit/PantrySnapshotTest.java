@@ -0,0 +1,138 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import database.MemoryStorage;
+import database.PantrySnapshot;
+import database.Storage;
+import domain.logic.container.Container;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+
+class PantrySnapshotTest {
+
+	private static Date day(int year, int month, int day) {
+		return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	private static Storage sample() {
+		Storage db = new MemoryStorage();
+		Container fridge = new Container("Fridge");
+		Container pantry = new Container("Pantry");
+		db.addContainer("Fridge", fridge);
+		db.addContainer("Pantry", pantry);
+		db.addContainer("Empty", new Container("Empty"));
+		db.addItems(fridge, Arrays.asList(Item.getInstance("Milk", 2, day(2030, 4, 12)),
+				Item.getInstance("Cr\u00e8me fra\u00eeche", 1, day(1965, 1, 1))));
+		db.addItem(pantry, "Rice", Item.getInstance("Rice", 100000, day(2031, 12, 31)));
+		db.updateItemFoodGroup(fridge, "Milk", FoodGroup.DAIRY);
+		db.replaceItemTag("Rice", "Bulk");
+		db.replaceNote("Milk", "Top shelf\nUse first");
+		db.addToGroceryList("Eggs");
+		db.setFontsize(24);
+		db.setNotificationBoolean(false);
+		return db;
+	}
+
+	private static byte[] write(Storage db) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PantrySnapshot.write(db, out);
+		return out.toByteArray();
+	}
+
+	@Test
+	void testRoundTrip() throws IOException {
+		Storage restored = new MemoryStorage();
+		assertEquals(3, PantrySnapshot.restore(ByteBuffer.wrap(write(sample())), restored));
+
+		assertEquals(List.of("Empty", "Fridge", "Pantry"), restored.retrieveContainers());
+		Container fridge = new Container("Fridge");
+		Item milk = restored.getItem(fridge, "Milk");
+		assertEquals(2, milk.getQuantity());
+		assertEquals(day(2030, 4, 12), milk.getExpiryDate());
+		assertEquals(FoodGroup.DAIRY, milk.getFoodGroupTag().getTag());
+		assertEquals(day(1965, 1, 1), restored.getItem(fridge, "Cr\u00e8me fra\u00eeche").getExpiryDate(),
+				"Dates before 1970 are negative epoch days.");
+		assertEquals(100000, restored.getItem(new Container("Pantry"), "Rice").getQuantity());
+		assertNull(restored.getItem(new Container("Pantry"), "Rice").getFoodGroupTag());
+
+		assertEquals("Bulk", restored.getItemTag("Rice"));
+		assertEquals("Top shelf\nUse first", restored.getNote("Milk"));
+		assertEquals("Eggs", restored.getAllGroceryItems()[0][0]);
+		assertEquals("24", restored.getSettings()[0]);
+		assertEquals("false", restored.getSettings()[1]);
+	}
+
+	@Test
+	void testMissingSettingsAreLeftOut() throws IOException {
+		Storage source = new MemoryStorage() {
+			@Override
+			public String[] getSettings() {
+				return new String[2];
+			}
+		};
+		source.addContainer("Fridge", new Container("Fridge"));
+		source.addItem(new Container("Fridge"), "Milk", Item.getInstance("Milk", 2, day(2030, 4, 12)));
+
+		Storage restored = new MemoryStorage();
+		assertEquals(1, PantrySnapshot.restore(ByteBuffer.wrap(write(source)), restored));
+		assertEquals("14", restored.getSettings()[0], "The target keeps its default settings.");
+	}
+
+	@Test
+	void testRestoreKeepsStoredItems() throws IOException {
+		Storage target = new MemoryStorage();
+		Container fridge = new Container("Fridge");
+		target.addContainer("Fridge", fridge);
+		target.addItem(fridge, "Milk", Item.getInstance("Milk", 9, day(2030, 1, 1)));
+
+		assertEquals(2, PantrySnapshot.restore(ByteBuffer.wrap(write(sample())), target));
+		assertEquals(9, target.getItem(fridge, "Milk").getQuantity());
+		assertNull(target.getItem(fridge, "Milk").getFoodGroupTag(), "Only added items take the snapshot's group.");
+	}
+
+	@Test
+	void testSaveAndLoadFile(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("pantry.snapshot");
+		assertEquals(3, PantrySnapshot.save(sample(), file));
+		assertEquals(3, PantrySnapshot.save(sample(), file), "An existing snapshot is replaced.");
+
+		MemoryStorage loaded = PantrySnapshot.load(file);
+		assertEquals(1, loaded.retrieveItems(new Container("Pantry")).size());
+		assertEquals(List.of(file), Files.list(dir).toList(), "No temporary file is left behind.");
+	}
+
+	@Test
+	void testRejectsBadInput() throws IOException {
+		byte[] snapshot = write(sample());
+
+		byte[] badMagic = snapshot.clone();
+		badMagic[0] = 'X';
+		assertThrows(IOException.class, () -> PantrySnapshot.restore(ByteBuffer.wrap(badMagic), new MemoryStorage()));
+
+		byte[] newer = snapshot.clone();
+		newer[5] = (byte) (PantrySnapshot.VERSION + 1);
+		assertThrows(IOException.class, () -> PantrySnapshot.restore(ByteBuffer.wrap(newer), new MemoryStorage()));
+
+		byte[] truncated = Arrays.copyOf(snapshot, snapshot.length - 3);
+		assertThrows(IOException.class,
+				() -> PantrySnapshot.restore(ByteBuffer.wrap(truncated), new MemoryStorage()));
+	}
+
+}
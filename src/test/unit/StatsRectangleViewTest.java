@@ -0,0 +1,32 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+import domain.logic.statistics.StatsSnapshot;
+import gui.statistics.StatsRectangleView;
+
+class StatsRectangleViewTest {
+
+	@Test
+	void testChartIsDrawnOncePerSnapshot() {
+		StatsRectangleView view = new StatsRectangleView("Fridge");
+		BufferedImage screen = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = screen.createGraphics();
+		try {
+			StatsSnapshot first = StatsSnapshot.empty("Fridge");
+			view.paintChart(g, first, 800, 600, 12);
+			view.paintChart(g, first, 800, 600, 12);
+			assertEquals(1, view.getRenderCount(), "Repainting the same snapshot should reuse the chart.");
+
+			view.paintChart(g, StatsSnapshot.empty("Fridge"), 800, 600, 12);
+			assertEquals(2, view.getRenderCount(), "A new snapshot should be drawn again.");
+		} finally {
+			g.dispose();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumMap;
+
+import org.junit.jupiter.api.Test;
+
+import database.StubDB;
+import domain.logic.container.Container;
+import domain.logic.item.FoodFreshness;
+import domain.logic.item.FoodGroup;
+import domain.logic.item.Item;
+import domain.logic.statistics.StatsSnapshot;
+import domain.logic.statistics.StatsUtilities;
+
+class StatsUtilitiesTest {
+
+	@Test
+	void testSharesFromCounts() {
+		EnumMap<FoodGroup, Integer> counts = new EnumMap<>(FoodGroup.class);
+		counts.put(FoodGroup.GRAIN, 3);
+		counts.put(FoodGroup.DAIRY, 1);
+
+		EnumMap<FoodGroup, Double> shares = StatsUtilities.getShares(counts);
+
+		assertEquals(4, StatsUtilities.getTotal(counts));
+		assertEquals(0.75, shares.get(FoodGroup.GRAIN));
+		assertEquals(0.0, shares.get(FoodGroup.FRUIT));
+		assertEquals("75.0", StatsUtilities.getPercent(shares, FoodGroup.GRAIN));
+		assertEquals("25.0", StatsUtilities.getPercent(shares, FoodGroup.DAIRY));
+	}
+
+	@Test
+	void testNoItems() {
+		EnumMap<FoodGroup, Double> shares = StatsUtilities.getShares(new EnumMap<>(FoodGroup.class));
+
+		assertEquals(FoodGroup.values().length, shares.size());
+		assertEquals("0.0", StatsUtilities.getPercent(shares, FoodGroup.PROTEIN));
+	}
+
+	@Test
+	void testSnapshotFromDatabase() {
+		StubDB db = new StubDB();
+		db.putContainer("Fridge");
+		db.putContainer("Shelf");
+		Container fridge = new Container("Fridge");
+		Container shelf = new Container("Shelf");
+		db.addItem(fridge, "Milk", Item.getInstance("Milk", FoodGroup.DAIRY, FoodFreshness.FRESH, 1, "12-APR-2030"));
+		db.addItem(fridge, "Apple", Item.getInstance("Apple", FoodGroup.FRUIT, FoodFreshness.FRESH, 1, "12-APR-2030"));
+		db.addItem(shelf, "Rice", Item.getInstance("Rice", FoodGroup.GRAIN, FoodFreshness.FRESH, 1, "12-APR-2030"));
+
+		StatsSnapshot first = StatsSnapshot.compute(db, "Fridge");
+		StatsSnapshot second = StatsSnapshot.compute(db, "Shelf");
+
+		assertEquals(3, first.getAllTotal());
+		assertEquals(2, first.getContainerTotal());
+		assertEquals(0.5, first.getContainerShares().get(FoodGroup.DAIRY));
+		assertEquals(1.0, second.getContainerShares().get(FoodGroup.GRAIN));
+		assertTrue(second.getVersion() > first.getVersion());
+	}
+}
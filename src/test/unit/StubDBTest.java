@@ -17,7 +17,7 @@ class StubDBTest {
 
 		db.putContainer("NewContainer");
 
-		int size = db.containerMap.size();
+		int size = db.retrieveContainers().size();
 		assertEquals(size, 1);
 		assertTrue(db.findContainer("NewContainer"));
 
@@ -30,7 +30,7 @@ class StubDBTest {
 		db.putContainer("MainPantry");
 		db.removeContainer("NewContainer");
 
-		int size = db.containerMap.size();
+		int size = db.retrieveContainers().size();
 		assertEquals(size, 1);
 		assertFalse(db.findContainer("NewContainer"));
 		assertTrue(db.findContainer("MainPantry"));
@@ -59,7 +59,7 @@ class StubDBTest {
 
 		Item a = db.getItem(c, "Cheese");
 
-		int size = db.itemMap.size();
+		int size = db.retrieveItems(c).size();
 
 		assertEquals(a, ite);
 		assertEquals(1, size);
@@ -76,7 +76,7 @@ class StubDBTest {
 
 		db.removeItem(c, "Cheese2");
 
-		int size = db.itemMap.size();
+		int size = db.retrieveItems(c).size();
 
 		assertEquals(4, size);
 	}
@@ -85,8 +85,7 @@ class StubDBTest {
 	void getContainerNothing() {
 
 		StubDB db = new StubDB();
-		db.retrieveContainers();
-		assertNull(db.retrieveContainers());
+		assertTrue(db.retrieveContainers().isEmpty());
 
 	}
 
@@ -114,14 +113,44 @@ class StubDBTest {
 
 		StubDB db = new StubDB();
 		db.addToGroceryList("Cheese");
-		assertEquals(db.groceryList.size(), 1);
+		assertEquals(db.getAllGroceryItems().length, 1);
 
 		db.removeFromGroceryList("Grapes");
-		assertEquals(db.groceryList.size(), 1);
+		assertEquals(db.getAllGroceryItems().length, 1);
 
 		db.removeFromGroceryList("Cheese");
-		assertEquals(db.groceryList.size(), 0);
+		assertEquals(db.getAllGroceryItems().length, 0);
 
 	}
 
+	@Test
+	void testSameItemInTwoContainers() {
+		StubDB db = new StubDB();
+		Container fridge = new Container("Fridge");
+		Container pantry = new Container("Pantry");
+		db.addItem(fridge, "Cheese", Item.getInstance("Cheese", 1, "12-APR-2030"));
+		db.addItem(pantry, "Cheese", Item.getInstance("Cheese", 2, "12-APR-2030"));
+
+		db.removeItem(fridge, "Cheese");
+
+		assertNull(db.getItem(fridge, "Cheese"));
+		assertEquals(2, db.getItem(pantry, "Cheese").getQuantity());
+	}
+
+	@Test
+	void testEmptyContainerLeavesOthers() {
+		StubDB db = new StubDB();
+		Container fridge = new Container("Fridge");
+		Container pantry = new Container("Pantry");
+		db.addItem(fridge, "Milk", Item.getInstance("Milk", 1, "12-APR-2030"));
+		db.addItem(pantry, "Rice", Item.getInstance("Rice", 1, "12-APR-2030"));
+
+		db.emptyContainer(fridge);
+
+		assertTrue(db.retrieveItems(fridge).isEmpty());
+		assertTrue(fridge.getItems().isEmpty());
+		assertEquals(1, db.retrieveItems(pantry).size());
+		assertEquals(2, db.retrieveContainers().size());
+	}
+
 }
@@ -0,0 +1,93 @@
+package test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import database.WriteJournal;
+import database.WriteJournal.Entry;
+import database.WriteJournal.Op;
+import domain.logic.item.Item;
+
+class WriteJournalTest {
+
+	@Test
+	void testPendingWritesSurviveReopen(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("writes.journal");
+		try (WriteJournal journal = new WriteJournal(file)) {
+			journal.append(Entry.addItem("Fridge", Item.getInstance("Milk", 2, "12-APR-2030")));
+			journal.append(Entry.updateQuantity("Fridge", "Milk", 1));
+			journal.append(Entry.replaceTag("Milk", "Dairy"));
+		}
+
+		try (WriteJournal journal = new WriteJournal(file)) {
+			List<Entry> pending = journal.pending();
+			assertEquals(3, pending.size());
+			assertEquals(Op.ADD_ITEM, pending.get(0).getOp());
+			assertEquals(Item.getInstance("Milk", 2, "12-APR-2030").getExpiryDate(), pending.get(0).getExpiry());
+			assertEquals(2, pending.get(0).toItem().getQuantity());
+			assertEquals("Fridge", pending.get(1).getContainer());
+			assertEquals(1, pending.get(1).getQuantity());
+			assertEquals("Dairy", pending.get(2).getText());
+			assertEquals(4, journal.append(Entry.addGrocery("Eggs")).getSequence(), "Sequence numbers continue.");
+		}
+	}
+
+	@Test
+	void testAcknowledgedWritesAreNotReplayed(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("writes.journal");
+		try (WriteJournal journal = new WriteJournal(file)) {
+			journal.append(Entry.addGrocery("Eggs"));
+			long second = journal.append(Entry.removeGrocery("Eggs")).getSequence();
+			journal.append(Entry.removeTag("Milk"));
+			journal.acknowledge(second);
+			assertEquals(1, journal.size());
+		}
+
+		try (WriteJournal journal = new WriteJournal(file)) {
+			assertEquals(1, journal.size());
+			assertEquals(Op.REMOVE_TAG, journal.pending().get(0).getOp());
+			journal.acknowledge(journal.pending().get(0).getSequence());
+			assertTrue(journal.isEmpty());
+		}
+		assertEquals(0, Files.size(file), "A drained journal is emptied.");
+	}
+
+	@Test
+	void testTornRecordIsDropped(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("writes.journal");
+		try (WriteJournal journal = new WriteJournal(file)) {
+			journal.append(Entry.insertTag("Rice", "Bulk"));
+			journal.append(Entry.removeItem("Pantry", "Rice"));
+		}
+		long intact = Files.size(file);
+		// A record cut short by a crash
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 40, 1, 2, 3 }));
+		}
+
+		try (WriteJournal journal = new WriteJournal(file)) {
+			assertEquals(2, journal.size());
+			assertEquals(intact, Files.size(file));
+		}
+
+		// A record whose contents do not match its checksum
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file, bytes);
+		try (WriteJournal journal = new WriteJournal(file)) {
+			assertEquals(1, journal.size());
+			assertEquals(Op.INSERT_TAG, journal.pending().get(0).getOp());
+		}
+	}
+}